@@ -0,0 +1,115 @@
+package com.fulfilment.application.monolith.Validation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size Bloom filter of strings. {@link #mightContain} never answers {@code false} for a
+ * value that was {@link #put}; it answers {@code true} for a value that was not with a probability
+ * that stays near the target rate while no more than the expected number of values are put, and
+ * grows beyond it.
+ *
+ * <p>Values can be added concurrently with lookups and with each other; nothing can be removed.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final int expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bits, int hashes, int expectedInsertions) {
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = bits;
+        this.hashes = hashes;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Sizes a filter so that, holding {@code expectedInsertions} values, it answers
+     * {@code mightContain} wrongly for about {@code falsePositiveRate} of the values it does not hold.
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        // m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions minimise the rate for n values
+        double ln2 = Math.log(2);
+        long bits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+        return new BloomFilter(bits, hashes, expectedInsertions);
+    }
+
+    public void put(String value) {
+        insertions.increment();
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(hash1 + i * hash2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(hash1 + i * hash2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashFunctions() {
+        return hashes;
+    }
+
+    public int expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return the number of {@link #put} calls so far, a value put twice counting twice
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    // Kirsch-Mitzenmacher: the k indexes are combinations of two halves of one 64-bit hash
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bits;
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the MurmurHash3 64-bit mixer so both halves
+    // are well spread even for codes that differ in one trailing character
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,14 +1,44 @@
 package com.fulfilment.application.monolith.Validation;
 
 import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitValidator;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Business unit codes in use: the reserved codes below, plus the code of every active warehouse.
+ *
+ * <p>The codes of active warehouses are held in a {@link BloomFilter}, built from the warehouse
+ * table at startup and added to as warehouses are created or take a new code. The create and
+ * replace use cases skip looking up a code the filter has never seen; only codes it might hold
+ * are checked against the stored rows. Once more codes were added than the filter was sized for,
+ * its false-positive rate climbs past the target, so the next code recorded starts a rebuild from
+ * the table in the background, sized for twice the codes found; lookups keep using the current
+ * filter until the rebuilt one replaces it. Codes of archived warehouses stay in the filter until the
+ * next rebuild and are counted as false positives when looked up.
+ *
+ * <p>The filter only sees this node's writes, and a warehouse created while it is being rebuilt
+ * may be missed. A code missed either way is caught by the unique constraint on the active
+ * business unit code when the warehouse is written.
+ */
 @ApplicationScoped
 public class BusinessUnitValidatorImpl implements BusinessUnitValidator {
 
+    private static final Logger LOGGER = Logger.getLogger(BusinessUnitValidatorImpl.class);
+
     // In a real application, this would come from a database or configuration
     private static final Set<String> REGISTERED_BUSINESS_UNITS = new HashSet<>();
 
@@ -21,12 +51,114 @@ public class BusinessUnitValidatorImpl implements BusinessUnitValidator {
         REGISTERED_BUSINESS_UNITS.add("BU-005");
     }
 
+    // Room for twice the codes found at startup, and never less than this, before the rate degrades
+    static final int MIN_EXPECTED_CODES = 1024;
+
+    static final double TARGET_FALSE_POSITIVE_RATE = 0.01;
+
+    private final WarehouseStore warehouseStore;
+    private final Counter unique;
+    private final Counter taken;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter = BloomFilter.create(MIN_EXPECTED_CODES, TARGET_FALSE_POSITIVE_RATE);
+
+    // Claimed by the one background rebuild of the filter
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Inject
+    public BusinessUnitValidatorImpl(WarehouseStore warehouseStore, MeterRegistry meterRegistry) {
+        this.warehouseStore = warehouseStore;
+        this.unique = outcome(meterRegistry, "unique", "Codes the filter proved unique without a query");
+        this.taken = outcome(meterRegistry, "taken", "Codes the filter matched and the database confirmed");
+        this.falsePositives = outcome(meterRegistry, "false-positive",
+                "Codes the filter matched but no active warehouse uses");
+        Gauge.builder("business-units.filter.false-positive-rate", this, BusinessUnitValidatorImpl::falsePositiveRate)
+                .description("Share of unused codes the filter matched, and so had to look up")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("business-units.filter.checks")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Replaces the filter with one holding the code of every active warehouse.
+     */
+    void rebuild() {
+        List<String> codes = new ArrayList<>();
+        warehouseStore.forEachActiveBusinessUnitCode(codes::add);
+        BloomFilter rebuilt = BloomFilter.create(
+                Math.max(MIN_EXPECTED_CODES, 2 * codes.size()), TARGET_FALSE_POSITIVE_RATE);
+        for (String code : codes) {
+            rebuilt.put(code.trim());
+        }
+        filter = rebuilt;
+        LOGGER.infof("Business unit filter built from %d codes: %d bits, %d hash functions",
+                codes.size(), rebuilt.bitSize(), rebuilt.hashFunctions());
+    }
+
     @Override
     public boolean isBusinessUnitCodeUnique(String businessUnitCode) {
         if (businessUnitCode == null || businessUnitCode.trim().isEmpty()) {
             return false;
         }
+        String code = businessUnitCode.trim();
         // Check if the business unit code is not already registered
-        return !REGISTERED_BUSINESS_UNITS.contains(businessUnitCode.trim());
+        return !REGISTERED_BUSINESS_UNITS.contains(code);
+    }
+
+    @Override
+    public boolean mightBeInUse(String businessUnitCode) {
+        if (businessUnitCode == null) {
+            return true;
+        }
+        if (filter.mightContain(businessUnitCode.trim())) {
+            return true;
+        }
+        unique.increment();
+        return false;
+    }
+
+    @Override
+    public void recordLookup(boolean inUse) {
+        (inUse ? taken : falsePositives).increment();
+    }
+
+    @Override
+    public void recordBusinessUnitCode(String businessUnitCode) {
+        if (businessUnitCode == null) {
+            return;
+        }
+        BloomFilter current = filter;
+        current.put(businessUnitCode.trim());
+        if (current.insertions() > current.expectedInsertions() && rebuilding.compareAndSet(false, true)) {
+            // Off the caller's thread, so the scan runs in a transaction of its own and a failing
+            // rebuild cannot roll back the write that recorded the code
+            CompletableFuture.runAsync(() -> {
+                try {
+                    // Another rebuild may have swapped in a new filter since this one was read
+                    if (filter == current) {
+                        rebuild();
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Rebuilding the business unit filter failed, keeping the current one", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    double falsePositiveRate() {
+        double misses = unique.count() + falsePositives.count();
+        return misses == 0 ? 0 : falsePositives.count() / misses;
     }
-}
\ No newline at end of file
+}
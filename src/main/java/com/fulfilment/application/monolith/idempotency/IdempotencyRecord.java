@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The successful response to a request sent with an {@code Idempotency-Key}, kept until it expires
+ * so repeats of the request can be answered with it. While the first request is still running the
+ * record is only a pending claim on the key, without a response.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+  @Id
+  @Column(name = "scoped_key", length = 255)
+  public String scopedKey;
+
+  // SHA-256 of the request body, hex encoded
+  @Column(name = "request_fingerprint", nullable = false, length = 64)
+  public String requestFingerprint;
+
+  @Column(name = "response_status", nullable = false)
+  public int responseStatus;
+
+  @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+  @Column(name = "response_body")
+  public String responseBody;
+
+  @Column(name = "expires_at", nullable = false)
+  public Instant expiresAt;
+
+  @Column(name = "pending", nullable = false)
+  public boolean pending;
+
+  public IdempotencyRecord() {}
+
+  public IdempotencyRecord(String scopedKey, String requestFingerprint, int responseStatus,
+                           String responseBody, Instant expiresAt) {
+    this.scopedKey = scopedKey;
+    this.requestFingerprint = requestFingerprint;
+    this.responseStatus = responseStatus;
+    this.responseBody = responseBody;
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * A claim on the key, taken before the request runs; expires if the request never completes.
+   */
+  static IdempotencyRecord claim(String scopedKey, String requestFingerprint, Instant expiresAt) {
+    IdempotencyRecord record = new IdempotencyRecord(scopedKey, requestFingerprint, 0, null, expiresAt);
+    record.pending = true;
+    return record;
+  }
+
+  boolean isExpiredAt(Instant now) {
+    return !expiresAt.isAfter(now);
+  }
+}
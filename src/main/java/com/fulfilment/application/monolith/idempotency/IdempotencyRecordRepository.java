@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.time.Instant;
+
+@ApplicationScoped
+public class IdempotencyRecordRepository {
+
+  @Inject
+  EntityManager entityManager;
+
+  /**
+   * @return the record, pending or complete, or {@code null} when there is none or it has expired
+   */
+  IdempotencyRecord findLive(String scopedKey, Instant now) {
+    IdempotencyRecord record = entityManager.find(IdempotencyRecord.class, scopedKey);
+    return record == null || record.isExpiredAt(now) ? null : record;
+  }
+
+  /**
+   * Inserts the pending record in its own transaction, replacing an expired one for the same key,
+   * so the claim is visible to every node before the request's work starts. A key another request
+   * holds fails the insert with a {@link jakarta.persistence.PersistenceException}, without marking
+   * the caller's transaction for rollback.
+   */
+  @Transactional(TxType.REQUIRES_NEW)
+  void claim(IdempotencyRecord pending, Instant now) {
+    entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.scopedKey = :scopedKey AND r.expiresAt <= :now")
+            .setParameter("scopedKey", pending.scopedKey)
+            .setParameter("now", now)
+            .executeUpdate();
+    entityManager.persist(pending);
+    entityManager.flush();
+  }
+
+  /**
+   * Stores the response on the pending record in the current transaction, so it becomes replayable
+   * exactly when the request's effects commit.
+   *
+   * @return {@code false} when the claim is no longer pending, i.e. it expired and was taken over
+   */
+  boolean complete(IdempotencyRecord record) {
+    return entityManager.createQuery(
+                    "UPDATE IdempotencyRecord r SET r.pending = false, r.responseStatus = :status, "
+                            + "r.responseBody = :body, r.expiresAt = :expiresAt "
+                            + "WHERE r.scopedKey = :scopedKey AND r.requestFingerprint = :fingerprint AND r.pending = true")
+            .setParameter("status", record.responseStatus)
+            .setParameter("body", record.responseBody)
+            .setParameter("expiresAt", record.expiresAt)
+            .setParameter("scopedKey", record.scopedKey)
+            .setParameter("fingerprint", record.requestFingerprint)
+            .executeUpdate() == 1;
+  }
+
+  /**
+   * Drops a pending claim in its own transaction, so the key is free again whatever happens to the
+   * caller's transaction.
+   */
+  @Transactional(TxType.REQUIRES_NEW)
+  void release(String scopedKey) {
+    entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.scopedKey = :scopedKey AND r.pending = true")
+            .setParameter("scopedKey", scopedKey)
+            .executeUpdate();
+  }
+
+  int deleteExpired(Instant now) {
+    return entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+            .setParameter("now", now)
+            .executeUpdate();
+  }
+}
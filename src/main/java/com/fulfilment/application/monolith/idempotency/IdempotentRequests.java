@@ -0,0 +1,376 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs a creating request at most once per {@code Idempotency-Key} and answers repeats with the
+ * response of the first execution.
+ *
+ * <p>Before the work runs, the key is claimed with a pending row in the {@code idempotency_keys}
+ * table, committed in its own transaction. Successful (2xx) responses are then stored on that row
+ * in the same transaction as the work they describe, so a response is replayable exactly when its
+ * effects were committed. A bounded in-memory LRU in front of the table answers most repeats
+ * without a query. Failed responses are not stored and free the key; repeating such a request runs
+ * it again.
+ *
+ * <p>A repeat that arrives while the first execution is still running on this node waits for it
+ * to complete instead of running in parallel. It waits before its transaction has touched the
+ * database, so waiting holds no pooled connection. On another node it finds the claim and is
+ * refused without running the work. Once the transaction completes without a stored response,
+ * whether it committed or rolled back, the claim is released; only when that release fails too
+ * does the key stay blocked until {@code idempotency.claim-timeout} passes.
+ */
+@ApplicationScoped
+public class IdempotentRequests {
+
+  private static final Logger LOGGER = Logger.getLogger(IdempotentRequests.class);
+
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  static final String CACHE_NAME = "idempotency-responses";
+  static final int MAX_KEY_LENGTH = 200;
+
+  private final IdempotencyRecordRepository repository;
+  private final TransactionSynchronizationRegistry transactionRegistry;
+  private final ObjectMapper objectMapper;
+  private final Duration timeToLive;
+  private final Duration waitTimeout;
+  private final Duration purgeInterval;
+  private final Duration claimTimeout;
+  private final Clock clock;
+  private final Cache<String, StoredResponse> responses;
+  private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicReference<Instant> nextPurge;
+
+  @Inject
+  public IdempotentRequests(IdempotencyRecordRepository repository,
+                            TransactionSynchronizationRegistry transactionRegistry,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @ConfigProperty(name = "idempotency.ttl", defaultValue = "PT24H")
+                            Duration timeToLive,
+                            @ConfigProperty(name = "idempotency.cache.maximum-size", defaultValue = "10000")
+                            long maximumSize,
+                            @ConfigProperty(name = "idempotency.wait-timeout", defaultValue = "PT10S")
+                            Duration waitTimeout,
+                            @ConfigProperty(name = "idempotency.purge-interval", defaultValue = "PT10M")
+                            Duration purgeInterval,
+                            @ConfigProperty(name = "idempotency.claim-timeout", defaultValue = "PT2M")
+                            Duration claimTimeout) {
+    this(repository, transactionRegistry, objectMapper, timeToLive, maximumSize, waitTimeout, purgeInterval,
+            claimTimeout, Clock.systemUTC());
+    CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+  }
+
+  IdempotentRequests(IdempotencyRecordRepository repository,
+                     TransactionSynchronizationRegistry transactionRegistry,
+                     ObjectMapper objectMapper,
+                     Duration timeToLive,
+                     long maximumSize,
+                     Duration waitTimeout,
+                     Duration purgeInterval,
+                     Duration claimTimeout,
+                     Clock clock) {
+    this.repository = repository;
+    this.transactionRegistry = transactionRegistry;
+    this.objectMapper = objectMapper;
+    this.timeToLive = timeToLive;
+    this.waitTimeout = waitTimeout;
+    this.purgeInterval = purgeInterval;
+    this.claimTimeout = claimTimeout;
+    this.clock = clock;
+    this.responses = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+    this.nextPurge = new AtomicReference<>(clock.instant().plus(purgeInterval));
+  }
+
+  /**
+   * Runs {@code work} in the caller's transaction, or replays the stored response of an earlier
+   * execution with the same {@code scope} and {@code idempotencyKey}. Without a key, simply runs
+   * {@code work}.
+   *
+   * @param scope names the endpoint, so the same key sent to two endpoints does not collide
+   * @param request the request body; a key may only be reused for an identical body
+   * @throws IllegalArgumentException when the key is malformed or was used for a different request
+   * @throws IllegalStateException when the first execution is still running after the wait timeout,
+   *     or on another node
+   */
+  public Response execute(String scope, String idempotencyKey, Object request, Supplier<Response> work) {
+    if (idempotencyKey == null) {
+      return work.get();
+    }
+    validateKey(idempotencyKey);
+    if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      throw new IllegalStateException("Idempotent requests require an active transaction");
+    }
+    String scopedKey = scope + " " + idempotencyKey;
+    String fingerprint = fingerprint(request);
+
+    while (true) {
+      StoredResponse cached = cached(scopedKey);
+      if (cached != null) {
+        return replay(cached, fingerprint, idempotencyKey);
+      }
+
+      CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+      CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopedKey, mine);
+      if (running == null) {
+        return executeFirst(scopedKey, idempotencyKey, fingerprint, work, mine);
+      }
+
+      // Nothing above reads the database, so the caller's transaction has no connection yet: with
+      // a small pool, duplicates waiting here would otherwise starve the request they wait for
+      StoredResponse shared = await(running, idempotencyKey);
+      if (shared != null) {
+        return replay(shared, fingerprint, idempotencyKey);
+      }
+      // The first execution failed or rolled back, so nothing was stored; run it again
+    }
+  }
+
+  private Response executeFirst(String scopedKey, String idempotencyKey, String fingerprint,
+                                Supplier<Response> work, CompletableFuture<StoredResponse> mine) {
+    boolean handedOver = false;
+    try {
+      StoredResponse earlier = lookup(scopedKey);
+      if (earlier != null) {
+        return replay(earlier, fingerprint, idempotencyKey);
+      }
+      if (!claim(scopedKey, fingerprint)) {
+        // Another node holds the key; it may have stored its response since the lookup
+        StoredResponse stored = lookup(scopedKey);
+        if (stored != null) {
+          return replay(stored, fingerprint, idempotencyKey);
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is still in progress: " + idempotencyKey);
+      }
+
+      // From here the claim is released, and waiters are let go, when the transaction completes
+      Claim claim = new Claim();
+      publishAfterCompletion(scopedKey, mine, claim);
+      handedOver = true;
+
+      Response response = work.get();
+      if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+        Instant now = clock.instant();
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatus(),
+                serialize(response.getEntity()), now.plus(timeToLive));
+        complete(scopedKey, stored, now, claim);
+      }
+      return response;
+    } finally {
+      if (!handedOver) {
+        inFlight.remove(scopedKey, mine);
+        mine.complete(null);
+      }
+    }
+  }
+
+  /**
+   * @return {@code false} when a live record, pending or complete, already holds the key
+   */
+  private boolean claim(String scopedKey, String fingerprint) {
+    Instant now = clock.instant();
+    try {
+      repository.claim(IdempotencyRecord.claim(scopedKey, fingerprint, now.plus(claimTimeout)), now);
+      return true;
+    } catch (PersistenceException e) {
+      return false;
+    }
+  }
+
+  private void complete(String scopedKey, StoredResponse stored, Instant now, Claim claim) {
+    if (!repository.complete(new IdempotencyRecord(scopedKey, stored.fingerprint, stored.status, stored.body,
+            stored.expiresAt))) {
+      // The claim expired while the work ran and another request took the key over; the pending
+      // row is now theirs, so it is not released
+      claim.held = false;
+      transactionRegistry.setRollbackOnly();
+      throw new IllegalStateException("A request with this Idempotency-Key was processed concurrently, "
+              + "retry to receive its response");
+    }
+    claim.response = stored;
+    purgeExpiredIfDue(now);
+  }
+
+  /**
+   * Waiters and later repeats only see the response once the transaction has committed. Otherwise,
+   * when the work failed, answered with an error or rolled back, the claim is released first, and
+   * waiters are then let go empty-handed to run the request themselves.
+   */
+  private void publishAfterCompletion(String scopedKey, CompletableFuture<StoredResponse> mine, Claim claim) {
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        StoredResponse stored = status == Status.STATUS_COMMITTED ? claim.response : null;
+        try {
+          if (stored != null) {
+            responses.put(scopedKey, stored);
+          } else if (claim.held) {
+            release(scopedKey);
+          }
+        } finally {
+          inFlight.remove(scopedKey, mine);
+          mine.complete(stored);
+        }
+      }
+    });
+  }
+
+  // Runs after the caller's transaction, in one of its own
+  private void release(String scopedKey) {
+    try {
+      repository.release(scopedKey);
+    } catch (RuntimeException e) {
+      LOGGER.warnf(e, "Could not release Idempotency-Key claim %s; it expires after the claim timeout", scopedKey);
+    }
+  }
+
+  // Only this node's memory; never touches the database
+  private StoredResponse cached(String scopedKey) {
+    StoredResponse cached = responses.getIfPresent(scopedKey);
+    return cached != null && cached.expiresAt.isAfter(clock.instant()) ? cached : null;
+  }
+
+  private StoredResponse lookup(String scopedKey) {
+    StoredResponse cached = cached(scopedKey);
+    if (cached != null) {
+      return cached;
+    }
+    Instant now = clock.instant();
+    IdempotencyRecord record = repository.findLive(scopedKey, now);
+    if (record == null || record.pending) {
+      return null;
+    }
+    StoredResponse stored = new StoredResponse(record.requestFingerprint, record.responseStatus,
+            record.responseBody, record.expiresAt);
+    responses.put(scopedKey, stored);
+    return stored;
+  }
+
+  private StoredResponse await(CompletableFuture<StoredResponse> running, String idempotencyKey) {
+    try {
+      return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for request with Idempotency-Key: " + idempotencyKey);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("A request with this Idempotency-Key is still in progress: " + idempotencyKey);
+    } catch (ExecutionException e) {
+      // Futures are only ever completed normally
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private Response replay(StoredResponse stored, String fingerprint, String idempotencyKey) {
+    if (!stored.fingerprint.equals(fingerprint)) {
+      throw new IllegalArgumentException("Idempotency-Key was already used for a different request: " + idempotencyKey);
+    }
+    return Response.status(stored.status)
+            .entity(stored.body)
+            .type(MediaType.APPLICATION_JSON_TYPE)
+            .header(REPLAYED_HEADER, "true")
+            .build();
+  }
+
+  private void purgeExpiredIfDue(Instant now) {
+    Instant due = nextPurge.get();
+    // Only the caller that moves the deadline purges, so nodes under load do not purge in a loop
+    if (now.isAfter(due) && nextPurge.compareAndSet(due, now.plus(purgeInterval))) {
+      repository.deleteExpired(now);
+    }
+  }
+
+  private static void validateKey(String idempotencyKey) {
+    if (idempotencyKey.trim().isEmpty()) {
+      throw new IllegalArgumentException("Idempotency-Key cannot be empty");
+    }
+    if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Idempotency-Key cannot be longer than " + MAX_KEY_LENGTH + " characters");
+    }
+  }
+
+  private String fingerprint(Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Could not fingerprint request", e);
+    }
+  }
+
+  private String serialize(Object entity) {
+    try {
+      return entity == null ? null : new String(objectMapper.writeValueAsBytes(entity), StandardCharsets.UTF_8);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not store response for replay", e);
+    }
+  }
+
+  Cache<String, StoredResponse> responses() {
+    return responses;
+  }
+
+  /**
+   * What the transaction completion needs to know about a claim. Written by the request's thread,
+   * read by whichever thread completes the transaction.
+   */
+  private static final class Claim {
+    // Set once the response is stored on the claim, which then must not be released
+    private volatile StoredResponse response;
+    // Cleared when another request took the expired claim over
+    private volatile boolean held = true;
+  }
+
+  static final class StoredResponse {
+    private final String fingerprint;
+    private final int status;
+    private final String body;
+    private final Instant expiresAt;
+
+    StoredResponse(String fingerprint, int status, String body, Instant expiresAt) {
+      this.fingerprint = fingerprint;
+      this.status = status;
+      this.body = body;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a location file: one location per line as
+ * {@code identification,maxNumberOfWarehouses,maxCapacity[,maxTotalCapacity]}. Blank lines, lines
+ * starting with {@code #} and a header line starting with {@code identification} are skipped.
+ *
+ * <p>The file is memory-mapped and parsed straight from the mapped bytes: numbers are decoded in
+ * place and only the identifiers become strings, so the heap holds the resulting locations but
+ * never a copy of the file or its lines.
+ */
+final class LocationFileParser {
+
+    private static final byte[] HEADER = "identification".getBytes(StandardCharsets.US_ASCII);
+
+    private LocationFileParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the line, when a line is malformed
+     */
+    static List<Location> parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Location file is larger than 2 GB: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(buffer, (int) size);
+        }
+    }
+
+    private static List<Location> parse(MappedByteBuffer buffer, int size) {
+        List<Location> locations = new ArrayList<>();
+        byte[] identifier = new byte[64];
+        int position = 0;
+        int lineNumber = 0;
+        while (position < size) {
+            lineNumber++;
+            int end = position;
+            while (end < size && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > position && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (!skipped(buffer, position, end, lineNumber)) {
+                locations.add(parseLine(buffer, position, end, lineNumber, identifier));
+            }
+            position = next;
+        }
+        return locations;
+    }
+
+    private static boolean skipped(MappedByteBuffer buffer, int start, int end, int lineNumber) {
+        if (start == end || buffer.get(start) == '#') {
+            return true;
+        }
+        if (lineNumber != 1 || end - start < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (Character.toLowerCase(buffer.get(start + i)) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Location parseLine(MappedByteBuffer buffer, int start, int end, int lineNumber,
+                                      byte[] identifierScratch) {
+        int firstComma = indexOf(buffer, ',', start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, ',', firstComma + 1, end);
+        int thirdComma = secondComma < 0 ? -1 : indexOf(buffer, ',', secondComma + 1, end);
+        if (secondComma < 0 || (thirdComma >= 0 && indexOf(buffer, ',', thirdComma + 1, end) >= 0)) {
+            throw malformed(lineNumber, "expected 3 or 4 comma-separated fields");
+        }
+
+        int identifierLength = firstComma - start;
+        byte[] identifier = identifierLength <= identifierScratch.length
+                ? identifierScratch : new byte[identifierLength];
+        buffer.get(start, identifier, 0, identifierLength);
+
+        int maxNumberOfWarehouses = parseInt(buffer, firstComma + 1, secondComma, lineNumber);
+        int maxCapacity = parseInt(buffer, secondComma + 1, thirdComma < 0 ? end : thirdComma, lineNumber);
+        int maxTotalCapacity = thirdComma < 0 ? 0 : parseInt(buffer, thirdComma + 1, end, lineNumber);
+        try {
+            return Location.builder()
+                    .identification(new String(identifier, 0, identifierLength, StandardCharsets.UTF_8).trim())
+                    .maxNumberOfWarehouses(maxNumberOfWarehouses)
+                    .maxCapacity(maxCapacity)
+                    .maxTotalCapacity(maxTotalCapacity)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw malformed(lineNumber, e.getMessage());
+        }
+    }
+
+    private static int parseInt(MappedByteBuffer buffer, int start, int end, int lineNumber) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            throw malformed(lineNumber, "missing number");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte digit = buffer.get(i);
+            if (digit < '0' || digit > '9') {
+                throw malformed(lineNumber, "not a non-negative number");
+            }
+            value = value * 10 + (digit - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw malformed(lineNumber, "number too large");
+            }
+        }
+        return (int) value;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, char character, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == character) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static IllegalArgumentException malformed(int lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid location on line " + lineNumber + ": " + reason);
+    }
+}
@@ -3,34 +3,34 @@ package com.fulfilment.application.monolith.location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
+import jakarta.inject.Inject;
 import java.util.List;
 
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-    private static final List<Location> locations = new ArrayList<>();
+    private final LocationRegistry registry;
 
-    static {
-        locations.add(new Location("ZWOLLE-001", 1, 40));
-        locations.add(new Location("ZWOLLE-002", 2, 50));
-        locations.add(new Location("AMSTERDAM-001", 5, 100));
-        locations.add(new Location("AMSTERDAM-002", 3, 75));
-        locations.add(new Location("TILBURG-001", 1, 40));
-        locations.add(new Location("HELMOND-001", 1, 45));
-        locations.add(new Location("EINDHOVEN-001", 2, 70));
-        locations.add(new Location("VETSBY-001", 1, 90));
+    @Inject
+    public LocationGateway(LocationRegistry registry) {
+        this.registry = registry;
     }
 
     @Override
     public Location resolveByIdentifier(String identifier) {
-        return locations.stream()
-                .filter(location -> location.getIdentification().equals(identifier))
-                .findFirst()
-                .orElse(null);
+        return registry.snapshot().byIdentifier(identifier);
     }
 
-    public static List<Location> getAllLocations() {
-        return new ArrayList<>(locations);
+    @Override
+    public List<Location> resolveByIdentifierPrefix(String prefix) {
+        return registry.snapshot().byIdentifierPrefix(prefix);
+    }
+
+    /**
+     * @return every location of the current registry, in file order, without copying; the list
+     *         cannot be modified
+     */
+    public List<Location> getAllLocations() {
+        return registry.snapshot().all();
     }
-}
\ No newline at end of file
+}
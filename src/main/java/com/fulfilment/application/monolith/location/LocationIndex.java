@@ -0,0 +1,135 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable snapshot of the known locations, densely indexed: every location gets a small int
+ * id, and its limits sit at that id in primitive arrays. One hash lookup of the code yields the id,
+ * and every limit is then an array read; both the resolver and the placement index read the
+ * same arrays, so they cannot disagree.
+ *
+ * <p>Ids follow the sorted order of the identifiers, so the locations sharing a prefix (all
+ * {@code AMSTERDAM-*} sites) have consecutive ids, found by binary search: O(log n + k) for k
+ * results. Ids are only meaningful within one snapshot.
+ *
+ * <p>When two locations share an identifier the first one wins, as it did for the linear scan.
+ */
+public final class LocationIndex {
+
+    private final List<Location> locations;
+    private final Map<String, Integer> ids;
+    private final String[] identifiers;
+    private final Location[] locationsById;
+    private final int[] maxWarehouses;
+    private final int[] maxWarehouseCapacity;
+    private final int[] maxTotalCapacity;
+
+    LocationIndex(Collection<Location> locations) {
+        Map<String, Location> unique = new LinkedHashMap<>();
+        for (Location location : locations) {
+            unique.putIfAbsent(location.getIdentification(), location);
+        }
+        this.locations = List.copyOf(locations);
+
+        this.locationsById = unique.values().toArray(new Location[0]);
+        Arrays.sort(locationsById, Comparator.comparing(Location::getIdentification));
+
+        int size = locationsById.length;
+        this.ids = new HashMap<>(size * 4 / 3 + 1);
+        this.identifiers = new String[size];
+        this.maxWarehouses = new int[size];
+        this.maxWarehouseCapacity = new int[size];
+        this.maxTotalCapacity = new int[size];
+        for (int id = 0; id < size; id++) {
+            Location location = locationsById[id];
+            ids.put(location.getIdentification(), id);
+            identifiers[id] = location.getIdentification();
+            maxWarehouses[id] = location.getMaxNumberOfWarehouses();
+            maxWarehouseCapacity[id] = location.getMaxCapacity();
+            maxTotalCapacity[id] = location.totalCapacityLimit();
+        }
+    }
+
+    /**
+     * @return the id of the location, or {@code -1} when none has the identifier
+     */
+    public int idOf(String identifier) {
+        if (identifier == null) {
+            return -1;
+        }
+        Integer id = ids.get(identifier);
+        return id == null ? -1 : id;
+    }
+
+    public Location location(int id) {
+        return locationsById[id];
+    }
+
+    public int maxWarehouses(int id) {
+        return maxWarehouses[id];
+    }
+
+    /**
+     * @return the largest capacity one warehouse at the location may have
+     */
+    public int maxWarehouseCapacity(int id) {
+        return maxWarehouseCapacity[id];
+    }
+
+    /**
+     * @return the capacity all warehouses at the location may have together
+     */
+    public int maxTotalCapacity(int id) {
+        return maxTotalCapacity[id];
+    }
+
+    /**
+     * @return every location, in the order given; the list cannot be modified
+     */
+    public List<Location> all() {
+        return locations;
+    }
+
+    /**
+     * @return the location, or {@code null} when none has the identifier
+     */
+    public Location byIdentifier(String identifier) {
+        int id = idOf(identifier);
+        return id < 0 ? null : locationsById[id];
+    }
+
+    /**
+     * @return the locations whose identifier starts with {@code prefix}, sorted by identifier;
+     *         empty for a {@code null} prefix
+     */
+    public List<Location> byIdentifierPrefix(String prefix) {
+        if (prefix == null) {
+            return Collections.emptyList();
+        }
+        int from = Arrays.binarySearch(identifiers, prefix);
+        if (from < 0) {
+            // Not an identifier itself: start at its insertion point
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < identifiers.length && identifiers[to].startsWith(prefix)) {
+            to++;
+        }
+        return Collections.unmodifiableList(Arrays.asList(locationsById).subList(from, to));
+    }
+
+    /**
+     * @return the number of distinct locations; ids run from 0 to {@code size() - 1}
+     */
+    public int size() {
+        return locationsById.length;
+    }
+}
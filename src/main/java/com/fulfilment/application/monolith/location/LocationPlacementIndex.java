@@ -0,0 +1,375 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationPlacement;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Free warehouse slots and remaining capacity of every known location, kept in memory and sorted
+ * by remaining capacity (largest first), so a placement query walks the locations that can still
+ * fit a warehouse and stops at the first that cannot.
+ *
+ * <p>The usage of each location is loaded from the location aggregates at startup and then moved
+ * by the deltas of every committed create, replace and archive on this node. Writes on other nodes
+ * only show after the next full reload, at most {@code warehouse.placement.refresh-interval} later.
+ * Limits come from the {@link LocationRegistry}; a newly published registry snapshot re-sorts the
+ * index on the next query.
+ *
+ * <p>A reload must neither lose nor repeat a delta. Each change is bracketed by
+ * {@link #beginCommit()} before its transaction commits and {@link #endCommit()} once its deltas
+ * are applied. A change that ended before the aggregates were read is in what was read; one that
+ * began after the read returned is not, and its deltas are replayed onto it. When a change was
+ * committing while the aggregates were read, it cannot be told which side it fell on: the read is
+ * dropped and retried, a few times. Under steady write traffic every attempt may be dropped, so the
+ * last one holds commits back instead: new changes wait in {@link #beginCommit()}, the ones already
+ * committing are waited for, and the aggregates are read with none in flight. Changes only wait
+ * for that one read, once per refresh interval, and a reload always lands.
+ *
+ * <p>Answers are advice: a create re-checks every limit against the stored rows.
+ */
+@ApplicationScoped
+public class LocationPlacementIndex {
+
+    // Most remaining capacity first; the identifier keeps entries with equal capacity apart
+    private static final Comparator<LocationPlacement> BY_REMAINING_CAPACITY =
+            Comparator.comparingLong(LocationPlacement::getRemainingCapacity).reversed()
+                    .thenComparing(LocationPlacement::getLocationIdentifier);
+
+    private final LocationRegistry registry;
+    private final LocationStatsStore locationStatsStore;
+    private final Duration refreshInterval;
+
+    // location -> {active warehouses, total capacity}
+    private final Map<String, long[]> usage = new HashMap<>();
+    private final Map<String, LocationPlacement> placements = new HashMap<>();
+    private final NavigableSet<LocationPlacement> byRemainingCapacity = new TreeSet<>(BY_REMAINING_CAPACITY);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The registry snapshot the placements were computed against
+    private volatile LocationIndex limits;
+    private volatile Instant loadedAt = Instant.EPOCH;
+
+    // Reads dropped because a change was committing before the reload holds commits back
+    static final int OPTIMISTIC_RELOAD_ATTEMPTS = 3;
+
+    // Claimed by the one thread running a reload; the others keep answering from the current usage
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicInteger commitsInFlight = new AtomicInteger();
+    private final AtomicLong commitsBegun = new AtomicLong();
+    // Set while a reload holds commits back; waited on, and notified, under commitGate
+    private volatile boolean commitsHeld;
+    private final Object commitGate = new Object();
+    // Deltas applied while a reload is reading, replayed onto what it read; guarded by the lock
+    private List<Delta> appliedDuringReload;
+
+    Clock clock = Clock.systemUTC();
+    // How long a reload holding commits back waits for the ones already committing
+    Duration commitDrainTimeout = Duration.ofSeconds(5);
+
+    @Inject
+    public LocationPlacementIndex(LocationRegistry registry,
+                                  LocationStatsStore locationStatsStore,
+                                  @ConfigProperty(name = "warehouse.placement.refresh-interval", defaultValue = "PT1M")
+                                  Duration refreshInterval) {
+        this.registry = registry;
+        this.locationStatsStore = locationStatsStore;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // After the location aggregates are seeded at startup
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent event) {
+        reload();
+    }
+
+    /**
+     * Replaces the usage of every location with the stored aggregates, unless another reload is
+     * running. The read is retried while changes commit during it, and the last attempt holds
+     * commits back (see the class comment).
+     *
+     * @return whether the stored aggregates were taken; {@code false} when another reload is
+     *         running, or the changes committing did not finish within the drain timeout
+     */
+    public boolean reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            for (int attempt = 0; attempt < OPTIMISTIC_RELOAD_ATTEMPTS; attempt++) {
+                if (tryReload()) {
+                    return true;
+                }
+            }
+            return reloadHoldingCommits();
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    // One read, dropped when a change was committing before or during it
+    private boolean tryReload() {
+        // Begun is read before in-flight: a change beginning in between shows in the begun count
+        long begunBeforeRead = commitsBegun.get();
+        lock.writeLock().lock();
+        try {
+            if (commitsInFlight.get() > 0) {
+                return false;
+            }
+            appliedDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return read(begunBeforeRead);
+    }
+
+    private boolean reloadHoldingCommits() {
+        commitsHeld = true;
+        try {
+            // Only a change that stopped waiting when interrupted can begin now; it drops the read
+            return awaitNoCommitInFlight() && tryReload();
+        } finally {
+            synchronized (commitGate) {
+                commitsHeld = false;
+                commitGate.notifyAll();
+            }
+        }
+    }
+
+    private boolean awaitNoCommitInFlight() {
+        long deadline = System.nanoTime() + commitDrainTimeout.toNanos();
+        synchronized (commitGate) {
+            while (commitsInFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(commitGate, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean read(long begunBeforeRead) {
+        List<LocationUsage> stored = null;
+        try {
+            stored = locationStatsStore.findAllUsage();
+            if (commitsBegun.get() != begunBeforeRead) {
+                // A change began committing during the read; it may or may not be in it
+                stored = null;
+            }
+        } finally {
+            // Also stops recording deltas when the read fails
+            swapIn(stored);
+        }
+        return stored != null;
+    }
+
+    // Takes the read usage (null to drop it) plus the deltas applied since, and stops recording them
+    private void swapIn(List<LocationUsage> stored) {
+        lock.writeLock().lock();
+        try {
+            List<Delta> applied = appliedDuringReload;
+            appliedDuringReload = null;
+            if (stored == null) {
+                return;
+            }
+            usage.clear();
+            for (LocationUsage location : stored) {
+                usage.put(location.getLocationIdentifier(),
+                        new long[] {location.getActiveWarehouses(), location.getTotalCapacity()});
+            }
+            // Only changes begun after the read are here, and the read did not see them
+            for (Delta delta : applied) {
+                add(delta.locationIdentifier, delta.warehouses, delta.capacity);
+            }
+            rebuild(registry.snapshot());
+            loadedAt = clock.instant();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks a change to the location aggregates as about to commit. Every call is followed by
+     * {@link #endCommit()}, whether or not the change commits.
+     */
+    public void beginCommit() {
+        // In flight before the gate is checked, so a reload closing the gate either sees this
+        // change and waits for it, or is seen here and waited for
+        while (true) {
+            commitsInFlight.incrementAndGet();
+            if (!commitsHeld) {
+                break;
+            }
+            endCommit();
+            if (!awaitCommitsReleased()) {
+                commitsInFlight.incrementAndGet();
+                break;
+            }
+        }
+        commitsBegun.incrementAndGet();
+    }
+
+    // False when interrupted: the change then goes ahead, and the reload drops its read
+    private boolean awaitCommitsReleased() {
+        synchronized (commitGate) {
+            while (commitsHeld) {
+                try {
+                    commitGate.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks a change begun with {@link #beginCommit()} as finished: its deltas, if it committed,
+     * are applied.
+     */
+    public void endCommit() {
+        if (commitsInFlight.decrementAndGet() == 0 && commitsHeld) {
+            synchronized (commitGate) {
+                commitGate.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Moves the usage of a location by a committed change.
+     */
+    public void apply(String locationIdentifier, int warehouses, long capacity) {
+        lock.writeLock().lock();
+        try {
+            add(locationIdentifier, warehouses, capacity);
+            if (appliedDuringReload != null) {
+                appliedDuringReload.add(new Delta(locationIdentifier, warehouses, capacity));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return every location that can take a new warehouse of {@code capacity} holding
+     *         {@code stock}, most remaining capacity first; none when the stock exceeds the capacity,
+     *         as no such warehouse can be created
+     */
+    public List<LocationPlacement> placementsFor(int capacity, int stock) {
+        if (stock > capacity) {
+            return List.of();
+        }
+        if (clock.instant().isAfter(loadedAt.plus(refreshInterval))) {
+            // Runs only on the thread that claims it; a dropped reload is retried on the next query
+            reload();
+        }
+        LocationIndex current = registry.snapshot();
+        if (current != limits) {
+            lock.writeLock().lock();
+            try {
+                rebuild(current);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<LocationPlacement> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (LocationPlacement placement : byRemainingCapacity) {
+                if (placement.getRemainingCapacity() < capacity) {
+                    // Every location after this one has even less left
+                    break;
+                }
+                if (placement.canHost(capacity)) {
+                    result.add(placement);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Callers hold the write lock
+    private void add(String locationIdentifier, int warehouses, long capacity) {
+        long[] current = usage.computeIfAbsent(locationIdentifier, location -> new long[2]);
+        current[0] += warehouses;
+        current[1] += capacity;
+        if (limits != null) {
+            place(locationIdentifier);
+        }
+    }
+
+    // Callers hold the write lock
+    private void rebuild(LocationIndex snapshot) {
+        limits = snapshot;
+        placements.clear();
+        byRemainingCapacity.clear();
+        for (int id = 0; id < snapshot.size(); id++) {
+            place(snapshot.location(id).getIdentification());
+        }
+    }
+
+    // Callers hold the write lock
+    private void place(String locationIdentifier) {
+        LocationPlacement previous = placements.remove(locationIdentifier);
+        if (previous != null) {
+            byRemainingCapacity.remove(previous);
+        }
+        int id = limits.idOf(locationIdentifier);
+        if (id < 0) {
+            // Not a known location; its usage is kept in case a later registry snapshot adds it
+            return;
+        }
+        long[] used = usage.getOrDefault(locationIdentifier, new long[2]);
+        LocationPlacement placement = new LocationPlacement(
+                locationIdentifier,
+                (int) Math.max(0, limits.maxWarehouses(id) - used[0]),
+                Math.max(0, limits.maxTotalCapacity(id) - used[1]),
+                limits.maxWarehouseCapacity(id));
+        placements.put(locationIdentifier, placement);
+        byRemainingCapacity.add(placement);
+    }
+
+    private static final class Delta {
+        private final String locationIdentifier;
+        private final int warehouses;
+        private final long capacity;
+
+        Delta(String locationIdentifier, int warehouses, long capacity) {
+            this.locationIdentifier = locationIdentifier;
+            this.warehouses = warehouses;
+            this.capacity = capacity;
+        }
+    }
+}
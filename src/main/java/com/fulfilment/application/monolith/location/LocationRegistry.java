@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * The known locations, published as an immutable {@link LocationIndex} snapshot behind one
+ * volatile reference.
+ *
+ * <p>With {@code warehouse.locations.file} set, the locations come from that file (see
+ * {@link LocationFileParser} for the format) and a watcher thread reloads it when it changes. A
+ * reload parses into a new snapshot and swaps the reference only once it is complete, so readers
+ * never block and never see a half-loaded registry. A file that fails to parse is logged and
+ * counted, and the previous snapshot stays in place. Replace the file by moving a complete file
+ * into place; a reload that races an in-place write can see it half written.
+ *
+ * <p>Without a file, the built-in locations are used.
+ *
+ * <p>This is the only source of location limits: {@code LocationGateway} and
+ * {@code LocationPlacementIndex} both read the current snapshot.
+ */
+@ApplicationScoped
+public class LocationRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(LocationRegistry.class);
+
+    // identification, max warehouses, max capacity per warehouse, max capacity of all warehouses
+    static final List<Location> BUILT_IN = List.of(
+            new Location("ZWOLLE-001", 1, 40, 500),
+            new Location("ZWOLLE-002", 2, 50, 500),
+            new Location("AMSTERDAM-001", 5, 100, 1000),
+            new Location("AMSTERDAM-002", 3, 75, 800),
+            new Location("TILBURG-001", 1, 40, 300),
+            new Location("HELMOND-001", 1, 45, 300),
+            new Location("EINDHOVEN-001", 2, 70, 500),
+            new Location("VETSBY-001", 1, 90, 200));
+
+    // Editors and copies write a file in several steps; wait for the events to settle
+    static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final Timer reloadTimer;
+    private final Counter reloadFailures;
+
+    private volatile LocationIndex snapshot = new LocationIndex(BUILT_IN);
+    private volatile long fileBytes;
+    private WatchService watchService;
+
+    @Inject
+    public LocationRegistry(MeterRegistry meterRegistry,
+                            @ConfigProperty(name = "warehouse.locations.file") Optional<Path> file) {
+        this(file.orElse(null), meterRegistry);
+    }
+
+    LocationRegistry(Path file, MeterRegistry meterRegistry) {
+        this.file = file;
+        this.reloadTimer = Timer.builder("locations.registry.reload")
+                .description("Time to parse the location file and publish it")
+                .register(meterRegistry);
+        this.reloadFailures = Counter.builder("locations.registry.reload.failures")
+                .description("Location files that could not be loaded")
+                .register(meterRegistry);
+        Gauge.builder("locations.registry.size", this, registry -> registry.snapshot.size())
+                .description("Locations in the published registry")
+                .register(meterRegistry);
+        Gauge.builder("locations.registry.file.bytes", this, registry -> registry.fileBytes)
+                .description("Size of the location file last loaded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the current snapshot; hold on to it for lookups that must agree with each other
+     */
+    public LocationIndex snapshot() {
+        return snapshot;
+    }
+
+    void start(@Observes StartupEvent event) throws IOException {
+        if (file == null) {
+            return;
+        }
+        if (!reload()) {
+            throw new IllegalStateException("Could not load locations from " + file);
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        file.toAbsolutePath().getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(this::watch, "location-registry-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    void stop(@Observes ShutdownEvent event) throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Parses the file into a new snapshot and publishes it.
+     *
+     * @return whether the file was loaded; otherwise the previous snapshot stays published
+     */
+    boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            long bytes = Files.size(file);
+            LocationIndex loaded = new LocationIndex(LocationFileParser.parse(file));
+            snapshot = loaded;
+            fileBytes = bytes;
+            long elapsed = System.nanoTime() - started;
+            reloadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            LOGGER.infof("Loaded %d locations (%d bytes) from %s in %d ms", loaded.size(), bytes, file,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            LOGGER.errorf(e, "Could not load locations from %s, keeping the %d loaded before", file, snapshot.size());
+            return false;
+        }
+    }
+
+    private void watch() {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                boolean changed = drain(watchService.take(), fileName);
+                if (!changed) {
+                    continue;
+                }
+                WatchKey more;
+                while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    drain(more, fileName);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // OVERFLOW has no context: events were lost, so reload to be safe
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+}
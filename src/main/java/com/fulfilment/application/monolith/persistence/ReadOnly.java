@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.persistence;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method (or every method of a bean) that only reads. Called outside a transaction, it
+ * runs in a read-only transaction of its own (see {@link ReadOnlyInterceptor}); called from
+ * within a transaction, it simply joins it.
+ *
+ * <p>The marker is also where read traffic can later be routed to a replica.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
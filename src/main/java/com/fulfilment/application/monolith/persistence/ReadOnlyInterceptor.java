@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.persistence;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * Runs {@link ReadOnly} methods in a transaction that cannot write:
+ *
+ * <ul>
+ *   <li>the session never flushes ({@link FlushMode#MANUAL}), so queries are not preceded by a
+ *       dirty check of everything loaded so far, and nothing is checked at commit;
+ *   <li>entities are loaded read-only, without the snapshot copy Hibernate otherwise keeps of
+ *       every loaded entity to detect changes;
+ *   <li>on PostgreSQL the database transaction itself is {@code READ ONLY}, so a write is rejected
+ *       by the database rather than silently dropped.
+ * </ul>
+ *
+ * <p>Runs before the {@code @Transactional} interceptor, so it starts the transaction a
+ * {@code @Transactional} read joins. Inside a transaction somebody else started, which may write,
+ * it changes nothing.
+ */
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 199)
+public class ReadOnlyInterceptor {
+
+  private static final String POSTGRESQL = "PostgreSQL";
+
+  @Inject
+  EntityManager entityManager;
+
+  @AroundInvoke
+  Object runReadOnly(InvocationContext context) throws Exception {
+    if (transactionActive()) {
+      return context.proceed();
+    }
+    return inNewTransaction(() -> {
+      Session session = entityManager.unwrap(Session.class);
+      session.setHibernateFlushMode(FlushMode.MANUAL);
+      session.setDefaultReadOnly(true);
+      session.doWork(ReadOnlyInterceptor::markTransactionReadOnly);
+      return context.proceed();
+    });
+  }
+
+  boolean transactionActive() {
+    return QuarkusTransaction.isActive();
+  }
+
+  <T> T inNewTransaction(Callable<T> work) {
+    return QuarkusTransaction.requiringNew().call(work);
+  }
+
+  /**
+   * Must be the first statement of the transaction. Unlike {@link Connection#setReadOnly}, it ends
+   * with the transaction, so the pooled connection is handed back writable.
+   */
+  static void markTransactionReadOnly(Connection connection) throws SQLException {
+    if (!POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())) {
+      return;
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("SET TRANSACTION READ ONLY");
+    }
+  }
+}
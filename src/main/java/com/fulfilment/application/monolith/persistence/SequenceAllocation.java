@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.persistence;
+
+/**
+ * Identifier allocation shared by every sequence-generated entity.
+ *
+ * <p>Each call to a sequence reserves {@link #SIZE} ids, so a node inserting a batch of rows asks
+ * the database for an id once per {@code SIZE} rows instead of once per row. Ids are handed out
+ * with Hibernate's {@code pooled-lo} optimizer ({@code hibernate.id.optimizer.pooled.preferred} in
+ * {@code application.properties}): the sequence value is the lowest id of the reserved block. Rows
+ * inserted outside Hibernate (such as {@code import.sql}) can therefore restart a sequence at the
+ * next free id without colliding with blocks handed out later.
+ *
+ * <p>The size is also the {@code INCREMENT BY} of every sequence, so changing it requires altering
+ * the sequences of an existing database; that is why it is a constant rather than a runtime
+ * setting. Keep it equal to {@code quarkus.hibernate-orm.jdbc.statement-batch-size}, so one
+ * allocation covers one JDBC batch.
+ */
+public final class SequenceAllocation {
+
+  public static final int SIZE = 50;
+
+  private SequenceAllocation() {
+  }
+}
@@ -1,17 +1,23 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import java.math.BigDecimal;
 
 @Entity
 @Cacheable
 public class Product {
 
-  @Id @GeneratedValue public Long id;
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+  @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = SequenceAllocation.SIZE)
+  public Long id;
 
   @Column(length = 40, unique = true)
   public String name;
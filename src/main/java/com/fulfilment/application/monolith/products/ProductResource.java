@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.persistence.ReadOnly;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -31,12 +32,14 @@ public class ProductResource {
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
   @GET
+  @ReadOnly
   public List<Product> get() {
     return productRepository.listAll(Sort.by("name"));
   }
 
   @GET
   @Path("{id}")
+  @ReadOnly
   public Product getSingle(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
@@ -1,16 +1,21 @@
 // Store.java (if not exists)
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 @Entity
 public class Store {
 
+  // A sequence rather than IDENTITY: with IDENTITY the id is only known after each INSERT runs,
+  // which rules out JDBC batching for stores entirely
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "store_seq")
+  @SequenceGenerator(name = "store_seq", sequenceName = "store_seq", allocationSize = SequenceAllocation.SIZE)
   private Long id;
 
   public String name;
@@ -1,10 +1,13 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.idempotency.IdempotentRequests;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
@@ -19,29 +22,36 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class StoreResource {
 
+  static final String CREATE_SCOPE = "POST /stores";
+
   @Inject
   LegacyStoreManagerGateway legacyStoreManagerGateway;
 
   @Inject
   EntityManager entityManager;
 
+  @Inject
+  IdempotentRequests idempotentRequests;
+
+  @Inject
+  TransactionSynchronizationRegistry transactionRegistry;
+
   @POST
   @Transactional
-  public Response createStore(Store store) {
+  public Response createStore(@HeaderParam(IdempotentRequests.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                              Store store) {
     try {
-      // Persist the store to database
-      entityManager.persist(store);
-
-      // Flush to ensure the data is written to database
-      entityManager.flush();
-
-      // Now that transaction is committed, call the legacy system
-      legacyStoreManagerGateway.createStoreOnLegacySystem(store);
-
-      return Response.status(Response.Status.CREATED).entity(store).build();
-
+      // A retried request replays the first response instead of creating (and publishing) another store
+      return idempotentRequests.execute(CREATE_SCOPE, idempotencyKey, store, () -> persistAndPublish(store));
+    } catch (IllegalStateException e) {
+      return Response.status(Response.Status.CONFLICT)
+              .entity("Error creating store: " + e.getMessage())
+              .build();
+    } catch (IllegalArgumentException e) {
+      return Response.status(Response.Status.BAD_REQUEST)
+              .entity("Error creating store: " + e.getMessage())
+              .build();
     } catch (Exception e) {
-      // Transaction will be rolled back automatically
       return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
               .entity("Error creating store: " + e.getMessage())
               .build();
@@ -80,4 +90,26 @@ public class StoreResource {
               .build();
     }
   }
-}
\ No newline at end of file
+
+  private Response persistAndPublish(Store store) {
+    try {
+      // Persist the store to database
+      entityManager.persist(store);
+
+      // Flush to ensure the data is written to database
+      entityManager.flush();
+
+      // Now that transaction is committed, call the legacy system
+      legacyStoreManagerGateway.createStoreOnLegacySystem(store);
+
+      return Response.status(Response.Status.CREATED).entity(store).build();
+
+    } catch (Exception e) {
+      // Returning normally would commit the store even though the legacy system never got it
+      transactionRegistry.setRollbackOnly();
+      return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+              .entity("Error creating store: " + e.getMessage())
+              .build();
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.inject.Any;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Read-through cache in front of {@link WarehouseStore}, keyed by warehouse identifier in canonical
+ * form, so an identifier sent with upper-case hex digits finds and invalidates the same entry.
+ *
+ * <p>Entries are immutable {@link WarehouseView} snapshots, so a hit on {@link #findViewByIdentifier}
+ * never touches the database. {@link #findByIdentifier} must still hand out a managed entity; a hit
+ * turns the JPQL query into a primary-key lookup, which is answered from the persistence context
+ * when the same warehouse was already loaded in the current transaction (PUT and DELETE look it up
+ * twice).
+ *
+ * <p>Writes invalidate immediately and again once the transaction completes, so a reader that
+ * re-populates the entry from the pre-commit row cannot leave it stale. Until then the writing
+ * transaction reads the warehouses it wrote past the cache and never caches them, so other
+ * transactions never see its uncommitted rows, nor rows a rollback discards.
+ */
+@Decorator
+@Priority(10)
+public class CachingWarehouseStore implements WarehouseStore {
+
+  static final String CACHE_NAME = "warehouse-by-identifier";
+
+  // Transaction resource holding the identifiers the current transaction wrote
+  static final String WRITTEN_IDENTIFIERS = CachingWarehouseStore.class.getName() + ".written";
+
+  private final WarehouseStore delegate;
+  private final TransactionSynchronizationRegistry transactionRegistry;
+  private final Cache<String, WarehouseView> snapshots;
+
+  @Inject
+  public CachingWarehouseStore(@Delegate @Any WarehouseStore delegate,
+                               TransactionSynchronizationRegistry transactionRegistry,
+                               MeterRegistry meterRegistry,
+                               @ConfigProperty(name = "warehouse.cache.maximum-size", defaultValue = "10000")
+                               long maximumSize,
+                               @ConfigProperty(name = "warehouse.cache.expire-after-write", defaultValue = "PT5M")
+                               Duration expireAfterWrite) {
+    this.delegate = delegate;
+    this.transactionRegistry = transactionRegistry;
+    // Caffeine's bounded cache evicts with W-TinyLFU, which keeps hot warehouses resident under scans
+    this.snapshots = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ...
+    CaffeineCacheMetrics.monitor(meterRegistry, snapshots, CACHE_NAME);
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    delegate.create(warehouse);
+    invalidate(warehouse);
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    delegate.createAll(warehouses);
+    warehouses.forEach(this::invalidate);
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    delegate.update(warehouse);
+    invalidate(warehouse);
+  }
+
+  @Override
+  public boolean replaceIfStockMatches(Warehouse replacement, Long expectedVersion) {
+    boolean replaced = delegate.replaceIfStockMatches(replacement, expectedVersion);
+    invalidate(replacement);
+    return replaced;
+  }
+
+  @Override
+  public WarehouseView archiveIfEmpty(String identifier) {
+    WarehouseView archived = delegate.archiveIfEmpty(identifier);
+    // Also on failure: the caller reads the snapshot next to find out which rule failed
+    invalidate(identifier);
+    return archived;
+  }
+
+  @Override
+  public boolean adjustStock(String identifier, int quantity) {
+    boolean adjusted = delegate.adjustStock(identifier, quantity);
+    // Also on failure, for the same reason as archiveIfEmpty
+    invalidate(identifier);
+    return adjusted;
+  }
+
+  @Override
+  public void addToStock(String identifier, int quantity) {
+    delegate.addToStock(identifier, quantity);
+    invalidate(identifier);
+  }
+
+  @Override
+  public Warehouse findByIdentifier(String identifier) {
+    if (identifier == null) {
+      return delegate.findByIdentifier(null);
+    }
+    String key = key(identifier);
+    WarehouseView snapshot = snapshots.getIfPresent(key);
+    if (snapshot != null) {
+      Warehouse warehouse = delegate.findById(snapshot.getId());
+      if (warehouse != null && key.equals(warehouse.getIdentifier())) {
+        return warehouse;
+      }
+      // The row behind the snapshot is gone; drop it and fall back to the query
+      snapshots.invalidate(key);
+    }
+    return delegate.findByIdentifier(key);
+  }
+
+  @Override
+  public Warehouse findById(Long id) {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public WarehouseMutationFacts loadMutationFacts(String identifier, String businessUnitCode,
+                                                  String locationIdentifier, boolean checkBusinessUnitCode) {
+    // Decisions are taken on these, so they are always read fresh
+    return delegate.loadMutationFacts(identifier, businessUnitCode, locationIdentifier, checkBusinessUnitCode);
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> businessUnitCodes) {
+    return delegate.findActiveBusinessUnitCodes(businessUnitCodes);
+  }
+
+  @Override
+  public WarehouseView findViewByIdentifier(String identifier) {
+    if (identifier == null) {
+      return delegate.findViewByIdentifier(null);
+    }
+    String key = key(identifier);
+    if (writtenInTransaction(key)) {
+      return delegate.findViewByIdentifier(key);
+    }
+    // Misses that find nothing are not cached, so a newly created warehouse is visible at once
+    return snapshots.get(key, delegate::findViewByIdentifier);
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String businessUnitCode) {
+    return delegate.findByBusinessUnitCode(businessUnitCode);
+  }
+
+  @Override
+  public int countWarehousesAtLocation(String locationIdentifier) {
+    return delegate.countWarehousesAtLocation(locationIdentifier);
+  }
+
+  @Override
+  public int getTotalCapacityAtLocation(String locationIdentifier) {
+    return delegate.getTotalCapacityAtLocation(locationIdentifier);
+  }
+
+  @Override
+  public List<Warehouse> findAllByLocation(String locationIdentifier) {
+    return delegate.findAllByLocation(locationIdentifier);
+  }
+
+  @Override
+  public List<Warehouse> findAllActive() {
+    return delegate.findAllActive();
+  }
+
+  @Override
+  public List<WarehouseView> findActiveViewsByLocation(String locationIdentifier) {
+    return delegate.findActiveViewsByLocation(locationIdentifier);
+  }
+
+  @Override
+  public List<WarehouseView> findByIdentifiers(Collection<String> identifiers) {
+    // Serve what is cached and fetch only the misses, in one delegate call. The misses are not
+    // cached: their read is not atomic with the cache entry the way findViewByIdentifier's is, so
+    // a write invalidating in between would leave the entry stale until it expires.
+    List<String> keys = identifiers.stream()
+            .filter(Objects::nonNull)
+            .map(CachingWarehouseStore::key)
+            .distinct()
+            .collect(Collectors.toList());
+    Set<String> written = writtenIdentifiers(false);
+    Map<String, WarehouseView> cached = snapshots.getAllPresent(written.isEmpty() ? keys
+            : keys.stream().filter(identifier -> !written.contains(identifier)).collect(Collectors.toList()));
+    List<WarehouseView> found = new ArrayList<>(cached.values());
+    List<String> misses = keys.stream()
+            .filter(identifier -> !cached.containsKey(identifier))
+            .collect(Collectors.toList());
+    if (!misses.isEmpty()) {
+      found.addAll(delegate.findByIdentifiers(misses));
+    }
+    return found;
+  }
+
+  @Override
+  public List<WarehouseView> findActivePage(Long afterId, int limit) {
+    return delegate.findActivePage(afterId, limit);
+  }
+
+  @Override
+  public void forEachActive(Consumer<WarehouseView> consumer) {
+    delegate.forEachActive(consumer);
+  }
+
+  @Override
+  public void forEachActiveBusinessUnitCode(Consumer<String> consumer) {
+    delegate.forEachActiveBusinessUnitCode(consumer);
+  }
+
+  void invalidate(Warehouse warehouse) {
+    if (warehouse != null) {
+      invalidate(warehouse.getIdentifier());
+    }
+  }
+
+  void invalidate(String identifier) {
+    if (identifier == null) {
+      return;
+    }
+    String key = key(identifier);
+    snapshots.invalidate(key);
+    if (transactionRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      writtenIdentifiers(true).add(key);
+    }
+  }
+
+  // Anything that is not a warehouse identifier finds no row and is never cached, so it stays as is
+  private static String key(String identifier) {
+    return WarehouseIdentifiers.isValid(identifier) ? WarehouseIdentifiers.canonical(identifier) : identifier;
+  }
+
+  private boolean writtenInTransaction(String identifier) {
+    return writtenIdentifiers(false).contains(identifier);
+  }
+
+  /**
+   * The identifiers the current transaction wrote, empty outside a transaction. The first write
+   * registers the invalidation of all of them once the transaction completes.
+   */
+  @SuppressWarnings("unchecked")
+  private Set<String> writtenIdentifiers(boolean create) {
+    if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      return Set.of();
+    }
+    Set<String> written = (Set<String>) transactionRegistry.getResource(WRITTEN_IDENTIFIERS);
+    if (written == null) {
+      if (!create) {
+        return Set.of();
+      }
+      Set<String> identifiers = new HashSet<>();
+      transactionRegistry.putResource(WRITTEN_IDENTIFIERS, identifiers);
+      transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          identifiers.forEach(snapshots::invalidate);
+        }
+      });
+      written = identifiers;
+    }
+    return written;
+  }
+
+  Cache<String, WarehouseView> snapshots() {
+    return snapshots;
+  }
+}
@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "location_stats")
+public class DbLocationStats {
+
+  @Id
+  @Column(name = "location_identifier")
+  public String locationIdentifier;
+
+  @Column(name = "active_warehouses", nullable = false)
+  public int activeWarehouses;
+
+  @Column(name = "total_capacity", nullable = false)
+  public long totalCapacity;
+
+  @Column(name = "total_stock", nullable = false)
+  public long totalStock;
+
+  public DbLocationStats() {}
+
+  public DbLocationStats(String locationIdentifier, int activeWarehouses, long totalCapacity, long totalStock) {
+    this.locationIdentifier = locationIdentifier;
+    this.activeWarehouses = activeWarehouses;
+    this.totalCapacity = totalCapacity;
+    this.totalStock = totalStock;
+  }
+}
@@ -0,0 +1,63 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One change to a warehouse's stock, appended instead of updating the warehouse row. Rows are
+ * never deleted: once the compactor has folded a movement into {@code warehouse.current_stock} it
+ * is only flagged {@code compacted}, and stays as the warehouse's movement history. A movement the
+ * compactor could not apply is flagged {@code parked} as well.
+ */
+@Entity
+@Table(name = "stock_movement", indexes = {
+    // The compactor's queue, in insertion order
+    @Index(name = "idx_stock_movement_compacted_id", columnList = "compacted, id"),
+    // Pending deltas and history of one warehouse
+    @Index(name = "idx_stock_movement_warehouse_id", columnList = "warehouse_id, id")
+})
+public class DbStockMovement {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+  @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq",
+      allocationSize = SequenceAllocation.SIZE)
+  public Long id;
+
+  @Column(name = "warehouse_id", nullable = false)
+  public Long warehouseId;
+
+  @Column(name = "delta", nullable = false)
+  public int delta;
+
+  @Column(name = "reason", nullable = false, length = 100)
+  public String reason;
+
+  @Column(name = "recorded_at", nullable = false)
+  public Instant recordedAt;
+
+  @Column(name = "compacted", nullable = false)
+  public boolean compacted;
+
+  // Taken off the queue without being applied: it would have left the stock bounds, or the
+  // warehouse had been archived
+  @Column(name = "parked", nullable = false)
+  public boolean parked;
+
+  public DbStockMovement() {}
+
+  public DbStockMovement(Long warehouseId, int delta, String reason, Instant recordedAt) {
+    this.warehouseId = warehouseId;
+    this.delta = delta;
+    this.reason = reason;
+    this.recordedAt = recordedAt;
+  }
+}
@@ -1,9 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -12,7 +15,12 @@ import java.time.LocalDateTime;
 @Cacheable
 public class DbWarehouse {
 
-  @Id @GeneratedValue public Long id;
+  // Same table and sequence as Warehouse, so ids from either mapping never collide
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "db_warehouse_seq")
+  @SequenceGenerator(name = "db_warehouse_seq", sequenceName = "warehouse_seq",
+          allocationSize = SequenceAllocation.SIZE)
+  public Long id;
 
   public String businessUnitCode;
 
@@ -0,0 +1,144 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationAdmission;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Two-level per-location admission.
+ *
+ * <p>In-process, each location hashes onto one of a fixed number of semaphore stripes, so
+ * concurrent creators at the same location queue in memory instead of each holding a database
+ * connection while they wait. Across nodes, the location's {@code location_stats} row is locked
+ * with {@code SELECT ... FOR UPDATE}; the same row is updated later in the transaction anyway, so
+ * the lock adds no extra contention. Both are held until the transaction completes.
+ *
+ * <p>Stripes and rows are always taken in sorted order, so two batches that touch the same
+ * locations cannot deadlock each other.
+ */
+@ApplicationScoped
+public class LocationAdmissionControl implements LocationAdmission {
+
+  private static final Object ADMITTED_KEY = new Object();
+
+  private final LocationStatsRepository locationStatsRepository;
+  private final TransactionSynchronizationRegistry transactionRegistry;
+  private final LocationStripes stripes;
+  private final Duration waitTimeout;
+
+  @Inject
+  public LocationAdmissionControl(LocationStatsRepository locationStatsRepository,
+                                  TransactionSynchronizationRegistry transactionRegistry,
+                                  @ConfigProperty(name = "warehouse.admission.stripes", defaultValue = "64")
+                                  int stripeCount,
+                                  @ConfigProperty(name = "warehouse.admission.wait-timeout", defaultValue = "PT5S")
+                                  Duration waitTimeout) {
+    this.locationStatsRepository = locationStatsRepository;
+    this.transactionRegistry = transactionRegistry;
+    this.stripes = new LocationStripes(stripeCount);
+    this.waitTimeout = waitTimeout;
+  }
+
+  @Override
+  public void admit(Collection<String> locationIdentifiers) {
+    if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      throw new IllegalStateException("Location admission requires an active transaction");
+    }
+    Admitted admitted = admittedInCurrentTransaction();
+
+    SortedSet<String> locations = new TreeSet<>();
+    for (String locationIdentifier : locationIdentifiers) {
+      if (locationIdentifier != null && !admitted.locations.contains(locationIdentifier)) {
+        locations.add(locationIdentifier);
+      }
+    }
+    if (locations.isEmpty()) {
+      return;
+    }
+
+    SortedSet<Integer> stripeIndexes = new TreeSet<>();
+    for (String location : locations) {
+      int index = stripes.indexOf(location);
+      if (!admitted.stripes.contains(index)) {
+        stripeIndexes.add(index);
+      }
+    }
+    for (int index : stripeIndexes) {
+      acquireStripe(index, locations);
+      admitted.stripes.add(index);
+    }
+
+    for (String location : locations) {
+      lockLocationRow(location);
+      admitted.locations.add(location);
+    }
+  }
+
+  private Admitted admittedInCurrentTransaction() {
+    Admitted admitted = (Admitted) transactionRegistry.getResource(ADMITTED_KEY);
+    if (admitted == null) {
+      Admitted created = new Admitted();
+      transactionRegistry.putResource(ADMITTED_KEY, created);
+      // Stripes acquired so far are released even if the rest of admission fails, because a
+      // failed admission still ends with the transaction completing
+      transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          created.stripes.forEach(stripes::release);
+        }
+      });
+      admitted = created;
+    }
+    return admitted;
+  }
+
+  private void acquireStripe(int index, Collection<String> locations) {
+    boolean acquired;
+    try {
+      acquired = stripes.tryAcquire(index, waitTimeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for location: " + String.join(", ", locations));
+    }
+    if (!acquired) {
+      throw new IllegalStateException("Location is busy, try again later: " + String.join(", ", locations));
+    }
+  }
+
+  private void lockLocationRow(String locationIdentifier) {
+    if (locationStatsRepository.lockRow(locationIdentifier)) {
+      return;
+    }
+    try {
+      locationStatsRepository.insertEmptyRow(locationIdentifier);
+    } catch (PersistenceException e) {
+      // Another node inserted the row first; locking it below is all that is needed
+    }
+    if (!locationStatsRepository.lockRow(locationIdentifier)) {
+      throw new IllegalStateException("Could not lock location: " + locationIdentifier);
+    }
+  }
+
+  /**
+   * What the current transaction already holds; only ever touched by the thread running it.
+   */
+  private static final class Admitted {
+    private final Set<Integer> stripes = new HashSet<>();
+    private final Set<String> locations = new HashSet<>();
+  }
+}
@@ -0,0 +1,222 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class LocationStatsRepository implements LocationStatsStore {
+
+  private static final Logger LOGGER = Logger.getLogger(LocationStatsRepository.class);
+
+  @Inject
+  EntityManager entityManager;
+
+  @Override
+  public void recordCreated(Warehouse warehouse) {
+    apply(warehouse.getLocationIdentifier(), 1, warehouse.getCapacity(), warehouse.getCurrentStock());
+  }
+
+  @Override
+  public void recordCreatedAll(List<Warehouse> warehouses) {
+    // location -> {warehouses, capacity, stock}
+    Map<String, long[]> totals = new LinkedHashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      long[] total = totals.computeIfAbsent(warehouse.getLocationIdentifier(), location -> new long[3]);
+      total[0]++;
+      total[1] += warehouse.getCapacity();
+      total[2] += warehouse.getCurrentStock();
+    }
+    totals.forEach((location, total) -> apply(location, (int) total[0], total[1], total[2]));
+  }
+
+  @Override
+  public void recordReplaced(WarehouseView previous, Warehouse replacement) {
+    if (previous.isActive() && previous.getLocationIdentifier().equals(replacement.getLocationIdentifier())) {
+      // Same location: one relative update with the differences, or none when nothing changed
+      long capacityChange = (long) replacement.getCapacity() - previous.getCapacity();
+      long stockChange = (long) replacement.getCurrentStock() - previous.getCurrentStock();
+      if (capacityChange != 0 || stockChange != 0) {
+        apply(replacement.getLocationIdentifier(), 0, capacityChange, stockChange);
+      }
+      return;
+    }
+    // Lowest location first, as in recordStockMoved, so two replacements moving warehouses between
+    // the same locations in opposite directions cannot deadlock on the rows
+    boolean previousFirst = previous.isActive()
+            && previous.getLocationIdentifier().compareTo(replacement.getLocationIdentifier()) < 0;
+    if (previousFirst) {
+      applyRemoved(previous);
+    }
+    apply(replacement.getLocationIdentifier(), 1, replacement.getCapacity(), replacement.getCurrentStock());
+    if (previous.isActive() && !previousFirst) {
+      applyRemoved(previous);
+    }
+  }
+
+  @Override
+  public void recordArchived(WarehouseView archived) {
+    if (archived.isActive()) {
+      applyRemoved(archived);
+    }
+  }
+
+  @Override
+  public void recordStockMoved(String fromLocationIdentifier, String toLocationIdentifier, int quantity) {
+    if (fromLocationIdentifier.equals(toLocationIdentifier)) {
+      return;
+    }
+    // Lowest location first, whichever way the stock moves
+    if (fromLocationIdentifier.compareTo(toLocationIdentifier) < 0) {
+      apply(fromLocationIdentifier, 0, 0, -quantity);
+      apply(toLocationIdentifier, 0, 0, quantity);
+    } else {
+      apply(toLocationIdentifier, 0, 0, quantity);
+      apply(fromLocationIdentifier, 0, 0, -quantity);
+    }
+  }
+
+  @Override
+  public void recordStockChanged(String locationIdentifier, long quantity) {
+    apply(locationIdentifier, 0, 0, quantity);
+  }
+
+  /**
+   * Fills the aggregates from the warehouse table when there are none yet, as on a new database.
+   * Existing rows are kept: other nodes may already be serving and keeping them up to date.
+   *
+   * @return whether the table was empty and has been filled
+   */
+  @Transactional(TxType.REQUIRES_NEW)
+  boolean seedIfEmpty() {
+    boolean empty = entityManager.createQuery("SELECT s.locationIdentifier FROM DbLocationStats s", String.class)
+            .setMaxResults(1)
+            .getResultList()
+            .isEmpty();
+    if (!empty) {
+      return false;
+    }
+    List<Object[]> rows = entityManager.createQuery(
+                    "SELECT w.locationIdentifier, COUNT(w), COALESCE(SUM(w.capacity), 0), COALESCE(SUM(w.currentStock), 0) "
+                            + "FROM Warehouse w WHERE w.active = true GROUP BY w.locationIdentifier", Object[].class)
+            .getResultList();
+    for (Object[] row : rows) {
+      entityManager.persist(new DbLocationStats(
+              (String) row[0],
+              ((Number) row[1]).intValue(),
+              ((Number) row[2]).longValue(),
+              ((Number) row[3]).longValue()));
+    }
+    // Surface a primary-key conflict with another node's rows now rather than at commit
+    entityManager.flush();
+    return true;
+  }
+
+  @Override
+  @Transactional
+  public List<LocationUsage> findAllUsage() {
+    return entityManager.createQuery(
+                    "SELECT new com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage("
+                            + "s.locationIdentifier, s.activeWarehouses, s.totalCapacity) FROM DbLocationStats s",
+                    LocationUsage.class)
+            .getResultList();
+  }
+
+  @Override
+  public Map<String, LocationUsage> findUsage(Collection<String> locationIdentifiers) {
+    Map<String, LocationUsage> usage = new HashMap<>();
+    if (locationIdentifiers.isEmpty()) {
+      return usage;
+    }
+    entityManager.createQuery(
+                    "SELECT new com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage("
+                            + "s.locationIdentifier, s.activeWarehouses, s.totalCapacity) FROM DbLocationStats s "
+                            + "WHERE s.locationIdentifier IN :locationIdentifiers",
+                    LocationUsage.class)
+            .setParameter("locationIdentifiers", locationIdentifiers)
+            .getResultList()
+            .forEach(row -> usage.put(row.getLocationIdentifier(), row));
+    return usage;
+  }
+
+  /**
+   * Takes a row lock ({@code SELECT ... FOR UPDATE}) on the location's aggregates, held until the
+   * current transaction completes.
+   *
+   * @return {@code false} when the location has no row yet, in which case nothing is locked
+   */
+  boolean lockRow(String locationIdentifier) {
+    return entityManager.find(DbLocationStats.class, locationIdentifier, LockModeType.PESSIMISTIC_WRITE) != null;
+  }
+
+  /**
+   * Inserts an all-zero row for a location in its own transaction, so a conflicting insert by
+   * another node fails here without marking the caller's transaction for rollback.
+   */
+  @Transactional(TxType.REQUIRES_NEW)
+  void insertEmptyRow(String locationIdentifier) {
+    entityManager.persist(new DbLocationStats(locationIdentifier, 0, 0, 0));
+    // Surface a primary-key conflict now rather than at commit
+    entityManager.flush();
+  }
+
+  // Never a full rebuild here: it would race with the writes of nodes that are already serving
+  void onStart(@Observes StartupEvent event) {
+    try {
+      seedIfEmpty();
+    } catch (PersistenceException e) {
+      // Another node wrote rows in the meantime; those are kept up to date from here on
+      LOGGER.info("Location stats were written by another node during startup, not seeding them");
+    }
+  }
+
+  private void applyRemoved(WarehouseView removed) {
+    apply(removed.getLocationIdentifier(), -1, -removed.getCapacity(), -removed.getCurrentStock());
+  }
+
+  private void apply(String locationIdentifier, int warehouses, long capacity, long stock) {
+    if (update(locationIdentifier, warehouses, capacity, stock)) {
+      return;
+    }
+    // First warehouse ever seen at this location. The row is created empty in its own transaction,
+    // as admission does, so a node creating it at the same time cannot fail this one on the key
+    try {
+      insertEmptyRow(locationIdentifier);
+    } catch (PersistenceException e) {
+      // Another node inserted the row first; updating it below is all that is needed
+    }
+    if (!update(locationIdentifier, warehouses, capacity, stock)) {
+      throw new IllegalStateException("Could not update location stats: " + locationIdentifier);
+    }
+  }
+
+  private boolean update(String locationIdentifier, int warehouses, long capacity, long stock) {
+    // A relative UPDATE is atomic and row-locks the location until commit, so concurrent writers
+    // at the same location serialize here instead of losing each other's increments
+    return entityManager.createQuery(
+                    "UPDATE DbLocationStats s SET s.activeWarehouses = s.activeWarehouses + :warehouses, "
+                            + "s.totalCapacity = s.totalCapacity + :capacity, s.totalStock = s.totalStock + :stock "
+                            + "WHERE s.locationIdentifier = :locationIdentifier")
+            .setParameter("warehouses", warehouses)
+            .setParameter("capacity", capacity)
+            .setParameter("stock", stock)
+            .setParameter("locationIdentifier", locationIdentifier)
+            .executeUpdate() == 1;
+  }
+}
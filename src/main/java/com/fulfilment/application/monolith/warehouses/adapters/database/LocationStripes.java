@@ -0,0 +1,47 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed set of binary semaphores that location identifiers are hashed onto. Two locations only
+ * contend when they land on the same stripe, so the memory used stays bounded however many
+ * locations exist.
+ *
+ * <p>Semaphores rather than locks: a stripe is released when the owning transaction completes,
+ * which is not guaranteed to happen on the thread that acquired it.
+ */
+final class LocationStripes {
+
+  private final Semaphore[] stripes;
+  private final int mask;
+
+  LocationStripes(int minimumStripes) {
+    // Rounded up to a power of two so the stripe index is a mask instead of a modulo
+    int size = minimumStripes <= 1 ? 1 : Integer.highestOneBit(minimumStripes - 1) << 1;
+    this.stripes = new Semaphore[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new Semaphore(1);
+    }
+    this.mask = size - 1;
+  }
+
+  int size() {
+    return stripes.length;
+  }
+
+  int indexOf(String locationIdentifier) {
+    int hash = locationIdentifier.hashCode();
+    // Spread the high bits down, as HashMap does, so similar identifiers use different stripes
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  boolean tryAcquire(int index, Duration timeout) throws InterruptedException {
+    return stripes[index].tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  void release(int index) {
+    stripes[index].release();
+  }
+}
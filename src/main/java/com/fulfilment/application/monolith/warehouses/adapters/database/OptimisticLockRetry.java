@@ -0,0 +1,107 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.StaleStateException;
+
+/**
+ * Runs a unit of work in a transaction of its own and, when it loses an optimistic-lock race
+ * (another transaction committed a newer {@code @Version} of a row it writes), runs the whole unit
+ * again after a randomized pause. The unit must therefore re-read and re-validate everything it
+ * depends on rather than reuse state from a previous attempt.
+ *
+ * <p>Pauses use "full jitter": a uniformly random delay up to an exponentially growing cap, so
+ * writers that collided once do not collide again in lock-step.
+ */
+@ApplicationScoped
+public class OptimisticLockRetry {
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  @Inject
+  public OptimisticLockRetry(@ConfigProperty(name = "warehouse.retry.max-attempts", defaultValue = "3")
+                             int maxAttempts,
+                             @ConfigProperty(name = "warehouse.retry.initial-backoff", defaultValue = "PT0.02S")
+                             Duration initialBackoff,
+                             @ConfigProperty(name = "warehouse.retry.max-backoff", defaultValue = "PT0.2S")
+                             Duration maxBackoff) {
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * @throws IllegalStateException when every attempt lost an optimistic-lock race
+   */
+  public <T> T call(Supplier<T> work) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return inNewTransaction(work);
+      } catch (RuntimeException e) {
+        if (!isOptimisticLockFailure(e)) {
+          throw e;
+        }
+        if (attempt >= maxAttempts) {
+          throw new IllegalStateException("Warehouse was modified concurrently, please retry", e);
+        }
+        pause(backoff(attempt));
+      }
+    }
+  }
+
+  <T> T inNewTransaction(Supplier<T> work) {
+    return QuarkusTransaction.requiringNew().call(work::get);
+  }
+
+  void pause(Duration delay) {
+    try {
+      Thread.sleep(delay.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while retrying a concurrent update");
+    }
+  }
+
+  Duration backoff(int failedAttempts) {
+    long cap = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(failedAttempts - 1, 20));
+    return Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+  }
+
+  /**
+   * Version conflicts surface as {@link OptimisticLockException} when detected by a JPA call, but
+   * arrive wrapped (for example in a rollback exception) when only the commit-time flush sees them.
+   * Conditional bulk updates that find the row changed report {@link ConcurrentWarehouseUpdateException}.
+   */
+  static boolean isOptimisticLockFailure(Throwable failure) {
+    Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    return isOptimisticLockFailure(failure, seen);
+  }
+
+  private static boolean isOptimisticLockFailure(Throwable failure, Set<Throwable> seen) {
+    if (failure == null || !seen.add(failure)) {
+      return false;
+    }
+    if (failure instanceof OptimisticLockException || failure instanceof StaleStateException
+            || failure instanceof ConcurrentWarehouseUpdateException) {
+      return true;
+    }
+    for (Throwable suppressed : failure.getSuppressed()) {
+      if (isOptimisticLockFailure(suppressed, seen)) {
+        return true;
+      }
+    }
+    return isOptimisticLockFailure(failure.getCause(), seen);
+  }
+}
@@ -0,0 +1,149 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.location.LocationPlacementIndex;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.inject.Any;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes every change to the location aggregates on to the {@link LocationPlacementIndex} once the
+ * transaction that made it commits, and tells the index while the commit is under way so a
+ * concurrent reload neither loses nor repeats it. A rolled-back change never reaches the index. Stock changes
+ * do not affect placement and are only delegated.
+ */
+@Decorator
+@Priority(10)
+public class PlacementIndexingLocationStatsStore implements LocationStatsStore {
+
+  private final LocationStatsStore delegate;
+  private final TransactionSynchronizationRegistry transactionRegistry;
+  private final LocationPlacementIndex placementIndex;
+
+  @Inject
+  public PlacementIndexingLocationStatsStore(@Delegate @Any LocationStatsStore delegate,
+                                             TransactionSynchronizationRegistry transactionRegistry,
+                                             LocationPlacementIndex placementIndex) {
+    this.delegate = delegate;
+    this.transactionRegistry = transactionRegistry;
+    this.placementIndex = placementIndex;
+  }
+
+  @Override
+  public void recordCreated(Warehouse warehouse) {
+    delegate.recordCreated(warehouse);
+    Map<String, long[]> changes = new LinkedHashMap<>();
+    add(changes, warehouse.getLocationIdentifier(), 1, warehouse.getCapacity());
+    applyAfterCommit(changes);
+  }
+
+  @Override
+  public void recordCreatedAll(List<Warehouse> warehouses) {
+    delegate.recordCreatedAll(warehouses);
+    Map<String, long[]> changes = new LinkedHashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      add(changes, warehouse.getLocationIdentifier(), 1, warehouse.getCapacity());
+    }
+    applyAfterCommit(changes);
+  }
+
+  @Override
+  public void recordReplaced(WarehouseView previous, Warehouse replacement) {
+    delegate.recordReplaced(previous, replacement);
+    Map<String, long[]> changes = new LinkedHashMap<>();
+    if (previous.isActive()) {
+      add(changes, previous.getLocationIdentifier(), -1, -previous.getCapacity());
+    }
+    add(changes, replacement.getLocationIdentifier(), 1, replacement.getCapacity());
+    applyAfterCommit(changes);
+  }
+
+  @Override
+  public void recordArchived(WarehouseView archived) {
+    delegate.recordArchived(archived);
+    if (archived.isActive()) {
+      Map<String, long[]> changes = new LinkedHashMap<>();
+      add(changes, archived.getLocationIdentifier(), -1, -archived.getCapacity());
+      applyAfterCommit(changes);
+    }
+  }
+
+  @Override
+  public void recordStockMoved(String fromLocationIdentifier, String toLocationIdentifier, int quantity) {
+    delegate.recordStockMoved(fromLocationIdentifier, toLocationIdentifier, quantity);
+  }
+
+  @Override
+  public void recordStockChanged(String locationIdentifier, long quantity) {
+    delegate.recordStockChanged(locationIdentifier, quantity);
+  }
+
+  @Override
+  public List<LocationUsage> findAllUsage() {
+    return delegate.findAllUsage();
+  }
+
+  @Override
+  public Map<String, LocationUsage> findUsage(Collection<String> locationIdentifiers) {
+    return delegate.findUsage(locationIdentifiers);
+  }
+
+  private static void add(Map<String, long[]> changes, String locationIdentifier, int warehouses, long capacity) {
+    long[] change = changes.computeIfAbsent(locationIdentifier, location -> new long[2]);
+    change[0] += warehouses;
+    change[1] += capacity;
+  }
+
+  void applyAfterCommit(Map<String, long[]> changes) {
+    if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      placementIndex.beginCommit();
+      try {
+        apply(changes);
+      } finally {
+        placementIndex.endCommit();
+      }
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      // A transaction rolled back before its commit began never calls beforeCompletion
+      private boolean committing;
+
+      @Override
+      public void beforeCompletion() {
+        // Before the commit, so an index reload can tell whether the rows it reads include it
+        placementIndex.beginCommit();
+        committing = true;
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (!committing) {
+          return;
+        }
+        try {
+          if (status == Status.STATUS_COMMITTED) {
+            apply(changes);
+          }
+        } finally {
+          placementIndex.endCommit();
+        }
+      }
+    });
+  }
+
+  private void apply(Map<String, long[]> changes) {
+    changes.forEach((location, change) -> placementIndex.apply(location, (int) change[0], change[1]));
+  }
+}
@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Background thread folding the stock ledger into {@code warehouse.current_stock}: every interval
+ * it compacts batch after batch, each in its own transaction, until a batch comes back short.
+ */
+@ApplicationScoped
+public class StockLedgerCompactor {
+
+  private static final Logger LOGGER = Logger.getLogger(StockLedgerCompactor.class);
+
+  private final StockLedgerRepository stockLedgerRepository;
+  private final Duration interval;
+  private final int batchSize;
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  public StockLedgerCompactor(StockLedgerRepository stockLedgerRepository,
+                              @ConfigProperty(name = "warehouse.stock-ledger.compaction-interval", defaultValue = "PT1S")
+                              Duration interval,
+                              @ConfigProperty(name = "warehouse.stock-ledger.compaction-batch-size", defaultValue = "1000")
+                              int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Compaction batch size must be at least 1");
+    }
+    this.stockLedgerRepository = stockLedgerRepository;
+    this.interval = interval;
+    this.batchSize = batchSize;
+  }
+
+  void start(@Observes StartupEvent event) {
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stock-ledger-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long millis = interval.toMillis();
+    executor.scheduleWithFixedDelay(this::compactPending, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  void stop(@Observes ShutdownEvent event) throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(interval.toMillis() + 5_000, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * @return the number of movements folded
+   */
+  int compactPending() {
+    int total = 0;
+    try {
+      int folded;
+      do {
+        folded = stockLedgerRepository.compactBatch(batchSize);
+        total += folded;
+      } while (folded >= batchSize);
+    } catch (RuntimeException e) {
+      // An exception would cancel the schedule; the batch rolled back and is picked up next run
+      LOGGER.warn("Stock ledger compaction failed, retrying on the next run", e);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,187 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class StockLedgerRepository implements StockLedger {
+
+  private static final Logger LOGGER = Logger.getLogger(StockLedgerRepository.class);
+
+  @Inject
+  EntityManager entityManager;
+
+  // Decorated store, so folding a batch also invalidates the cached snapshots it changes
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  LocationStatsStore locationStatsStore;
+
+  Clock clock = Clock.systemUTC();
+
+  @Override
+  public StockMovement append(WarehouseView warehouse, int delta, String reason) {
+    DbStockMovement movement = new DbStockMovement(warehouse.getId(), delta, reason, clock.instant());
+    // The id comes from the pooled sequence block; the INSERT itself waits for the flush
+    entityManager.persist(movement);
+    return new StockMovement(movement.id, warehouse.getIdentifier(), delta, reason, movement.recordedAt);
+  }
+
+  @Override
+  public StockLevel stockLevel(String identifier) {
+    List<Object[]> rows = entityManager.createQuery(
+                    "SELECT w.currentStock, "
+                            + "(SELECT COALESCE(SUM(m.delta), 0) FROM DbStockMovement m "
+                            + "WHERE m.warehouseId = w.id AND m.compacted = false), "
+                            + "(SELECT COUNT(m) FROM DbStockMovement m "
+                            + "WHERE m.warehouseId = w.id AND m.compacted = false), "
+                            + "w.capacity, w.active, w.archived "
+                            + "FROM Warehouse w WHERE w.identifier = :identifier", Object[].class)
+            .setParameter("identifier", identifier)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return null;
+    }
+    Object[] row = rows.get(0);
+    return new StockLevel(identifier, ((Number) row[0]).intValue(), ((Number) row[1]).longValue(),
+            ((Number) row[2]).longValue(), ((Number) row[3]).intValue(), (Boolean) row[4] && !(Boolean) row[5]);
+  }
+
+  /**
+   * Folds the pending movements of the warehouses the {@code limit} oldest pending movements belong
+   * to into their current stock, and flags them compacted. Warehouses another compactor or a stock
+   * writer holds are skipped rather than waited for, so compactors on several nodes take disjoint
+   * warehouses, and the next run folds the skipped ones.
+   *
+   * <p>Movements are appended without a lock or a bounds check, so this is where the bounds are
+   * enforced. Ids come from per-node sequence blocks and appends do not wait for each other, so
+   * no order between a warehouse's movements is authoritative: when their sum keeps the stock
+   * between zero and the capacity they are folded together, as one delta. Otherwise they are
+   * walked in the order they were recorded, and each one that would take the stock out of bounds
+   * is flagged {@code parked} instead and logged, and stays in the ledger for someone to look at.
+   * All movements of a warehouse archived since are parked.
+   *
+   * @return the number of movements flagged compacted, parked ones included; this can exceed
+   *         {@code limit}, and is less than it once the backlog is drained
+   */
+  @Transactional
+  public int compactBatch(int limit) {
+    Set<Long> warehouseIds = new TreeSet<>(entityManager.createQuery(
+                    "SELECT m.warehouseId FROM DbStockMovement m WHERE m.compacted = false ORDER BY m.id", Long.class)
+            .setMaxResults(limit)
+            .getResultList());
+    if (warehouseIds.isEmpty()) {
+      return 0;
+    }
+
+    // Ascending warehouse id, the order transfers lock warehouse rows in, and before any
+    // location_stats row, like every other writer. Read from the row rather than a cached
+    // snapshot, so the bounds below hold against transfers and archives committed since
+    List<Object[]> warehouses = entityManager.unwrap(Session.class)
+            .createSelectionQuery("SELECT w.id, w.identifier, w.locationIdentifier, w.active, w.archived, "
+                    + "w.currentStock, w.capacity FROM Warehouse w WHERE w.id IN :ids ORDER BY w.id", Object[].class)
+            .setParameter("ids", warehouseIds)
+            .setHibernateLockMode(LockMode.UPGRADE_SKIPLOCKED)
+            .getResultList();
+    if (warehouses.isEmpty()) {
+      return 0;
+    }
+
+    // Movements appended after this read are left pending, so they are flagged by id below and
+    // never by warehouse
+    List<Long> lockedIds = new ArrayList<>(warehouses.size());
+    warehouses.forEach(warehouse -> lockedIds.add((Long) warehouse[0]));
+    Map<Long, List<Object[]>> pendingMovements = new HashMap<>();
+    entityManager.createQuery(
+                    "SELECT m.warehouseId, m.id, m.delta FROM DbStockMovement m "
+                            + "WHERE m.compacted = false AND m.warehouseId IN :ids ORDER BY m.recordedAt, m.id",
+                    Object[].class)
+            .setParameter("ids", lockedIds)
+            .getResultList()
+            .forEach(row -> pendingMovements.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row));
+
+    List<Long> foldedIds = new ArrayList<>();
+    List<Long> parkedIds = new ArrayList<>();
+    Set<String> parkedIdentifiers = new TreeSet<>();
+    // Sorted, the order every other writer updates location_stats rows in
+    Map<String, Long> locationDeltas = new TreeMap<>();
+    for (Object[] warehouse : warehouses) {
+      List<Object[]> movements = pendingMovements.get((Long) warehouse[0]);
+      if (movements == null) {
+        // Folded by another compactor between the two reads
+        continue;
+      }
+      boolean accepting = (Boolean) warehouse[3] && !(Boolean) warehouse[4];
+      long stock = ((Number) warehouse[5]).longValue();
+      long capacity = ((Number) warehouse[6]).longValue();
+      long net = 0;
+      for (Object[] movement : movements) {
+        net += ((Number) movement[2]).longValue();
+      }
+      boolean netInBounds = stock + net >= 0 && stock + net <= capacity;
+
+      long folded = 0;
+      for (Object[] movement : movements) {
+        long delta = ((Number) movement[2]).longValue();
+        long next = stock + folded + delta;
+        if (accepting && (netInBounds || (next >= 0 && next <= capacity))) {
+          folded += delta;
+          foldedIds.add((Long) movement[1]);
+        } else {
+          parkedIds.add((Long) movement[1]);
+          parkedIdentifiers.add((String) warehouse[1]);
+        }
+      }
+      if (folded != 0) {
+        warehouseStore.addToStock((String) warehouse[1], Math.toIntExact(folded));
+        locationDeltas.merge((String) warehouse[2], folded, Long::sum);
+      }
+    }
+    locationDeltas.forEach((location, delta) -> {
+      if (delta != 0) {
+        locationStatsStore.recordStockChanged(location, delta);
+      }
+    });
+
+    int flagged = flag(foldedIds, "UPDATE DbStockMovement m SET m.compacted = true "
+            + "WHERE m.compacted = false AND m.id IN :ids");
+    if (!parkedIds.isEmpty()) {
+      LOGGER.warnf("Parked %d pending stock movements of warehouses %s: the warehouse is archived or they "
+              + "would take its stock below zero or above capacity", parkedIds.size(), parkedIdentifiers);
+      flagged += flag(parkedIds, "UPDATE DbStockMovement m SET m.compacted = true, m.parked = true "
+              + "WHERE m.compacted = false AND m.id IN :ids");
+    }
+    return flagged;
+  }
+
+  private int flag(List<Long> movementIds, String update) {
+    int flagged = 0;
+    for (int from = 0; from < movementIds.size(); from += WarehouseRepository.LOOKUP_CHUNK_SIZE) {
+      flagged += entityManager.createQuery(update)
+              .setParameter("ids", movementIds.subList(from,
+                      Math.min(from + WarehouseRepository.LOOKUP_CHUNK_SIZE, movementIds.size())))
+              .executeUpdate();
+    }
+    return flagged;
+  }
+}
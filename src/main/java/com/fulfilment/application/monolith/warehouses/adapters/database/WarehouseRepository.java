@@ -1,23 +1,114 @@
 // WarehouseRepository.java
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.hibernate.Cache;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore {
 
+  // Correlated on the warehouse alias w; matches while the warehouse has movements not yet compacted
+  static final String PENDING_MOVEMENTS_SQL =
+          "SELECT 1 FROM stock_movement m WHERE m.warehouse_id = w.id AND m.compacted = false";
+
+  // Correlated on the warehouse alias w: the sum of its movements not yet compacted. The stock of a
+  // warehouse is its current_stock plus this
+  static final String PENDING_DELTA_SQL =
+          "(SELECT COALESCE(SUM(m.delta), 0) FROM stock_movement m WHERE m.warehouse_id = w.id AND m.compacted = false)";
+
+  // Query space the conditional writes synchronize on instead of the warehouse table. No entity or
+  // query uses it, so Hibernate evicts nothing for them; evictWritten drops just the written row.
+  static final String WRITE_QUERY_SPACE = "warehouse-conditional-write";
+
+  // Constructor expression shared by the read-only queries; results are never managed entities
+  static final String VIEW_SELECT =
+          "SELECT new com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView("
+                  + "w.id, w.identifier, w.name, w.businessUnitCode, w.locationIdentifier, w.capacity, "
+                  + "w.currentStock, w.active, w.archived, w.creationDate, w.version) FROM Warehouse w ";
+
+  // One round trip for every fact the create/replace use cases validate against. The probe row
+  // guarantees exactly one result row whether or not the warehouse or the location row exists.
+  // The business unit check reads the unique index on the active code, so it stops at one entry.
+  static final String MUTATION_FACTS_SQL = mutationFactsSql(
+          "EXISTS (SELECT 1 FROM warehouse b WHERE b.active_business_unit_code = :businessUnitCode "
+                  + "AND b.identifier <> :identifier)");
+
+  // For a code the caller already knows no active warehouse uses: the EXISTS is not run at all
+  static final String MUTATION_FACTS_WITHOUT_BUSINESS_UNIT_SQL = mutationFactsSql("false");
+
+  // Query-cache region for the per-location listings; Hibernate drops its entries whenever the
+  // warehouse table is written, and the conditional writes clear it themselves (see evictWritten),
+  // so it never serves results older than the last commit
+  static final String LOCATION_QUERY_CACHE_REGION = "warehouse-by-location";
+
+  // Keep equal to quarkus.hibernate-orm.jdbc.statement-batch-size so each flush sends one full batch,
+  // whose ids come from a single sequence allocation
+  static final int INSERT_BATCH_SIZE = SequenceAllocation.SIZE;
+
+  // Bound on bind parameters per IN list; larger lookups are split into several queries
+  static final int LOOKUP_CHUNK_SIZE = 500;
+
+  static final int EXPORT_FETCH_SIZE = 500;
+
+  // Never generated, so binding it for a missing or malformed identifier matches no warehouse
+  static final UUID NIL_UUID = new UUID(0L, 0L);
+
+  // A full export streams to a possibly slow client, so it may outlive the default 60s timeout
+  static final int EXPORT_TRANSACTION_TIMEOUT_SECONDS = 3600;
+
   @Inject
   EntityManager entityManager;
 
   @Override
   public void create(Warehouse warehouse) {
     entityManager.persist(warehouse);
+    // Inserted now rather than at commit, so a code taken since validation is reported as such
+    flushCheckingBusinessUnitCode(warehouse);
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    for (int i = 0; i < warehouses.size(); i++) {
+      entityManager.persist(warehouses.get(i));
+      if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+        // Send the batch and drop the inserted entities so the persistence context stays small
+        flushCheckingBusinessUnitCode(null);
+        entityManager.clear();
+      }
+    }
+    flushCheckingBusinessUnitCode(null);
   }
 
   @Override
@@ -26,13 +117,122 @@ public class WarehouseRepository implements WarehouseStore {
   }
 
   @Override
-  public Warehouse findByIdentifier(String identifier) {
-    return entityManager.createQuery(
-                    "SELECT w FROM Warehouse w WHERE w.identifier = :identifier", Warehouse.class)
+  public boolean replaceIfStockMatches(Warehouse replacement, Long expectedVersion) {
+    Long id = lockForStockChange(entityManager, replacement.getIdentifier());
+    if (id == null) {
+      return false;
+    }
+    // Rows written before versioning have no version; they compare (and restart) as 0
+    boolean replaced;
+    try {
+      replaced = conditionalWrite(
+                      "UPDATE warehouse w SET business_unit_code = :businessUnitCode, "
+                              + "active_business_unit_code = :businessUnitCode, "
+                              + "location_identifier = :locationIdentifier, capacity = :capacity, "
+                              + "active = true, archived = false, version = COALESCE(w.version, 0) + 1 "
+                              + "WHERE w.id = :id AND w.current_stock + " + PENDING_DELTA_SQL + " = :currentStock "
+                              + "AND COALESCE(w.version, 0) = :version")
+              .setParameter("businessUnitCode", replacement.getBusinessUnitCode())
+              .setParameter("locationIdentifier", replacement.getLocationIdentifier())
+              .setParameter("capacity", replacement.getCapacity())
+              .setParameter("id", id)
+              .setParameter("currentStock", replacement.getCurrentStock())
+              .setParameter("version", expectedVersion != null ? expectedVersion : 0L)
+              .executeUpdate() == 1;
+    } catch (PersistenceException e) {
+      throw translateBusinessUnitCodeViolation(e, replacement.getBusinessUnitCode());
+    }
+    if (replaced) {
+      evictWritten(id);
+    }
+    return replaced;
+  }
+
+  @Override
+  public WarehouseView archiveIfEmpty(String identifier) {
+    // Locked and read from the row, never from a cache: the state returned is the one archived,
+    // whatever committed before the lock was granted. The rules are checked by the UPDATE after
+    // it, so it sees every movement committed before the lock (see lockForStockChange); one
+    // appended after it is parked by the compactor.
+    WarehouseView current = entityManager.createQuery(VIEW_SELECT + "WHERE w.identifier = :identifier",
+                    WarehouseView.class)
             .setParameter("identifier", identifier)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
             .getResultStream()
             .findFirst()
             .orElse(null);
+    if (current == null) {
+      return null;
+    }
+    boolean archived = conditionalWrite(
+                    "UPDATE warehouse w SET archived = true, active = false, active_business_unit_code = NULL, "
+                            + "version = COALESCE(w.version, 0) + 1 "
+                            + "WHERE w.id = :id AND w.current_stock = 0 AND w.archived = false "
+                            + "AND NOT EXISTS (" + PENDING_MOVEMENTS_SQL + ")")
+            .setParameter("id", current.getId())
+            .executeUpdate() == 1;
+    if (!archived) {
+      return null;
+    }
+    evictWritten(current.getId());
+    return current;
+  }
+
+  @Override
+  public boolean adjustStock(String identifier, int quantity) {
+    Long id = lockForStockChange(entityManager, identifier);
+    if (id == null) {
+      return false;
+    }
+    // Relative, so the new stock is computed from the row under its lock, never from a stale read.
+    // The bounds apply to the stock including the pending movements; current_stock alone may leave
+    // them until the compactor folds those in
+    boolean adjusted = conditionalWrite(
+                    "UPDATE warehouse w SET current_stock = w.current_stock + :quantity, "
+                            + "version = COALESCE(w.version, 0) + 1 "
+                            + "WHERE w.id = :id AND w.active = true AND w.archived = false "
+                            + "AND w.current_stock + " + PENDING_DELTA_SQL + " + :quantity >= 0 "
+                            + "AND w.current_stock + " + PENDING_DELTA_SQL + " + :quantity <= w.capacity")
+            .setParameter("quantity", quantity)
+            .setParameter("id", id)
+            .executeUpdate() == 1;
+    if (adjusted) {
+      evictWritten(id);
+    }
+    return adjusted;
+  }
+
+  @Override
+  public void addToStock(String identifier, int quantity) {
+    // The compactor already holds the lock; taking it again only resolves the id
+    Long id = lockForStockChange(entityManager, identifier);
+    if (id == null) {
+      return;
+    }
+    conditionalWrite("UPDATE warehouse w SET current_stock = w.current_stock + :quantity, "
+                    + "version = COALESCE(w.version, 0) + 1 WHERE w.id = :id")
+            .setParameter("quantity", quantity)
+            .setParameter("id", id)
+            .executeUpdate();
+    evictWritten(id);
+  }
+
+  @Override
+  public Warehouse findByIdentifier(String identifier) {
+    if (identifier == null) {
+      return null;
+    }
+    // Natural-id access checks the persistence context, then the natural-id and entity caches,
+    // and only queries the database when both miss
+    return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(Warehouse.class)
+            .load(identifier);
+  }
+
+  @Override
+  public Warehouse findById(Long id) {
+    // Served from the persistence context when the entity is already loaded in this transaction
+    return entityManager.find(Warehouse.class, id);
   }
 
   @Override
@@ -47,26 +247,21 @@ public class WarehouseRepository implements WarehouseStore {
 
   @Override
   public int countWarehousesAtLocation(String locationIdentifier) {
-    Long count = entityManager.createQuery(
-                    "SELECT COUNT(w) FROM Warehouse w WHERE w.locationIdentifier = :locationIdentifier AND w.active = true", Long.class)
-            .setParameter("locationIdentifier", locationIdentifier)
-            .getSingleResult();
-    return count != null ? count.intValue() : 0;
+    // Primary-key read of the maintained aggregate instead of a COUNT over the location's warehouses
+    DbLocationStats stats = findLocationStats(locationIdentifier);
+    return stats != null ? stats.activeWarehouses : 0;
   }
 
   @Override
   public int getTotalCapacityAtLocation(String locationIdentifier) {
-    Integer totalCapacity = entityManager.createQuery(
-                    "SELECT SUM(w.capacity) FROM Warehouse w WHERE w.locationIdentifier = :locationIdentifier AND w.active = true", Integer.class)
-            .setParameter("locationIdentifier", locationIdentifier)
-            .getSingleResult();
-    return totalCapacity != null ? totalCapacity : 0;
+    DbLocationStats stats = findLocationStats(locationIdentifier);
+    return stats != null ? Math.toIntExact(stats.totalCapacity) : 0;
   }
 
   @Override
   public List<Warehouse> findAllByLocation(String locationIdentifier) {
-    return entityManager.createQuery(
-                    "SELECT w FROM Warehouse w WHERE w.locationIdentifier = :locationIdentifier AND w.active = true", Warehouse.class)
+    return cacheableByLocation(entityManager.createQuery(
+                    "SELECT w FROM Warehouse w WHERE w.locationIdentifier = :locationIdentifier AND w.active = true", Warehouse.class))
             .setParameter("locationIdentifier", locationIdentifier)
             .getResultList();
   }
@@ -77,4 +272,258 @@ public class WarehouseRepository implements WarehouseStore {
                     "SELECT w FROM Warehouse w WHERE w.active = true", Warehouse.class)
             .getResultList();
   }
+
+  @Override
+  public WarehouseMutationFacts loadMutationFacts(String identifier, String businessUnitCode,
+                                                  String locationIdentifier, boolean checkBusinessUnitCode) {
+    // Empty strings and the nil UUID instead of nulls: they match nothing and keep the parameters
+    // typed. Native SQL bypasses the identifier converter, so the uuid is bound directly.
+    Query query = entityManager.createNativeQuery(checkBusinessUnitCode
+                    ? MUTATION_FACTS_SQL : MUTATION_FACTS_WITHOUT_BUSINESS_UNIT_SQL)
+            .setParameter("identifier", WarehouseIdentifiers.isValid(identifier)
+                    ? WarehouseIdentifiers.toUuid(identifier) : NIL_UUID)
+            .setParameter("locationIdentifier", locationIdentifier != null ? locationIdentifier : "");
+    if (checkBusinessUnitCode) {
+      query.setParameter("businessUnitCode", businessUnitCode != null ? businessUnitCode : "");
+    }
+    Object[] row = (Object[]) query.getSingleResult();
+
+    WarehouseView existing = row[0] == null ? null : new WarehouseView(
+            ((Number) row[0]).longValue(),
+            WarehouseIdentifiers.fromUuid(toUuid(row[1])),
+            (String) row[2],
+            (String) row[3],
+            (String) row[4],
+            toInteger(row[5]),
+            toInteger(row[6]),
+            (Boolean) row[7],
+            (Boolean) row[8],
+            toLocalDateTime(row[9]),
+            row[10] != null ? ((Number) row[10]).longValue() : null);
+    return new WarehouseMutationFacts(
+            existing,
+            Boolean.TRUE.equals(row[11]),
+            row[12] != null ? ((Number) row[12]).intValue() : 0,
+            row[13] != null ? ((Number) row[13]).longValue() : 0L,
+            row[14] != null ? ((Number) row[14]).longValue() : 0L);
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> businessUnitCodes) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(businessUnitCodes));
+    Set<String> active = new HashSet<>();
+    // Reads the unique index on the active code, one probe per code
+    for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+      List<String> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size()));
+      active.addAll(entityManager.createQuery(
+                      "SELECT w.activeBusinessUnitCode FROM Warehouse w WHERE w.activeBusinessUnitCode IN :codes",
+                      String.class)
+              .setParameter("codes", chunk)
+              .getResultList());
+    }
+    return active;
+  }
+
+  @Override
+  public WarehouseView findViewByIdentifier(String identifier) {
+    return entityManager.createQuery(VIEW_SELECT + "WHERE w.identifier = :identifier", WarehouseView.class)
+            .setParameter("identifier", identifier)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+  }
+
+  @Override
+  public List<WarehouseView> findActiveViewsByLocation(String locationIdentifier) {
+    return cacheableByLocation(entityManager.createQuery(
+                    VIEW_SELECT + "WHERE w.locationIdentifier = :locationIdentifier AND w.active = true", WarehouseView.class))
+            .setParameter("locationIdentifier", locationIdentifier)
+            .getResultList();
+  }
+
+  @Override
+  public List<WarehouseView> findByIdentifiers(Collection<String> identifiers) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(identifiers));
+    // A malformed identifier cannot name a warehouse, and would not convert to a uuid parameter
+    distinct.removeIf(identifier -> !WarehouseIdentifiers.isValid(identifier));
+    List<WarehouseView> found = new ArrayList<>(distinct.size());
+    for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+      List<String> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size()));
+      found.addAll(entityManager.createQuery(
+                      VIEW_SELECT + "WHERE w.identifier IN :identifiers", WarehouseView.class)
+              .setParameter("identifiers", chunk)
+              .getResultList());
+    }
+    return found;
+  }
+
+  @Override
+  public List<WarehouseView> findActivePage(Long afterId, int limit) {
+    // Ids come from a sequence starting at 1, so 0 is a safe lower bound for the first page
+    return entityManager.createQuery(
+                    VIEW_SELECT + "WHERE w.active = true AND w.id > :afterId ORDER BY w.id", WarehouseView.class)
+            .setParameter("afterId", afterId != null ? afterId : 0L)
+            .setMaxResults(limit)
+            .getResultList();
+  }
+
+  @Override
+  @Transactional
+  @TransactionConfiguration(timeout = EXPORT_TRANSACTION_TIMEOUT_SECONDS)
+  public void forEachActive(Consumer<WarehouseView> consumer) {
+    // The transaction matters: the PostgreSQL driver only honours the fetch size (server-side
+    // cursor) when auto-commit is off, otherwise it buffers the whole result set.
+    // Projected rows never enter the persistence context, so nothing accumulates during the walk.
+    Session session = entityManager.unwrap(Session.class);
+    try (ScrollableResults<WarehouseView> rows = session
+            .createSelectionQuery(VIEW_SELECT + "WHERE w.active = true ORDER BY w.id", WarehouseView.class)
+            .setReadOnly(true)
+            .setFetchSize(EXPORT_FETCH_SIZE)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+      while (rows.next()) {
+        consumer.accept(rows.get());
+      }
+    }
+  }
+
+  @Override
+  @Transactional
+  public void forEachActiveBusinessUnitCode(Consumer<String> consumer) {
+    Session session = entityManager.unwrap(Session.class);
+    try (ScrollableResults<String> rows = session
+            .createSelectionQuery("SELECT DISTINCT w.businessUnitCode FROM Warehouse w WHERE w.active = true", String.class)
+            .setReadOnly(true)
+            .setFetchSize(EXPORT_FETCH_SIZE)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+      while (rows.next()) {
+        consumer.accept(rows.get());
+      }
+    }
+  }
+
+  /**
+   * Row-locks the warehouse until the current transaction completes. Every writer of the
+   * warehouse's stock column takes this lock before checking the stock bounds, so a statement run
+   * after it sees every movement committed for the warehouse. Appends to the stock ledger take no
+   * lock and may still commit meanwhile; the compactor parks those that would leave the bounds.
+   * It is a statement of its own because a PostgreSQL statement that waits for a row lock still
+   * evaluates its subqueries against the snapshot it started with.
+   *
+   * @return the id of the locked warehouse, or {@code null} when no warehouse has the identifier
+   */
+  static Long lockForStockChange(EntityManager entityManager, String identifier) {
+    return entityManager.createQuery("SELECT w.id FROM Warehouse w WHERE w.identifier = :identifier", Long.class)
+            .setParameter("identifier", identifier)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+  }
+
+  /**
+   * A native write of one warehouse row that Hibernate does not attribute to the warehouse table. A
+   * bulk JPQL update, or a native one synchronized on the table, makes Hibernate evict the whole
+   * Warehouse entity and natural-id regions and invalidate every query on the table, which with the
+   * compactor folding stock in every second would keep the cache empty. The caller evicts the row
+   * it wrote with {@link #evictWritten} instead.
+   */
+  private Query conditionalWrite(String sql) {
+    return entityManager.createNativeQuery(sql)
+            .setHint(HibernateHints.HINT_NATIVE_SPACES, WRITE_QUERY_SPACE);
+  }
+
+  /**
+   * Evicts the written warehouse from the entity region, now and again once the transaction
+   * completes, so a reader that cached the old row before the commit does not keep it. The
+   * natural-id mapping is immutable and stays cached. The per-location listings carry stock and
+   * state, and their cached results cannot be told apart by warehouse, so that region is cleared.
+   */
+  private void evictWritten(Long id) {
+    Session session = entityManager.unwrap(Session.class);
+    Cache cache = session.getSessionFactory().getCache();
+    evict(cache, id);
+    session.getTransaction().registerSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        evict(cache, id);
+      }
+    });
+  }
+
+  private static void evict(Cache cache, Long id) {
+    cache.evictEntityData(Warehouse.class, id);
+    cache.evictQueryRegion(LOCATION_QUERY_CACHE_REGION);
+  }
+
+  private static String mutationFactsSql(String businessUnitCodeTaken) {
+    return "SELECT w.id, w.identifier, w.name, w.business_unit_code, w.location_identifier, w.capacity, "
+            + "w.current_stock, w.active, w.archived, w.creation_date, w.version, "
+            + businessUnitCodeTaken + ", "
+            + "s.active_warehouses, s.total_capacity, "
+            + PENDING_DELTA_SQL + " "
+            + "FROM (SELECT 1 AS probe) p "
+            + "LEFT JOIN warehouse w ON w.identifier = :identifier "
+            + "LEFT JOIN location_stats s ON s.location_identifier = :locationIdentifier";
+  }
+
+  // The warehouse is only named in the error; null for a batch, where the row is not known
+  private void flushCheckingBusinessUnitCode(Warehouse warehouse) {
+    try {
+      entityManager.flush();
+    } catch (PersistenceException e) {
+      throw translateBusinessUnitCodeViolation(e, warehouse != null ? warehouse.getBusinessUnitCode() : null);
+    }
+  }
+
+  /**
+   * A write that broke the unique active business unit code lost a race with another writer of the
+   * same code after both had validated it; that is a conflict to retry, not a server error.
+   */
+  private static RuntimeException translateBusinessUnitCodeViolation(PersistenceException e, String businessUnitCode) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException) {
+        String constraint = ((ConstraintViolationException) cause).getConstraintName();
+        if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(Warehouse.ACTIVE_BUSINESS_UNIT_CODE_CONSTRAINT)) {
+          return new IllegalStateException(businessUnitCode != null
+                  ? "Business unit code was taken concurrently, please retry: " + businessUnitCode
+                  : "A business unit code of the batch was taken concurrently, please retry");
+        }
+      }
+    }
+    return e;
+  }
+
+  private static Integer toInteger(Object value) {
+    return value != null ? ((Number) value).intValue() : null;
+  }
+
+  // PostgreSQL hands a native uuid column back as a UUID, H2 (reporting it as BINARY) as its 16 bytes
+  private static UUID toUuid(Object value) {
+    if (value instanceof byte[]) {
+      ByteBuffer bytes = ByteBuffer.wrap((byte[]) value);
+      return new UUID(bytes.getLong(), bytes.getLong());
+    }
+    return (UUID) value;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).toLocalDateTime();
+    }
+    return (LocalDateTime) value;
+  }
+
+  private DbLocationStats findLocationStats(String locationIdentifier) {
+    return locationIdentifier != null ? entityManager.find(DbLocationStats.class, locationIdentifier) : null;
+  }
+
+  private static <T> TypedQuery<T> cacheableByLocation(TypedQuery<T> query) {
+    query.setHint(HibernateHints.HINT_CACHEABLE, true);
+    query.setHint(HibernateHints.HINT_CACHE_REGION, LOCATION_QUERY_CACHE_REGION);
+    return query;
+  }
 }
\ No newline at end of file
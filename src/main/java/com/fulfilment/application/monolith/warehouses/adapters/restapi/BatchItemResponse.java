@@ -0,0 +1,63 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class BatchItemResponse {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String status;
+    private WarehouseResponse warehouse;
+    private String error;
+
+    public BatchItemResponse() {
+    }
+
+    public static BatchItemResponse created(int index, WarehouseResponse warehouse) {
+        BatchItemResponse item = new BatchItemResponse();
+        item.setIndex(index);
+        item.setStatus(CREATED);
+        item.setWarehouse(warehouse);
+        return item;
+    }
+
+    public static BatchItemResponse rejected(int index, String error) {
+        BatchItemResponse item = new BatchItemResponse();
+        item.setIndex(index);
+        item.setStatus(REJECTED);
+        item.setError(error);
+        return item;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public WarehouseResponse getWarehouse() {
+        return warehouse;
+    }
+
+    public void setWarehouse(WarehouseResponse warehouse) {
+        this.warehouse = warehouse;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
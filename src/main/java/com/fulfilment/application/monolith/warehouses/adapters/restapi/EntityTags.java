@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+/**
+ * Strong ETags derived from the warehouse {@code @Version} column, plus the RFC 9110 comparison
+ * rules for {@code If-None-Match} (weak comparison) and {@code If-Match} (strong comparison).
+ */
+final class EntityTags {
+
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    /** Required version for an {@code If-Match} that no stored warehouse can satisfy. */
+    static final Long UNSATISFIABLE = -1L;
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the quoted strong entity tag, or {@code null} for rows written before versioning
+     */
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * @return {@code true} when the client already holds the current representation
+     */
+    static boolean noneMatchHits(String ifNoneMatch, String currentTag) {
+        if (ifNoneMatch == null || currentTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(WILDCARD)) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(currentTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translates {@code If-Match} into the version a write must find stored.
+     *
+     * <p>Only a single strong tag names a version. A weak tag never satisfies a strong comparison,
+     * and lists or unrecognised tags are answered conservatively, so all of these map to
+     * {@link #UNSATISFIABLE}, a version no row ever has.
+     *
+     * @return {@code null} when no precondition was sent or it is {@code *}
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().isEmpty()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals(WILDCARD)) {
+            return null;
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return UNSATISFIABLE;
+        }
+        try {
+            long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+            return version < 0 ? UNSATISFIABLE : version;
+        } catch (NumberFormatException e) {
+            return UNSATISFIABLE;
+        }
+    }
+}
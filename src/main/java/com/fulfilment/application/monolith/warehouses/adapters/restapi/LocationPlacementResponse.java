@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class LocationPlacementResponse {
+    private String locationIdentifier;
+    private int freeWarehouseSlots;
+    private long remainingCapacity;
+    private int maxWarehouseCapacity;
+
+    public LocationPlacementResponse() {
+    }
+
+    public LocationPlacementResponse(String locationIdentifier, int freeWarehouseSlots, long remainingCapacity,
+                                     int maxWarehouseCapacity) {
+        this.locationIdentifier = locationIdentifier;
+        this.freeWarehouseSlots = freeWarehouseSlots;
+        this.remainingCapacity = remainingCapacity;
+        this.maxWarehouseCapacity = maxWarehouseCapacity;
+    }
+
+    public String getLocationIdentifier() {
+        return locationIdentifier;
+    }
+
+    public void setLocationIdentifier(String locationIdentifier) {
+        this.locationIdentifier = locationIdentifier;
+    }
+
+    public int getFreeWarehouseSlots() {
+        return freeWarehouseSlots;
+    }
+
+    public void setFreeWarehouseSlots(int freeWarehouseSlots) {
+        this.freeWarehouseSlots = freeWarehouseSlots;
+    }
+
+    public long getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    public void setRemainingCapacity(long remainingCapacity) {
+        this.remainingCapacity = remainingCapacity;
+    }
+
+    public int getMaxWarehouseCapacity() {
+        return maxWarehouseCapacity;
+    }
+
+    public void setMaxWarehouseCapacity(int maxWarehouseCapacity) {
+        this.maxWarehouseCapacity = maxWarehouseCapacity;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.location.LocationPlacementIndex;
+import com.fulfilment.application.monolith.persistence.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationPlacement;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Path("/locations")
+@Produces(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+public class LocationResource {
+
+    @Inject
+    LocationPlacementIndex placementIndex;
+
+    /**
+     * Every location that can take a new warehouse with the given capacity and stock, most
+     * remaining capacity first; none when the stock exceeds the capacity. Answered from memory;
+     * the occasional reload of the index reads the location aggregates. The create itself still
+     * checks every limit.
+     */
+    @GET
+    @Path("/placement")
+    @ReadOnly
+    public Response placement(@QueryParam("capacity") Integer capacity,
+                              @QueryParam("stock") Integer stock) {
+        try {
+            int currentStock = stock != null ? stock : 0;
+            validatePlacementRequest(capacity, currentStock);
+
+            List<LocationPlacementResponse> response = placementIndex.placementsFor(capacity, currentStock).stream()
+                    .map(this::toApiResponse)
+                    .collect(Collectors.toList());
+            return Response.ok(response).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse("Failed to find locations: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    private void validatePlacementRequest(Integer capacity, int stock) {
+        if (capacity == null || capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+    }
+
+    private LocationPlacementResponse toApiResponse(LocationPlacement placement) {
+        return new LocationPlacementResponse(
+                placement.getLocationIdentifier(),
+                placement.getFreeWarehouseSlots(),
+                placement.getRemainingCapacity(),
+                placement.getMaxWarehouseCapacity());
+    }
+}
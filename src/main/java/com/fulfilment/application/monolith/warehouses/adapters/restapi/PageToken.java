@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination. Clients get it back from a page response and
+ * send it as {@code ?after=} to fetch the next page; its content (the last id seen) is an
+ * implementation detail and may change without notice.
+ */
+final class PageToken {
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private PageToken() {
+    }
+
+    static String encode(long lastSeenId) {
+        byte[] raw = (VERSION_PREFIX + lastSeenId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * @return the last id seen, or {@code null} when no token was supplied (first page)
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static Long decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            if (!raw.startsWith(VERSION_PREFIX)) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            return Long.parseLong(raw.substring(VERSION_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 decoding errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+    }
+}
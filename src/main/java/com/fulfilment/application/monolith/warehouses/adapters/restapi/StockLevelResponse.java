@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class StockLevelResponse {
+    private String identifier;
+    private int compactedStock;
+    private long pendingDelta;
+    private long pendingMovements;
+    private long stock;
+
+    public StockLevelResponse() {
+    }
+
+    public StockLevelResponse(String identifier, int compactedStock, long pendingDelta, long pendingMovements,
+                              long stock) {
+        this.identifier = identifier;
+        this.compactedStock = compactedStock;
+        this.pendingDelta = pendingDelta;
+        this.pendingMovements = pendingMovements;
+        this.stock = stock;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public int getCompactedStock() {
+        return compactedStock;
+    }
+
+    public void setCompactedStock(int compactedStock) {
+        this.compactedStock = compactedStock;
+    }
+
+    public long getPendingDelta() {
+        return pendingDelta;
+    }
+
+    public void setPendingDelta(long pendingDelta) {
+        this.pendingDelta = pendingDelta;
+    }
+
+    public long getPendingMovements() {
+        return pendingMovements;
+    }
+
+    public void setPendingMovements(long pendingMovements) {
+        this.pendingMovements = pendingMovements;
+    }
+
+    public long getStock() {
+        return stock;
+    }
+
+    public void setStock(long stock) {
+        this.stock = stock;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class StockMovementRequest {
+    private Integer delta;
+    private String reason;
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import java.time.Instant;
+
+public class StockMovementResponse {
+    private String id;
+    private String warehouseIdentifier;
+    private int delta;
+    private String reason;
+    private Instant recordedAt;
+
+    public StockMovementResponse() {
+    }
+
+    public StockMovementResponse(String id, String warehouseIdentifier, int delta, String reason, Instant recordedAt) {
+        this.id = id;
+        this.warehouseIdentifier = warehouseIdentifier;
+        this.delta = delta;
+        this.reason = reason;
+        this.recordedAt = recordedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getWarehouseIdentifier() {
+        return warehouseIdentifier;
+    }
+
+    public void setWarehouseIdentifier(String warehouseIdentifier) {
+        this.warehouseIdentifier = warehouseIdentifier;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
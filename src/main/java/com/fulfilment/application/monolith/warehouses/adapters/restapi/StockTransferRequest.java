@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class StockTransferRequest {
+    private String sourceIdentifier;
+    private String targetIdentifier;
+    private Integer quantity;
+
+    public String getSourceIdentifier() {
+        return sourceIdentifier;
+    }
+
+    public void setSourceIdentifier(String sourceIdentifier) {
+        this.sourceIdentifier = sourceIdentifier;
+    }
+
+    public String getTargetIdentifier() {
+        return targetIdentifier;
+    }
+
+    public void setTargetIdentifier(String targetIdentifier) {
+        this.targetIdentifier = targetIdentifier;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
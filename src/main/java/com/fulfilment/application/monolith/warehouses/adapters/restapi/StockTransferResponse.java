@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+public class StockTransferResponse {
+    private WarehouseResponse source;
+    private WarehouseResponse target;
+    private int quantity;
+
+    public StockTransferResponse() {
+    }
+
+    public StockTransferResponse(WarehouseResponse source, WarehouseResponse target, int quantity) {
+        this.source = source;
+        this.target = target;
+        this.quantity = quantity;
+    }
+
+    public WarehouseResponse getSource() {
+        return source;
+    }
+
+    public void setSource(WarehouseResponse source) {
+        this.source = source;
+    }
+
+    public WarehouseResponse getTarget() {
+        return target;
+    }
+
+    public void setTarget(WarehouseResponse target) {
+        this.target = target;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import java.util.List;
+
+public class WarehouseLookupRequest {
+    private List<String> identifiers;
+
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public void setIdentifiers(List<String> identifiers) {
+        this.identifiers = identifiers;
+    }
+}
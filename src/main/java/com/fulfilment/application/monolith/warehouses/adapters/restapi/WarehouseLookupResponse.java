@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import java.util.List;
+import java.util.Map;
+
+public class WarehouseLookupResponse {
+    // Keyed by warehouse identifier, in the order the identifiers were requested
+    private Map<String, WarehouseResponse> warehouses;
+    private List<String> missing;
+
+    public WarehouseLookupResponse() {
+    }
+
+    public WarehouseLookupResponse(Map<String, WarehouseResponse> warehouses, List<String> missing) {
+        this.warehouses = warehouses;
+        this.missing = missing;
+    }
+
+    public Map<String, WarehouseResponse> getWarehouses() {
+        return warehouses;
+    }
+
+    public void setWarehouses(Map<String, WarehouseResponse> warehouses) {
+        this.warehouses = warehouses;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
@@ -1,19 +1,44 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fulfilment.application.monolith.idempotency.IdempotentRequests;
+import com.fulfilment.application.monolith.persistence.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.adapters.database.OptimisticLockRetry;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseVersionMismatchException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.RecordStockMovementUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.TransferStockUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Path("/warehouses")
@@ -22,7 +47,19 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class WarehouseResourceImpl {
 
-    private static final String WAREHOUSE_ID_PREFIX = "WH-";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
+    static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    static final int EXPORT_FLUSH_INTERVAL = 256;
+
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_LOOKUP_SIZE = 1000;
+
+    static final String CREATE_SCOPE = "POST /warehouses";
+    static final String TRANSFER_SCOPE = "POST /warehouses/transfers";
+    static final String STOCK_MOVEMENT_SCOPE = "POST /warehouses/{id}/stock-movements";
 
     @Inject
     CreateWarehouseUseCase createWarehouseUseCase;
@@ -33,68 +70,220 @@ public class WarehouseResourceImpl {
     @Inject
     ArchiveWarehouseUseCase archiveWarehouseUseCase;
 
+    @Inject
+    TransferStockUseCase transferStockUseCase;
+
+    @Inject
+    RecordStockMovementUseCase recordStockMovementUseCase;
+
     @Inject
     WarehouseStore warehouseStore;
 
+    @Inject
+    StockLedger stockLedger;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    OptimisticLockRetry optimisticLockRetry;
+
+    @Inject
+    IdempotentRequests idempotentRequests;
+
     @GET
-    public Response listAllWarehousesUnits() {
+    @ReadOnly
+    public Response listAllWarehousesUnits(@QueryParam("after") String after,
+                                           @QueryParam("limit") Integer limit) {
         try {
-            List<Warehouse> warehouses = warehouseStore.findAllActive();
-            List<WarehouseResponse> response = warehouses.stream()
+            int pageSize = resolvePageSize(limit);
+            Long afterId = PageToken.decode(after);
+
+            // Fetch one extra row to learn whether another page exists without a COUNT query
+            List<WarehouseView> warehouses = warehouseStore.findActivePage(afterId, pageSize + 1);
+            boolean hasNextPage = warehouses.size() > pageSize;
+            List<WarehouseView> page = hasNextPage ? warehouses.subList(0, pageSize) : warehouses;
+
+            List<WarehouseResponse> response = page.stream()
                     .map(this::toApiResponse)
                     .collect(Collectors.toList());
-            return Response.ok(response).build();
+
+            Response.ResponseBuilder builder = Response.ok(response);
+            if (hasNextPage) {
+                builder.header(CONTINUATION_TOKEN_HEADER, PageToken.encode(page.get(page.size() - 1).getId()));
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return buildInternalServerErrorResponse("Failed to retrieve warehouses", e);
         }
     }
 
+    @GET
+    @Path("/export")
+    @Produces(NDJSON_MEDIA_TYPE)
+    public Response exportWarehouses() {
+        // Rows are read from a database cursor and written one JSON document per line while the
+        // response is being sent. Writes block when the client reads slowly, which in turn stops
+        // the cursor from advancing, so nothing piles up in memory.
+        StreamingOutput stream = output -> {
+            ObjectWriter writer = objectMapper.writerFor(WarehouseResponse.class);
+            int[] written = {0};
+            try {
+                warehouseStore.forEachActive(warehouse -> {
+                    writeNdjsonLine(output, writer, warehouse);
+                    // Flush the first row right away for a fast first byte, then in batches
+                    if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+                        flush(output);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            output.flush();
+        };
+        return Response.ok(stream, NDJSON_MEDIA_TYPE).build();
+    }
+
     @POST
     @Transactional
-    public Response createANewWarehouseUnit(@Valid WarehouseRequest request) {
+    public Response createANewWarehouseUnit(@HeaderParam(IdempotentRequests.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                            @Valid WarehouseRequest request) {
         try {
             validateWarehouseRequest(request);
 
-            String warehouseId = generateWarehouseId();
-            String warehouseName = generateWarehouseName(request.getBusinessUnitCode(), request.getLocationIdentifier());
+            // A retried request replays the first response instead of creating another warehouse
+            return idempotentRequests.execute(CREATE_SCOPE, idempotencyKey, request, () -> {
+                Warehouse domainWarehouse = toNewDomainWarehouse(request);
+
+                createWarehouseUseCase.create(domainWarehouse);
 
-            Warehouse domainWarehouse = Warehouse.builder()
-                    .identifier(warehouseId)
-                    .businessUnitCode(request.getBusinessUnitCode())
-                    .locationIdentifier(request.getLocationIdentifier())
-                    .capacity(request.getCapacity())
-                    .currentStock(request.getStock())
-                    .name(warehouseName)
-                    .active(true)
-                    .archived(false)
+                WarehouseResponse response = toApiResponse(domainWarehouse);
+                return Response.status(Response.Status.CREATED).entity(response).build();
+            });
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (Exception e) {
+            return buildInternalServerErrorResponse("Failed to create warehouse", e);
+        }
+    }
 
-            createWarehouseUseCase.create(domainWarehouse);
+    @POST
+    @Path("/batch")
+    @Transactional
+    public Response createWarehouseUnitsInBatch(List<WarehouseRequest> requests) {
+        try {
+            validateBatchSize(requests);
+
+            // Items that fail request validation never reach the use case; the rest are validated
+            // and inserted together, so results are merged back by position
+            BatchItemResponse[] results = new BatchItemResponse[requests.size()];
+            List<Warehouse> candidates = new ArrayList<>(requests.size());
+            List<Integer> candidateIndexes = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                try {
+                    validateBatchItem(requests.get(i));
+                    candidates.add(toNewDomainWarehouse(requests.get(i)));
+                    candidateIndexes.add(i);
+                } catch (IllegalArgumentException e) {
+                    results[i] = BatchItemResponse.rejected(i, e.getMessage());
+                }
+            }
 
-            WarehouseResponse response = toApiResponse(domainWarehouse);
-            return Response.status(Response.Status.CREATED).entity(response).build();
+            List<WarehouseCreationResult> outcomes = candidates.isEmpty()
+                    ? List.of()
+                    : createWarehouseUseCase.createAll(candidates);
+            for (int j = 0; j < outcomes.size(); j++) {
+                int index = candidateIndexes.get(j);
+                WarehouseCreationResult outcome = outcomes.get(j);
+                results[index] = outcome.isCreated()
+                        ? BatchItemResponse.created(index, toApiResponse(outcome.getWarehouse()))
+                        : BatchItemResponse.rejected(index, outcome.getError());
+            }
+
+            return Response.ok(Arrays.asList(results)).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
         } catch (Exception e) {
-            return buildInternalServerErrorResponse("Failed to create warehouse", e);
+            return buildInternalServerErrorResponse("Failed to create warehouses", e);
+        }
+    }
+
+    @POST
+    @Path("/lookup")
+    @ReadOnly
+    public Response lookupWarehouseUnits(WarehouseLookupRequest request) {
+        try {
+            List<String> identifiers = validateLookupRequest(request);
+
+            // Looked up in canonical form, answered under the identifiers as they were sent
+            Map<String, String> canonicalIdentifiers = new LinkedHashMap<>();
+            for (String identifier : identifiers) {
+                canonicalIdentifiers.put(identifier, WarehouseIdentifiers.isValid(identifier)
+                        ? WarehouseIdentifiers.canonical(identifier) : identifier);
+            }
+            Map<String, WarehouseView> found = new HashMap<>();
+            for (WarehouseView view : warehouseStore.findByIdentifiers(
+                    canonicalIdentifiers.values().stream().distinct().collect(Collectors.toList()))) {
+                found.put(view.getIdentifier(), view);
+            }
+
+            Map<String, WarehouseResponse> warehouses = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>();
+            for (String identifier : identifiers) {
+                WarehouseView view = found.get(canonicalIdentifiers.get(identifier));
+                if (view != null) {
+                    warehouses.put(identifier, toApiResponse(view));
+                } else {
+                    missing.add(identifier);
+                }
+            }
+            return Response.ok(new WarehouseLookupResponse(warehouses, missing)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return buildInternalServerErrorResponse("Failed to look up warehouses", e);
         }
     }
 
     @GET
     @Path("/{id}")
-    public Response getAWarehouseUnitByID(@PathParam("id") String id) {
+    @ReadOnly
+    public Response getAWarehouseUnitByID(@PathParam("id") String id,
+                                          @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         try {
-            validateWarehouseId(id);
+            String identifier = validateWarehouseId(id);
+
+            WarehouseView warehouseView = warehouseStore.findViewByIdentifier(identifier);
+            if (warehouseView == null) {
+                return buildNotFoundResponse(identifier);
+            }
 
-            Warehouse domainWarehouse = warehouseStore.findByIdentifier(id);
-            if (domainWarehouse == null) {
-                return buildNotFoundResponse(id);
+            // Unchanged since the client's copy: answer 304 without building or serializing a body
+            String etag = EntityTags.of(warehouseView.getVersion());
+            if (EntityTags.noneMatchHits(ifNoneMatch, etag)) {
+                return Response.notModified().header(HttpHeaders.ETAG, etag).build();
             }
 
-            WarehouseResponse response = toApiResponse(domainWarehouse);
-            return Response.ok(response).build();
+            WarehouseResponse response = toApiResponse(warehouseView);
+            return Response.ok(response).header(HttpHeaders.ETAG, etag).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -106,32 +295,19 @@ public class WarehouseResourceImpl {
 
     @PUT
     @Path("/{id}")
-    @Transactional
-    public Response updateWarehouseUnit(@PathParam("id") String id, @Valid WarehouseRequest request) {
+    public Response updateWarehouseUnit(@PathParam("id") String id,
+                                        @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                        @Valid WarehouseRequest request) {
         try {
-            validateWarehouseId(id);
+            String identifier = validateWarehouseId(id);
             validateWarehouseRequest(request);
 
-            Warehouse existingWarehouse = warehouseStore.findByIdentifier(id);
-            if (existingWarehouse == null) {
-                return buildNotFoundResponse(id);
-            }
-
-            Warehouse updatedWarehouse = Warehouse.builder()
-                    .identifier(id)
-                    .businessUnitCode(request.getBusinessUnitCode())
-                    .locationIdentifier(request.getLocationIdentifier())
-                    .capacity(request.getCapacity())
-                    .currentStock(request.getStock())
-                    .name(existingWarehouse.getName())
-                    .active(true)
-                    .archived(false)
+            // Each attempt runs in its own transaction and re-reads everything it validates
+            return optimisticLockRetry.call(() -> replaceWarehouse(identifier, ifMatch, request));
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
                     .build();
-
-            replaceWarehouseUseCase.replace(updatedWarehouse);
-
-            WarehouseResponse response = toApiResponse(updatedWarehouse);
-            return Response.ok(response).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -143,19 +319,67 @@ public class WarehouseResourceImpl {
 
     @DELETE
     @Path("/{id}")
-    @Transactional
     public Response archiveAWarehouseUnitByID(@PathParam("id") String id) {
         try {
-            validateWarehouseId(id);
+            String identifier = validateWarehouseId(id);
 
-            Warehouse domainWarehouse = warehouseStore.findByIdentifier(id);
-            if (domainWarehouse == null) {
-                return buildNotFoundResponse(id);
-            }
+            return optimisticLockRetry.call(() -> archiveWarehouse(identifier));
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return buildInternalServerErrorResponse("Failed to archive warehouse", e);
+        }
+    }
 
-            archiveWarehouseUseCase.archive(domainWarehouse);
+    @POST
+    @Path("/transfers")
+    public Response transferStock(@HeaderParam(IdempotentRequests.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                  StockTransferRequest request) {
+        try {
+            validateTransferRequest(request);
+
+            // Both warehouses change in one transaction; a retried request replays the first
+            // response instead of moving the stock twice
+            return optimisticLockRetry.call(() -> idempotentRequests.execute(TRANSFER_SCOPE, idempotencyKey, request,
+                    () -> transferStock(request)));
+        } catch (WarehouseNotFoundException e) {
+            // Caught out here, so the transaction still rolls back whichever side was already moved
+            return buildNotFoundResponse(e.getIdentifier());
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return buildInternalServerErrorResponse("Failed to transfer stock", e);
+        }
+    }
 
-            return Response.noContent().build();
+    @POST
+    @Path("/{id}/stock-movements")
+    @Transactional
+    public Response recordStockMovement(@PathParam("id") String id,
+                                        @HeaderParam(IdempotentRequests.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                        StockMovementRequest request) {
+        try {
+            String identifier = validateWarehouseId(id);
+            validateStockMovementRequest(request);
+
+            // Only a row is inserted, without locking the warehouse, so concurrent movements on one
+            // warehouse never wait for each other; the compactor enforces the stock bounds. The
+            // identifier is part of the fingerprint: the same key sent for another warehouse is a
+            // different request
+            return idempotentRequests.execute(STOCK_MOVEMENT_SCOPE, idempotencyKey, List.of(identifier, request),
+                    () -> recordStockMovement(identifier, request));
         } catch (IllegalStateException e) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -165,19 +389,123 @@ public class WarehouseResourceImpl {
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
         } catch (Exception e) {
-            return buildInternalServerErrorResponse("Failed to archive warehouse", e);
+            return buildInternalServerErrorResponse("Failed to record stock movement", e);
+        }
+    }
+
+    @GET
+    @Path("/{id}/stock")
+    @ReadOnly
+    public Response getStockLevel(@PathParam("id") String id) {
+        try {
+            String identifier = validateWarehouseId(id);
+
+            StockLevel stockLevel = stockLedger.stockLevel(identifier);
+            if (stockLevel == null) {
+                return buildNotFoundResponse(identifier);
+            }
+            return Response.ok(new StockLevelResponse(stockLevel.getIdentifier(), stockLevel.getCompactedStock(),
+                    stockLevel.getPendingDelta(), stockLevel.getPendingMovements(), stockLevel.getStock())).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return buildInternalServerErrorResponse("Failed to retrieve stock level", e);
         }
     }
 
     // Helper Methods
 
-    void validateWarehouseId(String id) {
+    Response replaceWarehouse(String id, String ifMatch, WarehouseRequest request) {
+        // No read here: the use case checks If-Match against the version it validates and writes.
+        // The request carries no name; the use case copies the stored one back after the UPDATE.
+        Warehouse updatedWarehouse = Warehouse.builder()
+                .identifier(id)
+                .businessUnitCode(request.getBusinessUnitCode())
+                .locationIdentifier(request.getLocationIdentifier())
+                .capacity(request.getCapacity())
+                .currentStock(request.getStock())
+                .active(true)
+                .archived(false)
+                .buildReplacement();
+        updatedWarehouse.setVersion(EntityTags.requiredVersion(ifMatch));
+
+        try {
+            replaceWarehouseUseCase.replace(updatedWarehouse);
+        } catch (WarehouseNotFoundException e) {
+            return buildNotFoundResponse(id);
+        } catch (WarehouseVersionMismatchException e) {
+            return buildPreconditionFailedResponse(id);
+        }
+
+        WarehouseResponse response = toApiResponse(updatedWarehouse);
+        return Response.ok(response)
+                .header(HttpHeaders.ETAG, EntityTags.of(updatedWarehouse.getVersion()))
+                .build();
+    }
+
+    Response archiveWarehouse(String id) {
+        try {
+            archiveWarehouseUseCase.archive(id);
+        } catch (WarehouseNotFoundException e) {
+            return buildNotFoundResponse(id);
+        }
+        return Response.noContent().build();
+    }
+
+    Response transferStock(StockTransferRequest request) {
+        StockTransfer transfer = transferStockUseCase.transfer(
+                WarehouseIdentifiers.canonical(request.getSourceIdentifier()),
+                WarehouseIdentifiers.canonical(request.getTargetIdentifier()), request.getQuantity());
+        StockTransferResponse response = new StockTransferResponse(
+                toApiResponse(transfer.getSource()), toApiResponse(transfer.getTarget()), transfer.getQuantity());
+        return Response.ok(response).build();
+    }
+
+    Response recordStockMovement(String id, StockMovementRequest request) {
+        StockMovement movement;
+        try {
+            movement = recordStockMovementUseCase.record(id, request.getDelta(), request.getReason());
+        } catch (WarehouseNotFoundException e) {
+            return buildNotFoundResponse(id);
+        }
+        StockMovementResponse response = new StockMovementResponse(String.valueOf(movement.getId()),
+                movement.getWarehouseIdentifier(), movement.getDelta(), movement.getReason(), movement.getRecordedAt());
+        return Response.status(Response.Status.CREATED).entity(response).build();
+    }
+
+    /**
+     * @return {@code id} in canonical form, the only one the stores and the cache are keyed by
+     */
+    String validateWarehouseId(String id) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("Warehouse ID cannot be null or empty");
         }
-        if (!id.startsWith(WAREHOUSE_ID_PREFIX)) {
+        if (!WarehouseIdentifiers.isValid(id)) {
             throw new IllegalArgumentException("Invalid warehouse ID format");
         }
+        return WarehouseIdentifiers.canonical(id);
+    }
+
+    void validateTransferRequest(StockTransferRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Transfer is required");
+        }
+        validateWarehouseId(request.getSourceIdentifier());
+        validateWarehouseId(request.getTargetIdentifier());
+        if (request.getQuantity() == null || request.getQuantity() < 1) {
+            throw new IllegalArgumentException("Transfer quantity must be at least 1");
+        }
+    }
+
+    void validateStockMovementRequest(StockMovementRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Stock movement is required");
+        }
+        if (request.getDelta() == null || request.getDelta() == 0) {
+            throw new IllegalArgumentException("Stock movement delta must be a non-zero number");
+        }
     }
 
     void validateWarehouseRequest(WarehouseRequest request) {
@@ -186,8 +514,94 @@ public class WarehouseResourceImpl {
         }
     }
 
+    void validateBatchSize(List<WarehouseRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one warehouse");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " warehouses");
+        }
+    }
+
+    /**
+     * @return the requested identifiers without blanks or duplicates, in request order
+     */
+    List<String> validateLookupRequest(WarehouseLookupRequest request) {
+        if (request == null || request.getIdentifiers() == null || request.getIdentifiers().isEmpty()) {
+            throw new IllegalArgumentException("At least one identifier is required");
+        }
+        List<String> identifiers = request.getIdentifiers().stream()
+                .filter(identifier -> identifier != null && !identifier.trim().isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (identifiers.size() > MAX_LOOKUP_SIZE) {
+            throw new IllegalArgumentException("Cannot look up more than " + MAX_LOOKUP_SIZE + " identifiers");
+        }
+        return identifiers;
+    }
+
+    // Bean validation would reject the whole batch, so items are checked one by one instead
+    void validateBatchItem(WarehouseRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Warehouse is required");
+        }
+        if (request.getBusinessUnitCode() == null || request.getBusinessUnitCode().trim().isEmpty()) {
+            throw new IllegalArgumentException("Business unit code is required");
+        }
+        if (request.getLocationIdentifier() == null || request.getLocationIdentifier().trim().isEmpty()) {
+            throw new IllegalArgumentException("Location is required");
+        }
+        if (request.getCapacity() == null || request.getCapacity() < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (request.getStock() == null || request.getStock() < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        validateWarehouseRequest(request);
+    }
+
+    void writeNdjsonLine(OutputStream output, ObjectWriter writer, WarehouseView warehouse) {
+        try {
+            output.write(writer.writeValueAsBytes(toApiResponse(warehouse)));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream output) {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    Warehouse toNewDomainWarehouse(WarehouseRequest request) {
+        return Warehouse.builder()
+                .identifier(generateWarehouseId())
+                .businessUnitCode(request.getBusinessUnitCode())
+                .locationIdentifier(request.getLocationIdentifier())
+                .capacity(request.getCapacity())
+                .currentStock(request.getStock())
+                .name(generateWarehouseName(request.getBusinessUnitCode(), request.getLocationIdentifier()))
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
     String generateWarehouseId() {
-        return WAREHOUSE_ID_PREFIX + UUID.randomUUID().toString();
+        return WarehouseIdentifiers.next();
     }
 
     String generateWarehouseName(String businessUnitCode, String location) {
@@ -209,12 +623,33 @@ public class WarehouseResourceImpl {
         return response;
     }
 
+    WarehouseResponse toApiResponse(WarehouseView warehouseView) {
+        WarehouseResponse response = new WarehouseResponse();
+        response.setId(String.valueOf(warehouseView.getId()));
+        response.setIdentifier(warehouseView.getIdentifier());
+        response.setActive(warehouseView.isActive());
+        response.setCreationDate(warehouseView.getCreationDate());
+        response.setBusinessUnitCode(warehouseView.getBusinessUnitCode());
+        response.setLocationIdentifier(warehouseView.getLocationIdentifier());
+        response.setCapacity(warehouseView.getCapacity());
+        response.setStock(warehouseView.getCurrentStock());
+        response.setArchived(warehouseView.isArchived());
+        response.setName(warehouseView.getName());
+        return response;
+    }
+
     Response buildNotFoundResponse(String id) {
         return Response.status(Response.Status.NOT_FOUND)
                 .entity(new ErrorResponse("Warehouse not found with id: " + id))
                 .build();
     }
 
+    Response buildPreconditionFailedResponse(String id) {
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(new ErrorResponse("Warehouse has been modified since it was read: " + id))
+                .build();
+    }
+
     Response buildInternalServerErrorResponse(String message, Exception e) {
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(new ErrorResponse(message + ": " + e.getMessage()))
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A conditional write found the warehouse changed between validation and the write. Running the
+ * whole operation again, with fresh reads, can succeed.
+ */
+public class ConcurrentWarehouseUpdateException extends IllegalStateException {
+
+  public ConcurrentWarehouseUpdateException(String identifier) {
+    super("Warehouse was modified concurrently, please retry: " + identifier);
+  }
+}
@@ -5,6 +5,8 @@ public class Location {
   private String name;  // Added name field
   private int maxNumberOfWarehouses;
   private int maxCapacity;
+  // Capacity of all warehouses at the location together; 0 when not given
+  private int maxTotalCapacity;
 
   // Public no-arg constructor
   public Location() {
@@ -17,6 +19,11 @@ public class Location {
     this.maxCapacity = maxCapacity;
   }
 
+  public Location(String identification, int maxNumberOfWarehouses, int maxCapacity, int maxTotalCapacity) {
+    this(identification, maxNumberOfWarehouses, maxCapacity);
+    this.maxTotalCapacity = maxTotalCapacity;
+  }
+
   // Constructor with name
   public Location(String identification, String name, int maxNumberOfWarehouses, int maxCapacity) {
     this.identification = identification;
@@ -31,6 +38,7 @@ public class Location {
     this.name = builder.name;
     this.maxNumberOfWarehouses = builder.maxNumberOfWarehouses;
     this.maxCapacity = builder.maxCapacity;
+    this.maxTotalCapacity = builder.maxTotalCapacity;
   }
 
   // Static factory method for builder
@@ -44,6 +52,7 @@ public class Location {
     private String name;
     private int maxNumberOfWarehouses = 0;  // Default value
     private int maxCapacity = 0;  // Default value
+    private int maxTotalCapacity = 0;  // Not given
 
     private Builder() {
     }
@@ -76,6 +85,11 @@ public class Location {
       return this;
     }
 
+    public Builder maxTotalCapacity(int maxTotalCapacity) {
+      this.maxTotalCapacity = maxTotalCapacity;
+      return this;
+    }
+
     public Location build() {
       validate();
       return new Location(this);
@@ -91,6 +105,9 @@ public class Location {
       if (maxCapacity < 0) {
         throw new IllegalArgumentException("Max capacity cannot be negative");
       }
+      if (maxTotalCapacity < 0) {
+        throw new IllegalArgumentException("Max total capacity cannot be negative");
+      }
     }
   }
 
@@ -111,6 +128,22 @@ public class Location {
     return maxCapacity;
   }
 
+  public int getMaxTotalCapacity() {
+    return maxTotalCapacity;
+  }
+
+  /**
+   * @return the capacity all warehouses at the location may have together; without an explicit
+   *         total, the most its other two limits allow
+   */
+  public int totalCapacityLimit() {
+    if (maxTotalCapacity > 0) {
+      return maxTotalCapacity;
+    }
+    long derived = (long) maxNumberOfWarehouses * maxCapacity;
+    return (int) Math.min(derived, Integer.MAX_VALUE);
+  }
+
   // Setters
   public void setIdentification(String identification) {
     this.identification = identification;
@@ -128,6 +161,10 @@ public class Location {
     this.maxCapacity = maxCapacity;
   }
 
+  public void setMaxTotalCapacity(int maxTotalCapacity) {
+    this.maxTotalCapacity = maxTotalCapacity;
+  }
+
   @Override
   public String toString() {
     return "Location{" +
@@ -135,6 +172,7 @@ public class Location {
             ", name='" + name + '\'' +
             ", maxNumberOfWarehouses=" + maxNumberOfWarehouses +
             ", maxCapacity=" + maxCapacity +
+            ", maxTotalCapacity=" + maxTotalCapacity +
             '}';
   }
 }
\ No newline at end of file
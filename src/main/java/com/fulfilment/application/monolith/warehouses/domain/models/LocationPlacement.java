@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * What a location has left for new warehouses: free warehouse slots, capacity not yet taken by its
+ * active warehouses, and the largest capacity one warehouse there may have.
+ */
+public final class LocationPlacement {
+
+    private final String locationIdentifier;
+    private final int freeWarehouseSlots;
+    private final long remainingCapacity;
+    private final int maxWarehouseCapacity;
+
+    public LocationPlacement(String locationIdentifier, int freeWarehouseSlots, long remainingCapacity,
+                             int maxWarehouseCapacity) {
+        this.locationIdentifier = locationIdentifier;
+        this.freeWarehouseSlots = freeWarehouseSlots;
+        this.remainingCapacity = remainingCapacity;
+        this.maxWarehouseCapacity = maxWarehouseCapacity;
+    }
+
+    /**
+     * @return whether a new warehouse of {@code capacity} fits every limit of the location
+     */
+    public boolean canHost(int capacity) {
+        return freeWarehouseSlots > 0 && capacity <= maxWarehouseCapacity && capacity <= remainingCapacity;
+    }
+
+    public String getLocationIdentifier() {
+        return locationIdentifier;
+    }
+
+    public int getFreeWarehouseSlots() {
+        return freeWarehouseSlots;
+    }
+
+    public long getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    public int getMaxWarehouseCapacity() {
+        return maxWarehouseCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "LocationPlacement{" +
+                "locationIdentifier='" + locationIdentifier + '\'' +
+                ", freeWarehouseSlots=" + freeWarehouseSlots +
+                ", remainingCapacity=" + remainingCapacity +
+                ", maxWarehouseCapacity=" + maxWarehouseCapacity +
+                '}';
+    }
+}
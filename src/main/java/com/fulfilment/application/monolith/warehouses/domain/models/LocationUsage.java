@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * How much of a location its active warehouses take up, as kept in the location aggregates.
+ */
+public final class LocationUsage {
+
+    private final String locationIdentifier;
+    private final int activeWarehouses;
+    private final long totalCapacity;
+
+    public LocationUsage(String locationIdentifier, int activeWarehouses, long totalCapacity) {
+        this.locationIdentifier = locationIdentifier;
+        this.activeWarehouses = activeWarehouses;
+        this.totalCapacity = totalCapacity;
+    }
+
+    public String getLocationIdentifier() {
+        return locationIdentifier;
+    }
+
+    public int getActiveWarehouses() {
+        return activeWarehouses;
+    }
+
+    public long getTotalCapacity() {
+        return totalCapacity;
+    }
+}
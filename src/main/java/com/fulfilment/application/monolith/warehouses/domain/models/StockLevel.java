@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A warehouse's stock as seen by readers: the compacted {@code current_stock} plus every movement
+ * recorded since the last compaction, with the capacity and state that bound it.
+ */
+public final class StockLevel {
+
+    private final String identifier;
+    private final int compactedStock;
+    private final long pendingDelta;
+    private final long pendingMovements;
+    private final int capacity;
+    private final boolean active;
+
+    public StockLevel(String identifier, int compactedStock, long pendingDelta, long pendingMovements,
+                      int capacity, boolean active) {
+        this.identifier = identifier;
+        this.compactedStock = compactedStock;
+        this.pendingDelta = pendingDelta;
+        this.pendingMovements = pendingMovements;
+        this.capacity = capacity;
+        this.active = active;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public int getCompactedStock() {
+        return compactedStock;
+    }
+
+    public long getPendingDelta() {
+        return pendingDelta;
+    }
+
+    public long getPendingMovements() {
+        return pendingMovements;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Whether the warehouse is active and not archived, i.e. can still take stock movements.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getStock() {
+        return compactedStock + pendingDelta;
+    }
+}
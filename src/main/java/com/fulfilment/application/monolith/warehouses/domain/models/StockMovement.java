@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.Instant;
+
+/**
+ * A recorded change to a warehouse's stock, pending until the stock ledger's compactor folds it
+ * into the warehouse's current stock.
+ */
+public final class StockMovement {
+
+    private final Long id;
+    private final String warehouseIdentifier;
+    private final int delta;
+    private final String reason;
+    private final Instant recordedAt;
+
+    public StockMovement(Long id, String warehouseIdentifier, int delta, String reason, Instant recordedAt) {
+        this.id = id;
+        this.warehouseIdentifier = warehouseIdentifier;
+        this.delta = delta;
+        this.reason = reason;
+        this.recordedAt = recordedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getWarehouseIdentifier() {
+        return warehouseIdentifier;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of a stock transfer: both warehouses as the transferring transaction left them.
+ */
+public final class StockTransfer {
+
+    private final WarehouseView source;
+    private final WarehouseView target;
+    private final int quantity;
+
+    public StockTransfer(WarehouseView source, WarehouseView target, int quantity) {
+        this.source = source;
+        this.target = target;
+        this.quantity = quantity;
+    }
+
+    public WarehouseView getSource() {
+        return source;
+    }
+
+    public WarehouseView getTarget() {
+        return target;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -1,20 +1,50 @@
 package com.fulfilment.application.monolith.warehouses.domain.models;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "warehouse")
-public class Warehouse extends PanacheEntity {
-
+// Business unit lookups read the index instead of the table. The unique constraint on the active
+// code is what finally keeps two active warehouses from sharing a code: the checks before a write
+// can race, or be skipped altogether for codes the business unit filter has never seen.
+@Table(name = "warehouse",
+        indexes = @Index(name = "idx_warehouse_business_unit_code", columnList = "business_unit_code"),
+        uniqueConstraints = @UniqueConstraint(name = Warehouse.ACTIVE_BUSINESS_UNIT_CODE_CONSTRAINT,
+                columnNames = "active_business_unit_code"))
+@Cacheable
+@NaturalIdCache
+public class Warehouse extends PanacheEntityBase {
+
+    public static final String ACTIVE_BUSINESS_UNIT_CODE_CONSTRAINT = "uk_warehouse_active_business_unit_code";
+
+    // Ids come from warehouse_seq in blocks (see SequenceAllocation), so batched inserts need no
+    // per-row round trip for their ids
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "warehouse_seq")
+    @SequenceGenerator(name = "warehouse_seq", sequenceName = "warehouse_seq",
+            allocationSize = SequenceAllocation.SIZE)
+    public Long id;
+
+    // Immutable business key; lookups by it resolve through the natural-id cache to the entity cache.
+    // Stored as a native uuid, without the "WH-" prefix (see WarehouseIdentifiers)
+    @NaturalId
+    @Convert(converter = WarehouseIdentifierConverter.class)
     @Column(name = "identifier", unique = true, nullable = false)
     public String identifier;
 
     @Column(name = "business_unit_code", nullable = false)
     public String businessUnitCode;
 
+    // The business unit code while the warehouse is active, NULL otherwise (NULLs never collide).
+    // Kept in step on every entity write; the bulk updates set it themselves
+    @Column(name = "active_business_unit_code")
+    String activeBusinessUnitCode;
+
     @Column(name = "location_identifier", nullable = false)
     public String locationIdentifier;
 
@@ -36,6 +66,17 @@ public class Warehouse extends PanacheEntity {
     @Column(name = "creation_date")
     public LocalDateTime creationDate = LocalDateTime.now();
 
+    // Bumped by Hibernate on every update; exposed to clients as the ETag of the warehouse
+    @Version
+    @Column(name = "version")
+    public Long version;
+
+    @PrePersist
+    @PreUpdate
+    void syncActiveBusinessUnitCode() {
+        activeBusinessUnitCode = Boolean.TRUE.equals(active) ? businessUnitCode : null;
+    }
+
     // Public no-arg constructor
     public Warehouse() {
         this.active = false;
@@ -96,6 +137,10 @@ public class Warehouse extends PanacheEntity {
         return archived;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(Long id) {
         this.id = id;
@@ -129,6 +174,10 @@ public class Warehouse extends PanacheEntity {
         this.archived = archived;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Static factory method for builder
     public static Builder builder() {
         return new Builder();
@@ -208,14 +257,26 @@ public class Warehouse extends PanacheEntity {
         }
 
         public Warehouse build() {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("Name cannot be null or empty");
+            }
             validate();
             return new Warehouse(this);
         }
 
-        private void validate() {
-            if (name == null || name.trim().isEmpty()) {
-                throw new IllegalArgumentException("Name cannot be null or empty");
+        /**
+         * Builds the replacement for a stored warehouse. A replace never changes the name, so none is
+         * required here; the replace use case copies the stored one back once the row is written.
+         */
+        public Warehouse buildReplacement() {
+            if (identifier == null || identifier.trim().isEmpty()) {
+                throw new IllegalArgumentException("Identifier cannot be null or empty");
             }
+            validate();
+            return new Warehouse(this);
+        }
+
+        private void validate() {
             if (businessUnitCode == null || businessUnitCode.trim().isEmpty()) {
                 throw new IllegalArgumentException("Business unit code cannot be null or empty");
             }
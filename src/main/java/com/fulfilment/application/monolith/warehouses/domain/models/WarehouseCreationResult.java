@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of one item of a batch creation: either the created warehouse or the reason it was
+ * rejected. Results are returned in the order of the submitted batch.
+ */
+public final class WarehouseCreationResult {
+
+    private final Warehouse warehouse;
+    private final String error;
+
+    private WarehouseCreationResult(Warehouse warehouse, String error) {
+        this.warehouse = warehouse;
+        this.error = error;
+    }
+
+    public static WarehouseCreationResult created(Warehouse warehouse) {
+        return new WarehouseCreationResult(warehouse, null);
+    }
+
+    public static WarehouseCreationResult rejected(String error) {
+        return new WarehouseCreationResult(null, error);
+    }
+
+    public boolean isCreated() {
+        return warehouse != null;
+    }
+
+    public Warehouse getWarehouse() {
+        return warehouse;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.UUID;
+
+/**
+ * Stores {@code "WH-<uuid>"} identifiers as a native 16-byte {@code uuid} column instead of a
+ * 39-character string. JPQL parameters compared with the identifier go through it as well.
+ */
+@Converter
+public class WarehouseIdentifierConverter implements AttributeConverter<String, UUID> {
+
+    @Override
+    public UUID convertToDatabaseColumn(String identifier) {
+        return identifier == null ? null : WarehouseIdentifiers.toUuid(identifier);
+    }
+
+    @Override
+    public String convertToEntityAttribute(UUID uuid) {
+        return uuid == null ? null : WarehouseIdentifiers.fromUuid(uuid);
+    }
+}
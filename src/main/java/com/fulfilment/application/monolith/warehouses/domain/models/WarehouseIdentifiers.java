@@ -0,0 +1,95 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warehouse identifiers: {@code "WH-"} followed by a time-ordered UUID in the RFC 9562 version 7
+ * layout. Only the UUID is stored (see {@code WarehouseIdentifierConverter}); the prefix exists in
+ * the API representation only.
+ *
+ * <p>The leading 48 bits are the Unix time in milliseconds, so identifiers created around the same
+ * time sort next to each other and inserts land on the right-most pages of the unique index
+ * instead of on random ones. The following 12 bits count identifiers within the millisecond,
+ * keeping identifiers from one node strictly increasing. The remaining 62 bits come from
+ * {@link ThreadLocalRandom}, which never blocks on an entropy pool; identifiers need to be unique,
+ * not unguessable.
+ */
+public final class WarehouseIdentifiers {
+
+    public static final String PREFIX = "WH-";
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_9562 = 0x8000_0000_0000_0000L;
+
+    // Milliseconds since the epoch << COUNTER_BITS | counter, of the last identifier handed out
+    private static final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    private WarehouseIdentifiers() {
+    }
+
+    public static String next() {
+        return PREFIX + nextUuid();
+    }
+
+    static UUID nextUuid() {
+        return nextUuid(System.currentTimeMillis());
+    }
+
+    static UUID nextUuid(long epochMillis) {
+        long candidate = epochMillis << COUNTER_BITS;
+        // More than 4096 identifiers in one millisecond borrow from the next one rather than repeat
+        long timestampAndCounter = lastTimestampAndCounter.updateAndGet(last -> Math.max(last + 1, candidate));
+
+        long mostSignificant = (timestampAndCounter >>> COUNTER_BITS) << 16
+                | VERSION_7
+                | (timestampAndCounter & ((1L << COUNTER_BITS) - 1));
+        long leastSignificant = VARIANT_RFC_9562 | (ThreadLocalRandom.current().nextLong() >>> 2);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * @return whether {@code identifier} is a prefixed UUID, the only form a warehouse can have
+     */
+    public static boolean isValid(String identifier) {
+        return toUuidOrNull(identifier) != null;
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code identifier} is not a prefixed UUID
+     */
+    public static UUID toUuid(String identifier) {
+        UUID uuid = toUuidOrNull(identifier);
+        if (uuid == null) {
+            throw new IllegalArgumentException("Invalid warehouse identifier: " + identifier);
+        }
+        return uuid;
+    }
+
+    public static String fromUuid(UUID uuid) {
+        return PREFIX + uuid;
+    }
+
+    /**
+     * @return {@code identifier} as it is stored and handed out: {@link #isValid} accepts upper-case
+     *         hex digits too, which name the same warehouse
+     * @throws IllegalArgumentException when {@code identifier} is not a prefixed UUID
+     */
+    public static String canonical(String identifier) {
+        return fromUuid(toUuid(identifier));
+    }
+
+    private static UUID toUuidOrNull(String identifier) {
+        // Canonical form only: UUID.fromString also accepts shortened groups like "1-2-3-4-5"
+        if (identifier == null || identifier.length() != PREFIX.length() + 36 || !identifier.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(identifier.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Everything the create and replace use cases read from the database before deciding, loaded
+ * together in one statement: the warehouse being replaced (if any) with its pending stock movements,
+ * whether another active warehouse already uses the business unit code, and the aggregates of the
+ * target location.
+ */
+public final class WarehouseMutationFacts {
+
+    private final WarehouseView existing;
+    private final boolean businessUnitCodeTaken;
+    private final int activeWarehousesAtLocation;
+    private final long totalCapacityAtLocation;
+    private final long pendingStockDelta;
+
+    public WarehouseMutationFacts(WarehouseView existing,
+                                  boolean businessUnitCodeTaken,
+                                  int activeWarehousesAtLocation,
+                                  long totalCapacityAtLocation,
+                                  long pendingStockDelta) {
+        this.existing = existing;
+        this.businessUnitCodeTaken = businessUnitCodeTaken;
+        this.activeWarehousesAtLocation = activeWarehousesAtLocation;
+        this.totalCapacityAtLocation = totalCapacityAtLocation;
+        this.pendingStockDelta = pendingStockDelta;
+    }
+
+    /**
+     * @return the stored warehouse with the requested identifier, or {@code null} if none exists
+     */
+    public WarehouseView getExisting() {
+        return existing;
+    }
+
+    /**
+     * @return {@code true} when an active warehouse other than the requested one uses the code
+     */
+    public boolean isBusinessUnitCodeTaken() {
+        return businessUnitCodeTaken;
+    }
+
+    public int getActiveWarehousesAtLocation() {
+        return activeWarehousesAtLocation;
+    }
+
+    public long getTotalCapacityAtLocation() {
+        return totalCapacityAtLocation;
+    }
+
+    /**
+     * @return the sum of the existing warehouse's stock movements not compacted yet, 0 without one
+     */
+    public long getPendingStockDelta() {
+        return pendingStockDelta;
+    }
+
+    /**
+     * @return the stock of the existing warehouse: its compacted stock plus the pending movements
+     */
+    public long getExistingStock() {
+        return existing != null ? existing.getCurrentStock() + pendingStockDelta : 0L;
+    }
+}
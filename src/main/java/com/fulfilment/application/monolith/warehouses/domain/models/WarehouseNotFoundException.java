@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * No warehouse has the given identifier. A subtype of {@link IllegalArgumentException}, so callers
+ * that only tell bad input from conflicts keep treating it as bad input.
+ */
+public class WarehouseNotFoundException extends IllegalArgumentException {
+
+  private final String identifier;
+
+  public WarehouseNotFoundException(String identifier) {
+    super("Warehouse not found: " + identifier);
+    this.identifier = identifier;
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+}
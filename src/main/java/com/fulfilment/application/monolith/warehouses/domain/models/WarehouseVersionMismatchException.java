@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * The caller required a specific version of the warehouse (an HTTP {@code If-Match}) and the
+ * stored row is at another one.
+ */
+public class WarehouseVersionMismatchException extends IllegalStateException {
+
+  private final String identifier;
+
+  public WarehouseVersionMismatchException(String identifier) {
+    super("Warehouse has been modified since it was read: " + identifier);
+    this.identifier = identifier;
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+}
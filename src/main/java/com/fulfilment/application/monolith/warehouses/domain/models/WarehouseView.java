@@ -0,0 +1,121 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable read model of a warehouse. Read queries select straight into it (JPQL constructor
+ * expression), so no managed entity, persistence-context entry or dirty-check snapshot is created.
+ */
+public final class WarehouseView {
+
+    private final Long id;
+    private final String identifier;
+    private final String name;
+    private final String businessUnitCode;
+    private final String locationIdentifier;
+    private final Integer capacity;
+    private final Integer currentStock;
+    private final Boolean active;
+    private final Boolean archived;
+    private final LocalDateTime creationDate;
+    private final Long version;
+
+    // Parameter order and types must match the JPQL constructor expressions in WarehouseRepository
+    public WarehouseView(Long id,
+                         String identifier,
+                         String name,
+                         String businessUnitCode,
+                         String locationIdentifier,
+                         Integer capacity,
+                         Integer currentStock,
+                         Boolean active,
+                         Boolean archived,
+                         LocalDateTime creationDate,
+                         Long version) {
+        this.id = id;
+        this.identifier = identifier;
+        this.name = name;
+        this.businessUnitCode = businessUnitCode;
+        this.locationIdentifier = locationIdentifier;
+        this.capacity = capacity;
+        this.currentStock = currentStock;
+        this.active = active;
+        this.archived = archived;
+        this.creationDate = creationDate;
+        this.version = version;
+    }
+
+    public static WarehouseView from(Warehouse warehouse) {
+        return new WarehouseView(
+                warehouse.getId(),
+                warehouse.getIdentifier(),
+                warehouse.getName(),
+                warehouse.businessUnitCode,
+                warehouse.locationIdentifier,
+                warehouse.capacity,
+                warehouse.currentStock,
+                warehouse.active,
+                warehouse.archived,
+                warehouse.creationDate,
+                warehouse.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBusinessUnitCode() {
+        return businessUnitCode;
+    }
+
+    public String getLocationIdentifier() {
+        return locationIdentifier;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getCurrentStock() {
+        return currentStock;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "WarehouseView{" +
+                "id=" + id +
+                ", identifier='" + identifier + '\'' +
+                ", businessUnitCode='" + businessUnitCode + '\'' +
+                ", locationIdentifier='" + locationIdentifier + '\'' +
+                ", capacity=" + capacity +
+                ", currentStock=" + currentStock +
+                ", active=" + active +
+                ", archived=" + archived +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -1,7 +1,5 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
-import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
-
 public interface ArchiveWarehouseOperation {
-  void archive(Warehouse warehouse);
+  void archive(String identifier);
 }
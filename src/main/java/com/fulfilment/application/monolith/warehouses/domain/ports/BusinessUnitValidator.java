@@ -2,5 +2,26 @@ package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 public interface BusinessUnitValidator {
 
+    /**
+     * @return whether the code is free of the reserved codes; warehouses using it are not checked
+     */
     boolean isBusinessUnitCodeUnique(String businessUnitCode);
+
+    /**
+     * Whether an active warehouse might use the code. {@code false} is certain, and the stored
+     * warehouses need not be checked; {@code true} may be a false positive.
+     */
+    boolean mightBeInUse(String businessUnitCode);
+
+    /**
+     * Reports what checking the stored warehouses for a code {@link #mightBeInUse} matched found.
+     */
+    void recordLookup(boolean inUse);
+
+    /**
+     * Notes that a warehouse now uses the code, so later checks do not report it as unique. Called
+     * after the warehouse is written; a transaction that rolls back afterwards leaves the code
+     * recorded, which only costs a lookup.
+     */
+    void recordBusinessUnitCode(String businessUnitCode);
 }
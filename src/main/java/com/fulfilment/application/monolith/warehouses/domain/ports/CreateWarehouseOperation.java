@@ -1,7 +1,16 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import java.util.List;
 
 public interface CreateWarehouseOperation {
   void create(Warehouse warehouse);
+
+  /**
+   * Validates every warehouse against the same rules as {@link #create}, counting the items
+   * accepted earlier in the batch, and inserts the accepted ones together. Rejected items do not
+   * abort the batch; each gets a result in submission order.
+   */
+  List<WarehouseCreationResult> createAll(List<Warehouse> warehouses);
 }
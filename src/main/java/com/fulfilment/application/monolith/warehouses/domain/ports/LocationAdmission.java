@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import java.util.Collection;
+
+/**
+ * Serializes warehouse creation per location, so the feasibility checks and the insert that
+ * follows them cannot interleave with another creator at the same location, whether in this
+ * process or on another node. Creators at different locations never wait for each other.
+ */
+public interface LocationAdmission {
+
+  /**
+   * Blocks until the current transaction holds every given location, and keeps holding them until
+   * the transaction completes. Admitting a location the transaction already holds does nothing.
+   *
+   * @throws IllegalStateException if a location stays busy for longer than the configured wait
+   */
+  void admit(Collection<String> locationIdentifiers);
+}
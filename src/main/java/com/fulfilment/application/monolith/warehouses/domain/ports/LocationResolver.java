@@ -1,7 +1,14 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.List;
 
 public interface LocationResolver {
   Location resolveByIdentifier(String identifier);
+
+  /**
+   * Locations whose identifier starts with {@code prefix}, e.g. every {@code "AMSTERDAM-"} site,
+   * sorted by identifier.
+   */
+  List<Location> resolveByIdentifierPrefix(String prefix);
 }
@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-location aggregates (active warehouse count, total capacity, total stock) kept alongside the
+ * warehouse rows, so feasibility checks read one row instead of scanning every warehouse at the
+ * location. Each method must run in the transaction that writes the warehouse itself.
+ */
+public interface LocationStatsStore {
+  void recordCreated(Warehouse warehouse);
+
+  /**
+   * Same as {@link #recordCreated} for each warehouse, with one write per location.
+   */
+  void recordCreatedAll(List<Warehouse> warehouses);
+
+  /**
+   * @param previous the stored warehouse, read before the replacement is written
+   */
+  void recordReplaced(WarehouseView previous, Warehouse replacement);
+
+  /**
+   * Removes the warehouse from its location's aggregates, given the state
+   * {@link WarehouseStore#archiveIfEmpty} returned for it. Must run in the same transaction, and
+   * only when the archive succeeded.
+   */
+  void recordArchived(WarehouseView archived);
+
+  /**
+   * Moves {@code quantity} units of stock between the aggregates of two locations; nothing changes
+   * when both are the same location. The two rows are always written in the same order, so
+   * concurrent moves between the same locations cannot deadlock.
+   */
+  void recordStockMoved(String fromLocationIdentifier, String toLocationIdentifier, int quantity);
+
+  /**
+   * Adds {@code quantity} to the stock total of the location.
+   */
+  void recordStockChanged(String locationIdentifier, long quantity);
+
+  /**
+   * The warehouse count and total capacity of every location that has aggregates, in one read.
+   */
+  List<LocationUsage> findAllUsage();
+
+  /**
+   * The aggregates of each of {@code locationIdentifiers} that has them, keyed by location, in one
+   * read.
+   */
+  Map<String, LocationUsage> findUsage(Collection<String> locationIdentifiers);
+}
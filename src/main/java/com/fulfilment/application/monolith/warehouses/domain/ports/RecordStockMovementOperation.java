@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+
+public interface RecordStockMovementOperation {
+  StockMovement record(String identifier, int delta, String reason);
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+
+/**
+ * Append-only record of stock changes. Appending inserts a row and never reads or locks the
+ * warehouse row, so it bumps no version, evicts no cached warehouse and never waits for another
+ * writer of the same warehouse. Movements are folded into the warehouse's current stock later, in
+ * batches; the stock bounds are enforced there, and a movement that would take the stock out of
+ * them is parked instead of folded.
+ */
+public interface StockLedger {
+
+  /**
+   * Appends a movement in the current transaction.
+   */
+  StockMovement append(WarehouseView warehouse, int delta, String reason);
+
+  /**
+   * Reads the compacted stock and the pending movements of the warehouse in one statement.
+   *
+   * @return {@code null} when no warehouse has the identifier
+   */
+  StockLevel stockLevel(String identifier);
+
+}
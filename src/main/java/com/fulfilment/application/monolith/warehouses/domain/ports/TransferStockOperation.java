@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+
+public interface TransferStockOperation {
+  StockTransfer transfer(String sourceIdentifier, String targetIdentifier, int quantity);
+}
@@ -2,15 +2,114 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface WarehouseStore {
   void create(Warehouse warehouse);
+
+  /**
+   * Persists the warehouses in JDBC batches. The persistence context is flushed and cleared
+   * between batches, so entities loaded earlier in the transaction become detached.
+   */
+  void createAll(List<Warehouse> warehouses);
+
   void update(Warehouse warehouse);
+
+  /**
+   * Overwrites the replaceable columns (business unit, location, capacity) of the warehouse with
+   * the replacement's identifier in one conditional statement, and bumps its version. Only applies
+   * while the stored stock, pending stock movements included, equals the replacement's stock and
+   * the stored version is still {@code expectedVersion}. Nothing is loaded, and the name and
+   * creation date are kept. The warehouse stays row-locked until the current transaction completes.
+   *
+   * @return {@code false} when no row met the conditions, and nothing was changed
+   */
+  boolean replaceIfStockMatches(Warehouse replacement, Long expectedVersion);
+
+  /**
+   * Archives the warehouse with one conditional statement, provided it exists, holds no stock, has
+   * no stock movements waiting to be compacted and is not archived yet. The row is locked first, so
+   * no concurrent stock writer can slip between the rules and the archive; stock movements, which
+   * take no lock, are parked by the compactor when recorded after it. No entity is loaded; entities
+   * already managed in the current persistence context do not see the change.
+   *
+   * @return the warehouse as it was right before it was archived, or {@code null} when no row met
+   *         the conditions, and nothing was changed
+   */
+  WarehouseView archiveIfEmpty(String identifier);
+
+  /**
+   * Adds {@code quantity} (negative to remove stock) to the stock of the warehouse in one relative
+   * conditional statement, and bumps its version. Only applies while the warehouse is active and
+   * its stock, pending stock movements included, stays between zero and its capacity. The warehouse
+   * is row-locked before the check and stays locked until the current transaction completes.
+   *
+   * @return {@code false} when no row met the conditions, and nothing was changed
+   */
+  boolean adjustStock(String identifier, int quantity);
+
+  /**
+   * Adds {@code quantity} to the stock of the warehouse unconditionally, and bumps its version.
+   * For the stock ledger's compactor, which folds pending movements in while holding the row lock.
+   */
+  void addToStock(String identifier, int quantity);
+
   Warehouse findByIdentifier(String identifier);
+  Warehouse findById(Long id);
   Warehouse findByBusinessUnitCode(String businessUnitCode);
+
   int countWarehousesAtLocation(String locationIdentifier);
   int getTotalCapacityAtLocation(String locationIdentifier);
   List<Warehouse> findAllByLocation(String locationIdentifier);
   List<Warehouse> findAllActive();
+
+  /**
+   * Loads, in a single statement, the warehouse with {@code identifier}, whether another active
+   * warehouse uses {@code businessUnitCode}, and the aggregates of {@code locationIdentifier}.
+   * Without {@code checkBusinessUnitCode} the code is not looked up and is reported as not taken.
+   */
+  WarehouseMutationFacts loadMutationFacts(String identifier, String businessUnitCode, String locationIdentifier,
+                                           boolean checkBusinessUnitCode);
+
+  /**
+   * The codes of {@code businessUnitCodes} that an active warehouse uses, looked up together so a
+   * batch of creates checks all of its codes at once.
+   */
+  Set<String> findActiveBusinessUnitCodes(Collection<String> businessUnitCodes);
+
+  // Read-only projections: rows are selected straight into WarehouseView, never into managed entities
+
+  WarehouseView findViewByIdentifier(String identifier);
+
+  List<WarehouseView> findActiveViewsByLocation(String locationIdentifier);
+
+  /**
+   * Warehouses whose identifier is in {@code identifiers}, in no particular order. Identifiers
+   * that do not exist are simply absent from the result.
+   */
+  List<WarehouseView> findByIdentifiers(Collection<String> identifiers);
+
+  /**
+   * Keyset page of active warehouses ordered by id, starting strictly after {@code afterId}
+   * ({@code null} for the first page) and holding at most {@code limit} rows.
+   */
+  List<WarehouseView> findActivePage(Long afterId, int limit);
+
+  /**
+   * Walks every active warehouse in id order with a forward-only cursor, handing each row to
+   * {@code consumer} as soon as it is read. Rows are not retained once the consumer returns,
+   * so memory use does not grow with the number of warehouses.
+   */
+  void forEachActive(Consumer<WarehouseView> consumer);
+
+  /**
+   * Walks the distinct business unit codes of the active warehouses with a forward-only cursor,
+   * like {@link #forEachActive}.
+   */
+  void forEachActiveBusinessUnitCode(Consumer<String> consumer);
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
-import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -10,35 +15,55 @@ import jakarta.inject.Inject;
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final LocationStatsStore locationStatsStore;
+  private final StockLedger stockLedger;
 
   @Inject
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore, LocationStatsStore locationStatsStore,
+                                 StockLedger stockLedger) {
     this.warehouseStore = warehouseStore;
+    this.locationStatsStore = locationStatsStore;
+    this.stockLedger = stockLedger;
   }
 
   @Override
-  public void archive(Warehouse warehouse) {
-    // Check if warehouse exists
-    Warehouse existingWarehouse = warehouseStore.findByIdentifier(warehouse.getIdentifier());
+  public void archive(String identifier) {
+    // The rules (exists, no stock, no pending movements, not archived yet) are checked by the
+    // UPDATE itself. The warehouse row is locked before the location aggregates, in the same order
+    // as replace, transfer and compaction, so none of them can deadlock with an archive.
+    WarehouseView archived = warehouseStore.archiveIfEmpty(identifier);
+    if (archived == null) {
+      throw archiveRefused(identifier);
+    }
+    locationStatsStore.recordArchived(archived);
+  }
+
+  /**
+   * Works out which rule stopped the archive; only reached when the conditional update changed
+   * nothing.
+   */
+  private RuntimeException archiveRefused(String identifier) {
+    WarehouseView existingWarehouse = warehouseStore.findViewByIdentifier(identifier);
     if (existingWarehouse == null) {
-      throw new IllegalArgumentException("Warehouse not found: " + warehouse.getIdentifier());
+      return new WarehouseNotFoundException(identifier);
     }
 
-    // Check if warehouse has any stock
     if (existingWarehouse.getCurrentStock() > 0) {
-      throw new IllegalStateException("Cannot archive warehouse with existing stock. " +
+      return new IllegalStateException("Cannot archive warehouse with existing stock. " +
               "Current stock: " + existingWarehouse.getCurrentStock());
     }
 
-    // Check if warehouse is already archived
-    if (existingWarehouse.isArchived()) {
-      throw new IllegalStateException("Warehouse is already archived: " + warehouse.getIdentifier());
+    StockLevel stockLevel = stockLedger.stockLevel(identifier);
+    if (stockLevel != null && stockLevel.getPendingMovements() > 0) {
+      return new IllegalStateException("Cannot archive warehouse with pending stock movements. " +
+              "Pending movements: " + stockLevel.getPendingMovements());
     }
 
-    // Archive the warehouse
-    existingWarehouse.setArchived(true);
-    existingWarehouse.setActive(false);
+    if (existingWarehouse.isArchived()) {
+      return new IllegalStateException("Warehouse is already archived: " + identifier);
+    }
 
-    warehouseStore.update(existingWarehouse);
+    // Every rule holds again, so the row changed since the archive ran; worth retrying
+    return new ConcurrentWarehouseUpdateException(identifier);
   }
-}
\ No newline at end of file
+}
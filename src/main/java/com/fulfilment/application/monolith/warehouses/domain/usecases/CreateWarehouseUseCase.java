@@ -2,13 +2,24 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationAdmission;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitValidator;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseCapacityValidator;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
@@ -16,35 +27,176 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
   private final BusinessUnitValidator businessUnitValidator;
-  private final WarehouseCapacityValidator capacityValidator;
+  private final LocationStatsStore locationStatsStore;
+  private final LocationAdmission locationAdmission;
 
   @Inject
   public CreateWarehouseUseCase(WarehouseStore warehouseStore,
                                 LocationResolver locationResolver,
                                 BusinessUnitValidator businessUnitValidator,
-                                WarehouseCapacityValidator capacityValidator) {
+                                LocationStatsStore locationStatsStore,
+                                LocationAdmission locationAdmission) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
     this.businessUnitValidator = businessUnitValidator;
-    this.capacityValidator = capacityValidator;
+    this.locationStatsStore = locationStatsStore;
+    this.locationAdmission = locationAdmission;
   }
 
   @Override
   public void create(Warehouse warehouse) {
-    // 1. Business Unit Code Verification
+    Map<String, Location> locations = resolveLocations(Collections.singletonList(warehouse));
+    admit(locations);
+    Location location = locations.get(warehouse.getLocationIdentifier());
+    BatchTally tally = new BatchTally();
+    checkRequest(warehouse, location, tally);
+
+    // Everything still to check against the database, read in one round trip. A code the business
+    // unit filter has never seen is not looked up; the unique active code catches a race on it.
+    boolean checkBusinessUnitCode = businessUnitValidator.mightBeInUse(warehouse.getBusinessUnitCode());
+    WarehouseMutationFacts facts = warehouseStore.loadMutationFacts(warehouse.getIdentifier(),
+            warehouse.getBusinessUnitCode(), warehouse.getLocationIdentifier(), checkBusinessUnitCode);
+    if (checkBusinessUnitCode) {
+      businessUnitValidator.recordLookup(facts.isBusinessUnitCodeTaken());
+    }
+    checkAgainstStored(warehouse, location, tally, facts.isBusinessUnitCodeTaken(),
+            facts.getActiveWarehousesAtLocation(), facts.getTotalCapacityAtLocation());
+
+    // Set warehouse as active
+    warehouse.setActive(true);
+    warehouse.setArchived(false);
+
+    // If all validations pass, create the warehouse
+    warehouseStore.create(warehouse);
+    locationStatsStore.recordCreated(warehouse);
+    businessUnitValidator.recordBusinessUnitCode(warehouse.getBusinessUnitCode());
+  }
+
+  @Override
+  public List<WarehouseCreationResult> createAll(List<Warehouse> warehouses) {
+    BatchTally tally = new BatchTally();
+    List<Warehouse> accepted = new ArrayList<>(warehouses.size());
+    List<WarehouseCreationResult> results = new ArrayList<>(warehouses.size());
+
+    Map<String, Location> locations = resolveLocations(warehouses);
+    Set<String> known = admit(locations);
+    // What the items are checked against, read once for the whole batch rather than per item: the
+    // aggregates of each location (held by the admission until commit) and the taken codes
+    Map<String, LocationUsage> usage = known.isEmpty()
+            ? Collections.emptyMap() : locationStatsStore.findUsage(known);
+    Set<String> takenBusinessUnitCodes = findTakenBusinessUnitCodes(warehouses);
+    for (Warehouse warehouse : warehouses) {
+      Location location = locations.get(warehouse.getLocationIdentifier());
+      try {
+        checkRequest(warehouse, location, tally);
+        LocationUsage stored = usage.get(warehouse.getLocationIdentifier());
+        checkAgainstStored(warehouse, location, tally,
+                takenBusinessUnitCodes.contains(warehouse.getBusinessUnitCode()),
+                stored != null ? stored.getActiveWarehouses() : 0,
+                stored != null ? stored.getTotalCapacity() : 0L);
+      } catch (IllegalArgumentException e) {
+        results.add(WarehouseCreationResult.rejected(e.getMessage()));
+        continue;
+      }
+      warehouse.setActive(true);
+      warehouse.setArchived(false);
+      tally.accept(warehouse);
+      accepted.add(warehouse);
+      results.add(WarehouseCreationResult.created(warehouse));
+    }
+
+    if (!accepted.isEmpty()) {
+      warehouseStore.createAll(accepted);
+      locationStatsStore.recordCreatedAll(accepted);
+      for (Warehouse warehouse : accepted) {
+        businessUnitValidator.recordBusinessUnitCode(warehouse.getBusinessUnitCode());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Resolves every target location once; admission and every limit check then read the same
+   * {@link Location}, so a location reload mid-request cannot mix limits from two versions.
+   *
+   * @return the location of each identifier, {@code null} for unknown ones
+   */
+  private Map<String, Location> resolveLocations(List<Warehouse> warehouses) {
+    Map<String, Location> locations = new HashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      String identifier = warehouse.getLocationIdentifier();
+      if (!locations.containsKey(identifier)) {
+        locations.put(identifier, locationResolver.resolveByIdentifier(identifier));
+      }
+    }
+    return locations;
+  }
+
+  /**
+   * Holds every (known) target location until the transaction completes, so the counts read during
+   * validation are still true when the rows are inserted. All locations of a batch are admitted up
+   * front, which lets the admission take them in a deadlock-free order.
+   */
+  private Set<String> admit(Map<String, Location> locations) {
+    Set<String> known = new HashSet<>();
+    // Unknown locations are rejected by validation; there is nothing to hold for them
+    locations.forEach((identifier, location) -> {
+      if (location != null) {
+        known.add(identifier);
+      }
+    });
+    if (!known.isEmpty()) {
+      locationAdmission.admit(known);
+    }
+    return known;
+  }
+
+  /**
+   * Looks up, in one go, the distinct codes of the batch the business unit filter cannot rule out.
+   */
+  private Set<String> findTakenBusinessUnitCodes(List<Warehouse> warehouses) {
+    Set<String> candidates = new HashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      String businessUnitCode = warehouse.getBusinessUnitCode();
+      if (businessUnitCode != null && businessUnitValidator.mightBeInUse(businessUnitCode)) {
+        candidates.add(businessUnitCode);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<String> taken = warehouseStore.findActiveBusinessUnitCodes(candidates);
+    for (String candidate : candidates) {
+      businessUnitValidator.recordLookup(taken.contains(candidate));
+    }
+    return taken;
+  }
+
+  private void checkRequest(Warehouse warehouse, Location location, BatchTally tally) {
+    // 1. Business Unit Code Verification (registry and in-batch; the stored rows are checked later)
+    if (tally.hasBusinessUnit(warehouse.getBusinessUnitCode())) {
+      throw new IllegalArgumentException("Business unit code is repeated in batch: " + warehouse.getBusinessUnitCode());
+    }
     if (!businessUnitValidator.isBusinessUnitCodeUnique(warehouse.getBusinessUnitCode())) {
       throw new IllegalArgumentException("Business unit code already exists: " + warehouse.getBusinessUnitCode());
     }
 
     // 2. Location Validation
-    Location location = locationResolver.resolveByIdentifier(warehouse.getLocationIdentifier());
     if (location == null) {
       throw new IllegalArgumentException("Invalid location identifier: " + warehouse.getLocationIdentifier());
     }
+  }
+
+  private void checkAgainstStored(Warehouse warehouse, Location location, BatchTally tally,
+                                  boolean businessUnitCodeTaken, int activeWarehousesAtLocation,
+                                  long totalCapacityAtLocation) {
+    if (businessUnitCodeTaken) {
+      throw new IllegalArgumentException("Business unit code already exists: " + warehouse.getBusinessUnitCode());
+    }
 
     // 3. Warehouse Creation Feasibility
-    int currentWarehouseCount = warehouseStore.countWarehousesAtLocation(warehouse.getLocationIdentifier());
-    if (!capacityValidator.canCreateWarehouseAtLocation(warehouse.getLocationIdentifier(), currentWarehouseCount)) {
+    int currentWarehouseCount = activeWarehousesAtLocation + tally.warehousesAt(warehouse.getLocationIdentifier());
+    if (currentWarehouseCount >= location.getMaxNumberOfWarehouses()) {
       throw new IllegalArgumentException("Maximum number of warehouses reached at location: " + warehouse.getLocationIdentifier());
     }
 
@@ -59,15 +211,40 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
               warehouse.getCapacity() + ", Stock: " + warehouse.getCurrentStock());
     }
 
-    if (!capacityValidator.hasSufficientCapacity(warehouse.getLocationIdentifier(), warehouse.getCapacity())) {
+    // Stored capacity, what the batch has accepted so far and the new warehouse; in long, so the sum
+    // cannot wrap past the limit
+    long requiredCapacity = totalCapacityAtLocation + tally.capacityAt(warehouse.getLocationIdentifier())
+            + warehouse.getCapacity();
+    if (requiredCapacity > location.totalCapacityLimit()) {
       throw new IllegalArgumentException("Insufficient capacity at location for new warehouse");
     }
+  }
 
-    // Set warehouse as active
-    warehouse.setActive(true);
-    warehouse.setArchived(false);
+  /**
+   * What a batch has accepted so far, so later items are validated as if the earlier ones were
+   * already stored.
+   */
+  private static final class BatchTally {
+    private final Set<String> businessUnits = new HashSet<>();
+    private final Map<String, Integer> acceptedWarehouses = new HashMap<>();
+    private final Map<String, Integer> acceptedCapacity = new HashMap<>();
 
-    // If all validations pass, create the warehouse
-    warehouseStore.create(warehouse);
+    boolean hasBusinessUnit(String businessUnitCode) {
+      return businessUnits.contains(businessUnitCode);
+    }
+
+    int warehousesAt(String locationIdentifier) {
+      return acceptedWarehouses.getOrDefault(locationIdentifier, 0);
+    }
+
+    int capacityAt(String locationIdentifier) {
+      return acceptedCapacity.getOrDefault(locationIdentifier, 0);
+    }
+
+    void accept(Warehouse warehouse) {
+      businessUnits.add(warehouse.getBusinessUnitCode());
+      acceptedWarehouses.merge(warehouse.getLocationIdentifier(), 1, Integer::sum);
+      acceptedCapacity.merge(warehouse.getLocationIdentifier(), warehouse.getCapacity(), Integer::sum);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.RecordStockMovementOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class RecordStockMovementUseCase implements RecordStockMovementOperation {
+
+  static final int MAX_REASON_LENGTH = 100;
+
+  private final WarehouseStore warehouseStore;
+  private final StockLedger stockLedger;
+
+  @Inject
+  public RecordStockMovementUseCase(WarehouseStore warehouseStore, StockLedger stockLedger) {
+    this.warehouseStore = warehouseStore;
+    this.stockLedger = stockLedger;
+  }
+
+  @Override
+  public StockMovement record(String identifier, int delta, String reason) {
+    if (delta == 0) {
+      throw new IllegalArgumentException("Stock movement delta cannot be zero");
+    }
+    if (reason == null || reason.trim().isEmpty()) {
+      throw new IllegalArgumentException("Stock movement reason is required");
+    }
+    if (reason.length() > MAX_REASON_LENGTH) {
+      throw new IllegalArgumentException("Stock movement reason cannot exceed " + MAX_REASON_LENGTH + " characters");
+    }
+
+    // Advisory only: the cached snapshot may predate an archive, a replace or a fold, and nothing
+    // is locked, so concurrent movements on one warehouse never wait for each other. The stock
+    // bounds are enforced when the compactor folds the movement in; one that would leave them is
+    // parked there
+    WarehouseView warehouse = warehouseStore.findViewByIdentifier(identifier);
+    if (warehouse == null) {
+      throw new WarehouseNotFoundException(identifier);
+    }
+    if (!warehouse.isActive() || warehouse.isArchived()) {
+      throw new IllegalStateException("Warehouse is not active: " + identifier);
+    }
+    // No single movement can be larger than what the warehouse holds
+    if (Math.abs((long) delta) > warehouse.getCapacity()) {
+      throw new IllegalArgumentException("Stock movement delta exceeds warehouse capacity. Capacity: " +
+              warehouse.getCapacity() + ", Delta: " + delta);
+    }
+
+    return stockLedger.append(warehouse, delta, reason);
+  }
+}
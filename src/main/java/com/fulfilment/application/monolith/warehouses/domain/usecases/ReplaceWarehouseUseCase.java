@@ -1,12 +1,17 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseVersionMismatchException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitValidator;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseCapacityValidator;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -16,30 +21,58 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
   private final BusinessUnitValidator businessUnitValidator;
-  private final WarehouseCapacityValidator capacityValidator;
+  private final LocationStatsStore locationStatsStore;
 
   @Inject
   public ReplaceWarehouseUseCase(WarehouseStore warehouseStore,
                                  LocationResolver locationResolver,
                                  BusinessUnitValidator businessUnitValidator,
-                                 WarehouseCapacityValidator capacityValidator) {
+                                 LocationStatsStore locationStatsStore) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
     this.businessUnitValidator = businessUnitValidator;
-    this.capacityValidator = capacityValidator;
+    this.locationStatsStore = locationStatsStore;
   }
 
+  /**
+   * Replaces the warehouse with the same identifier. A non-null {@code version} on the replacement
+   * is the version the caller expects to overwrite; {@code null} replaces whatever is stored.
+   *
+   * <p>The checks run against facts read in one statement, and the write is a single conditional
+   * UPDATE that re-asserts the stock-matching rule and the version it was validated against. The
+   * entity is never loaded or merged, so there is no SELECT before the UPDATE.
+   *
+   * @throws WarehouseNotFoundException when no warehouse has the identifier
+   * @throws WarehouseVersionMismatchException when the stored version is not the expected one
+   * @throws ConcurrentWarehouseUpdateException when the row changed between validation and write
+   */
   @Override
   public void replace(Warehouse newWarehouse) {
-    // Get the existing warehouse being replaced
-    Warehouse existingWarehouse = warehouseStore.findByIdentifier(newWarehouse.getIdentifier());
+    String identifier = newWarehouse.getIdentifier();
+    // The existing warehouse and every other stored fact the checks need, in one round trip. The
+    // new code is only looked up when the business unit filter might hold it.
+    boolean checkBusinessUnitCode = businessUnitValidator.mightBeInUse(newWarehouse.getBusinessUnitCode());
+    WarehouseMutationFacts facts = warehouseStore.loadMutationFacts(identifier,
+            newWarehouse.getBusinessUnitCode(), newWarehouse.getLocationIdentifier(), checkBusinessUnitCode);
+    WarehouseView existingWarehouse = facts.getExisting();
     if (existingWarehouse == null) {
-      throw new IllegalArgumentException("Warehouse not found: " + newWarehouse.getIdentifier());
+      throw new WarehouseNotFoundException(identifier);
+    }
+
+    Long requiredVersion = newWarehouse.getVersion();
+    if (requiredVersion != null && !requiredVersion.equals(existingWarehouse.getVersion())) {
+      throw new WarehouseVersionMismatchException(identifier);
     }
 
     // 1. Business Unit Code Verification (if business unit code is changing)
-    if (!existingWarehouse.getBusinessUnitCode().equals(newWarehouse.getBusinessUnitCode()) &&
-            !businessUnitValidator.isBusinessUnitCodeUnique(newWarehouse.getBusinessUnitCode())) {
+    boolean businessUnitCodeChanging = !existingWarehouse.getBusinessUnitCode().equals(newWarehouse.getBusinessUnitCode());
+    if (businessUnitCodeChanging && checkBusinessUnitCode) {
+      // A kept code is always in the filter, as this warehouse's own; only a new one says anything
+      businessUnitValidator.recordLookup(facts.isBusinessUnitCodeTaken());
+    }
+    if (businessUnitCodeChanging &&
+            (facts.isBusinessUnitCodeTaken() ||
+                    !businessUnitValidator.isBusinessUnitCodeUnique(newWarehouse.getBusinessUnitCode()))) {
       throw new IllegalArgumentException("Business unit code already exists: " + newWarehouse.getBusinessUnitCode());
     }
 
@@ -62,26 +95,57 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
     // Additional Validations for Replacing a Warehouse
 
+    // The stock includes the movements the ledger has not compacted yet
+    long existingStock = facts.getExistingStock();
+
     // 4. Capacity Accommodation
-    if (newWarehouse.getCapacity() < existingWarehouse.getCurrentStock()) {
+    if (newWarehouse.getCapacity() < existingStock) {
       throw new IllegalArgumentException("New warehouse capacity cannot accommodate existing stock. " +
-              "Required: " + existingWarehouse.getCurrentStock() +
+              "Required: " + existingStock +
               ", New capacity: " + newWarehouse.getCapacity());
     }
 
     // 5. Stock Matching
-    if (newWarehouse.getCurrentStock() != existingWarehouse.getCurrentStock()) {
-      throw new IllegalArgumentException("Stock must match existing warehouse stock. " +
-              "Existing: " + existingWarehouse.getCurrentStock() +
-              ", New: " + newWarehouse.getCurrentStock());
+    if (newWarehouse.getCurrentStock() != existingStock) {
+      throw new IllegalArgumentException(stockMismatchMessage(existingStock, newWarehouse));
+    }
+
+    // Stock matching and the validated version are re-checked by the UPDATE itself, under the
+    // warehouse's row lock
+    if (!warehouseStore.replaceIfStockMatches(newWarehouse, existingWarehouse.getVersion())) {
+      throw explainRefusedReplace(newWarehouse);
     }
 
-    // Preserve the ID and active status
+    // Mirror what the UPDATE wrote so the caller can return the stored state
     newWarehouse.setId(existingWarehouse.getId());
+    newWarehouse.setVersion(existingWarehouse.getVersion() == null ? 1L : existingWarehouse.getVersion() + 1);
+    newWarehouse.setName(existingWarehouse.getName());
+    newWarehouse.creationDate = existingWarehouse.getCreationDate();
     newWarehouse.setActive(true);
     newWarehouse.setArchived(false);
 
-    // If all validations pass, update the warehouse
-    warehouseStore.update(newWarehouse);
+    // Location totals hold the compacted stock; the pending movements reach them when folded
+    locationStatsStore.recordReplaced(existingWarehouse,
+            newWarehouse.toBuilder().currentStock(existingWarehouse.getCurrentStock()).build());
+    businessUnitValidator.recordBusinessUnitCode(newWarehouse.getBusinessUnitCode());
+  }
+
+  private RuntimeException explainRefusedReplace(Warehouse newWarehouse) {
+    // Read after the refused UPDATE, which left the row locked, so this is the stock it compared
+    WarehouseMutationFacts current = warehouseStore.loadMutationFacts(newWarehouse.getIdentifier(),
+            null, null, false);
+    if (current.getExisting() == null) {
+      return new WarehouseNotFoundException(newWarehouse.getIdentifier());
+    }
+    if (newWarehouse.getCurrentStock() != current.getExistingStock()) {
+      return new IllegalArgumentException(stockMismatchMessage(current.getExistingStock(), newWarehouse));
+    }
+    return new ConcurrentWarehouseUpdateException(newWarehouse.getIdentifier());
+  }
+
+  private static String stockMismatchMessage(long existingStock, Warehouse newWarehouse) {
+    return "Stock must match existing warehouse stock. " +
+            "Existing: " + existingStock +
+            ", New: " + newWarehouse.getCurrentStock();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Objects;
+
+@ApplicationScoped
+public class TransferStockUseCase implements TransferStockOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationStatsStore locationStatsStore;
+  private final StockLedger stockLedger;
+
+  @Inject
+  public TransferStockUseCase(WarehouseStore warehouseStore, LocationStatsStore locationStatsStore,
+                              StockLedger stockLedger) {
+    this.warehouseStore = warehouseStore;
+    this.locationStatsStore = locationStatsStore;
+    this.stockLedger = stockLedger;
+  }
+
+  /**
+   * Moves {@code quantity} units of stock from one active warehouse to another, in the caller's
+   * transaction.
+   *
+   * <p>Each side locks its warehouse row, then runs one relative conditional UPDATE, which checks
+   * its rule (enough stock on the source, room within capacity on the target) against the stock
+   * including the movements the ledger has not compacted yet. The two sides are adjusted in
+   * ascending warehouse id, so transfers over the same pair of warehouses, in either direction, lock
+   * the rows in the same order: the second waits for the first to commit instead of deadlocking with
+   * it.
+   *
+   * @throws IllegalArgumentException when the quantity is not positive or both sides are the same
+   *     warehouse
+   * @throws WarehouseNotFoundException when either warehouse does not exist
+   * @throws IllegalStateException when either warehouse is not active, the source holds less than
+   *     {@code quantity}, or the target would exceed its capacity
+   * @throws ConcurrentWarehouseUpdateException when a warehouse changed between its update and the
+   *     read explaining why the update was refused
+   */
+  @Override
+  public StockTransfer transfer(String sourceIdentifier, String targetIdentifier, int quantity) {
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Transfer quantity must be positive");
+    }
+    if (Objects.equals(sourceIdentifier, targetIdentifier)) {
+      throw new IllegalArgumentException("Source and target warehouse must be different");
+    }
+
+    // Ids never change, so views that may come from the cache are good enough to order the locks
+    WarehouseView source = requireExisting(sourceIdentifier);
+    WarehouseView target = requireExisting(targetIdentifier);
+    if (source.getId() < target.getId()) {
+      adjust(sourceIdentifier, -quantity);
+      adjust(targetIdentifier, quantity);
+    } else {
+      adjust(targetIdentifier, quantity);
+      adjust(sourceIdentifier, -quantity);
+    }
+
+    // Both rows are locked by this transaction now, so this is the state it commits
+    WarehouseView updatedSource = warehouseStore.findViewByIdentifier(sourceIdentifier);
+    WarehouseView updatedTarget = warehouseStore.findViewByIdentifier(targetIdentifier);
+    locationStatsStore.recordStockMoved(
+            updatedSource.getLocationIdentifier(), updatedTarget.getLocationIdentifier(), quantity);
+    return new StockTransfer(updatedSource, updatedTarget, quantity);
+  }
+
+  private WarehouseView requireExisting(String identifier) {
+    WarehouseView warehouse = warehouseStore.findViewByIdentifier(identifier);
+    if (warehouse == null) {
+      throw new WarehouseNotFoundException(identifier);
+    }
+    return warehouse;
+  }
+
+  private void adjust(String identifier, int change) {
+    if (!warehouseStore.adjustStock(identifier, change)) {
+      throw adjustRefused(identifier, change);
+    }
+  }
+
+  /**
+   * Works out which rule stopped a stock adjustment; only reached when the conditional update
+   * changed nothing.
+   */
+  private RuntimeException adjustRefused(String identifier, int change) {
+    // The stock the UPDATE compared: compacted stock plus pending movements
+    StockLevel current = stockLedger.stockLevel(identifier);
+    if (current == null) {
+      return new WarehouseNotFoundException(identifier);
+    }
+
+    if (!current.isActive()) {
+      return new IllegalStateException("Warehouse is not active: " + identifier);
+    }
+
+    if (change < 0 && current.getStock() < -change) {
+      return new IllegalStateException("Insufficient stock in warehouse " + identifier + ". " +
+              "Available: " + current.getStock() + ", Requested: " + -change);
+    }
+
+    if (change > 0 && current.getStock() + change > current.getCapacity()) {
+      return new IllegalStateException("Transfer would exceed capacity of warehouse " + identifier + ". " +
+              "Capacity: " + current.getCapacity() + ", Stock: " + current.getStock() +
+              ", Incoming: " + change);
+    }
+
+    // Every rule holds again, so the row changed between the update and this read
+    return new ConcurrentWarehouseUpdateException(identifier);
+  }
+}
@@ -1,17 +1,25 @@
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (1, 'HAARLEM', 10);
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (2, 'AMSTERDAM', 5);
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (3, 'HENGELO', 3);
+-- One multi-row INSERT per table: each is a single statement and round trip however many seed
+-- rows it holds. Ids are assigned here and each sequence restarted past them; with pooled-lo
+-- allocation (see SequenceAllocation) the restart value is the first id handed out afterwards.
+
+INSERT INTO store(id, name, quantityProductsInStock) VALUES
+  (1, 'HAARLEM', 10),
+  (2, 'AMSTERDAM', 5),
+  (3, 'HENGELO', 3);
 ALTER SEQUENCE store_seq RESTART WITH 4;
 
-INSERT INTO product(id, name, stock) VALUES (1, 'TONSTAD', 10);
-INSERT INTO product(id, name, stock) VALUES (2, 'KALLAX', 5);
-INSERT INTO product(id, name, stock) VALUES (3, 'BESTÅ', 3);
+INSERT INTO product(id, name, stock) VALUES
+  (1, 'TONSTAD', 10),
+  (2, 'KALLAX', 5),
+  (3, 'BESTÅ', 3);
 ALTER SEQUENCE product_seq RESTART WITH 4;
 
-INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) 
-VALUES (1, 'MWH.001', 'ZWOLLE-001', 100, 10, '2024-07-01', null);
-INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
-VALUES (2, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
-INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
-VALUES (3, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null);
+INSERT INTO warehouse(id, identifier, name, business_unit_code, active_business_unit_code, location_identifier,
+                      capacity, current_stock, active, archived, creation_date, version) VALUES
+  (1, '01909a4e-3c00-7000-8000-000000000001', 'Warehouse MWH.001 - ZWOLLE-001', 'MWH.001', 'MWH.001', 'ZWOLLE-001',
+   100, 10, true, false, '2024-07-01 00:00:00', 0),
+  (2, '0189165c-4400-7000-8000-000000000002', 'Warehouse MWH.012 - AMSTERDAM-001', 'MWH.012', 'MWH.012', 'AMSTERDAM-001',
+   50, 5, true, false, '2023-07-01 00:00:00', 0),
+  (3, '01776155-6c00-7000-8000-000000000003', 'Warehouse MWH.023 - TILBURG-001', 'MWH.023', 'MWH.023', 'TILBURG-001',
+   30, 27, true, false, '2021-02-01 00:00:00', 0);
 ALTER SEQUENCE warehouse_seq RESTART WITH 4;
@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyRecordRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query deleteQuery;
+
+    @InjectMocks
+    private IdempotencyRecordRepository repository;
+
+    private static IdempotencyRecord expiringAt(Instant expiresAt) {
+        return new IdempotencyRecord("POST /stores key-1", "abc", 201, "{}", expiresAt);
+    }
+
+    @Test
+    void findLive_ShouldReturnUnexpiredRecord() {
+        IdempotencyRecord record = expiringAt(NOW.plusSeconds(1));
+        when(entityManager.find(IdempotencyRecord.class, "POST /stores key-1")).thenReturn(record);
+
+        assertSame(record, repository.findLive("POST /stores key-1", NOW));
+    }
+
+    @Test
+    void findLive_ShouldTreatExpiredRecordAsAbsent() {
+        when(entityManager.find(IdempotencyRecord.class, "POST /stores key-1")).thenReturn(expiringAt(NOW));
+
+        assertNull(repository.findLive("POST /stores key-1", NOW));
+    }
+
+    @Test
+    void claim_ShouldReplaceExpiredRecordAndFlush() {
+        when(entityManager.createQuery(startsWith("DELETE FROM IdempotencyRecord"))).thenReturn(deleteQuery);
+        when(deleteQuery.setParameter(anyString(), any())).thenReturn(deleteQuery);
+        IdempotencyRecord claim = IdempotencyRecord.claim("POST /stores key-1", "abc", NOW.plusSeconds(60));
+
+        repository.claim(claim, NOW);
+
+        InOrder inOrder = inOrder(deleteQuery, entityManager);
+        inOrder.verify(deleteQuery).executeUpdate();
+        inOrder.verify(entityManager).persist(claim);
+        inOrder.verify(entityManager).flush();
+        verify(deleteQuery).setParameter("scopedKey", "POST /stores key-1");
+        verify(deleteQuery).setParameter("now", NOW);
+        assertTrue(claim.pending);
+    }
+
+    @Test
+    void claim_ShouldRunInItsOwnTransaction() throws NoSuchMethodException {
+        Transactional transactional = IdempotencyRecordRepository.class
+                .getDeclaredMethod("claim", IdempotencyRecord.class, Instant.class)
+                .getAnnotation(Transactional.class);
+
+        assertEquals(Transactional.TxType.REQUIRES_NEW, transactional.value());
+    }
+
+    @Test
+    void complete_ShouldStoreResponseOnPendingClaimOnly() {
+        when(entityManager.createQuery(startsWith("UPDATE IdempotencyRecord"))).thenReturn(deleteQuery);
+        when(deleteQuery.setParameter(anyString(), any())).thenReturn(deleteQuery);
+        when(deleteQuery.executeUpdate()).thenReturn(1);
+
+        assertTrue(repository.complete(expiringAt(NOW.plusSeconds(60))));
+
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture());
+        assertTrue(jpql.getValue().contains("SET r.pending = false"));
+        assertTrue(jpql.getValue().contains("AND r.requestFingerprint = :fingerprint AND r.pending = true"));
+        verify(deleteQuery).setParameter("status", 201);
+        verify(deleteQuery).setParameter("body", "{}");
+        verify(deleteQuery).setParameter("scopedKey", "POST /stores key-1");
+    }
+
+    @Test
+    void release_ShouldDeletePendingClaimOnly() {
+        when(entityManager.createQuery(anyString())).thenReturn(deleteQuery);
+        when(deleteQuery.setParameter(anyString(), any())).thenReturn(deleteQuery);
+
+        repository.release("POST /stores key-1");
+
+        verify(entityManager).createQuery(
+                "DELETE FROM IdempotencyRecord r WHERE r.scopedKey = :scopedKey AND r.pending = true");
+        verify(deleteQuery).setParameter("scopedKey", "POST /stores key-1");
+        verify(deleteQuery).executeUpdate();
+    }
+
+    @Test
+    void deleteExpired_ShouldRunOneBulkDelete() {
+        when(entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")).thenReturn(deleteQuery);
+        when(deleteQuery.setParameter("now", NOW)).thenReturn(deleteQuery);
+        when(deleteQuery.executeUpdate()).thenReturn(3);
+
+        assertEquals(3, repository.deleteExpired(NOW));
+    }
+}
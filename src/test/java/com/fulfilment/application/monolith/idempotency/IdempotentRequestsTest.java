@@ -0,0 +1,382 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityExistsException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentRequestsTest {
+
+    private static final String SCOPE = "POST /warehouses";
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private IdempotentRequests idempotentRequests;
+
+    @BeforeEach
+    void setUp() {
+        idempotentRequests = requestsWaitingUpTo(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private IdempotentRequests requestsWaitingUpTo(Duration waitTimeout) {
+        return new IdempotentRequests(repository, transactionRegistry, objectMapper, Duration.ofHours(24), 100,
+                waitTimeout, Duration.ofMinutes(10), Duration.ofMinutes(2), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void inActiveTransaction() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        lenient().when(repository.complete(any())).thenReturn(true);
+    }
+
+    private Synchronization lastSynchronization() {
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry, atLeastOnce()).registerInterposedSynchronization(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Supplier<Response> created(AtomicInteger executions) {
+        return () -> {
+            executions.incrementAndGet();
+            return Response.status(Response.Status.CREATED).entity(Map.of("identifier", "WH-1")).build();
+        };
+    }
+
+    @Test
+    void execute_ShouldSimplyRunWork_WithoutKey() {
+        AtomicInteger executions = new AtomicInteger();
+
+        Response response = idempotentRequests.execute(SCOPE, null, Map.of("capacity", 10), created(executions));
+
+        assertEquals(201, response.getStatus());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(repository, transactionRegistry);
+    }
+
+    @Test
+    void execute_ShouldRejectMalformedKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotentRequests.execute(SCOPE, " ", Map.of(), created(new AtomicInteger())));
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotentRequests.execute(SCOPE, "k".repeat(IdempotentRequests.MAX_KEY_LENGTH + 1), Map.of(),
+                        created(new AtomicInteger())));
+    }
+
+    @Test
+    void execute_ShouldRequireActiveTransaction() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger())));
+
+        assertEquals("Idempotent requests require an active transaction", exception.getMessage());
+    }
+
+    @Test
+    void execute_ShouldStoreSuccessfulResponseInCallersTransaction() {
+        inActiveTransaction();
+        AtomicInteger executions = new AtomicInteger();
+
+        Response response = idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 10), created(executions));
+
+        assertEquals(201, response.getStatus());
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).complete(record.capture());
+        assertEquals("POST /warehouses key-1", record.getValue().scopedKey);
+        assertEquals(201, record.getValue().responseStatus);
+        assertEquals("{\"identifier\":\"WH-1\"}", record.getValue().responseBody);
+        assertEquals(NOW.plus(Duration.ofHours(24)), record.getValue().expiresAt);
+        // Not visible to repeats until the transaction commits
+        assertNull(idempotentRequests.responses().getIfPresent("POST /warehouses key-1"));
+    }
+
+    @Test
+    void execute_ShouldReplayCommittedResponseWithoutRunningWorkAgain() {
+        inActiveTransaction();
+        AtomicInteger executions = new AtomicInteger();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 10), created(executions));
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        Response replayed = idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 10), created(executions));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, replayed.getStatus());
+        assertEquals("{\"identifier\":\"WH-1\"}", replayed.getEntity());
+        assertEquals("true", replayed.getHeaderString(IdempotentRequests.REPLAYED_HEADER));
+        // Answered from memory
+        verify(repository, times(1)).findLive(anyString(), any());
+    }
+
+    @Test
+    void execute_ShouldReplayResponseStoredByAnotherNode() {
+        inActiveTransaction();
+        String fingerprint = storeAndCaptureFingerprint(Map.of("capacity", 10));
+        IdempotentRequests otherNode = requestsWaitingUpTo(Duration.ofSeconds(5));
+        when(repository.findLive("POST /warehouses key-2", NOW))
+                .thenReturn(new IdempotencyRecord("POST /warehouses key-2", fingerprint, 201, "{}", NOW.plusSeconds(60)));
+
+        Response replayed = otherNode.execute(SCOPE, "key-2", Map.of("capacity", 10), () -> fail("must not run"));
+
+        assertEquals(201, replayed.getStatus());
+        assertEquals("{}", replayed.getEntity());
+    }
+
+    private String storeAndCaptureFingerprint(Object request) {
+        idempotentRequests.execute(SCOPE, "fingerprint", request, created(new AtomicInteger()));
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).complete(record.capture());
+        return record.getValue().requestFingerprint;
+    }
+
+    @Test
+    void execute_ShouldRejectKeyReusedForDifferentRequest() {
+        inActiveTransaction();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 10), created(new AtomicInteger()));
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 20), created(new AtomicInteger())));
+
+        assertEquals("Idempotency-Key was already used for a different request: key-1", exception.getMessage());
+    }
+
+    @Test
+    void execute_ShouldNotStoreFailedResponses() {
+        inActiveTransaction();
+
+        Response response = idempotentRequests.execute(SCOPE, "key-1", Map.of(),
+                () -> Response.status(Response.Status.CONFLICT).build());
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertEquals(409, response.getStatus());
+        verify(repository, never()).complete(any());
+        verify(repository).release("POST /warehouses key-1");
+        AtomicInteger executions = new AtomicInteger();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldForgetResponseOfRolledBackTransaction() {
+        inActiveTransaction();
+        AtomicInteger executions = new AtomicInteger();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(executions));
+        lastSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(executions));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseClaim_WhenTransactionRollsBackAfterStoringResponse() {
+        inActiveTransaction();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger()));
+        verify(repository, never()).release(any());
+
+        // The stored response rolled back with the transaction, so the claim is pending again
+        lastSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        verify(repository).release("POST /warehouses key-1");
+    }
+
+    @Test
+    void execute_ShouldKeepClaim_WhenTransactionCommitsResponse() {
+        inActiveTransaction();
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger()));
+
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        verify(repository, never()).release(any());
+    }
+
+    @Test
+    void execute_ShouldReleaseWaiters_WhenClaimCannotBeReleased() {
+        inActiveTransaction();
+        doThrow(new IllegalStateException("database down")).when(repository).release(any());
+        idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger()));
+
+        assertDoesNotThrow(() -> lastSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK));
+
+        // The key is no longer in flight on this node; only the stale claim may still refuse it
+        assertEquals(201, idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger())).getStatus());
+    }
+
+    @Test
+    void execute_ShouldClaimKeyBeforeRunningWork() {
+        inActiveTransaction();
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotentRequests.execute(SCOPE, "key-1", Map.of("capacity", 10), () -> {
+            // The claim is committed on its own before any effect of the request
+            ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+            verify(repository).claim(claim.capture(), eq(NOW));
+            assertEquals("POST /warehouses key-1", claim.getValue().scopedKey);
+            assertTrue(claim.getValue().pending);
+            assertEquals(NOW.plus(Duration.ofMinutes(2)), claim.getValue().expiresAt);
+            verify(repository, never()).complete(any());
+            return created(executions).get();
+        });
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldNotRunWork_WhenAnotherNodeHoldsTheClaim() {
+        inActiveTransaction();
+        doThrow(new EntityExistsException("duplicate key")).when(repository).claim(any(), any());
+        when(repository.findLive("POST /warehouses key-1", NOW))
+                .thenReturn(IdempotencyRecord.claim("POST /warehouses key-1", "abc", NOW.plusSeconds(60)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), () -> fail("must not run")));
+
+        assertEquals("A request with this Idempotency-Key is still in progress: key-1", exception.getMessage());
+        verify(repository, never()).release(any());
+        // The key is free again on this node
+        doNothing().when(repository).claim(any(), any());
+        assertEquals(201, idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger())).getStatus());
+    }
+
+    @Test
+    void execute_ShouldReplay_WhenAnotherNodeStoredItsResponseSinceTheLookup() {
+        inActiveTransaction();
+        String fingerprint = storeAndCaptureFingerprint(Map.of());
+        doThrow(new EntityExistsException("duplicate key")).when(repository).claim(any(), any());
+        when(repository.findLive("POST /warehouses key-1", NOW))
+                .thenReturn(null)
+                .thenReturn(new IdempotencyRecord("POST /warehouses key-1", fingerprint, 201, "{}", NOW.plusSeconds(60)));
+
+        Response replayed = idempotentRequests.execute(SCOPE, "key-1", Map.of(), () -> fail("must not run"));
+
+        assertEquals(201, replayed.getStatus());
+        assertEquals("true", replayed.getHeaderString(IdempotentRequests.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldReleaseClaim_WhenWorkThrows() {
+        inActiveTransaction();
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), () -> {
+            throw new IllegalStateException("refused");
+        }));
+        // Released once the transaction is over, committed or not
+        verify(repository, never()).release(any());
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        verify(repository).release("POST /warehouses key-1");
+    }
+
+    @Test
+    void execute_ShouldRollBack_WhenClaimWasTakenOverWhileWorkRan() {
+        inActiveTransaction();
+        when(repository.complete(any())).thenReturn(false);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), created(new AtomicInteger())));
+
+        assertTrue(exception.getMessage().contains("processed concurrently"));
+        verify(transactionRegistry).setRollbackOnly();
+        // The pending row belongs to the request that took the key over
+        lastSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK);
+        verify(repository, never()).release(any());
+    }
+
+    @Test
+    void execute_ShouldMakeInFlightDuplicateWaitForFirstExecution() throws Exception {
+        inActiveTransaction();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<Response> slowCreate = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.status(Response.Status.CREATED).entity(Map.of("identifier", "WH-1")).build();
+        };
+
+        Future<Response> first = executor.submit(() -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), slowCreate));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Response> duplicate = executor.submit(() -> idempotentRequests.execute(SCOPE, "key-1", Map.of(), slowCreate));
+
+        release.countDown();
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+        lastSynchronization().afterCompletion(Status.STATUS_COMMITTED);
+
+        Response replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replayed.getStatus());
+        assertEquals("true", replayed.getHeaderString(IdempotentRequests.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+        // The duplicate waited and replayed without a query, so it never took a pooled connection
+        verify(repository, times(1)).findLive(any(), any());
+    }
+
+    @Test
+    void execute_ShouldGiveUpWaiting_WhenFirstExecutionTakesTooLong() throws Exception {
+        inActiveTransaction();
+        IdempotentRequests impatient = requestsWaitingUpTo(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Response> first = executor.submit(() -> impatient.execute(SCOPE, "key-1", Map.of(), () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.status(Response.Status.CREATED).build();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> impatient.execute(SCOPE, "key-1", Map.of(), () -> fail("must not run")));
+
+        assertEquals("A request with this Idempotency-Key is still in progress: key-1", exception.getMessage());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+}
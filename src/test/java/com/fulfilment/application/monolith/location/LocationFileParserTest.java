@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationFileParserTest {
+
+    @TempDir
+    Path directory;
+
+    private List<Location> parse(String content) throws IOException {
+        Path file = directory.resolve("locations.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return LocationFileParser.parse(file);
+    }
+
+    @Test
+    void parse_ShouldReadEveryLocationInFileOrder() throws IOException {
+        List<Location> locations = parse("""
+                identification,maxNumberOfWarehouses,maxCapacity
+                ZWOLLE-001,1,40
+                # Amsterdam sites
+                AMSTERDAM-001 , 5 , 100
+
+                TILBURG-001,1,40""");
+
+        assertEquals(3, locations.size());
+        assertEquals("ZWOLLE-001", locations.get(0).getIdentification());
+        assertEquals(1, locations.get(0).getMaxNumberOfWarehouses());
+        assertEquals(40, locations.get(0).getMaxCapacity());
+        assertEquals("AMSTERDAM-001", locations.get(1).getIdentification());
+        assertEquals(5, locations.get(1).getMaxNumberOfWarehouses());
+        assertEquals(100, locations.get(1).getMaxCapacity());
+        assertEquals("TILBURG-001", locations.get(2).getIdentification());
+    }
+
+    @Test
+    void parse_ShouldAcceptWindowsLineEndingsAndNoHeader() throws IOException {
+        List<Location> locations = parse("HELMOND-001,1,45\r\nEINDHOVEN-001,2,70\r\n");
+
+        assertEquals(2, locations.size());
+        assertEquals("HELMOND-001", locations.get(0).getIdentification());
+        assertEquals(70, locations.get(1).getMaxCapacity());
+    }
+
+    @Test
+    void parse_ShouldReadLongAndNonAsciiIdentifiers() throws IOException {
+        String longIdentifier = "S".repeat(100) + "-001";
+
+        List<Location> locations = parse("KÖLN-001,1,10\n" + longIdentifier + ",1,10\n");
+
+        assertEquals("KÖLN-001", locations.get(0).getIdentification());
+        assertEquals(longIdentifier, locations.get(1).getIdentification());
+    }
+
+    @Test
+    void parse_ShouldReadOptionalTotalCapacity() throws IOException {
+        List<Location> locations = parse("ZWOLLE-001,1,40,500\nZWOLLE-002,2,50\n");
+
+        assertEquals(500, locations.get(0).getMaxTotalCapacity());
+        assertEquals(0, locations.get(1).getMaxTotalCapacity());
+    }
+
+    @Test
+    void parse_ShouldReturnNothing_ForEmptyFile() throws IOException {
+        assertTrue(parse("").isEmpty());
+    }
+
+    @Test
+    void parse_ShouldNameTheMalformedLine() {
+        IllegalArgumentException missingField = assertThrows(IllegalArgumentException.class,
+                () -> parse("ZWOLLE-001,1,40\nZWOLLE-002,2\n"));
+        IllegalArgumentException extraField = assertThrows(IllegalArgumentException.class,
+                () -> parse("ZWOLLE-001,1,40,500,9\n"));
+        IllegalArgumentException notANumber = assertThrows(IllegalArgumentException.class,
+                () -> parse("ZWOLLE-001,one,40\n"));
+        IllegalArgumentException negative = assertThrows(IllegalArgumentException.class,
+                () -> parse("ZWOLLE-001,1,-40\n"));
+        IllegalArgumentException blankIdentifier = assertThrows(IllegalArgumentException.class,
+                () -> parse(" ,1,40\n"));
+
+        assertEquals("Invalid location on line 2: expected 3 or 4 comma-separated fields", missingField.getMessage());
+        assertEquals("Invalid location on line 1: expected 3 or 4 comma-separated fields", extraField.getMessage());
+        assertEquals("Invalid location on line 1: not a non-negative number", notANumber.getMessage());
+        assertEquals("Invalid location on line 1: not a non-negative number", negative.getMessage());
+        assertEquals("Invalid location on line 1: Identification cannot be null or empty",
+                blankIdentifier.getMessage());
+    }
+}
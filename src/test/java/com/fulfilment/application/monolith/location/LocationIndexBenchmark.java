@@ -0,0 +1,126 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link LocationIndex} against the linear stream scan {@code LocationGateway} used before, at
+ * registry sizes of the sites being onboarded. Locations are spread over 500 cities with
+ * identifiers {@code CITY-<n>-<site>}.
+ *
+ * <ul>
+ *   <li>{@code resolveIndexed} / {@code resolveScan}: exact lookup of a random existing location,
+ *       as every create and replace does.</li>
+ *   <li>{@code prefixIndexed} / {@code prefixScan}: every site of a random city.</li>
+ *   <li>{@code allShared} / {@code allCopied}: {@code getAllLocations} without and with the copy.</li>
+ * </ul>
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...LocationIndexBenchmark -Dexec.classpathScope=test} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationIndexBenchmark {
+
+    private static final int CITIES = 500;
+
+    @Param({"10000", "100000"})
+    public int locationCount;
+
+    private List<Location> locations;
+    private LocationIndex index;
+    private String[] identifiers;
+
+    @Setup(Level.Trial)
+    public void register() {
+        locations = new ArrayList<>(locationCount);
+        identifiers = new String[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            String identifier = city(i % CITIES) + "-" + String.format("%04d", i / CITIES);
+            locations.add(new Location(identifier, 1, 100));
+            identifiers[i] = identifier;
+        }
+        index = new LocationIndex(locations);
+    }
+
+    private static String city(int city) {
+        return "CITY-" + city;
+    }
+
+    private String randomIdentifier() {
+        return identifiers[ThreadLocalRandom.current().nextInt(identifiers.length)];
+    }
+
+    private static String randomCityPrefix() {
+        return city(ThreadLocalRandom.current().nextInt(CITIES)) + "-";
+    }
+
+    @Benchmark
+    public Location resolveIndexed() {
+        return index.byIdentifier(randomIdentifier());
+    }
+
+    @Benchmark
+    public Location resolveScan() {
+        String identifier = randomIdentifier();
+        return locations.stream()
+                .filter(location -> location.getIdentification().equals(identifier))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public List<Location> prefixIndexed() {
+        return index.byIdentifierPrefix(randomCityPrefix());
+    }
+
+    @Benchmark
+    public List<Location> prefixScan() {
+        String prefix = randomCityPrefix();
+        return locations.stream()
+                .filter(location -> location.getIdentification().startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Location> allShared() {
+        return index.all();
+    }
+
+    @Benchmark
+    public List<Location> allCopied() {
+        return new ArrayList<>(locations);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LocationIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
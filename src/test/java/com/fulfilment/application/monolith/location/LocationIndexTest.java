@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationIndexTest {
+
+    private static List<String> identifiers(List<Location> locations) {
+        return locations.stream().map(Location::getIdentification).toList();
+    }
+
+    private final LocationIndex index = new LocationIndex(List.of(
+            new Location("ZWOLLE-002", 2, 50),
+            new Location("AMSTERDAM-010", 1, 10),
+            new Location("AMSTERDAM-002", 3, 75),
+            new Location("AMSTERDAMSE-BOS-001", 1, 20),
+            new Location("ZWOLLE-001", 1, 40),
+            new Location("AMSTERDAM-001", 5, 100)));
+
+    @Test
+    void byIdentifier_ShouldFindExactMatchOnly() {
+        assertEquals(3, index.byIdentifier("AMSTERDAM-002").getMaxNumberOfWarehouses());
+        assertNull(index.byIdentifier("AMSTERDAM"));
+        assertNull(index.byIdentifier("amsterdam-002"));
+        assertNull(index.byIdentifier(null));
+    }
+
+    @Test
+    void byIdentifier_ShouldKeepFirstOfDuplicateIdentifiers() {
+        Location first = new Location("TILBURG-001", 1, 40);
+        LocationIndex duplicates = new LocationIndex(List.of(first, new Location("TILBURG-001", 9, 90)));
+
+        assertSame(first, duplicates.byIdentifier("TILBURG-001"));
+        assertEquals(1, duplicates.byIdentifierPrefix("TILBURG").size());
+    }
+
+    @Test
+    void byIdentifierPrefix_ShouldReturnMatchesSortedByIdentifier() {
+        assertEquals(List.of("AMSTERDAM-001", "AMSTERDAM-002", "AMSTERDAM-010"),
+                identifiers(index.byIdentifierPrefix("AMSTERDAM-")));
+        assertEquals(List.of("AMSTERDAM-001", "AMSTERDAM-002", "AMSTERDAM-010", "AMSTERDAMSE-BOS-001"),
+                identifiers(index.byIdentifierPrefix("AMSTERDAM")));
+    }
+
+    @Test
+    void byIdentifierPrefix_ShouldIncludeExactIdentifier() {
+        assertEquals(List.of("ZWOLLE-001"), identifiers(index.byIdentifierPrefix("ZWOLLE-001")));
+    }
+
+    @Test
+    void byIdentifierPrefix_ShouldReturnEverything_ForEmptyPrefix() {
+        assertEquals(6, index.byIdentifierPrefix("").size());
+    }
+
+    @Test
+    void byIdentifierPrefix_ShouldReturnNothing_WhenNoIdentifierMatches() {
+        assertTrue(index.byIdentifierPrefix("UTRECHT-").isEmpty());
+        assertTrue(index.byIdentifierPrefix("ZZ").isEmpty());
+        assertTrue(index.byIdentifierPrefix(null).isEmpty());
+    }
+
+    @Test
+    void all_ShouldKeepInputOrderAndRefuseModification() {
+        assertEquals("ZWOLLE-002", index.all().get(0).getIdentification());
+        assertThrows(UnsupportedOperationException.class, () -> index.all().add(new Location("X", 1, 1)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> index.byIdentifierPrefix("ZWOLLE").remove(0));
+    }
+
+    @Test
+    void constructor_ShouldNotSeeLaterChangesToInput() {
+        List<Location> input = new ArrayList<>(List.of(new Location("HELMOND-001", 1, 45)));
+        LocationIndex copied = new LocationIndex(input);
+
+        input.add(new Location("HELMOND-002", 1, 45));
+
+        assertEquals(1, copied.size());
+        assertNull(copied.byIdentifier("HELMOND-002"));
+    }
+
+    @Test
+    void idOf_ShouldNumberLocationsInIdentifierOrder() {
+        assertEquals(0, index.idOf("AMSTERDAM-001"));
+        assertEquals(5, index.idOf("ZWOLLE-002"));
+        assertEquals(-1, index.idOf("UTRECHT-001"));
+        assertEquals(-1, index.idOf(null));
+        for (int id = 0; id < index.size(); id++) {
+            assertEquals(id, index.idOf(index.location(id).getIdentification()));
+        }
+    }
+
+    @Test
+    void limits_ShouldBeReadById() {
+        int id = index.idOf("AMSTERDAM-002");
+
+        assertEquals(3, index.maxWarehouses(id));
+        assertEquals(75, index.maxWarehouseCapacity(id));
+    }
+
+    @Test
+    void maxTotalCapacity_ShouldFallBackToWarehousesTimesCapacity() {
+        LocationIndex totals = new LocationIndex(List.of(
+                new Location("ZWOLLE-001", 1, 40, 500),
+                new Location("ZWOLLE-002", 2, 50),
+                new Location("HUGE-001", Integer.MAX_VALUE, Integer.MAX_VALUE)));
+
+        assertEquals(500, totals.maxTotalCapacity(totals.idOf("ZWOLLE-001")));
+        assertEquals(100, totals.maxTotalCapacity(totals.idOf("ZWOLLE-002")));
+        assertEquals(Integer.MAX_VALUE, totals.maxTotalCapacity(totals.idOf("HUGE-001")));
+    }
+}
@@ -0,0 +1,239 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationPlacement;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationPlacementIndexTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    @Mock
+    private LocationStatsStore locationStatsStore;
+
+    @TempDir
+    Path directory;
+
+    private LocationRegistry registry;
+    private LocationPlacementIndex index;
+
+    @BeforeEach
+    void setUp() {
+        registry = new LocationRegistry(null, new SimpleMeterRegistry());
+        index = new LocationPlacementIndex(registry, locationStatsStore, Duration.ofMinutes(1));
+        index.clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    }
+
+    private static List<String> identifiers(List<LocationPlacement> placements) {
+        return placements.stream().map(LocationPlacement::getLocationIdentifier).toList();
+    }
+
+    private static long remainingCapacity(List<LocationPlacement> placements, String locationIdentifier) {
+        return placements.stream()
+                .filter(placement -> placement.getLocationIdentifier().equals(locationIdentifier))
+                .findFirst()
+                .orElseThrow()
+                .getRemainingCapacity();
+    }
+
+    @Test
+    void placementsFor_ShouldReturnLocationsThatFit_MostRemainingCapacityFirst() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of(
+                new LocationUsage("AMSTERDAM-001", 2, 950),
+                new LocationUsage("ZWOLLE-001", 1, 40)));
+
+        List<LocationPlacement> placements = index.placementsFor(60, 0);
+
+        // AMSTERDAM-001 has 50 left, ZWOLLE-001 no free slot, and the rest take at most 50 per warehouse
+        assertEquals(List.of("AMSTERDAM-002", "EINDHOVEN-001", "VETSBY-001"), identifiers(placements));
+        assertEquals(800, placements.get(0).getRemainingCapacity());
+        assertEquals(3, placements.get(0).getFreeWarehouseSlots());
+        assertEquals(75, placements.get(0).getMaxWarehouseCapacity());
+    }
+
+    @Test
+    void apply_ShouldMoveLocationInTheOrder() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of());
+        index.reload();
+
+        index.apply("AMSTERDAM-002", 1, 400);
+        assertEquals(List.of("AMSTERDAM-001", "EINDHOVEN-001", "AMSTERDAM-002", "VETSBY-001"),
+                identifiers(index.placementsFor(60, 0)));
+
+        // Every slot taken
+        index.apply("AMSTERDAM-002", 2, 150);
+        assertEquals(List.of("AMSTERDAM-001", "EINDHOVEN-001", "VETSBY-001"), identifiers(index.placementsFor(60, 0)));
+
+        // One of them archived again
+        index.apply("AMSTERDAM-002", -1, -75);
+        assertEquals(List.of("AMSTERDAM-001", "EINDHOVEN-001", "AMSTERDAM-002", "VETSBY-001"),
+                identifiers(index.placementsFor(60, 0)));
+    }
+
+    @Test
+    void placementsFor_ShouldReloadOnlyAfterRefreshInterval() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of());
+
+        index.placementsFor(10, 0);
+        index.clock = Clock.fixed(NOW.plusSeconds(30), ZoneOffset.UTC);
+        index.placementsFor(10, 0);
+        verify(locationStatsStore, times(1)).findAllUsage();
+
+        index.clock = Clock.fixed(NOW.plusSeconds(61), ZoneOffset.UTC);
+        index.placementsFor(10, 0);
+        verify(locationStatsStore, times(2)).findAllUsage();
+    }
+
+    @Test
+    void reload_ShouldKeepCurrentUsage_WhileAChangeIsCommitting() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of());
+        index.reload();
+
+        // Committing: the stored aggregates may or may not hold the change yet. It never ends
+        // here, so the reload holding commits back gives up too
+        index.commitDrainTimeout = Duration.ofMillis(50);
+        index.beginCommit();
+        assertFalse(index.reload());
+        index.apply("AMSTERDAM-002", 1, 400);
+        index.endCommit();
+
+        verify(locationStatsStore, times(1)).findAllUsage();
+        assertEquals(List.of("AMSTERDAM-001", "EINDHOVEN-001", "AMSTERDAM-002", "VETSBY-001"),
+                identifiers(index.placementsFor(60, 0)));
+        assertTrue(index.reload());
+    }
+
+    @Test
+    void reload_ShouldRetryTheRead_WhenAChangeCommitsDuringIt() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of());
+        index.reload();
+        when(locationStatsStore.findAllUsage()).thenAnswer(invocation -> {
+            index.beginCommit();
+            index.apply("AMSTERDAM-002", 1, 400);
+            index.endCommit();
+            // Whether the read saw the change is unknown; here it did
+            return List.of(new LocationUsage("AMSTERDAM-002", 1, 400));
+        }).thenReturn(List.of(new LocationUsage("AMSTERDAM-002", 1, 400)));
+
+        assertTrue(index.reload());
+
+        // The first read is dropped, the retry taken, and the change is counted once
+        verify(locationStatsStore, times(3)).findAllUsage();
+        assertEquals(400, remainingCapacity(index.placementsFor(60, 0), "AMSTERDAM-002"));
+    }
+
+    @Test
+    void reload_ShouldHoldCommitsBack_WhenEveryRetryIsDropped() throws Exception {
+        ExecutorService committer = Executors.newSingleThreadExecutor();
+        try {
+            AtomicInteger reads = new AtomicInteger();
+            when(locationStatsStore.findAllUsage()).thenAnswer(invocation -> {
+                if (reads.incrementAndGet() <= LocationPlacementIndex.OPTIMISTIC_RELOAD_ATTEMPTS) {
+                    // Steady write traffic: a change commits during every read
+                    index.beginCommit();
+                    index.apply("AMSTERDAM-002", 1, 75);
+                    index.endCommit();
+                    return List.of();
+                }
+                // The last read: a change beginning now waits until the read is taken
+                Future<?> commit = committer.submit(index::beginCommit);
+                assertThrows(TimeoutException.class, () -> commit.get(100, TimeUnit.MILLISECONDS));
+                return List.of(new LocationUsage("AMSTERDAM-002", 1, 75));
+            });
+
+            assertTrue(index.reload());
+
+            verify(locationStatsStore, times(LocationPlacementIndex.OPTIMISTIC_RELOAD_ATTEMPTS + 1)).findAllUsage();
+            assertEquals(725, remainingCapacity(index.placementsFor(60, 0), "AMSTERDAM-002"));
+            // Released once the read was taken
+            committer.submit(index::endCommit).get(5, TimeUnit.SECONDS);
+        } finally {
+            committer.shutdownNow();
+        }
+    }
+
+    @Test
+    void reload_ShouldRunOnOneThreadAtATime() {
+        when(locationStatsStore.findAllUsage()).thenAnswer(invocation -> {
+            // Another query finding the index due while this reload reads
+            assertFalse(index.reload());
+            return List.of();
+        });
+
+        assertTrue(index.reload());
+
+        verify(locationStatsStore, times(1)).findAllUsage();
+    }
+
+    @Test
+    void reload_ShouldStopRecordingChanges_WhenTheReadFails() {
+        when(locationStatsStore.findAllUsage()).thenThrow(new IllegalStateException("database unavailable"));
+        assertThrows(IllegalStateException.class, () -> index.reload());
+
+        // A later reload is not refused or replayed onto
+        index.apply("AMSTERDAM-002", 1, 400);
+        doReturn(List.of(new LocationUsage("AMSTERDAM-002", 1, 400))).when(locationStatsStore).findAllUsage();
+        assertTrue(index.reload());
+
+        assertEquals(400, remainingCapacity(index.placementsFor(60, 0), "AMSTERDAM-002"));
+    }
+
+    @Test
+    void placementsFor_ShouldFollowNewRegistrySnapshot() throws IOException {
+        Path file = directory.resolve("locations.csv");
+        Files.writeString(file, "UTRECHT-001,2,100\n");
+        registry = new LocationRegistry(file, new SimpleMeterRegistry());
+        index = new LocationPlacementIndex(registry, locationStatsStore, Duration.ofMinutes(1));
+        index.clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of(new LocationUsage("UTRECHT-001", 1, 100)));
+        index.reload();
+        assertEquals(8, index.placementsFor(10, 0).size());
+
+        assertTrue(registry.reload());
+
+        List<LocationPlacement> placements = index.placementsFor(10, 0);
+        assertEquals(List.of("UTRECHT-001"), identifiers(placements));
+        assertEquals(100, placements.get(0).getRemainingCapacity());
+        assertEquals(1, placements.get(0).getFreeWarehouseSlots());
+    }
+
+    @Test
+    void placementsFor_ShouldReturnNothing_WhenStockExceedsCapacity() {
+        assertTrue(index.placementsFor(60, 61).isEmpty());
+
+        verifyNoInteractions(locationStatsStore);
+    }
+
+    @Test
+    void placementsFor_ShouldReturnNothing_WhenCapacityExceedsEveryLocation() {
+        when(locationStatsStore.findAllUsage()).thenReturn(List.of());
+
+        assertTrue(index.placementsFor(101, 0).isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.location;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocationRegistry registry;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (registry != null) {
+            registry.stop(null);
+        }
+    }
+
+    // Helper methods
+    private Path file() {
+        return directory.resolve("locations.csv");
+    }
+
+    // Written next to the file and moved into place, as a deployment would
+    private void replaceFile(String content) throws IOException {
+        Path staged = directory.resolve("locations.csv.tmp");
+        Files.writeString(staged, content);
+        Files.move(staged, file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void snapshot_ShouldServeBuiltInLocations_WithoutFile() throws IOException {
+        registry = new LocationRegistry(null, meterRegistry);
+
+        registry.start(null);
+
+        assertEquals(LocationRegistry.BUILT_IN.size(), registry.snapshot().size());
+        assertNotNull(registry.snapshot().byIdentifier("ZWOLLE-001"));
+        assertFalse(registry.reload());
+    }
+
+    @Test
+    void reload_ShouldPublishNewSnapshotAndReportMetrics() throws IOException {
+        replaceFile("UTRECHT-001,2,60\nUTRECHT-002,1,30\n");
+        registry = new LocationRegistry(file(), meterRegistry);
+
+        assertTrue(registry.reload());
+
+        assertEquals(2, registry.snapshot().size());
+        assertNull(registry.snapshot().byIdentifier("ZWOLLE-001"));
+        assertEquals(2.0, meterRegistry.get("locations.registry.size").gauge().value());
+        assertEquals(Files.size(file()), (long) meterRegistry.get("locations.registry.file.bytes").gauge().value());
+        assertEquals(1, meterRegistry.get("locations.registry.reload").timer().count());
+    }
+
+    @Test
+    void reload_ShouldKeepPreviousSnapshot_WhenFileIsMalformed() throws IOException {
+        replaceFile("UTRECHT-001,2,60\n");
+        registry = new LocationRegistry(file(), meterRegistry);
+        registry.reload();
+        LocationIndex loaded = registry.snapshot();
+
+        replaceFile("UTRECHT-001,2\n");
+
+        assertFalse(registry.reload());
+        assertSame(loaded, registry.snapshot());
+        assertEquals(1.0, meterRegistry.get("locations.registry.reload.failures").counter().count());
+    }
+
+    @Test
+    void start_ShouldFail_WhenConfiguredFileCannotBeLoaded() {
+        registry = new LocationRegistry(file(), meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> registry.start(null));
+    }
+
+    @Test
+    void watcher_ShouldSwapSnapshot_WhenFileIsReplaced() throws Exception {
+        replaceFile("UTRECHT-001,2,60\n");
+        registry = new LocationRegistry(file(), meterRegistry);
+        registry.start(null);
+        LocationIndex before = registry.snapshot();
+
+        replaceFile("UTRECHT-001,2,60\nUTRECHT-002,1,30\n");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (registry.snapshot() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotNull(registry.snapshot().byIdentifier("UTRECHT-002"));
+        // The snapshot readers held on to is untouched
+        assertNull(before.byIdentifier("UTRECHT-002"));
+    }
+}
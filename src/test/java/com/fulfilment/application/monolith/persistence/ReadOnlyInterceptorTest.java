@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.persistence;
+
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadOnlyInterceptorTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private InvocationContext context;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    @Mock
+    private Statement statement;
+
+    /**
+     * Runs work inline instead of in a new transaction and records whether it was asked to.
+     */
+    private static class InlineInterceptor extends ReadOnlyInterceptor {
+        boolean active;
+        int transactionsStarted;
+
+        @Override
+        boolean transactionActive() {
+            return active;
+        }
+
+        @Override
+        <T> T inNewTransaction(Callable<T> work) {
+            transactionsStarted++;
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private InlineInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new InlineInterceptor();
+        interceptor.entityManager = entityManager;
+    }
+
+    @Test
+    void runReadOnly_ShouldStartTransactionWithoutFlushesOrSnapshots() throws Exception {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(context.proceed()).thenReturn("result");
+
+        assertEquals("result", interceptor.runReadOnly(context));
+
+        assertEquals(1, interceptor.transactionsStarted);
+        InOrder inOrder = inOrder(session, context);
+        inOrder.verify(session).setHibernateFlushMode(FlushMode.MANUAL);
+        inOrder.verify(session).setDefaultReadOnly(true);
+        inOrder.verify(session).doWork(any());
+        inOrder.verify(context).proceed();
+    }
+
+    @Test
+    void runReadOnly_ShouldLeaveCallersTransactionAlone() throws Exception {
+        interceptor.active = true;
+        when(context.proceed()).thenReturn("result");
+
+        assertEquals("result", interceptor.runReadOnly(context));
+
+        assertEquals(0, interceptor.transactionsStarted);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void markTransactionReadOnly_ShouldSetPostgresTransactionReadOnly() throws Exception {
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.createStatement()).thenReturn(statement);
+
+        ReadOnlyInterceptor.markTransactionReadOnly(connection);
+
+        verify(statement).execute("SET TRANSACTION READ ONLY");
+        verify(statement).close();
+        // The connection goes back to the pool as it came
+        verify(connection, never()).setReadOnly(anyBoolean());
+    }
+
+    @Test
+    void markTransactionReadOnly_ShouldSkipOtherDatabases() throws Exception {
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        ReadOnlyInterceptor.markTransactionReadOnly(connection);
+
+        verify(connection, never()).createStatement();
+    }
+}
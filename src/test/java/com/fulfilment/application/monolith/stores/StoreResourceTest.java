@@ -1,7 +1,9 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.idempotency.IdempotentRequests;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +15,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +30,12 @@ class StoreResourceTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private IdempotentRequests idempotentRequests;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
     @InjectMocks
     private StoreResource storeResource;
 
@@ -39,6 +49,10 @@ class StoreResourceTest {
     void setUp() {
         testStore = new Store("Test Store", 100);
         updatedTestStore = new Store("Updated Store", 200);
+
+        // Run the request, as the first request with an Idempotency-Key would
+        lenient().when(idempotentRequests.execute(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
     }
 
     @Test
@@ -59,7 +73,7 @@ class StoreResourceTest {
     @Test
     void createStore_shouldPersistStoreToDatabase() {
         // Act
-        Response response = storeResource.createStore(testStore);
+        Response response = storeResource.createStore(null, testStore);
 
         // Assert
         verify(entityManager).persist(testStore);
@@ -71,7 +85,7 @@ class StoreResourceTest {
     @Test
     void createStore_shouldCallLegacySystemAfterPersist() {
         // Act
-        storeResource.createStore(testStore);
+        storeResource.createStore(null, testStore);
 
         // Assert
         // Verify order: persist -> flush -> legacy system
@@ -86,7 +100,7 @@ class StoreResourceTest {
         doThrow(new RuntimeException("Database error")).when(entityManager).persist(any(Store.class));
 
         // Act
-        Response response = storeResource.createStore(testStore);
+        Response response = storeResource.createStore(null, testStore);
 
         // Assert
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -101,7 +115,7 @@ class StoreResourceTest {
         doThrow(new RuntimeException("Persist failed")).when(entityManager).persist(any(Store.class));
 
         // Act
-        storeResource.createStore(testStore);
+        storeResource.createStore(null, testStore);
 
         // Assert
         verify(legacyStoreManagerGateway, never()).createStoreOnLegacySystem(any());
@@ -113,7 +127,7 @@ class StoreResourceTest {
         doThrow(new RuntimeException("Flush failed")).when(entityManager).flush();
 
         // Act
-        Response response = storeResource.createStore(testStore);
+        Response response = storeResource.createStore(null, testStore);
 
         // Assert
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -121,13 +135,27 @@ class StoreResourceTest {
         verify(legacyStoreManagerGateway, never()).createStoreOnLegacySystem(any());
     }
 
+    @Test
+    void createStore_shouldRollBack_WhenLegacySystemFails() {
+        // Arrange
+        doThrow(new RuntimeException("Legacy system down")).when(legacyStoreManagerGateway)
+                .createStoreOnLegacySystem(any(Store.class));
+
+        // Act
+        Response response = storeResource.createStore(null, testStore);
+
+        // Assert: the 500 is returned normally, so the transaction must not commit the store
+        assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
+        verify(transactionRegistry).setRollbackOnly();
+    }
+
     @Test
     void createStore_shouldWorkWithNullStoreProperties() {
         // Arrange
         Store nullStore = new Store(null, 0);
 
         // Act
-        Response response = storeResource.createStore(nullStore);
+        Response response = storeResource.createStore(null, nullStore);
 
         // Assert
         assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
@@ -140,7 +168,7 @@ class StoreResourceTest {
         doThrow(new RuntimeException("Transaction rollback test")).when(entityManager).persist(any());
 
         // Act
-        Response response = storeResource.createStore(testStore);
+        Response response = storeResource.createStore(null, testStore);
 
         // Assert - transaction should be rolled back automatically
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -329,15 +357,45 @@ class StoreResourceTest {
         assertEquals(200, originalUpdatedStore.getQuantityProductsInStock());
     }
 
+    @Test
+    void createStore_shouldPassIdempotencyKeyScopedToStores() {
+        // Arrange
+        Response replayed = Response.status(Response.Status.CREATED).entity("{\"name\":\"Test Store\"}").build();
+        when(idempotentRequests.execute(eq("POST /stores"), eq("key-1"), same(testStore), any())).thenReturn(replayed);
+
+        // Act
+        Response response = storeResource.createStore("key-1", testStore);
+
+        // Assert
+        assertSame(replayed, response);
+        verify(entityManager, never()).persist(any());
+        verify(legacyStoreManagerGateway, never()).createStoreOnLegacySystem(any());
+    }
+
+    @Test
+    void createStore_shouldReturnConflict_WhenKeyIsStillInProgress() {
+        // Arrange
+        doThrow(new IllegalStateException("A request with this Idempotency-Key is still in progress: key-1"))
+                .when(idempotentRequests).execute(anyString(), eq("key-1"), any(), any());
+
+        // Act
+        Response response = storeResource.createStore("key-1", testStore);
+
+        // Assert
+        assertEquals(Response.Status.CONFLICT.getStatusCode(), response.getStatus());
+        assertTrue(response.getEntity().toString().contains("still in progress"));
+    }
+
     @Test
     void createStore_shouldHandleEntityManagerNullInjection() {
         // Arrange
         StoreResource resourceWithNullEM = new StoreResource();
         resourceWithNullEM.legacyStoreManagerGateway = legacyStoreManagerGateway;
+        resourceWithNullEM.idempotentRequests = idempotentRequests;
         // entityManager is null (simulating injection failure)
 
         // Act
-        Response response = resourceWithNullEM.createStore(testStore);
+        Response response = resourceWithNullEM.createStore(null, testStore);
 
         // Assert
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -362,7 +420,7 @@ class StoreResourceTest {
     @Test
     void shouldHaveTransactionalAnnotations() throws NoSuchMethodException {
         // Verify that methods have @Transactional annotation
-        var createMethod = StoreResource.class.getMethod("createStore", Store.class);
+        var createMethod = StoreResource.class.getMethod("createStore", String.class, Store.class);
         var updateMethod = StoreResource.class.getMethod("updateStore", Long.class, Store.class);
 
         assertNotNull(createMethod.getAnnotation(jakarta.transaction.Transactional.class),
@@ -374,7 +432,7 @@ class StoreResourceTest {
     @Test
     void shouldHaveCorrectHttpMethodAnnotations() throws NoSuchMethodException {
         // Verify HTTP method annotations
-        var createMethod = StoreResource.class.getMethod("createStore", Store.class);
+        var createMethod = StoreResource.class.getMethod("createStore", String.class, Store.class);
         var updateMethod = StoreResource.class.getMethod("updateStore", Long.class, Store.class);
 
         assertNotNull(createMethod.getAnnotation(jakarta.ws.rs.POST.class),
@@ -1,8 +1,10 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Id;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -142,7 +144,11 @@ class StoreTest {
         // Assert
         assertNotNull(idAnnotation, "id field should be annotated with @Id");
         assertNotNull(generatedValueAnnotation, "id field should be annotated with @GeneratedValue");
-        assertEquals(GenerationType.IDENTITY, generatedValueAnnotation.strategy());
+        // IDENTITY would rule out JDBC insert batching
+        assertEquals(GenerationType.SEQUENCE, generatedValueAnnotation.strategy());
+        SequenceGenerator sequenceGenerator = idField.getAnnotation(SequenceGenerator.class);
+        assertEquals("store_seq", sequenceGenerator.sequenceName());
+        assertEquals(SequenceAllocation.SIZE, sequenceGenerator.allocationSize());
     }
 
     @Test
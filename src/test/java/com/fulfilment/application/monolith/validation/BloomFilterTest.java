@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.validation;
+
+import com.fulfilment.application.monolith.Validation.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int CODES = 10_000;
+
+    @Test
+    void mightContain_ShouldNeverMissAnInsertedValue() {
+        BloomFilter filter = BloomFilter.create(CODES, 0.01);
+        for (int i = 0; i < CODES; i++) {
+            filter.put("MWH." + i);
+        }
+
+        for (int i = 0; i < CODES; i++) {
+            assertTrue(filter.mightContain("MWH." + i), "MWH." + i);
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearTargetRate_ForValuesNotInserted() {
+        BloomFilter filter = BloomFilter.create(CODES, 0.01);
+        for (int i = 0; i < CODES; i++) {
+            filter.put("MWH." + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = CODES; i < 11 * CODES; i++) {
+            if (filter.mightContain("MWH." + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 1% of 100,000 lookups, with room for chance
+        assertTrue(falsePositives < 1_500, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void create_ShouldSizeForTargetRate() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        // About 9.6 bits and 7 hash functions per value
+        assertEquals(9_586, filter.bitSize());
+        assertEquals(7, filter.hashFunctions());
+        assertEquals(1_000, filter.expectedInsertions());
+    }
+
+    @Test
+    void insertions_ShouldCountEveryPut() {
+        BloomFilter filter = BloomFilter.create(10, 0.01);
+
+        filter.put("MWH.001");
+        filter.put("MWH.001");
+        filter.put("MWH.002");
+
+        assertEquals(3, filter.insertions());
+    }
+
+    @Test
+    void mightContain_ShouldBeFalse_WhenEmpty() {
+        assertFalse(BloomFilter.create(10, 0.01).mightContain("MWH.001"));
+    }
+
+    @Test
+    void create_ShouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 1));
+    }
+}
@@ -2,23 +2,58 @@ package com.fulfilment.application.monolith.validation;
 
 import com.fulfilment.application.monolith.Validation.BusinessUnitValidatorImpl;
 import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitValidator;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BusinessUnitValidatorImplTest {
 
-    @InjectMocks
+    @Mock
+    private WarehouseStore warehouseStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private BusinessUnitValidatorImpl validator;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new BusinessUnitValidatorImpl(warehouseStore, meterRegistry);
+    }
+
+    private double checks(String outcome) {
+        return meterRegistry.get("business-units.filter.checks").tag("outcome", outcome).counter().count();
+    }
+
+    // The startup rebuild is package-private, like the other startup observers
+    private void rebuildWith(String... codes) throws Exception {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            for (String code : codes) {
+                consumer.accept(code);
+            }
+            return null;
+        }).when(warehouseStore).forEachActiveBusinessUnitCode(any());
+        Method rebuild = BusinessUnitValidatorImpl.class.getDeclaredMethod("rebuild");
+        rebuild.setAccessible(true);
+        rebuild.invoke(validator);
+    }
+
     @Test
     void shouldBeApplicationScoped() {
         ApplicationScoped annotation = BusinessUnitValidatorImpl.class
@@ -233,15 +268,80 @@ class BusinessUnitValidatorImplTest {
     }
 
     @Test
-    void constructor_shouldInitializeProperly() {
-        // Act - create a new instance
-        BusinessUnitValidatorImpl newInstance = new BusinessUnitValidatorImpl();
+    void constructor_shouldRegisterMetersOnTheGivenRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
-        // Assert
-        assertNotNull(newInstance, "Should be able to create instance");
+        BusinessUnitValidatorImpl newInstance = new BusinessUnitValidatorImpl(warehouseStore, registry);
 
-        // Verify it works correctly
         assertFalse(newInstance.isBusinessUnitCodeUnique("BU-001"));
         assertTrue(newInstance.isBusinessUnitCodeUnique("BU-999"));
+        assertNotNull(registry.find("business-units.filter.false-positive-rate").gauge());
+        assertEquals(3, registry.find("business-units.filter.checks").counters().size());
+    }
+
+    @Test
+    void mightBeInUse_shouldRuleOutCodesTheFilterHasNotSeen() throws Exception {
+        rebuildWith("MWH.001", "MWH.012");
+
+        assertFalse(validator.mightBeInUse("MWH.999"));
+        assertTrue(validator.mightBeInUse(" MWH.001 "));
+
+        assertEquals(1, checks("unique"));
+    }
+
+    @Test
+    void isBusinessUnitCodeUnique_shouldNotConsultTheFilterOrTheDatabase() throws Exception {
+        rebuildWith("MWH.001");
+
+        assertTrue(validator.isBusinessUnitCodeUnique("MWH.001"));
+
+        assertEquals(0, checks("unique"));
+        verify(warehouseStore, only()).forEachActiveBusinessUnitCode(any());
+    }
+
+    @Test
+    void recordLookup_shouldReportFalsePositiveRate() {
+        // Recorded, but the creating transaction rolled back: the filter matches, the database does not
+        validator.recordBusinessUnitCode("MWH.001");
+
+        assertTrue(validator.mightBeInUse("MWH.001"));
+        validator.recordLookup(false);
+        assertFalse(validator.mightBeInUse("MWH.002"));
+
+        assertEquals(1, checks("false-positive"));
+        assertEquals(0.5, meterRegistry.get("business-units.filter.false-positive-rate").gauge().value());
+    }
+
+    @Test
+    void recordLookup_shouldCountConfirmedHitsAsTaken() {
+        validator.recordLookup(true);
+
+        assertEquals(1, checks("taken"));
+        assertEquals(0, checks("false-positive"));
+    }
+
+    @Test
+    void recordBusinessUnitCode_shouldMakeLaterChecksLookTheCodeUp() {
+        assertFalse(validator.mightBeInUse("MWH.003"));
+
+        validator.recordBusinessUnitCode("MWH.003");
+
+        assertTrue(validator.mightBeInUse("MWH.003"));
+    }
+
+    @Test
+    void recordBusinessUnitCode_shouldRebuildTheFilterOnceItHoldsMoreCodesThanItWasSizedFor() throws Exception {
+        // Sized for the minimum of 1024 codes, and holding one
+        rebuildWith("MWH.001");
+        clearInvocations(warehouseStore);
+
+        for (int i = 1; i < 1024; i++) {
+            validator.recordBusinessUnitCode("MWH." + i);
+        }
+        verify(warehouseStore, never()).forEachActiveBusinessUnitCode(any());
+
+        validator.recordBusinessUnitCode("MWH.OVERFLOW");
+
+        verify(warehouseStore, timeout(5_000)).forEachActiveBusinessUnitCode(any());
     }
-}
\ No newline at end of file
+}
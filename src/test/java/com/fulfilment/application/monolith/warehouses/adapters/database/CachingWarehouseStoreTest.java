@@ -0,0 +1,316 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingWarehouseStoreTest {
+
+    @Mock
+    private WarehouseStore delegate;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingWarehouseStore store;
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new CachingWarehouseStore(delegate, transactionRegistry, meterRegistry, 100, Duration.ofMinutes(5));
+
+        warehouse = Warehouse.builder()
+                .id(1L)
+                .identifier("WH-001")
+                .name("Warehouse WH-001")
+                .businessUnitCode("BU-001")
+                .locationIdentifier("AMSTERDAM-001")
+                .capacity(100)
+                .currentStock(10)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    @Test
+    void findViewByIdentifier_ShouldQueryOnceThenServeFromCache() {
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(WarehouseView.from(warehouse));
+
+        WarehouseView first = store.findViewByIdentifier("WH-001");
+        WarehouseView second = store.findViewByIdentifier("WH-001");
+
+        assertSame(first, second);
+        verify(delegate, times(1)).findViewByIdentifier("WH-001");
+        assertEquals(1, store.snapshots().stats().hitCount());
+        assertEquals(1, store.snapshots().stats().missCount());
+    }
+
+    @Test
+    void findViewByIdentifier_ShouldNotCacheMisses() {
+        when(delegate.findViewByIdentifier("WH-404")).thenReturn(null);
+
+        assertNull(store.findViewByIdentifier("WH-404"));
+        assertNull(store.findViewByIdentifier("WH-404"));
+
+        verify(delegate, times(2)).findViewByIdentifier("WH-404");
+    }
+
+    @Test
+    void findViewByIdentifier_ShouldBypassCacheForNullIdentifier() {
+        assertNull(store.findViewByIdentifier(null));
+
+        verify(delegate).findViewByIdentifier(null);
+    }
+
+    @Test
+    void findByIdentifiers_ShouldFetchOnlyMissesWithoutCachingThem() {
+        WarehouseView cached = WarehouseView.from(warehouse);
+        WarehouseView fetched = WarehouseView.from(warehouse.toBuilder().id(2L).identifier("WH-002").build());
+        store.snapshots().put("WH-001", cached);
+        when(delegate.findByIdentifiers(java.util.Arrays.asList("WH-002", "WH-404")))
+                .thenReturn(java.util.Collections.singletonList(fetched));
+
+        java.util.List<WarehouseView> result = store.findByIdentifiers(java.util.Arrays.asList("WH-001", "WH-002", "WH-404", null));
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(cached));
+        assertTrue(result.contains(fetched));
+        // Only single reads populate the cache, atomically with their query
+        assertNull(store.snapshots().getIfPresent("WH-002"));
+    }
+
+    @Test
+    void findViewByIdentifier_ShouldShareEntryAcrossIdentifierCase() {
+        String identifier = "WH-018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10";
+        when(delegate.findViewByIdentifier(identifier))
+                .thenReturn(WarehouseView.from(warehouse.toBuilder().identifier(identifier).build()));
+
+        WarehouseView lower = store.findViewByIdentifier(identifier);
+        WarehouseView upper = store.findViewByIdentifier(identifier.toUpperCase());
+
+        assertSame(lower, upper);
+        verify(delegate, times(1)).findViewByIdentifier(identifier);
+
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        store.invalidate("WH-018F3A6E-7C4B-7D2A-9E31-5B6C7D8E9F10");
+        assertNull(store.snapshots().getIfPresent(identifier));
+    }
+
+    @Test
+    void findByIdentifiers_ShouldSkipDelegateWhenAllCached() {
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        assertEquals(1, store.findByIdentifiers(java.util.Collections.singletonList("WH-001")).size());
+
+        verify(delegate, never()).findByIdentifiers(any());
+    }
+
+    @Test
+    void findByIdentifier_ShouldUsePrimaryKeyLookupOnHit() {
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(WarehouseView.from(warehouse));
+        when(delegate.findById(1L)).thenReturn(warehouse);
+        store.findViewByIdentifier("WH-001");
+
+        Warehouse result = store.findByIdentifier("WH-001");
+
+        assertSame(warehouse, result);
+        verify(delegate, never()).findByIdentifier(any());
+    }
+
+    @Test
+    void findByIdentifier_ShouldQueryOnMiss() {
+        when(delegate.findByIdentifier("WH-001")).thenReturn(warehouse);
+
+        Warehouse result = store.findByIdentifier("WH-001");
+
+        assertSame(warehouse, result);
+        verify(delegate, never()).findById(any());
+    }
+
+    @Test
+    void findByIdentifier_ShouldFallBackWhenCachedRowIsGone() {
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(WarehouseView.from(warehouse));
+        when(delegate.findById(1L)).thenReturn(null);
+        when(delegate.findByIdentifier("WH-001")).thenReturn(null);
+        store.findViewByIdentifier("WH-001");
+
+        assertNull(store.findByIdentifier("WH-001"));
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void update_ShouldInvalidateNowAndAfterCommit() {
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(WarehouseView.from(warehouse));
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        store.findViewByIdentifier("WH-001");
+
+        store.update(warehouse);
+
+        verify(delegate).update(warehouse);
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+
+        // A concurrent reader re-populates the entry before the writer commits
+        store.findViewByIdentifier("WH-001");
+        assertNotNull(store.snapshots().getIfPresent("WH-001"));
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    /**
+     * Makes the mocked registry keep transaction resources, as one active transaction would.
+     */
+    private void inActiveTransaction() {
+        java.util.Map<Object, Object> resources = new java.util.HashMap<>();
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(transactionRegistry.getResource(any())).thenAnswer(invocation -> resources.get(invocation.getArgument(0)));
+        doAnswer(invocation -> resources.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(transactionRegistry).putResource(any(), any());
+    }
+
+    @Test
+    void findViewByIdentifier_ShouldNotCacheRowsTheTransactionWrote() {
+        inActiveTransaction();
+        WarehouseView uncommitted = WarehouseView.from(warehouse.toBuilder().capacity(80).build());
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(uncommitted);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        store.update(warehouse);
+        // Another transaction caches the committed row again before this one commits
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        // The writer reads its own row, and leaves the cache to the committed one
+        assertSame(uncommitted, store.findViewByIdentifier("WH-001"));
+        assertSame(uncommitted, store.findViewByIdentifier("WH-001"));
+        verify(delegate, times(2)).findViewByIdentifier("WH-001");
+        assertEquals(100, store.snapshots().getIfPresent("WH-001").getCapacity());
+
+        // One synchronization per transaction, however many writes
+        store.adjustStock("WH-001", 5);
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void findByIdentifiers_ShouldReadRowsTheTransactionWrotePastTheCache() {
+        inActiveTransaction();
+        WarehouseView written = WarehouseView.from(warehouse);
+        WarehouseView other = WarehouseView.from(warehouse.toBuilder().id(2L).identifier("WH-002").build());
+        store.addToStock("WH-001", 5);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse.toBuilder().currentStock(0).build()));
+        when(delegate.findByIdentifiers(java.util.Arrays.asList("WH-001", "WH-002")))
+                .thenReturn(java.util.Arrays.asList(written, other));
+
+        java.util.List<WarehouseView> result = store.findByIdentifiers(java.util.Arrays.asList("WH-001", "WH-002"));
+
+        assertTrue(result.contains(written));
+        assertTrue(result.contains(other));
+        assertEquals(0, store.snapshots().getIfPresent("WH-001").getCurrentStock());
+        assertNull(store.snapshots().getIfPresent("WH-002"));
+    }
+
+    @Test
+    void replaceIfStockMatches_ShouldInvalidateEvenWhenRefused() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(delegate.replaceIfStockMatches(warehouse, 3L)).thenReturn(false);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        assertFalse(store.replaceIfStockMatches(warehouse, 3L));
+
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void archiveIfEmpty_ShouldInvalidateEvenWhenRefused() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(delegate.archiveIfEmpty("WH-001")).thenReturn(null);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        assertNull(store.archiveIfEmpty("WH-001"));
+
+        // The caller reads the row next to explain the refusal, so it must not get the snapshot
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void adjustStock_ShouldInvalidateEvenWhenRefused() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(delegate.adjustStock("WH-001", -5)).thenReturn(false);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        assertFalse(store.adjustStock("WH-001", -5));
+
+        verify(delegate).adjustStock("WH-001", -5);
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void addToStock_ShouldDelegateAndInvalidate() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        store.addToStock("WH-001", 12);
+
+        verify(delegate).addToStock("WH-001", 12);
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void createAll_ShouldDelegateAndInvalidateEachWarehouse() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        store.snapshots().put("WH-001", WarehouseView.from(warehouse));
+
+        store.createAll(java.util.Collections.singletonList(warehouse));
+
+        verify(delegate).createAll(java.util.Collections.singletonList(warehouse));
+        assertNull(store.snapshots().getIfPresent("WH-001"));
+    }
+
+    @Test
+    void create_ShouldInvalidateWithoutTransaction() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        store.create(warehouse);
+
+        verify(delegate).create(warehouse);
+        verify(transactionRegistry, never()).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void shouldPublishCacheMetrics() {
+        when(delegate.findViewByIdentifier("WH-001")).thenReturn(WarehouseView.from(warehouse));
+        store.findViewByIdentifier("WH-001");
+        store.findViewByIdentifier("WH-001");
+
+        double hits = meterRegistry.get("cache.gets")
+                .tag("cache", CachingWarehouseStore.CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+        assertEquals(1.0, hits);
+    }
+}
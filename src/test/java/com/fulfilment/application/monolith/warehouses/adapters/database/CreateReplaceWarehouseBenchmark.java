@@ -0,0 +1,249 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latency of validating and writing one {@code POST /warehouses} or {@code PUT /warehouses/{id}} in
+ * an H2 database that already holds warehouses at every location.
+ *
+ * <ul>
+ *   <li>{@code createWithFactsStatement} / {@code replaceWithFactsStatement}: the use cases, which
+ *       read everything the checks need with one {@link WarehouseRepository#loadMutationFacts}
+ *       statement.</li>
+ *   <li>{@code createWithSeparateReads} / {@code replaceWithSeparateReads}: the same writes after
+ *       the look-ups the use cases ran before, one statement each: the business unit code and the
+ *       location aggregates for a create, the stored warehouse and the business unit code for a
+ *       replace.</li>
+ * </ul>
+ *
+ * <p>The business unit filter is replaced by one that cannot rule out any code, so every code is
+ * looked up: the worst case for both. Each request is rolled back, so every invocation starts from
+ * the same table.
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...CreateReplaceWarehouseBenchmark -Dexec.classpathScope=test} or from the IDE.
+ * H2 runs in process, so a saved statement costs no network round trip here; against PostgreSQL
+ * each one the facts statement replaces is a round trip per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateReplaceWarehouseBenchmark {
+
+    private static final int LOCATIONS = 10;
+    private static final int STORED_PER_LOCATION = 100;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private final List<String> stored = new ArrayList<>();
+    private int requests;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:single-writes;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .addAnnotatedClass(DbLocationStats.class)
+                .addAnnotatedClass(DbStockMovement.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        inTransaction(session -> {
+            for (int location = 0; location < LOCATIONS; location++) {
+                for (int i = 0; i < STORED_PER_LOCATION; i++) {
+                    Warehouse warehouse = warehouse(WarehouseIdentifiers.next(), "MWH.STORED." + location + "." + i,
+                            location(location));
+                    session.persist(warehouse);
+                    stored.add(warehouse.getIdentifier());
+                }
+            }
+            session.flush();
+            locationStats(session).seedIfEmpty();
+            return null;
+        }, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public Warehouse createWithFactsStatement() {
+        Warehouse warehouse = nextNew();
+        return inTransaction(session -> {
+            createUseCase(session).create(warehouse);
+            return warehouse;
+        }, false);
+    }
+
+    @Benchmark
+    public Warehouse createWithSeparateReads() {
+        Warehouse warehouse = nextNew();
+        return inTransaction(session -> {
+            WarehouseRepository warehouses = warehouses(session);
+            warehouses.findByBusinessUnitCode(warehouse.getBusinessUnitCode());
+            warehouses.countWarehousesAtLocation(warehouse.getLocationIdentifier());
+            warehouses.getTotalCapacityAtLocation(warehouse.getLocationIdentifier());
+            warehouse.setActive(true);
+            warehouse.setArchived(false);
+            warehouses.create(warehouse);
+            locationStats(session).recordCreated(warehouse);
+            return warehouse;
+        }, false);
+    }
+
+    @Benchmark
+    public Warehouse replaceWithFactsStatement() {
+        Warehouse replacement = nextReplacement();
+        return inTransaction(session -> {
+            replaceUseCase(session).replace(replacement);
+            return replacement;
+        }, false);
+    }
+
+    @Benchmark
+    public Warehouse replaceWithSeparateReads() {
+        Warehouse replacement = nextReplacement();
+        return inTransaction(session -> {
+            WarehouseRepository warehouses = warehouses(session);
+            WarehouseView existing = warehouses.findViewByIdentifier(replacement.getIdentifier());
+            warehouses.findByBusinessUnitCode(replacement.getBusinessUnitCode());
+            warehouses.replaceIfStockMatches(replacement, existing.getVersion());
+            locationStats(session).recordReplaced(existing, replacement);
+            return replacement;
+        }, false);
+    }
+
+    private Warehouse nextNew() {
+        int request = requests++;
+        return warehouse(WarehouseIdentifiers.next(), "MWH.NEW." + request, location(request % LOCATIONS));
+    }
+
+    // A stored warehouse taking a new business unit code, so the code is looked up
+    private Warehouse nextReplacement() {
+        int request = requests++;
+        String identifier = stored.get(request % stored.size());
+        return warehouse(identifier, "MWH.REPLACED." + request, location(request % LOCATIONS));
+    }
+
+    private static Warehouse warehouse(String identifier, String businessUnitCode, String location) {
+        return Warehouse.builder()
+                .identifier(identifier)
+                .name("Warehouse " + businessUnitCode)
+                .businessUnitCode(businessUnitCode)
+                .locationIdentifier(location)
+                .capacity(10)
+                .currentStock(0)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    private static String location(int index) {
+        return "BENCH-" + String.format("%03d", index);
+    }
+
+    private <T> T inTransaction(Function<Session, T> work, boolean commit) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                session.flush();
+                return result;
+            } finally {
+                if (commit) {
+                    transaction.commit();
+                } else {
+                    transaction.rollback();
+                }
+            }
+        }
+    }
+
+    // Generous limits: every request passes, so both variants write
+    private static LocationResolver generousLimits() {
+        Location limits = new Location("BENCH", 1_000_000, 1_000, Integer.MAX_VALUE);
+        return new LocationResolver() {
+            @Override
+            public Location resolveByIdentifier(String identifier) {
+                return limits;
+            }
+
+            @Override
+            public List<Location> resolveByIdentifierPrefix(String prefix) {
+                return List.of(limits);
+            }
+        };
+    }
+
+    private static CreateWarehouseUseCase createUseCase(Session session) {
+        return new CreateWarehouseUseCase(warehouses(session), generousLimits(),
+                new CreateWarehouseBatchBenchmark.AlwaysLookUp(), locationStats(session), locationIdentifiers -> { });
+    }
+
+    private static ReplaceWarehouseUseCase replaceUseCase(Session session) {
+        return new ReplaceWarehouseUseCase(warehouses(session), generousLimits(),
+                new CreateWarehouseBatchBenchmark.AlwaysLookUp(), locationStats(session));
+    }
+
+    private static WarehouseRepository warehouses(Session session) {
+        WarehouseRepository repository = new WarehouseRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    private static LocationStatsRepository locationStats(Session session) {
+        LocationStatsRepository repository = new LocationStatsRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CreateReplaceWarehouseBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,239 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitValidator;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latency of validating and inserting one {@code POST /warehouses/batch} in an H2 database that
+ * already holds warehouses at every location.
+ *
+ * <ul>
+ *   <li>{@code perBatchReads}: {@link CreateWarehouseUseCase#createAll}, which reads the aggregates
+ *       of each distinct location once and looks up every business unit code of the batch
+ *       together.</li>
+ *   <li>{@code perItemReads}: the same inserts after one mutation facts query per item, as the
+ *       batch was validated before.</li>
+ * </ul>
+ *
+ * <p>The business unit filter is replaced by one that cannot rule out any code, so every code is
+ * looked up: the worst case for both. Each batch is rolled back, so every invocation starts from
+ * the same table.
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...CreateWarehouseBatchBenchmark -Dexec.classpathScope=test} or from the IDE.
+ * H2 runs in process, so the gap only grows with a network round trip to PostgreSQL per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateWarehouseBatchBenchmark {
+
+    private static final int LOCATIONS = 10;
+    private static final int STORED_PER_LOCATION = 100;
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private int batches;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:batches;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, WarehouseRepository.INSERT_BATCH_SIZE)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .addAnnotatedClass(DbLocationStats.class)
+                .addAnnotatedClass(DbStockMovement.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        inTransaction(session -> {
+            for (int location = 0; location < LOCATIONS; location++) {
+                for (int i = 0; i < STORED_PER_LOCATION; i++) {
+                    session.persist(warehouse("MWH.STORED." + location + "." + i, location(location)));
+                }
+            }
+            session.flush();
+            locationStats(session).seedIfEmpty();
+            return null;
+        }, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public List<WarehouseCreationResult> perBatchReads() {
+        List<Warehouse> batch = nextBatch();
+        return inTransaction(session -> useCase(session).createAll(batch), false);
+    }
+
+    @Benchmark
+    public List<WarehouseCreationResult> perItemReads() {
+        List<Warehouse> batch = nextBatch();
+        return inTransaction(session -> {
+            WarehouseRepository warehouses = warehouses(session);
+            List<WarehouseCreationResult> results = new ArrayList<>(batch.size());
+            for (Warehouse warehouse : batch) {
+                warehouses.loadMutationFacts(warehouse.getIdentifier(), warehouse.getBusinessUnitCode(),
+                        warehouse.getLocationIdentifier(), true);
+                warehouse.setActive(true);
+                warehouse.setArchived(false);
+                results.add(WarehouseCreationResult.created(warehouse));
+            }
+            warehouses.createAll(batch);
+            locationStats(session).recordCreatedAll(batch);
+            return results;
+        }, false);
+    }
+
+    private List<Warehouse> nextBatch() {
+        int batchNumber = batches++;
+        List<Warehouse> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(warehouse("MWH.NEW." + batchNumber + "." + i, location(i % LOCATIONS)));
+        }
+        return batch;
+    }
+
+    private static Warehouse warehouse(String businessUnitCode, String location) {
+        return Warehouse.builder()
+                .identifier(WarehouseIdentifiers.next())
+                .name("Warehouse " + businessUnitCode)
+                .businessUnitCode(businessUnitCode)
+                .locationIdentifier(location)
+                .capacity(10)
+                .currentStock(0)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    private static String location(int index) {
+        return "BENCH-" + String.format("%03d", index);
+    }
+
+    private <T> T inTransaction(Function<Session, T> work, boolean commit) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                session.flush();
+                return result;
+            } finally {
+                if (commit) {
+                    transaction.commit();
+                } else {
+                    transaction.rollback();
+                }
+            }
+        }
+    }
+
+    private static CreateWarehouseUseCase useCase(Session session) {
+        // Generous limits: every item passes, so both benchmarks insert the whole batch
+        Location limits = new Location("BENCH", 1_000_000, 1_000, Integer.MAX_VALUE);
+        LocationResolver locationResolver = new LocationResolver() {
+            @Override
+            public Location resolveByIdentifier(String identifier) {
+                return limits;
+            }
+
+            @Override
+            public List<Location> resolveByIdentifierPrefix(String prefix) {
+                return List.of(limits);
+            }
+        };
+        return new CreateWarehouseUseCase(warehouses(session), locationResolver, new AlwaysLookUp(),
+                locationStats(session), locationIdentifiers -> { });
+    }
+
+    private static WarehouseRepository warehouses(Session session) {
+        WarehouseRepository repository = new WarehouseRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    private static LocationStatsRepository locationStats(Session session) {
+        LocationStatsRepository repository = new LocationStatsRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    /**
+     * A business unit filter that has seen every code. Also used by
+     * {@link CreateReplaceWarehouseBenchmark}.
+     */
+    static final class AlwaysLookUp implements BusinessUnitValidator {
+
+        @Override
+        public boolean isBusinessUnitCodeUnique(String businessUnitCode) {
+            return true;
+        }
+
+        @Override
+        public boolean mightBeInUse(String businessUnitCode) {
+            return true;
+        }
+
+        @Override
+        public void recordLookup(boolean inUse) {
+        }
+
+        @Override
+        public void recordBusinessUnitCode(String businessUnitCode) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CreateWarehouseBatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationAdmissionControlTest {
+
+    @Mock
+    private LocationStatsRepository locationStatsRepository;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    // Resources of the simulated current transaction
+    private final Map<Object, Object> transactionResources = new HashMap<>();
+
+    private LocationAdmissionControl admission;
+
+    @BeforeEach
+    void setUp() {
+        // A single stripe, so every location contends and a blocked admission gives up quickly
+        admission = new LocationAdmissionControl(locationStatsRepository, transactionRegistry, 1, Duration.ofMillis(50));
+    }
+
+    private void inActiveTransaction() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(transactionRegistry.getResource(any())).thenAnswer(invocation -> transactionResources.get(invocation.getArgument(0)));
+        doAnswer(invocation -> transactionResources.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(transactionRegistry).putResource(any(), any());
+    }
+
+    private void startNextTransaction() {
+        transactionResources.clear();
+    }
+
+    private List<Synchronization> registeredSynchronizations() {
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry, atLeastOnce()).registerInterposedSynchronization(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void admit_ShouldRequireActiveTransaction() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> admission.admit(Collections.singletonList("AMSTERDAM-001")));
+
+        assertEquals("Location admission requires an active transaction", exception.getMessage());
+        verifyNoInteractions(locationStatsRepository);
+    }
+
+    @Test
+    void admit_ShouldLockRowsInSortedOrder() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow(anyString())).thenReturn(true);
+
+        admission.admit(Arrays.asList("ZWOLLE-001", "AMSTERDAM-001"));
+
+        InOrder inOrder = inOrder(locationStatsRepository);
+        inOrder.verify(locationStatsRepository).lockRow("AMSTERDAM-001");
+        inOrder.verify(locationStatsRepository).lockRow("ZWOLLE-001");
+    }
+
+    @Test
+    void admit_ShouldDoNothingForLocationAlreadyHeldByTransaction() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow("AMSTERDAM-001")).thenReturn(true);
+
+        admission.admit(Collections.singletonList("AMSTERDAM-001"));
+        admission.admit(Collections.singletonList("AMSTERDAM-001"));
+
+        verify(locationStatsRepository, times(1)).lockRow("AMSTERDAM-001");
+        verify(transactionRegistry, times(1)).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void admit_ShouldInsertMissingRowBeforeLockingIt() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow("TILBURG-001")).thenReturn(false, true);
+
+        admission.admit(Collections.singletonList("TILBURG-001"));
+
+        InOrder inOrder = inOrder(locationStatsRepository);
+        inOrder.verify(locationStatsRepository).lockRow("TILBURG-001");
+        inOrder.verify(locationStatsRepository).insertEmptyRow("TILBURG-001");
+        inOrder.verify(locationStatsRepository).lockRow("TILBURG-001");
+    }
+
+    @Test
+    void admit_ShouldLockRowInsertedConcurrentlyByAnotherNode() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow("TILBURG-001")).thenReturn(false, true);
+        doThrow(new PersistenceException("duplicate key")).when(locationStatsRepository).insertEmptyRow("TILBURG-001");
+
+        assertDoesNotThrow(() -> admission.admit(Collections.singletonList("TILBURG-001")));
+
+        verify(locationStatsRepository, times(2)).lockRow("TILBURG-001");
+    }
+
+    @Test
+    void admit_ShouldRejectWhileAnotherTransactionHoldsTheStripe() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow(anyString())).thenReturn(true);
+        admission.admit(Collections.singletonList("AMSTERDAM-001"));
+
+        startNextTransaction();
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> admission.admit(Collections.singletonList("ZWOLLE-001")));
+
+        assertEquals("Location is busy, try again later: ZWOLLE-001", exception.getMessage());
+        verify(locationStatsRepository, never()).lockRow("ZWOLLE-001");
+    }
+
+    @Test
+    void admit_ShouldReleaseStripeWhenTransactionCompletes() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow(anyString())).thenReturn(true);
+        admission.admit(Collections.singletonList("AMSTERDAM-001"));
+        registeredSynchronizations().get(0).afterCompletion(Status.STATUS_COMMITTED);
+
+        startNextTransaction();
+        admission.admit(Collections.singletonList("ZWOLLE-001"));
+
+        verify(locationStatsRepository).lockRow("ZWOLLE-001");
+    }
+
+    @Test
+    void admit_ShouldReleaseStripeWhenRowLockFails() {
+        inActiveTransaction();
+        when(locationStatsRepository.lockRow("AMSTERDAM-001")).thenThrow(new PersistenceException("lock timeout"));
+
+        assertThrows(PersistenceException.class, () -> admission.admit(Collections.singletonList("AMSTERDAM-001")));
+        registeredSynchronizations().get(0).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        startNextTransaction();
+        when(locationStatsRepository.lockRow("ZWOLLE-001")).thenReturn(true);
+        assertDoesNotThrow(() -> admission.admit(Collections.singletonList("ZWOLLE-001")));
+    }
+}
@@ -0,0 +1,361 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationStatsRepositoryTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query updateQuery;
+
+    @Mock
+    private TypedQuery<Object[]> aggregateQuery;
+
+    @InjectMocks
+    private LocationStatsRepository repository;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.builder()
+                .identifier("WH-001")
+                .name("Warehouse WH-001")
+                .businessUnitCode("BU-001")
+                .locationIdentifier("AMSTERDAM-001")
+                .capacity(100)
+                .currentStock(40)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    private void stubUpdate(int rowsAffected) {
+        when(entityManager.createQuery(startsWith("UPDATE DbLocationStats"))).thenReturn(updateQuery);
+        when(updateQuery.setParameter(anyString(), any())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(rowsAffected);
+    }
+
+    @Test
+    void recordCreated_ShouldIncrementExistingRow() {
+        stubUpdate(1);
+
+        repository.recordCreated(warehouse);
+
+        verify(updateQuery).setParameter("warehouses", 1);
+        verify(updateQuery).setParameter("capacity", 100L);
+        verify(updateQuery).setParameter("stock", 40L);
+        verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void recordCreated_ShouldInsertEmptyRowThenIncrementIt_ForFirstWarehouseAtLocation() {
+        stubUpdate(0);
+        when(updateQuery.executeUpdate()).thenReturn(0, 1);
+
+        repository.recordCreated(warehouse);
+
+        // The row is inserted empty, as admission does, and the totals go through the update
+        ArgumentCaptor<DbLocationStats> captor = ArgumentCaptor.forClass(DbLocationStats.class);
+        InOrder inOrder = inOrder(entityManager, updateQuery);
+        inOrder.verify(updateQuery).executeUpdate();
+        inOrder.verify(entityManager).persist(captor.capture());
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(updateQuery).executeUpdate();
+        assertEquals("AMSTERDAM-001", captor.getValue().locationIdentifier);
+        assertEquals(0, captor.getValue().activeWarehouses);
+        assertEquals(0L, captor.getValue().totalCapacity);
+        assertEquals(0L, captor.getValue().totalStock);
+        verify(updateQuery, times(2)).setParameter("warehouses", 1);
+    }
+
+    @Test
+    void recordCreated_ShouldUpdateRowInsertedConcurrently_ForFirstWarehouseAtLocation() {
+        stubUpdate(0);
+        when(updateQuery.executeUpdate()).thenReturn(0, 1);
+        doThrow(new jakarta.persistence.PersistenceException("duplicate key")).when(entityManager).flush();
+
+        assertDoesNotThrow(() -> repository.recordCreated(warehouse));
+
+        verify(updateQuery, times(2)).executeUpdate();
+    }
+
+    @Test
+    void recordCreated_ShouldFail_WhenRowCannotBeCreatedOrUpdated() {
+        stubUpdate(0);
+
+        assertThrows(IllegalStateException.class, () -> repository.recordCreated(warehouse));
+    }
+
+    @Test
+    void recordCreatedAll_ShouldWriteOncePerLocation() {
+        stubUpdate(1);
+        Warehouse second = warehouse.toBuilder().identifier("WH-002").capacity(50).currentStock(5).build();
+        Warehouse elsewhere = warehouse.toBuilder().identifier("WH-003").locationIdentifier("ZWOLLE-001").build();
+
+        repository.recordCreatedAll(Arrays.asList(warehouse, second, elsewhere));
+
+        verify(updateQuery, times(2)).executeUpdate();
+        verify(updateQuery).setParameter("warehouses", 2);
+        verify(updateQuery).setParameter("capacity", 150L);
+        verify(updateQuery).setParameter("stock", 45L);
+        verify(updateQuery).setParameter("locationIdentifier", "ZWOLLE-001");
+    }
+
+    @Test
+    void recordReplaced_ShouldMoveTotalsBetweenLocations() {
+        stubUpdate(1);
+        Warehouse replacement = warehouse.toBuilder()
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(150)
+                .build();
+
+        repository.recordReplaced(WarehouseView.from(warehouse), replacement);
+
+        verify(updateQuery).setParameter("warehouses", -1);
+        verify(updateQuery).setParameter("capacity", -100L);
+        verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        verify(updateQuery).setParameter("warehouses", 1);
+        verify(updateQuery).setParameter("capacity", 150L);
+        verify(updateQuery).setParameter("locationIdentifier", "ZWOLLE-001");
+        verify(updateQuery, times(2)).executeUpdate();
+    }
+
+    @Test
+    void recordReplaced_ShouldUpdateLocationsInFixedOrder() {
+        stubUpdate(1);
+        Warehouse moved = warehouse.toBuilder().locationIdentifier("ZWOLLE-001").build();
+        Warehouse movedBack = warehouse.toBuilder().build();
+
+        repository.recordReplaced(WarehouseView.from(warehouse), moved);
+        repository.recordReplaced(WarehouseView.from(moved), movedBack);
+
+        // Lowest location first in both directions, so opposite replacements cannot deadlock
+        InOrder inOrder = inOrder(updateQuery);
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "ZWOLLE-001");
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "ZWOLLE-001");
+    }
+
+    @Test
+    void recordReplaced_ShouldApplyOnlyTheDifference_WhenLocationIsUnchanged() {
+        stubUpdate(1);
+        Warehouse replacement = warehouse.toBuilder()
+                .capacity(150)
+                .build();
+
+        repository.recordReplaced(WarehouseView.from(warehouse), replacement);
+
+        verify(updateQuery).setParameter("warehouses", 0);
+        verify(updateQuery).setParameter("capacity", 50L);
+        verify(updateQuery).setParameter("stock", 0L);
+        verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        verify(updateQuery, times(1)).executeUpdate();
+    }
+
+    @Test
+    void recordReplaced_ShouldSkipUpdate_WhenNothingCounted() {
+        repository.recordReplaced(WarehouseView.from(warehouse), warehouse.toBuilder().build());
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void recordArchived_ShouldDecrementByTheArchivedState() {
+        stubUpdate(1);
+        WarehouseView archived = WarehouseView.from(warehouse.toBuilder().currentStock(0).build());
+
+        repository.recordArchived(archived);
+
+        verify(updateQuery).setParameter("warehouses", -1);
+        verify(updateQuery).setParameter("capacity", -100L);
+        verify(updateQuery).setParameter("stock", 0L);
+        verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        verify(entityManager, never()).find(any(), any());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void recordArchived_ShouldSkipUpdate_WhenWarehouseWasNotCounted() {
+        repository.recordArchived(WarehouseView.from(warehouse.toBuilder().currentStock(0).active(false).build()));
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void recordStockMoved_ShouldMoveStockBetweenLocationsInFixedOrder() {
+        stubUpdate(1);
+
+        repository.recordStockMoved("ZWOLLE-001", "AMSTERDAM-001", 15);
+
+        // Lowest location first, although the stock leaves ZWOLLE-001
+        InOrder inOrder = inOrder(updateQuery);
+        inOrder.verify(updateQuery).setParameter("stock", 15L);
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        inOrder.verify(updateQuery).setParameter("stock", -15L);
+        inOrder.verify(updateQuery).setParameter("locationIdentifier", "ZWOLLE-001");
+        verify(updateQuery, times(2)).setParameter("warehouses", 0);
+        verify(updateQuery, times(2)).setParameter("capacity", 0L);
+    }
+
+    @Test
+    void recordStockMoved_ShouldSkipUpdate_WithinOneLocation() {
+        repository.recordStockMoved("AMSTERDAM-001", "AMSTERDAM-001", 15);
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void recordStockChanged_ShouldOnlyAdjustStock() {
+        stubUpdate(1);
+
+        repository.recordStockChanged("AMSTERDAM-001", -25L);
+
+        verify(updateQuery).setParameter("warehouses", 0);
+        verify(updateQuery).setParameter("capacity", 0L);
+        verify(updateQuery).setParameter("stock", -25L);
+        verify(updateQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+    }
+
+    @Test
+    void lockRow_ShouldSelectRowForUpdate() {
+        when(entityManager.find(DbLocationStats.class, "AMSTERDAM-001", LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(new DbLocationStats("AMSTERDAM-001", 1, 100, 40));
+
+        assertTrue(repository.lockRow("AMSTERDAM-001"));
+    }
+
+    @Test
+    void lockRow_ShouldReportMissingRow() {
+        when(entityManager.find(DbLocationStats.class, "TILBURG-001", LockModeType.PESSIMISTIC_WRITE)).thenReturn(null);
+
+        assertFalse(repository.lockRow("TILBURG-001"));
+    }
+
+    @Test
+    void insertEmptyRow_ShouldPersistZeroTotalsAndFlush() {
+        repository.insertEmptyRow("TILBURG-001");
+
+        ArgumentCaptor<DbLocationStats> captor = ArgumentCaptor.forClass(DbLocationStats.class);
+        verify(entityManager).persist(captor.capture());
+        assertEquals("TILBURG-001", captor.getValue().locationIdentifier);
+        assertEquals(0, captor.getValue().activeWarehouses);
+        assertEquals(0L, captor.getValue().totalCapacity);
+        verify(entityManager).flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<String> stubExistingRows(List<String> locations) {
+        TypedQuery<String> existingQuery = mock(TypedQuery.class);
+        when(entityManager.createQuery(startsWith("SELECT s.locationIdentifier"), eq(String.class))).thenReturn(existingQuery);
+        when(existingQuery.setMaxResults(1)).thenReturn(existingQuery);
+        when(existingQuery.getResultList()).thenReturn(locations);
+        return existingQuery;
+    }
+
+    @Test
+    void seedIfEmpty_ShouldInsertAggregatesIntoEmptyTable() {
+        stubExistingRows(List.of());
+        when(entityManager.createQuery(startsWith("SELECT w.locationIdentifier"), eq(Object[].class))).thenReturn(aggregateQuery);
+        List<Object[]> rows = Arrays.asList(
+                new Object[] {"AMSTERDAM-001", 2L, 300L, 50L},
+                new Object[] {"ZWOLLE-001", 1L, 40L, 0L});
+        when(aggregateQuery.getResultList()).thenReturn(rows);
+
+        assertTrue(repository.seedIfEmpty());
+
+        ArgumentCaptor<DbLocationStats> captor = ArgumentCaptor.forClass(DbLocationStats.class);
+        verify(entityManager, times(2)).persist(captor.capture());
+        DbLocationStats amsterdam = captor.getAllValues().get(0);
+        assertEquals("AMSTERDAM-001", amsterdam.locationIdentifier);
+        assertEquals(2, amsterdam.activeWarehouses);
+        assertEquals(300L, amsterdam.totalCapacity);
+        assertEquals(50L, amsterdam.totalStock);
+        verify(entityManager).flush();
+        verify(entityManager, never()).createQuery("DELETE FROM DbLocationStats");
+    }
+
+    @Test
+    void seedIfEmpty_ShouldKeepExistingRows() {
+        stubExistingRows(List.of("AMSTERDAM-001"));
+
+        assertFalse(repository.seedIfEmpty());
+
+        verify(entityManager, never()).createQuery(anyString());
+        verify(entityManager, never()).createQuery(startsWith("SELECT w.locationIdentifier"), eq(Object[].class));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void onStart_ShouldTolerateRowsWrittenByAnotherNode() {
+        stubExistingRows(List.of());
+        when(entityManager.createQuery(startsWith("SELECT w.locationIdentifier"), eq(Object[].class))).thenReturn(aggregateQuery);
+        List<Object[]> rows = List.<Object[]>of(new Object[] {"AMSTERDAM-001", 2L, 300L, 50L});
+        when(aggregateQuery.getResultList()).thenReturn(rows);
+        doThrow(new jakarta.persistence.PersistenceException("duplicate key")).when(entityManager).flush();
+
+        assertDoesNotThrow(() -> repository.onStart(null));
+    }
+
+    @Test
+    void findAllUsage_ShouldProjectStatsRows() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<LocationUsage> usageQuery = mock(TypedQuery.class);
+        when(entityManager.createQuery(startsWith("SELECT new"), eq(LocationUsage.class))).thenReturn(usageQuery);
+        List<LocationUsage> usage = List.of(new LocationUsage("AMSTERDAM-001", 2, 300L));
+        when(usageQuery.getResultList()).thenReturn(usage);
+
+        assertEquals(usage, repository.findAllUsage());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void findUsage_ShouldKeyStatsRowsOfTheRequestedLocations() {
+        @SuppressWarnings("unchecked")
+        TypedQuery<LocationUsage> usageQuery = mock(TypedQuery.class);
+        when(entityManager.createQuery(contains("WHERE s.locationIdentifier IN :locationIdentifiers"),
+                eq(LocationUsage.class))).thenReturn(usageQuery);
+        when(usageQuery.setParameter("locationIdentifiers", Set.of("AMSTERDAM-001", "ZWOLLE-001")))
+                .thenReturn(usageQuery);
+        LocationUsage amsterdam = new LocationUsage("AMSTERDAM-001", 2, 300L);
+        when(usageQuery.getResultList()).thenReturn(List.of(amsterdam));
+
+        Map<String, LocationUsage> usage = repository.findUsage(Set.of("AMSTERDAM-001", "ZWOLLE-001"));
+
+        assertEquals(Map.of("AMSTERDAM-001", amsterdam), usage);
+    }
+
+    @Test
+    void findUsage_ShouldNotQuery_WhenNoLocationIsRequested() {
+        assertTrue(repository.findUsage(Set.of()).isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,126 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Throughput of the in-process half of {@link LocationAdmissionControl} as threads are added.
+ * Each operation stands in for one create: take the location's stripe, spend a fixed amount of
+ * CPU in the critical section, release.
+ *
+ * <ul>
+ *   <li>{@code distinctLocations}: every thread creates at its own location; should scale with cores.</li>
+ *   <li>{@code sameLocation}: every thread creates at one location; stays flat, by design.</li>
+ *   <li>{@code globalLock}: one lock for all creates, the serialize-everything baseline.</li>
+ * </ul>
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...LocationStripesBenchmark -Dexec.classpathScope=test} or from the IDE.
+ * The row lock on {@code location_stats} needs a database and is not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationStripesBenchmark {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+    // Roughly the cost of validating and inserting one warehouse without I/O
+    private static final long CRITICAL_SECTION_TOKENS = 500;
+
+    private final LocationStripes stripes = new LocationStripes(64);
+    private final ReentrantLock globalLock = new ReentrantLock();
+    private final AtomicInteger nextLocation = new AtomicInteger();
+    private List<String> locationsOnDistinctStripes;
+
+    @Setup(Level.Trial)
+    public void pickLocations() {
+        // Locations that hash onto different stripes, so "distinct" really means uncontended
+        locationsOnDistinctStripes = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; locationsOnDistinctStripes.size() < stripes.size(); i++) {
+            String location = "LOCATION-" + i;
+            if (used.add(stripes.indexOf(location))) {
+                locationsOnDistinctStripes.add(location);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadLocation {
+        int stripe;
+
+        @Setup(Level.Trial)
+        public void assign(LocationStripesBenchmark benchmark) {
+            int slot = benchmark.nextLocation.getAndIncrement() % benchmark.locationsOnDistinctStripes.size();
+            stripe = benchmark.stripes.indexOf(benchmark.locationsOnDistinctStripes.get(slot));
+        }
+    }
+
+    @Benchmark
+    public void distinctLocations(ThreadLocation location) throws InterruptedException {
+        admitted(location.stripe);
+    }
+
+    @Benchmark
+    public void sameLocation() throws InterruptedException {
+        admitted(stripes.indexOf("ZWOLLE-001"));
+    }
+
+    @Benchmark
+    public void globalLock() {
+        globalLock.lock();
+        try {
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private void admitted(int stripe) throws InterruptedException {
+        if (!stripes.tryAcquire(stripe, WAIT)) {
+            throw new IllegalStateException("Stripe wait timed out");
+        }
+        try {
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            stripes.release(stripe);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(LocationStripesBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.RollbackException;
+import org.hibernate.StaleObjectStateException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticLockRetryTest {
+
+    /**
+     * Runs attempts inline instead of in a new transaction and records pauses instead of sleeping.
+     */
+    private static class InlineRetry extends OptimisticLockRetry {
+        final List<Duration> pauses = new ArrayList<>();
+
+        InlineRetry(int maxAttempts) {
+            super(maxAttempts, Duration.ofMillis(20), Duration.ofMillis(200));
+        }
+
+        @Override
+        <T> T inNewTransaction(Supplier<T> work) {
+            return work.get();
+        }
+
+        @Override
+        void pause(Duration delay) {
+            pauses.add(delay);
+        }
+    }
+
+    @Test
+    void call_ShouldReturnResultOfFirstSuccessfulAttempt() {
+        InlineRetry retry = new InlineRetry(3);
+
+        assertEquals("done", retry.call(() -> "done"));
+        assertTrue(retry.pauses.isEmpty());
+    }
+
+    @Test
+    void call_ShouldRerunWorkAfterOptimisticLockFailure() {
+        InlineRetry retry = new InlineRetry(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockException("stale");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, retry.pauses.size());
+    }
+
+    @Test
+    void call_ShouldGiveUpWithIllegalStateExceptionAfterMaxAttempts() {
+        InlineRetry retry = new InlineRetry(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> retry.call(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockException("stale");
+        }));
+
+        assertEquals("Warehouse was modified concurrently, please retry", exception.getMessage());
+        assertEquals(3, attempts.get());
+        assertEquals(2, retry.pauses.size());
+    }
+
+    @Test
+    void call_ShouldNotRetryOtherFailures() {
+        InlineRetry retry = new InlineRetry(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retry.call(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Warehouse not found: WH-001");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void isOptimisticLockFailure_ShouldFindConflictWrappedByCommit() {
+        RollbackException rollback = new RollbackException("commit failed");
+        rollback.initCause(new StaleObjectStateException("Warehouse", 1L));
+
+        assertTrue(OptimisticLockRetry.isOptimisticLockFailure(new RuntimeException(rollback)));
+        assertFalse(OptimisticLockRetry.isOptimisticLockFailure(new RuntimeException("connection refused")));
+    }
+
+    @Test
+    void isOptimisticLockFailure_ShouldRetryRefusedConditionalUpdate() {
+        assertTrue(OptimisticLockRetry.isOptimisticLockFailure(new ConcurrentWarehouseUpdateException("WH-001")));
+    }
+
+    @Test
+    void backoff_ShouldStayWithinExponentialCap() {
+        InlineRetry retry = new InlineRetry(5);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retry.backoff(1).compareTo(Duration.ofMillis(20)) <= 0);
+            assertTrue(retry.backoff(2).compareTo(Duration.ofMillis(40)) <= 0);
+            assertTrue(retry.backoff(10).compareTo(Duration.ofMillis(200)) <= 0);
+        }
+    }
+}
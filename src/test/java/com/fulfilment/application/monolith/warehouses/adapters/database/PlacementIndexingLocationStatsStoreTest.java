@@ -0,0 +1,171 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.location.LocationPlacementIndex;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlacementIndexingLocationStatsStoreTest {
+
+    @Mock
+    private LocationStatsStore delegate;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    @Mock
+    private LocationPlacementIndex placementIndex;
+
+    private PlacementIndexingLocationStatsStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PlacementIndexingLocationStatsStore(delegate, transactionRegistry, placementIndex);
+    }
+
+    private static Warehouse warehouse(String identifier, String location, int capacity, boolean active) {
+        return Warehouse.builder()
+                .id(1L)
+                .identifier(identifier)
+                .name("Warehouse " + identifier)
+                .businessUnitCode("BU-" + identifier)
+                .locationIdentifier(location)
+                .capacity(capacity)
+                .currentStock(0)
+                .active(active)
+                .archived(!active)
+                .build();
+    }
+
+    private Synchronization registeredSynchronization() {
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        return synchronization.getValue();
+    }
+
+    @Test
+    void recordCreated_ShouldUpdateIndexOnlyAfterCommit() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        Warehouse created = warehouse("WH-001", "AMSTERDAM-001", 100, true);
+
+        store.recordCreated(created);
+
+        verify(delegate).recordCreated(created);
+        verifyNoInteractions(placementIndex);
+        Synchronization synchronization = registeredSynchronization();
+        synchronization.beforeCompletion();
+        synchronization.afterCompletion(Status.STATUS_COMMITTED);
+
+        // The index knows the commit is under way until its change is applied
+        InOrder inOrder = inOrder(placementIndex);
+        inOrder.verify(placementIndex).beginCommit();
+        inOrder.verify(placementIndex).apply("AMSTERDAM-001", 1, 100);
+        inOrder.verify(placementIndex).endCommit();
+    }
+
+    @Test
+    void recordCreated_ShouldLeaveIndexAlone_WhenTransactionRollsBack() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        store.recordCreated(warehouse("WH-001", "AMSTERDAM-001", 100, true));
+
+        registeredSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK);
+        verifyNoInteractions(placementIndex);
+    }
+
+    @Test
+    void recordCreated_ShouldEndCommitWithoutApplying_WhenCommitFails() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        store.recordCreated(warehouse("WH-001", "AMSTERDAM-001", 100, true));
+        Synchronization synchronization = registeredSynchronization();
+        synchronization.beforeCompletion();
+        synchronization.afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        verify(placementIndex).beginCommit();
+        verify(placementIndex).endCommit();
+        verify(placementIndex, never()).apply(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void recordCreatedAll_ShouldApplyOneChangePerLocation() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        store.recordCreatedAll(List.of(
+                warehouse("WH-001", "AMSTERDAM-001", 100, true),
+                warehouse("WH-002", "AMSTERDAM-001", 50, true),
+                warehouse("WH-003", "ZWOLLE-001", 40, true)));
+
+        verify(placementIndex).apply("AMSTERDAM-001", 2, 150);
+        verify(placementIndex).apply("ZWOLLE-001", 1, 40);
+    }
+
+    @Test
+    void recordReplaced_ShouldMoveUsageBetweenLocations() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        WarehouseView previous = WarehouseView.from(warehouse("WH-001", "AMSTERDAM-001", 100, true));
+
+        store.recordReplaced(previous, warehouse("WH-001", "ZWOLLE-001", 40, true));
+
+        verify(placementIndex).apply("AMSTERDAM-001", -1, -100);
+        verify(placementIndex).apply("ZWOLLE-001", 1, 40);
+    }
+
+    @Test
+    void recordReplaced_ShouldApplyOnlyTheDifference_WhenLocationIsUnchanged() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        WarehouseView previous = WarehouseView.from(warehouse("WH-001", "AMSTERDAM-001", 100, true));
+
+        store.recordReplaced(previous, warehouse("WH-001", "AMSTERDAM-001", 80, true));
+
+        verify(placementIndex).apply("AMSTERDAM-001", 0, -20);
+    }
+
+    @Test
+    void recordArchived_ShouldApplyTheArchivedState() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        WarehouseView archived = WarehouseView.from(warehouse("WH-001", "AMSTERDAM-001", 100, true));
+
+        store.recordArchived(archived);
+
+        InOrder inOrder = inOrder(delegate, placementIndex);
+        inOrder.verify(delegate).recordArchived(archived);
+        inOrder.verify(placementIndex).apply("AMSTERDAM-001", -1, -100);
+    }
+
+    @Test
+    void recordArchived_ShouldSkipIndex_ForInactiveWarehouse() {
+        WarehouseView archived = WarehouseView.from(warehouse("WH-002", "AMSTERDAM-001", 100, false));
+
+        store.recordArchived(archived);
+
+        verify(delegate).recordArchived(archived);
+        verifyNoInteractions(placementIndex);
+    }
+
+    @Test
+    void stockChanges_ShouldOnlyBeDelegated() {
+        store.recordStockMoved("AMSTERDAM-001", "ZWOLLE-001", 5);
+        store.recordStockChanged("AMSTERDAM-001", 5);
+
+        verify(delegate).recordStockMoved("AMSTERDAM-001", "ZWOLLE-001", 5);
+        verify(delegate).recordStockChanged("AMSTERDAM-001", 5);
+        verifyNoInteractions(placementIndex, transactionRegistry);
+    }
+}
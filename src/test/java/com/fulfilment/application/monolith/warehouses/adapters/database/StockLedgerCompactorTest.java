@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerCompactorTest {
+
+    @Mock
+    private StockLedgerRepository stockLedgerRepository;
+
+    private StockLedgerCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        compactor = new StockLedgerCompactor(stockLedgerRepository, Duration.ofSeconds(1), 100);
+    }
+
+    @Test
+    void compactPending_ShouldKeepFoldingWhileBatchesComeBackFull() {
+        when(stockLedgerRepository.compactBatch(100)).thenReturn(100, 100, 37);
+
+        assertEquals(237, compactor.compactPending());
+
+        verify(stockLedgerRepository, times(3)).compactBatch(100);
+    }
+
+    @Test
+    void compactPending_ShouldStopAtEmptyBatch() {
+        when(stockLedgerRepository.compactBatch(100)).thenReturn(0);
+
+        assertEquals(0, compactor.compactPending());
+
+        verify(stockLedgerRepository).compactBatch(100);
+    }
+
+    @Test
+    void compactPending_ShouldSwallowFailureSoTheScheduleSurvives() {
+        when(stockLedgerRepository.compactBatch(100)).thenReturn(100).thenThrow(new IllegalStateException("deadlock"));
+
+        assertEquals(100, compactor.compactPending());
+    }
+
+    @Test
+    void constructor_ShouldRejectEmptyBatches() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new StockLedgerCompactor(stockLedgerRepository, Duration.ofSeconds(1), 0));
+
+        assertEquals("Compaction batch size must be at least 1", exception.getMessage());
+    }
+}
@@ -0,0 +1,356 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the ledger's statements against a real (H2) database, with the warehouse and location
+ * stats repositories it folds movements through.
+ */
+class StockLedgerRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:15:30Z");
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private String amsterdam;
+    private String zwolle;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .addAnnotatedClass(DbLocationStats.class)
+                .addAnnotatedClass(DbStockMovement.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        amsterdam = WarehouseIdentifiers.next();
+        zwolle = WarehouseIdentifiers.next();
+        inTransaction(session -> {
+            session.persist(warehouse(amsterdam, "AMSTERDAM-001", 40));
+            session.persist(warehouse(zwolle, "ZWOLLE-001", 0));
+            session.flush();
+            ledger(session).locationStatsStore.seedIfEmpty();
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    private static Warehouse warehouse(String identifier, String location, int stock) {
+        return Warehouse.builder()
+                .identifier(identifier)
+                .name("Warehouse " + location)
+                .businessUnitCode("MWH." + location)
+                .locationIdentifier(location)
+                .capacity(100)
+                .currentStock(stock)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    // Helper methods
+    private StockLedgerFixture ledger(Session session) {
+        return new StockLedgerFixture(session);
+    }
+
+    private <T> T inTransaction(Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            T result = work.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    private void append(String identifier, int delta) {
+        inTransaction(session -> {
+            StockLedgerFixture ledger = ledger(session);
+            return ledger.repository.append(ledger.warehouses.findViewByIdentifier(identifier), delta, "cycle count");
+        });
+    }
+
+    private StockLevel stockLevel(String identifier) {
+        return inTransaction(session -> ledger(session).repository.stockLevel(identifier));
+    }
+
+    private boolean adjustStock(String identifier, int quantity) {
+        return inTransaction(session -> ledger(session).warehouses.adjustStock(identifier, quantity));
+    }
+
+    private boolean replaceIfStockMatches(Warehouse replacement, long version) {
+        return inTransaction(session -> ledger(session).warehouses.replaceIfStockMatches(replacement, version));
+    }
+
+    private List<Integer> parkedDeltas() {
+        return inTransaction(session -> session.createSelectionQuery(
+                        "SELECT m.delta FROM DbStockMovement m WHERE m.parked = true ORDER BY m.id", Integer.class)
+                .getResultList());
+    }
+
+    private long locationStock(String location) {
+        return inTransaction(session -> session.find(DbLocationStats.class, location).totalStock);
+    }
+
+    /**
+     * The repositories wired as CDI would, sharing one session.
+     */
+    private static final class StockLedgerFixture {
+        final StockLedgerRepository repository = new StockLedgerRepository();
+        final WarehouseRepository warehouses = new WarehouseRepository();
+        final LocationStatsRepository locationStatsStore = new LocationStatsRepository();
+
+        StockLedgerFixture(Session session) {
+            warehouses.entityManager = session;
+            locationStatsStore.entityManager = session;
+            repository.entityManager = session;
+            repository.warehouseStore = warehouses;
+            repository.locationStatsStore = locationStatsStore;
+            repository.clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        }
+    }
+
+    @Test
+    void append_ShouldRecordMovementWithoutTouchingWarehouse() {
+        StockMovement movement = inTransaction(session -> {
+            StockLedgerFixture ledger = ledger(session);
+            return ledger.repository.append(ledger.warehouses.findViewByIdentifier(amsterdam), -15, "picking");
+        });
+
+        assertNotNull(movement.getId());
+        assertEquals(amsterdam, movement.getWarehouseIdentifier());
+        assertEquals(-15, movement.getDelta());
+        assertEquals("picking", movement.getReason());
+        assertEquals(NOW, movement.getRecordedAt());
+        int storedStock = inTransaction(session -> ledger(session).warehouses.findViewByIdentifier(amsterdam)
+                .getCurrentStock());
+        assertEquals(40, storedStock);
+    }
+
+    @Test
+    void stockLevel_ShouldAddPendingDeltasToCompactedStock() {
+        append(amsterdam, -15);
+        append(amsterdam, 5);
+        append(zwolle, 30);
+
+        StockLevel level = stockLevel(amsterdam);
+
+        assertEquals(amsterdam, level.getIdentifier());
+        assertEquals(40, level.getCompactedStock());
+        assertEquals(-10, level.getPendingDelta());
+        assertEquals(2, level.getPendingMovements());
+        assertEquals(30, level.getStock());
+        assertEquals(100, level.getCapacity());
+        assertTrue(level.isActive());
+    }
+
+    @Test
+    void stockLevel_ShouldReportNoPendingMovements() {
+        StockLevel level = stockLevel(zwolle);
+
+        assertEquals(0, level.getPendingDelta());
+        assertEquals(0, level.getPendingMovements());
+        assertEquals(0, level.getStock());
+    }
+
+    @Test
+    void stockLevel_ShouldReturnNull_WhenWarehouseDoesNotExist() {
+        assertNull(stockLevel(WarehouseIdentifiers.next()));
+    }
+
+    @Test
+    void compactBatch_ShouldFoldAllPendingMovementsOfTheOldestMovementsWarehouses() {
+        append(amsterdam, -15);
+        append(zwolle, 30);
+        append(amsterdam, 5);
+
+        // The oldest movement is amsterdam's; its later one is folded with it
+        int folded = inTransaction(session -> ledger(session).repository.compactBatch(1));
+
+        assertEquals(2, folded);
+        StockLevel amsterdamLevel = stockLevel(amsterdam);
+        assertEquals(30, amsterdamLevel.getCompactedStock());
+        assertEquals(0, amsterdamLevel.getPendingMovements());
+        StockLevel zwolleLevel = stockLevel(zwolle);
+        assertEquals(0, zwolleLevel.getCompactedStock());
+        assertEquals(1, zwolleLevel.getPendingMovements());
+        assertEquals(30, locationStock("AMSTERDAM-001"));
+        assertEquals(0, locationStock("ZWOLLE-001"));
+    }
+
+    @Test
+    void compactBatch_ShouldDrainBacklogAndKeepReadsStable() {
+        append(amsterdam, -15);
+        append(amsterdam, 5);
+        long before = stockLevel(amsterdam).getStock();
+
+        assertEquals(2, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+        assertEquals(0, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+
+        StockLevel after = stockLevel(amsterdam);
+        assertEquals(before, after.getStock());
+        assertEquals(0, after.getPendingMovements());
+        assertEquals(30, after.getCompactedStock());
+    }
+
+    @Test
+    void compactBatch_ShouldFoldNetDelta_WhenOnlyIntermediateStockLeavesBounds() {
+        // Movement ids are not commit order across nodes, so only the net result is checked
+        append(amsterdam, -50);
+        append(amsterdam, 60);
+
+        assertEquals(2, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+
+        assertEquals(50, stockLevel(amsterdam).getCompactedStock());
+        assertEquals(50, locationStock("AMSTERDAM-001"));
+        assertEquals(List.of(), parkedDeltas());
+    }
+
+    @Test
+    void compactBatch_ShouldParkOnlyMovementsThatWouldLeaveStockBounds() {
+        // Appends are not checked against the stock: 40 + 70 + 1 is above capacity, 40 + 1 is not
+        append(amsterdam, 70);
+        append(amsterdam, 1);
+        append(zwolle, 5);
+
+        assertEquals(3, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+
+        StockLevel level = stockLevel(amsterdam);
+        assertEquals(41, level.getCompactedStock());
+        assertEquals(0, level.getPendingMovements());
+        assertEquals(41, locationStock("AMSTERDAM-001"));
+        assertEquals(5, stockLevel(zwolle).getCompactedStock());
+        assertEquals(List.of(70), parkedDeltas());
+    }
+
+    @Test
+    void compactBatch_ShouldParkMovementsBelowZeroInRecordedOrder() {
+        // Two pickings recorded concurrently, each valid on its own: only the later one is parked
+        append(amsterdam, -30);
+        append(amsterdam, -30);
+
+        assertEquals(2, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+
+        assertEquals(10, stockLevel(amsterdam).getCompactedStock());
+        assertEquals(10, locationStock("AMSTERDAM-001"));
+        assertEquals(List.of(-30), parkedDeltas());
+    }
+
+    @Test
+    void compactBatch_ShouldLeaveMovementsAppendedDuringCompactionPending() {
+        append(amsterdam, -15);
+
+        int folded = inTransaction(session -> {
+            StockLedgerFixture ledger = ledger(session);
+            // Committed by another transaction between the compactor's read and its flagging
+            ledger.repository.warehouseStore = new WarehouseRepository() {
+                @Override
+                public void addToStock(String identifier, int quantity) {
+                    ledger.warehouses.addToStock(identifier, quantity);
+                    append(amsterdam, 5);
+                }
+            };
+            return ledger.repository.compactBatch(10);
+        });
+
+        assertEquals(1, folded);
+        StockLevel level = stockLevel(amsterdam);
+        assertEquals(25, level.getCompactedStock());
+        assertEquals(1, level.getPendingMovements());
+        assertEquals(30, level.getStock());
+    }
+
+    @Test
+    void compactBatch_ShouldParkMovementsOfWarehouseArchivedBeforeFolding() {
+        append(zwolle, 10);
+        // An archive that committed between the movement and the compaction
+        inTransaction(session -> session.createMutationQuery(
+                        "UPDATE Warehouse w SET w.active = false, w.archived = true WHERE w.identifier = :identifier")
+                .setParameter("identifier", zwolle)
+                .executeUpdate());
+
+        assertEquals(1, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+
+        StockLevel level = stockLevel(zwolle);
+        assertEquals(0, level.getCompactedStock());
+        assertEquals(0, level.getPendingMovements());
+        assertEquals(0, locationStock("ZWOLLE-001"));
+        assertEquals(List.of(10), parkedDeltas());
+    }
+
+    @Test
+    void adjustStock_ShouldCheckBoundsAgainstPendingMovements() {
+        // 40 compacted, 10 once the pending -30 is folded
+        append(amsterdam, -30);
+
+        assertFalse(adjustStock(amsterdam, -20));
+        assertTrue(adjustStock(amsterdam, -10));
+
+        // The compactor folds the movement without parking it
+        assertEquals(1, (int) inTransaction(session -> ledger(session).repository.compactBatch(10)));
+        assertEquals(0, stockLevel(amsterdam).getCompactedStock());
+        assertEquals(List.of(), parkedDeltas());
+    }
+
+    @Test
+    void adjustStock_ShouldCheckCapacityAgainstPendingMovements() {
+        append(zwolle, 90);
+
+        assertFalse(adjustStock(zwolle, 20));
+        assertTrue(adjustStock(zwolle, 10));
+    }
+
+    @Test
+    void replaceIfStockMatches_ShouldMatchStockIncludingPendingMovements() {
+        append(amsterdam, -15);
+        long version = inTransaction(session -> {
+            Long stored = ledger(session).warehouses.findViewByIdentifier(amsterdam).getVersion();
+            return stored == null ? 0L : stored;
+        });
+
+        assertFalse(replaceIfStockMatches(warehouse(amsterdam, "AMSTERDAM-001", 40), version));
+        assertTrue(replaceIfStockMatches(warehouse(amsterdam, "AMSTERDAM-001", 25), version));
+        // The replacement leaves the stock to the ledger
+        assertEquals(25, stockLevel(amsterdam).getStock());
+    }
+
+    @Test
+    void archiveIfEmpty_ShouldWaitForPendingMovementsToBeCompacted() {
+        append(zwolle, 10);
+        append(zwolle, -10);
+
+        assertNull(inTransaction(session -> ledger(session).warehouses.archiveIfEmpty(zwolle)));
+
+        inTransaction(session -> ledger(session).repository.compactBatch(10));
+        assertNotNull(inTransaction(session -> ledger(session).warehouses.archiveIfEmpty(zwolle)));
+    }
+}
@@ -0,0 +1,230 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.TransferStockUseCase;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress test of {@link TransferStockUseCase}: many threads transferring stock among a small hot
+ * set of warehouses in an H2 database, in random directions, so most transfers wait on a row lock
+ * another transfer holds.
+ *
+ * <ul>
+ *   <li>{@code orderedById}: the use case, which locks the two rows in ascending id order.</li>
+ *   <li>{@code sourceFirst}: the same two updates, source first; transfers in opposite directions
+ *       over the same pair deadlock, and one of them is aborted.</li>
+ * </ul>
+ *
+ * <p>{@code lockFailures} counts transfers aborted by a deadlock or lock timeout, and stays at zero
+ * for {@code orderedById}. After each trial the total stock is checked against what was seeded;
+ * the benchmark fails if any transfer was lost or applied twice.
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...TransferStockBenchmark -Dexec.classpathScope=test} or from the IDE. H2's
+ * row locking is not PostgreSQL's; absolute numbers only hint at production throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransferStockBenchmark {
+
+    private static final int CAPACITY = 1_000_000;
+    private static final int INITIAL_STOCK = 500_000;
+    private static final int MAX_QUANTITY = 10;
+    private static final String[] LOCATIONS = {"AMSTERDAM-001", "ZWOLLE-001"};
+
+    @Param({"2", "4", "16"})
+    public int hotWarehouses;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private final List<String> identifiers = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void seed() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:transfers;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.POOL_SIZE, 32)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .addAnnotatedClass(DbLocationStats.class)
+                .addAnnotatedClass(DbStockMovement.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        identifiers.clear();
+        inTransaction(session -> {
+            for (int i = 0; i < hotWarehouses; i++) {
+                Warehouse warehouse = Warehouse.builder()
+                        .identifier(WarehouseIdentifiers.next())
+                        .name("Warehouse " + i)
+                        .businessUnitCode("MWH." + i)
+                        .locationIdentifier(LOCATIONS[i % LOCATIONS.length])
+                        .capacity(CAPACITY)
+                        .currentStock(INITIAL_STOCK)
+                        .active(true)
+                        .archived(false)
+                        .build();
+                session.persist(warehouse);
+                identifiers.add(warehouse.getIdentifier());
+            }
+            session.flush();
+            locationStats(session).seedIfEmpty();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void checkStockConserved() {
+        try (Session session = sessionFactory.openSession()) {
+            long warehouseStock = session.createSelectionQuery(
+                    "SELECT COALESCE(SUM(w.currentStock), 0) FROM Warehouse w", Long.class).getSingleResult();
+            long locationStock = session.createSelectionQuery(
+                    "SELECT COALESCE(SUM(s.totalStock), 0) FROM DbLocationStats s", Long.class).getSingleResult();
+            long seeded = (long) INITIAL_STOCK * hotWarehouses;
+            if (warehouseStock != seeded || locationStock != seeded) {
+                throw new IllegalStateException("Stock not conserved. Seeded: " + seeded
+                        + ", Warehouses: " + warehouseStock + ", Locations: " + locationStock);
+            }
+        } finally {
+            sessionFactory.close();
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long refusals;
+        public long lockFailures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            refusals = 0;
+            lockFailures = 0;
+        }
+    }
+
+    @Benchmark
+    public void orderedById(Outcomes outcomes) {
+        String[] pair = randomPair();
+        int quantity = ThreadLocalRandom.current().nextInt(1, MAX_QUANTITY + 1);
+        transfer(outcomes, session -> new TransferStockUseCase(warehouses(session), locationStats(session),
+                        stockLedger(session))
+                .transfer(pair[0], pair[1], quantity));
+    }
+
+    @Benchmark
+    public void sourceFirst(Outcomes outcomes) {
+        String[] pair = randomPair();
+        int quantity = ThreadLocalRandom.current().nextInt(1, MAX_QUANTITY + 1);
+        transfer(outcomes, session -> {
+            WarehouseRepository warehouses = warehouses(session);
+            if (!warehouses.adjustStock(pair[0], -quantity) || !warehouses.adjustStock(pair[1], quantity)) {
+                throw new IllegalStateException("Transfer refused");
+            }
+            String from = warehouses.findViewByIdentifier(pair[0]).getLocationIdentifier();
+            String to = warehouses.findViewByIdentifier(pair[1]).getLocationIdentifier();
+            locationStats(session).recordStockMoved(from, to, quantity);
+        });
+    }
+
+    private void transfer(Outcomes outcomes, SessionWork work) {
+        try {
+            inTransaction(work);
+        } catch (IllegalStateException e) {
+            outcomes.refusals++;
+        } catch (PersistenceException e) {
+            outcomes.lockFailures++;
+        }
+    }
+
+    private String[] randomPair() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(identifiers.size());
+        int target = (source + 1 + random.nextInt(identifiers.size() - 1)) % identifiers.size();
+        return new String[] {identifiers.get(source), identifiers.get(target)};
+    }
+
+    private void inTransaction(SessionWork work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                work.run(session);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static WarehouseRepository warehouses(Session session) {
+        WarehouseRepository repository = new WarehouseRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    private static StockLedgerRepository stockLedger(Session session) {
+        StockLedgerRepository repository = new StockLedgerRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    private static LocationStatsRepository locationStats(Session session) {
+        LocationStatsRepository repository = new LocationStatsRepository();
+        repository.entityManager = session;
+        return repository;
+    }
+
+    private interface SessionWork {
+        void run(Session session);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransferStockBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,173 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the writes of {@link WarehouseRepository} against a real (H2) database to check that the
+ * unique active business unit code holds wherever the checks before a write were raced or skipped.
+ */
+class WarehouseBusinessUnitConstraintTest {
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:business-units;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .addAnnotatedClass(DbLocationStats.class)
+                .addAnnotatedClass(DbStockMovement.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        // Schema creation always runs import.sql; none of its seed codes may count here
+        inTransaction(repository -> repository.entityManager.createQuery("DELETE FROM Warehouse").executeUpdate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    private static Warehouse warehouse(String businessUnitCode) {
+        return Warehouse.builder()
+                .identifier(WarehouseIdentifiers.next())
+                .name("Warehouse " + businessUnitCode)
+                .businessUnitCode(businessUnitCode)
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(100)
+                .currentStock(0)
+                .active(true)
+                .archived(false)
+                .build();
+    }
+
+    private <T> T inTransaction(Function<WarehouseRepository, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            WarehouseRepository repository = new WarehouseRepository();
+            repository.entityManager = session;
+            session.beginTransaction();
+            try {
+                T result = work.apply(repository);
+                session.getTransaction().commit();
+                return result;
+            } catch (RuntimeException e) {
+                session.getTransaction().rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void create(Warehouse warehouse) {
+        inTransaction(repository -> {
+            repository.create(warehouse);
+            return null;
+        });
+    }
+
+    @Test
+    void create_shouldRejectSecondActiveWarehouseWithTheCode() {
+        create(warehouse("MWH.001"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> create(warehouse("MWH.001")));
+
+        assertEquals("Business unit code was taken concurrently, please retry: MWH.001", exception.getMessage());
+    }
+
+    @Test
+    void createAll_shouldRejectBatchReusingAnActiveCode() {
+        create(warehouse("MWH.001"));
+
+        assertThrows(IllegalStateException.class, () -> inTransaction(repository -> {
+            repository.createAll(List.of(warehouse("MWH.002"), warehouse("MWH.001")));
+            return null;
+        }));
+        assertNull(inTransaction(repository -> repository.findByBusinessUnitCode("MWH.002")));
+    }
+
+    @Test
+    void archiveIfEmpty_shouldFreeTheCode() {
+        Warehouse archived = warehouse("MWH.001");
+        create(archived);
+        assertNotNull(inTransaction(repository -> repository.archiveIfEmpty(archived.getIdentifier())));
+
+        Warehouse successor = warehouse("MWH.001");
+        create(successor);
+
+        assertEquals(successor.getIdentifier(),
+                inTransaction(repository -> repository.findByBusinessUnitCode("MWH.001").getIdentifier()));
+    }
+
+    @Test
+    void replaceIfStockMatches_shouldRejectCodeOfAnotherActiveWarehouse() {
+        create(warehouse("MWH.001"));
+        Warehouse replaced = warehouse("MWH.002");
+        create(replaced);
+
+        Warehouse replacement = warehouse("MWH.001");
+        replacement.setIdentifier(replaced.getIdentifier());
+
+        assertThrows(IllegalStateException.class,
+                () -> inTransaction(repository -> repository.replaceIfStockMatches(replacement, replaced.getVersion())));
+    }
+
+    @Test
+    void loadMutationFacts_shouldOnlyLookUpTheCodeWhenAsked() {
+        create(warehouse("MWH.001"));
+
+        boolean takenWithLookup = inTransaction(repository -> repository.loadMutationFacts(
+                null, "MWH.001", "ZWOLLE-001", true).isBusinessUnitCodeTaken());
+        boolean takenWithoutLookup = inTransaction(repository -> repository.loadMutationFacts(
+                null, "MWH.001", "ZWOLLE-001", false).isBusinessUnitCodeTaken());
+
+        assertTrue(takenWithLookup);
+        assertFalse(takenWithoutLookup);
+    }
+
+    @Test
+    void loadMutationFacts_shouldReadTheStoredWarehouse() {
+        Warehouse stored = warehouse("MWH.001");
+        create(stored);
+
+        WarehouseView existing = inTransaction(repository -> repository.loadMutationFacts(
+                stored.getIdentifier(), "MWH.002", "ZWOLLE-001", true).getExisting());
+
+        assertEquals(stored.getIdentifier(), existing.getIdentifier());
+        assertEquals("MWH.001", existing.getBusinessUnitCode());
+    }
+
+    @Test
+    void findActiveBusinessUnitCodes_shouldReturnOnlyCodesOfActiveWarehouses() {
+        create(warehouse("MWH.001"));
+        Warehouse archived = warehouse("MWH.002");
+        create(archived);
+        assertNotNull(inTransaction(repository -> repository.archiveIfEmpty(archived.getIdentifier())));
+
+        Set<String> active = inTransaction(repository -> repository.findActiveBusinessUnitCodes(
+                List.of("MWH.001", "MWH.002", "MWH.003")));
+
+        assertEquals(Set.of("MWH.001"), active);
+    }
+}
@@ -0,0 +1,67 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifierConverter;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing the stored form of a new warehouse identifier, as threads are added.
+ *
+ * <ul>
+ *   <li>{@code randomUuidString}: the previous {@code "WH-" + UUID.randomUUID()}, drawing from the
+ *   shared {@code SecureRandom}.</li>
+ *   <li>{@code timeOrderedUuid}: {@link WarehouseIdentifiers#next()} converted to the native uuid
+ *   that is actually bound on insert.</li>
+ * </ul>
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...WarehouseIdentifierBenchmark -Dexec.classpathScope=test} or from the IDE.
+ * The database side (insert throughput and index size at 10M rows) needs PostgreSQL; see
+ * {@code src/test/resources/benchmarks/warehouse-identifier-index.sql}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseIdentifierBenchmark {
+
+    private final WarehouseIdentifierConverter converter = new WarehouseIdentifierConverter();
+
+    @Benchmark
+    public String randomUuidString() {
+        return "WH-" + UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedUuid() {
+        return converter.convertToDatabaseColumn(WarehouseIdentifiers.next());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(WarehouseIdentifierBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
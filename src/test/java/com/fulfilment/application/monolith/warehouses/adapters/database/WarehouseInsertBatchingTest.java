@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.persistence.SequenceAllocation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements {@link WarehouseRepository#createAll} sends to a real (H2) database with
+ * the id allocation and batching settings of {@code application.properties}.
+ */
+class WarehouseInsertBatchingTest {
+
+    private static final int WAREHOUSES = 120;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:batching;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, WarehouseRepository.INSERT_BATCH_SIZE)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.ORDER_UPDATES, true)
+                .applySetting(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        // Schema creation always runs import.sql, which seeds rows and restarts the sequence past
+        // them; ids are asserted from the start of the sequence
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Warehouse").executeUpdate();
+            session.createNativeMutationQuery("ALTER SEQUENCE warehouse_seq RESTART WITH 1").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    private static List<Warehouse> warehouses(int count) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            warehouses.add(Warehouse.builder()
+                    .identifier(WarehouseIdentifiers.next())
+                    .name("Warehouse " + i)
+                    .businessUnitCode("MWH." + i)
+                    .locationIdentifier("ZWOLLE-001")
+                    .capacity(100)
+                    .currentStock(0)
+                    .active(true)
+                    .archived(false)
+                    .build());
+        }
+        return warehouses;
+    }
+
+    @Test
+    void createAll_shouldSendOneStatementPerBatchAndPerAllocatedIdBlock() {
+        Statistics statistics = sessionFactory.getStatistics();
+        WarehouseRepository repository = new WarehouseRepository();
+
+        try (Session session = sessionFactory.openSession()) {
+            repository.entityManager = session;
+            session.beginTransaction();
+            statistics.clear();
+
+            repository.createAll(warehouses(WAREHOUSES));
+            session.getTransaction().commit();
+        }
+
+        int blocks = (WAREHOUSES + SequenceAllocation.SIZE - 1) / SequenceAllocation.SIZE;
+        int batches = (WAREHOUSES + WarehouseRepository.INSERT_BATCH_SIZE - 1) / WarehouseRepository.INSERT_BATCH_SIZE;
+        assertEquals(WAREHOUSES, statistics.getEntityInsertCount());
+        // One sequence call per block of ids and one prepared INSERT per batch, instead of one of
+        // each per row
+        assertEquals(blocks + batches, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createAll_shouldHandOutIdsFromTheLowEndOfEachBlock() {
+        List<Warehouse> warehouses = warehouses(3);
+
+        try (Session session = sessionFactory.openSession()) {
+            WarehouseRepository repository = new WarehouseRepository();
+            repository.entityManager = session;
+            session.beginTransaction();
+            repository.createAll(warehouses);
+            session.getTransaction().commit();
+        }
+
+        // pooled-lo: the first sequence value is the first id, so ids seeded below a restart value
+        // are never handed out again
+        assertEquals(List.of(1L, 2L, 3L), warehouses.stream().map(Warehouse::getId).toList());
+    }
+}
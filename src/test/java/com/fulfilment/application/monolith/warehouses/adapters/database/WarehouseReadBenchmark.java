@@ -0,0 +1,142 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseIdentifiers;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cost of reading the active warehouses of one location, the way a GET reads them, in an H2
+ * database.
+ *
+ * <ul>
+ *   <li>{@code entities}: {@link WarehouseRepository#findAllByLocation}, managed entities that are
+ *       registered in the persistence context and dirty-checked when the transaction commits.</li>
+ *   <li>{@code projection}: {@link WarehouseRepository#findActiveViewsByLocation}, immutable
+ *       {@link WarehouseView}s selected through a constructor expression.</li>
+ * </ul>
+ *
+ * <p>Each invocation is one transaction reading {@code rows} warehouses; divide by {@code rows} for
+ * the cost per row. {@link #main} adds the GC profiler, whose {@code gc.alloc.rate.norm} is the
+ * allocation per invocation.
+ *
+ * <p>Not part of the unit test run. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=...WarehouseReadBenchmark -Dexec.classpathScope=test} or from the IDE. The
+ * database work is H2's; the difference between the two is what Hibernate does per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Outside a Quarkus runtime its log manager buffers every record, Hibernate's per-row ones included
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=java.util.logging.LogManager")
+public class WarehouseReadBenchmark {
+
+    private static final String LOCATION = "AMSTERDAM-001";
+
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:reads;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Warehouse.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        inTransaction(repository -> {
+            // Exactly rows warehouses at the location, whatever import.sql managed to seed
+            repository.entityManager.createQuery("DELETE FROM Warehouse").executeUpdate();
+            for (int i = 0; i < rows; i++) {
+                repository.entityManager.persist(Warehouse.builder()
+                        .identifier(WarehouseIdentifiers.next())
+                        .name("Warehouse " + i)
+                        .businessUnitCode("MWH." + i)
+                        .locationIdentifier(LOCATION)
+                        .capacity(100)
+                        .currentStock(i % 100)
+                        .active(true)
+                        .archived(false)
+                        .build());
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public List<Warehouse> entities() {
+        return inTransaction(repository -> repository.findAllByLocation(LOCATION));
+    }
+
+    @Benchmark
+    public List<WarehouseView> projection() {
+        return inTransaction(repository -> repository.findActiveViewsByLocation(LOCATION));
+    }
+
+    private <T> T inTransaction(Function<WarehouseRepository, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            WarehouseRepository repository = new WarehouseRepository();
+            repository.entityManager = session;
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(repository);
+                // Commit flushes, which is where managed entities are dirty-checked
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WarehouseReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
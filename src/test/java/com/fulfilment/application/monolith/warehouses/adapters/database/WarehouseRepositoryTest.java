@@ -1,21 +1,44 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Cache;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.SelectionQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,10 +55,34 @@ class WarehouseRepositoryTest {
     private TypedQuery<Warehouse> warehouseTypedQuery;
 
     @Mock
-    private TypedQuery<Long> longTypedQuery;
+    private TypedQuery<WarehouseView> viewTypedQuery;
 
     @Mock
-    private TypedQuery<Integer> integerTypedQuery;
+    private Session session;
+
+    @Mock
+    private SelectionQuery<WarehouseView> selectionQuery;
+
+    @Mock
+    private ScrollableResults<WarehouseView> scrollableResults;
+
+    @Mock
+    private SimpleNaturalIdLoadAccess<Warehouse> naturalIdLoadAccess;
+
+    @Mock
+    private Query nativeQuery;
+
+    @Mock
+    private TypedQuery<Long> lockQuery;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Session writingSession;
+
+    @Mock
+    private SelectionQuery<String> codeSelectionQuery;
+
+    @Mock
+    private ScrollableResults<String> codeRows;
 
     @InjectMocks
     private WarehouseRepository warehouseRepository;
@@ -77,6 +124,32 @@ class WarehouseRepositoryTest {
 
         // Assert
         verify(entityManager).persist(testWarehouse);
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void create_shouldReportBusinessUnitCodeTakenConcurrentlyAsConflict() {
+        // Arrange
+        doThrow(new ConstraintViolationException("Unique index or primary key violation", null,
+                "PUBLIC.UK_WAREHOUSE_ACTIVE_BUSINESS_UNIT_CODE_INDEX_A")).when(entityManager).flush();
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> warehouseRepository.create(testWarehouse));
+        assertEquals("Business unit code was taken concurrently, please retry: "
+                + testWarehouse.getBusinessUnitCode(), exception.getMessage());
+    }
+
+    @Test
+    void create_shouldRethrowOtherConstraintViolations() {
+        // Arrange
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Unique index or primary key violation", null, "PUBLIC.CONSTRAINT_INDEX_7");
+        doThrow(violation).when(entityManager).flush();
+
+        // Act & Assert
+        assertSame(violation, assertThrows(ConstraintViolationException.class,
+                () -> warehouseRepository.create(testWarehouse)));
     }
 
     @Test
@@ -86,6 +159,24 @@ class WarehouseRepositoryTest {
         verify(entityManager).persist(null);
     }
 
+    @Test
+    void createAll_shouldFlushAndClearEveryBatch() {
+        // Arrange
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < WarehouseRepository.INSERT_BATCH_SIZE * 2 + 1; i++) {
+            warehouses.add(new Warehouse());
+        }
+
+        // Act
+        warehouseRepository.createAll(warehouses);
+
+        // Assert
+        verify(entityManager, times(warehouses.size())).persist(any(Warehouse.class));
+        // One flush per full batch, and one for the remainder
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
     @Test
     void update_shouldMergeWarehouse() {
         // Act
@@ -95,6 +186,233 @@ class WarehouseRepositoryTest {
         verify(entityManager).merge(testWarehouse);
     }
 
+    @Test
+    void replaceIfStockMatches_shouldRunOneConditionalUpdate() {
+        // Arrange
+        Warehouse replacement = Warehouse.builder()
+                .identifier("WH-001")
+                .name("Replacement")
+                .businessUnitCode("BU-002")
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(150)
+                .currentStock(40)
+                .build();
+        stubLockQuery("WH-001", 1L);
+        stubConditionalWrite(1);
+        when(entityManager.unwrap(Session.class)).thenReturn(writingSession);
+
+        // Act
+        boolean replaced = warehouseRepository.replaceIfStockMatches(replacement, 7L);
+
+        // Assert
+        assertTrue(replaced);
+        InOrder inOrder = inOrder(lockQuery, nativeQuery);
+        inOrder.verify(lockQuery).getResultStream();
+        inOrder.verify(nativeQuery).executeUpdate();
+        verify(entityManager).createNativeQuery(queryStringCaptor.capture());
+        String sql = queryStringCaptor.getValue();
+        assertTrue(sql.startsWith("UPDATE warehouse w SET business_unit_code = :businessUnitCode, "
+                + "active_business_unit_code = :businessUnitCode"));
+        assertTrue(sql.contains("WHERE w.id = :id AND w.current_stock + "
+                + WarehouseRepository.PENDING_DELTA_SQL + " = :currentStock"));
+        assertTrue(sql.contains("COALESCE(w.version, 0) = :version"));
+        verify(nativeQuery).setParameter("id", 1L);
+        verify(nativeQuery).setParameter("currentStock", 40);
+        verify(nativeQuery).setParameter("version", 7L);
+        verify(entityManager, never()).merge(any());
+        verifyEvicted(1L);
+    }
+
+    @Test
+    void replaceIfStockMatches_shouldCompareUnversionedRowsAsZero() {
+        // Arrange
+        Warehouse replacement = Warehouse.builder()
+                .identifier("WH-002")
+                .name("Replacement")
+                .businessUnitCode("BU-002")
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(50)
+                .currentStock(0)
+                .build();
+        stubLockQuery("WH-002", 2L);
+        stubConditionalWrite(0);
+
+        // Act & Assert
+        assertFalse(warehouseRepository.replaceIfStockMatches(replacement, null));
+        verify(nativeQuery).setParameter("version", 0L);
+        // Nothing was written, so nothing is evicted
+        verify(entityManager, never()).unwrap(any());
+    }
+
+    @Test
+    void replaceIfStockMatches_shouldNotUpdate_WhenWarehouseDoesNotExist() {
+        // Arrange
+        Warehouse replacement = Warehouse.builder()
+                .identifier("WH-404")
+                .name("Replacement")
+                .businessUnitCode("BU-002")
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(50)
+                .currentStock(0)
+                .build();
+        stubLockQuery("WH-404", null);
+
+        // Act & Assert
+        assertFalse(warehouseRepository.replaceIfStockMatches(replacement, 1L));
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void archiveIfEmpty_shouldLockTheRowThenRunOneConditionalUpdate() {
+        // Arrange
+        testWarehouse.id = 3L;
+        testWarehouse.setVersion(4L);
+        WarehouseView current = WarehouseView.from(testWarehouse);
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class))).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter("identifier", "WH-001")).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultStream()).thenReturn(Stream.of(current));
+        stubConditionalWrite(1);
+        when(entityManager.unwrap(Session.class)).thenReturn(writingSession);
+
+        // Act
+        WarehouseView archived = warehouseRepository.archiveIfEmpty("WH-001");
+
+        // Assert: the caller gets the state the archive changed, read under the row lock
+        assertSame(current, archived);
+        InOrder inOrder = inOrder(viewTypedQuery, nativeQuery);
+        inOrder.verify(viewTypedQuery).setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        inOrder.verify(nativeQuery).executeUpdate();
+        verify(entityManager).createNativeQuery(queryStringCaptor.capture());
+        String sql = queryStringCaptor.getValue();
+        assertTrue(sql.startsWith("UPDATE warehouse w SET archived = true, active = false, "
+                + "active_business_unit_code = NULL, version = COALESCE(w.version, 0) + 1"));
+        assertTrue(sql.contains("WHERE w.id = :id AND w.current_stock = 0 AND w.archived = false"));
+        // No version condition: the lock already keeps the row as read, and a version bumped
+        // before the lock was granted must not refuse the archive
+        assertFalse(sql.contains(":version"));
+        assertTrue(sql.contains("AND NOT EXISTS (" + WarehouseRepository.PENDING_MOVEMENTS_SQL + ")"));
+        verify(nativeQuery).setParameter("id", 3L);
+        verify(entityManager, never()).merge(any());
+        verifyEvicted(3L);
+    }
+
+    @Test
+    void archiveIfEmpty_shouldReportWhenNoRowMatched() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class))).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter("identifier", "WH-002")).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultStream()).thenReturn(Stream.of(WarehouseView.from(testWarehouse)));
+        stubConditionalWrite(0);
+
+        // Act & Assert
+        assertNull(warehouseRepository.archiveIfEmpty("WH-002"));
+        verify(entityManager, never()).unwrap(any());
+    }
+
+    @Test
+    void archiveIfEmpty_shouldNotUpdate_WhenWarehouseDoesNotExist() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class))).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter("identifier", "WH-404")).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultStream()).thenReturn(Stream.empty());
+
+        // Act & Assert
+        assertNull(warehouseRepository.archiveIfEmpty("WH-404"));
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void adjustStock_shouldLockRowThenRunOneRelativeConditionalUpdate() {
+        // Arrange
+        stubLockQuery("WH-001", 1L);
+        stubConditionalWrite(1);
+        when(entityManager.unwrap(Session.class)).thenReturn(writingSession);
+
+        // Act
+        boolean adjusted = warehouseRepository.adjustStock("WH-001", -5);
+
+        // Assert
+        assertTrue(adjusted);
+        InOrder inOrder = inOrder(lockQuery, nativeQuery);
+        inOrder.verify(lockQuery).getResultStream();
+        inOrder.verify(nativeQuery).executeUpdate();
+        verify(entityManager).createNativeQuery(queryStringCaptor.capture());
+        String sql = queryStringCaptor.getValue();
+        assertTrue(sql.startsWith("UPDATE warehouse w SET current_stock = w.current_stock + :quantity"));
+        assertTrue(sql.contains("w.active = true AND w.archived = false"));
+        // Bounded by the stock including the movements not compacted yet
+        assertTrue(sql.contains("w.current_stock + " + WarehouseRepository.PENDING_DELTA_SQL + " + :quantity >= 0 "
+                + "AND w.current_stock + " + WarehouseRepository.PENDING_DELTA_SQL + " + :quantity <= w.capacity"));
+        verify(nativeQuery).setParameter("quantity", -5);
+        verify(nativeQuery).setParameter("id", 1L);
+        verifyEvicted(1L);
+    }
+
+    @Test
+    void adjustStock_shouldReportWhenNoRowMatched() {
+        // Arrange
+        stubLockQuery("WH-002", 2L);
+        stubConditionalWrite(0);
+
+        // Act & Assert
+        assertFalse(warehouseRepository.adjustStock("WH-002", 10));
+        verify(entityManager, never()).unwrap(any());
+    }
+
+    @Test
+    void adjustStock_shouldNotUpdate_WhenWarehouseDoesNotExist() {
+        // Arrange
+        stubLockQuery("WH-404", null);
+
+        // Act & Assert
+        assertFalse(warehouseRepository.adjustStock("WH-404", 10));
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void addToStock_shouldRunOneUnconditionalRelativeUpdate() {
+        // Arrange
+        stubLockQuery("WH-001", 1L);
+        stubConditionalWrite(1);
+        when(entityManager.unwrap(Session.class)).thenReturn(writingSession);
+
+        // Act
+        warehouseRepository.addToStock("WH-001", -7);
+
+        // Assert
+        verify(entityManager).createNativeQuery(queryStringCaptor.capture());
+        String sql = queryStringCaptor.getValue();
+        assertTrue(sql.startsWith("UPDATE warehouse w SET current_stock = w.current_stock + :quantity"));
+        assertTrue(sql.endsWith("WHERE w.id = :id"));
+        verify(nativeQuery).setParameter("quantity", -7);
+        verify(nativeQuery).setParameter("id", 1L);
+        verify(nativeQuery).executeUpdate();
+        verifyEvicted(1L);
+    }
+
+    @Test
+    void conditionalWrites_shouldEvictTheWrittenRowAgainAfterCompletion() {
+        // Arrange
+        stubLockQuery("WH-001", 1L);
+        stubConditionalWrite(1);
+        when(entityManager.unwrap(Session.class)).thenReturn(writingSession);
+        warehouseRepository.adjustStock("WH-001", 5);
+        ArgumentCaptor<Synchronization> afterCompletion = ArgumentCaptor.forClass(Synchronization.class);
+        verify(writingSession.getTransaction()).registerSynchronization(afterCompletion.capture());
+        Cache cache = writingSession.getSessionFactory().getCache();
+        clearInvocations(cache);
+
+        // Act: a reader may have cached the old row between the write and the commit
+        afterCompletion.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        // Assert
+        verify(cache).evictEntityData(Warehouse.class, 1L);
+        verify(cache).evictQueryRegion(WarehouseRepository.LOCATION_QUERY_CACHE_REGION);
+    }
+
     @Test
     void update_shouldHandleNullWarehouse() {
         // Act & Assert
@@ -105,12 +423,9 @@ class WarehouseRepositoryTest {
     @Test
     void findByIdentifier_shouldReturnWarehouseWhenFound() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Warehouse.class)))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.setParameter(eq("identifier"), anyString()))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.getResultStream())
-                .thenReturn(Stream.of(testWarehouse));
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(Warehouse.class)).thenReturn(naturalIdLoadAccess);
+        when(naturalIdLoadAccess.load("WH-001")).thenReturn(testWarehouse);
 
         // Act
         Warehouse result = warehouseRepository.findByIdentifier("WH-001");
@@ -118,63 +433,134 @@ class WarehouseRepositoryTest {
         // Assert
         assertNotNull(result);
         assertEquals("WH-001", result.getIdentifier());
-        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(Warehouse.class));
-        assertTrue(queryStringCaptor.getValue().contains("identifier = :identifier"));
-        verify(warehouseTypedQuery).setParameter("identifier", "WH-001");
+        verify(entityManager, never()).createQuery(anyString(), eq(Warehouse.class));
     }
 
     @Test
     void findByIdentifier_shouldReturnNullWhenNotFound() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Warehouse.class)))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.setParameter(eq("identifier"), anyString()))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.getResultStream())
-                .thenReturn(Stream.empty());
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(Warehouse.class)).thenReturn(naturalIdLoadAccess);
+        when(naturalIdLoadAccess.load("NON-EXISTENT")).thenReturn(null);
 
         // Act
         Warehouse result = warehouseRepository.findByIdentifier("NON-EXISTENT");
 
         // Assert
         assertNull(result);
-        verify(warehouseTypedQuery).setParameter("identifier", "NON-EXISTENT");
+        verify(naturalIdLoadAccess).load("NON-EXISTENT");
     }
 
     @Test
     void findByIdentifier_shouldHandleEmptyIdentifier() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Warehouse.class)))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.setParameter(eq("identifier"), anyString()))
-                .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.getResultStream())
-                .thenReturn(Stream.empty());
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(Warehouse.class)).thenReturn(naturalIdLoadAccess);
+        when(naturalIdLoadAccess.load("")).thenReturn(null);
 
         // Act
         Warehouse result = warehouseRepository.findByIdentifier("");
 
         // Assert
         assertNull(result);
-        verify(warehouseTypedQuery).setParameter("identifier", "");
+        verify(naturalIdLoadAccess).load("");
     }
 
     @Test
     void findByIdentifier_shouldHandleNullIdentifier() {
+        // Act
+        Warehouse result = warehouseRepository.findByIdentifier(null);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void shouldBeSecondLevelCacheableWithNaturalIdCache() throws NoSuchFieldException {
+        assertNotNull(Warehouse.class.getAnnotation(Cacheable.class));
+        assertNotNull(Warehouse.class.getAnnotation(NaturalIdCache.class));
+        assertNotNull(Warehouse.class.getField("identifier").getAnnotation(NaturalId.class));
+    }
+
+    @Test
+    void locationQueries_shouldUseQueryCacheRegion() {
         // Arrange
         when(entityManager.createQuery(anyString(), eq(Warehouse.class)))
                 .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.setParameter(eq("identifier"), isNull()))
+        when(warehouseTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
                 .thenReturn(warehouseTypedQuery);
-        when(warehouseTypedQuery.getResultStream())
-                .thenReturn(Stream.empty());
+        when(warehouseTypedQuery.getResultList())
+                .thenReturn(Collections.emptyList());
 
         // Act
-        Warehouse result = warehouseRepository.findByIdentifier(null);
+        warehouseRepository.findAllByLocation("AMSTERDAM-001");
 
         // Assert
-        assertNull(result);
-        verify(warehouseTypedQuery).setParameter("identifier", null);
+        verify(warehouseTypedQuery).setHint(HibernateHints.HINT_CACHEABLE, true);
+        verify(warehouseTypedQuery).setHint(HibernateHints.HINT_CACHE_REGION, WarehouseRepository.LOCATION_QUERY_CACHE_REGION);
+    }
+
+    @Test
+    void findById_shouldUseEntityManagerFind() {
+        // Arrange
+        when(entityManager.find(Warehouse.class, 1L)).thenReturn(testWarehouse);
+
+        // Act
+        Warehouse result = warehouseRepository.findById(1L);
+
+        // Assert
+        assertSame(testWarehouse, result);
+        verify(entityManager, never()).createQuery(anyString(), eq(Warehouse.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findByIdentifiers_shouldQueryInChunksWithoutDuplicates() {
+        // Arrange
+        List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i < WarehouseRepository.LOOKUP_CHUNK_SIZE + 10; i++) {
+            identifiers.add("WH-" + new UUID(0L, i + 1L));
+        }
+        identifiers.add("WH-" + new UUID(0L, 1L));
+        WarehouseView view = WarehouseView.from(testWarehouse);
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class))).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("identifiers"), anyList())).thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultList())
+                .thenReturn(Collections.singletonList(view))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        List<WarehouseView> result = warehouseRepository.findByIdentifiers(identifiers);
+
+        // Assert
+        assertEquals(Collections.singletonList(view), result);
+        ArgumentCaptor<List<String>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(viewTypedQuery, times(2)).setParameter(eq("identifiers"), chunks.capture());
+        assertEquals(WarehouseRepository.LOOKUP_CHUNK_SIZE, chunks.getAllValues().get(0).size());
+        assertEquals(10, chunks.getAllValues().get(1).size());
+        verify(entityManager, times(2)).createQuery(queryStringCaptor.capture(), eq(WarehouseView.class));
+        assertTrue(queryStringCaptor.getValue().contains("w.identifier IN :identifiers"));
+    }
+
+    @Test
+    void findByIdentifiers_shouldSkipMalformedIdentifiers() {
+        // Act
+        List<WarehouseView> result = warehouseRepository.findByIdentifiers(Arrays.asList("WH-001", "not-a-warehouse"));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void findByIdentifiers_shouldNotQueryForEmptyInput() {
+        // Act
+        List<WarehouseView> result = warehouseRepository.findByIdentifiers(Collections.emptyList());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(entityManager);
     }
 
     @Test
@@ -217,110 +603,161 @@ class WarehouseRepositoryTest {
     }
 
     @Test
-    void countWarehousesAtLocation_shouldReturnCount() {
+    void loadMutationFacts_shouldMapExistingWarehouseAndLocationTotals() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Long.class)))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.getSingleResult())
-                .thenReturn(5L);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 15, 10, 30);
+        UUID uuid = UUID.fromString("018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10");
+        String identifier = "WH-" + uuid;
+        Object[] row = {1L, uuid, "Test Warehouse", "BU-001", "AMSTERDAM-001", 1000, 500,
+                true, false, Timestamp.valueOf(created), 3L, true, 4, 3200L, -20L};
+        stubNativeQuery(row);
 
         // Act
-        int result = warehouseRepository.countWarehousesAtLocation("AMSTERDAM-001");
+        WarehouseMutationFacts facts = warehouseRepository.loadMutationFacts(identifier, "BU-002", "AMSTERDAM-001", true);
 
         // Assert
-        assertEquals(5, result);
-        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(Long.class));
-        assertTrue(queryStringCaptor.getValue().contains("COUNT(w)"));
-        assertTrue(queryStringCaptor.getValue().contains("locationIdentifier = :locationIdentifier"));
-        assertTrue(queryStringCaptor.getValue().contains("active = true"));
-        verify(longTypedQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        WarehouseView existing = facts.getExisting();
+        assertNotNull(existing);
+        assertEquals(1L, existing.getId());
+        assertEquals(identifier, existing.getIdentifier());
+        assertEquals("BU-001", existing.getBusinessUnitCode());
+        assertEquals(1000, existing.getCapacity());
+        assertEquals(500, existing.getCurrentStock());
+        assertEquals(created, existing.getCreationDate());
+        assertEquals(3L, existing.getVersion());
+        assertTrue(facts.isBusinessUnitCodeTaken());
+        assertEquals(4, facts.getActiveWarehousesAtLocation());
+        assertEquals(3200L, facts.getTotalCapacityAtLocation());
+        assertEquals(-20L, facts.getPendingStockDelta());
+        assertEquals(480L, facts.getExistingStock());
+        // Native SQL compares with the uuid column directly
+        verify(nativeQuery).setParameter("identifier", uuid);
+        verify(entityManager).createNativeQuery(WarehouseRepository.MUTATION_FACTS_SQL);
+        verify(nativeQuery).setParameter("businessUnitCode", "BU-002");
+        verify(nativeQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
     }
 
     @Test
-    void countWarehousesAtLocation_shouldReturnZeroWhenNullResult() {
+    void loadMutationFacts_shouldNotLookUpBusinessUnitCodeWhenNotAsked() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Long.class)))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.getSingleResult())
-                .thenReturn(null);
+        Object[] row = {null, null, null, null, null, null, null, null, null, null, null, false, 2, 800L, null};
+        stubNativeQuery(row);
 
         // Act
-        int result = warehouseRepository.countWarehousesAtLocation("AMSTERDAM-001");
+        WarehouseMutationFacts facts = warehouseRepository.loadMutationFacts(null, "BU-009", "AMSTERDAM-001", false);
 
         // Assert
-        assertEquals(0, result);
+        assertFalse(facts.isBusinessUnitCodeTaken());
+        assertEquals(2, facts.getActiveWarehousesAtLocation());
+        verify(entityManager).createNativeQuery(WarehouseRepository.MUTATION_FACTS_WITHOUT_BUSINESS_UNIT_SQL);
+        assertFalse(WarehouseRepository.MUTATION_FACTS_WITHOUT_BUSINESS_UNIT_SQL.contains(":businessUnitCode"));
+        verify(nativeQuery, never()).setParameter(eq("businessUnitCode"), any());
     }
 
     @Test
-    void countWarehousesAtLocation_shouldHandleEmptyLocation() {
+    void loadMutationFacts_shouldDefaultMissingWarehouseAndStatsRow() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Long.class)))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.getSingleResult())
-                .thenReturn(0L);
+        Object[] row = {null, null, null, null, null, null, null, null, null, null, null, false, null, null, null};
+        stubNativeQuery(row);
 
         // Act
-        int result = warehouseRepository.countWarehousesAtLocation("");
+        WarehouseMutationFacts facts = warehouseRepository.loadMutationFacts(null, "BU-009", "NOWHERE-001", true);
 
         // Assert
-        assertEquals(0, result);
-        verify(longTypedQuery).setParameter("locationIdentifier", "");
+        assertNull(facts.getExisting());
+        assertFalse(facts.isBusinessUnitCodeTaken());
+        assertEquals(0, facts.getActiveWarehousesAtLocation());
+        assertEquals(0L, facts.getTotalCapacityAtLocation());
+        // A null identifier is bound as the nil uuid so the parameter stays typed
+        verify(nativeQuery).setParameter("identifier", WarehouseRepository.NIL_UUID);
+    }
+
+    private void stubLockQuery(String identifier, Long id) {
+        when(entityManager.createQuery("SELECT w.id FROM Warehouse w WHERE w.identifier = :identifier", Long.class))
+                .thenReturn(lockQuery);
+        when(lockQuery.setParameter("identifier", identifier)).thenReturn(lockQuery);
+        when(lockQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(lockQuery);
+        when(lockQuery.getResultStream()).thenReturn(id != null ? Stream.of(id) : Stream.empty());
+    }
+
+    private void stubConditionalWrite(int updatedRows) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        when(nativeQuery.setHint(HibernateHints.HINT_NATIVE_SPACES, WarehouseRepository.WRITE_QUERY_SPACE))
+                .thenReturn(nativeQuery);
+        when(nativeQuery.setParameter(anyString(), any())).thenReturn(nativeQuery);
+        when(nativeQuery.executeUpdate()).thenReturn(updatedRows);
+    }
+
+    // Only the written row and the listings go; the natural-id region and every other row stay cached
+    private void verifyEvicted(Long id) {
+        Cache cache = writingSession.getSessionFactory().getCache();
+        verify(cache).evictEntityData(Warehouse.class, id);
+        verify(cache).evictQueryRegion(WarehouseRepository.LOCATION_QUERY_CACHE_REGION);
+        verify(cache, never()).evictEntityData(Warehouse.class);
+        verify(cache, never()).evictNaturalIdData(Warehouse.class);
+        verify(writingSession.getTransaction()).registerSynchronization(any(Synchronization.class));
+    }
+
+    private void stubNativeQuery(Object[] row) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        when(nativeQuery.setParameter(anyString(), any())).thenReturn(nativeQuery);
+        when(nativeQuery.getSingleResult()).thenReturn(row);
     }
 
     @Test
-    void getTotalCapacityAtLocation_shouldReturnSum() {
+    void countWarehousesAtLocation_shouldReadLocationStats() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Integer.class)))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.getSingleResult())
-                .thenReturn(2500);
+        when(entityManager.find(DbLocationStats.class, "AMSTERDAM-001"))
+                .thenReturn(new DbLocationStats("AMSTERDAM-001", 5, 2500, 300));
 
         // Act
-        int result = warehouseRepository.getTotalCapacityAtLocation("AMSTERDAM-001");
+        int result = warehouseRepository.countWarehousesAtLocation("AMSTERDAM-001");
 
         // Assert
-        assertEquals(2500, result);
-        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(Integer.class));
-        assertTrue(queryStringCaptor.getValue().contains("SUM(w.capacity)"));
-        assertTrue(queryStringCaptor.getValue().contains("locationIdentifier = :locationIdentifier"));
-        assertTrue(queryStringCaptor.getValue().contains("active = true"));
-        verify(integerTypedQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+        assertEquals(5, result);
+        verify(entityManager, never()).createQuery(anyString(), eq(Long.class));
     }
 
     @Test
-    void getTotalCapacityAtLocation_shouldReturnZeroWhenNullResult() {
+    void countWarehousesAtLocation_shouldReturnZeroWhenNoStatsRow() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Integer.class)))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.getSingleResult())
-                .thenReturn(null);
+        when(entityManager.find(DbLocationStats.class, "AMSTERDAM-001")).thenReturn(null);
 
         // Act
-        int result = warehouseRepository.getTotalCapacityAtLocation("AMSTERDAM-001");
+        int result = warehouseRepository.countWarehousesAtLocation("AMSTERDAM-001");
+
+        // Assert
+        assertEquals(0, result);
+    }
+
+    @Test
+    void countWarehousesAtLocation_shouldReturnZeroForNullLocation() {
+        // Act
+        int result = warehouseRepository.countWarehousesAtLocation(null);
 
         // Assert
         assertEquals(0, result);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void getTotalCapacityAtLocation_shouldReadLocationStats() {
+        // Arrange
+        when(entityManager.find(DbLocationStats.class, "AMSTERDAM-001"))
+                .thenReturn(new DbLocationStats("AMSTERDAM-001", 5, 2500, 300));
+
+        // Act
+        int result = warehouseRepository.getTotalCapacityAtLocation("AMSTERDAM-001");
+
+        // Assert
+        assertEquals(2500, result);
+        verify(entityManager, never()).createQuery(anyString(), eq(Integer.class));
     }
 
     @Test
-    void getTotalCapacityAtLocation_shouldReturnZeroWhenNoActiveWarehouses() {
+    void getTotalCapacityAtLocation_shouldReturnZeroWhenNoStatsRow() {
         // Arrange
-        when(entityManager.createQuery(anyString(), eq(Integer.class)))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
-                .thenReturn(integerTypedQuery);
-        when(integerTypedQuery.getSingleResult())
-                .thenReturn(0);
+        when(entityManager.find(DbLocationStats.class, "EMPTY-LOCATION")).thenReturn(null);
 
         // Act
         int result = warehouseRepository.getTotalCapacityAtLocation("EMPTY-LOCATION");
@@ -422,10 +859,166 @@ class WarehouseRepositoryTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void findViewByIdentifier_shouldProjectIntoReadModel() {
+        // Arrange
+        WarehouseView view = WarehouseView.from(testWarehouse);
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class)))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("identifier"), anyString()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultStream())
+                .thenReturn(Stream.of(view));
+
+        // Act
+        WarehouseView result = warehouseRepository.findViewByIdentifier("WH-001");
+
+        // Assert
+        assertSame(view, result);
+        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(WarehouseView.class));
+        assertTrue(queryStringCaptor.getValue().startsWith("SELECT new "));
+        assertTrue(queryStringCaptor.getValue().contains("w.identifier = :identifier"));
+        verify(entityManager, never()).createQuery(anyString(), eq(Warehouse.class));
+    }
+
+    @Test
+    void findViewByIdentifier_shouldReturnNullWhenNotFound() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class)))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("identifier"), anyString()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultStream())
+                .thenReturn(Stream.empty());
+
+        // Act & Assert
+        assertNull(warehouseRepository.findViewByIdentifier("NON-EXISTENT"));
+    }
+
+    @Test
+    void findActiveViewsByLocation_shouldFilterActiveWarehousesAtLocation() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class)))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("locationIdentifier"), anyString()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultList())
+                .thenReturn(Collections.singletonList(WarehouseView.from(testWarehouse)));
+
+        // Act
+        List<WarehouseView> result = warehouseRepository.findActiveViewsByLocation("AMSTERDAM-001");
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(WarehouseView.class));
+        assertTrue(queryStringCaptor.getValue().contains("locationIdentifier = :locationIdentifier"));
+        assertTrue(queryStringCaptor.getValue().contains("active = true"));
+        verify(viewTypedQuery).setParameter("locationIdentifier", "AMSTERDAM-001");
+    }
+
+    @Test
+    void findActivePage_shouldUseKeysetPredicateAndLimit() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class)))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("afterId"), any()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setMaxResults(anyInt()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultList())
+                .thenReturn(Collections.singletonList(WarehouseView.from(testWarehouse)));
+
+        // Act
+        List<WarehouseView> result = warehouseRepository.findActivePage(42L, 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(WarehouseView.class));
+        String query = queryStringCaptor.getValue();
+        assertTrue(query.contains("w.id > :afterId"));
+        assertTrue(query.contains("ORDER BY w.id"));
+        assertTrue(query.contains("active = true"));
+        verify(viewTypedQuery).setParameter("afterId", 42L);
+        verify(viewTypedQuery).setMaxResults(10);
+    }
+
+    @Test
+    void findActivePage_shouldStartFromTheBeginningWithoutCursor() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(WarehouseView.class)))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setParameter(eq("afterId"), any()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.setMaxResults(anyInt()))
+                .thenReturn(viewTypedQuery);
+        when(viewTypedQuery.getResultList())
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        List<WarehouseView> result = warehouseRepository.findActivePage(null, 10);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(viewTypedQuery).setParameter("afterId", 0L);
+    }
+
+    @Test
+    void forEachActive_shouldScrollForwardOnlyOverProjectedRows() {
+        // Arrange
+        WarehouseView first = WarehouseView.from(testWarehouse);
+        WarehouseView second = WarehouseView.from(testWarehouse);
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.createSelectionQuery(anyString(), eq(WarehouseView.class))).thenReturn(selectionQuery);
+        when(selectionQuery.setReadOnly(true)).thenReturn(selectionQuery);
+        when(selectionQuery.setFetchSize(anyInt())).thenReturn(selectionQuery);
+        when(selectionQuery.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(scrollableResults);
+        when(scrollableResults.next()).thenReturn(true, true, false);
+        when(scrollableResults.get()).thenReturn(first, second);
+
+        List<WarehouseView> seen = new ArrayList<>();
+
+        // Act
+        warehouseRepository.forEachActive(seen::add);
+
+        // Assert
+        assertEquals(Arrays.asList(first, second), seen);
+        verify(session).createSelectionQuery(queryStringCaptor.capture(), eq(WarehouseView.class));
+        assertTrue(queryStringCaptor.getValue().startsWith("SELECT new "));
+        assertTrue(queryStringCaptor.getValue().contains("active = true"));
+        assertTrue(queryStringCaptor.getValue().contains("ORDER BY w.id"));
+        verify(selectionQuery).setFetchSize(WarehouseRepository.EXPORT_FETCH_SIZE);
+        verify(scrollableResults).close();
+    }
+
+    @Test
+    void forEachActiveBusinessUnitCode_shouldScrollDistinctCodes() {
+        // Arrange
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.createSelectionQuery(anyString(), eq(String.class))).thenReturn(codeSelectionQuery);
+        when(codeSelectionQuery.setReadOnly(true)).thenReturn(codeSelectionQuery);
+        when(codeSelectionQuery.setFetchSize(anyInt())).thenReturn(codeSelectionQuery);
+        when(codeSelectionQuery.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(codeRows);
+        when(codeRows.next()).thenReturn(true, true, false);
+        when(codeRows.get()).thenReturn("BU-001", "BU-002");
+
+        List<String> seen = new ArrayList<>();
+
+        // Act
+        warehouseRepository.forEachActiveBusinessUnitCode(seen::add);
+
+        // Assert
+        assertEquals(List.of("BU-001", "BU-002"), seen);
+        verify(session).createSelectionQuery(queryStringCaptor.capture(), eq(String.class));
+        assertTrue(queryStringCaptor.getValue().startsWith("SELECT DISTINCT w.businessUnitCode "));
+        assertTrue(queryStringCaptor.getValue().contains("active = true"));
+        verify(codeRows).close();
+    }
+
     @Test
     void shouldHandleExceptionsGracefully() {
         // Test that repository doesn't propagate persistence exceptions
-        when(entityManager.createQuery(anyString(), eq(Warehouse.class)))
+        when(entityManager.unwrap(Session.class))
                 .thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert - should throw exception (not caught by repository)
@@ -453,26 +1046,6 @@ class WarehouseRepositoryTest {
                 "Query should filter by active warehouses");
     }
 
-    @Test
-    void countWarehousesAtLocation_shouldOnlyCountActiveWarehouses() {
-        // This test verifies the query includes "active = true" condition
-        when(entityManager.createQuery(anyString(), eq(Long.class)))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.setParameter(anyString(), anyString()))
-                .thenReturn(longTypedQuery);
-        when(longTypedQuery.getSingleResult())
-                .thenReturn(0L);
-
-        // Act
-        warehouseRepository.countWarehousesAtLocation("LOC-001");
-
-        // Assert
-        verify(entityManager).createQuery(queryStringCaptor.capture(), eq(Long.class));
-        String query = queryStringCaptor.getValue();
-        assertTrue(query.contains("active = true"),
-                "Query should only count active warehouses");
-    }
-
     @Test
     void shouldUseParameterizedQueries() {
         // Test that all queries use parameters instead of string concatenation
@@ -484,10 +1057,10 @@ class WarehouseRepositoryTest {
                 .thenReturn(Stream.empty());
 
         // Act
-        warehouseRepository.findByIdentifier("test' OR '1'='1"); // SQL injection attempt
+        warehouseRepository.findByBusinessUnitCode("test' OR '1'='1"); // SQL injection attempt
 
         // Assert
-        verify(warehouseTypedQuery).setParameter(eq("identifier"),
+        verify(warehouseTypedQuery).setParameter(eq("businessUnitCode"),
                 eq("test' OR '1'='1"));
         // If using parameters correctly, this should be safe
     }
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityTagsTest {
+
+    @Test
+    void of_QuotesVersion() {
+        assertEquals("\"5\"", EntityTags.of(5L));
+        assertNull(EntityTags.of(null));
+    }
+
+    @Test
+    void noneMatchHits_UsesWeakComparison() {
+        assertTrue(EntityTags.noneMatchHits("\"5\"", "\"5\""));
+        assertTrue(EntityTags.noneMatchHits("W/\"5\"", "\"5\""));
+        assertTrue(EntityTags.noneMatchHits("\"4\", \"5\"", "\"5\""));
+        assertTrue(EntityTags.noneMatchHits("*", "\"5\""));
+        assertFalse(EntityTags.noneMatchHits("\"4\"", "\"5\""));
+    }
+
+    @Test
+    void noneMatchHits_FalseWithoutHeaderOrTag() {
+        assertFalse(EntityTags.noneMatchHits(null, "\"5\""));
+        assertFalse(EntityTags.noneMatchHits("\"5\"", null));
+    }
+
+    @Test
+    void requiredVersion_NullWhenNoPreconditionSent() {
+        assertNull(EntityTags.requiredVersion(null));
+        assertNull(EntityTags.requiredVersion("  "));
+        assertNull(EntityTags.requiredVersion("*"));
+    }
+
+    @Test
+    void requiredVersion_ParsesSingleStrongTag() {
+        assertEquals(5L, EntityTags.requiredVersion("\"5\""));
+        assertEquals(5L, EntityTags.requiredVersion(" \"5\" "));
+    }
+
+    @Test
+    void requiredVersion_UnsatisfiableForWeakListedOrForeignTags() {
+        assertEquals(EntityTags.UNSATISFIABLE, EntityTags.requiredVersion("W/\"5\""));
+        assertEquals(EntityTags.UNSATISFIABLE, EntityTags.requiredVersion("\"4\", \"5\""));
+        assertEquals(EntityTags.UNSATISFIABLE, EntityTags.requiredVersion("\"abc\""));
+        assertEquals(EntityTags.UNSATISFIABLE, EntityTags.requiredVersion("\"-2\""));
+        assertEquals(EntityTags.UNSATISFIABLE, EntityTags.requiredVersion("\"\""));
+    }
+}
@@ -0,0 +1,118 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.location.LocationPlacementIndex;
+import com.fulfilment.application.monolith.persistence.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationPlacement;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationResourceTest {
+
+    @Mock
+    private LocationPlacementIndex placementIndex;
+
+    private LocationResource resource;
+
+    @BeforeEach
+    void setUp() {
+        resource = new LocationResource();
+        resource.placementIndex = placementIndex;
+    }
+
+    private static String error(Response response) {
+        return ((ErrorResponse) response.getEntity()).getError();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void placement_ShouldReturnLocationsFromIndex() {
+        when(placementIndex.placementsFor(60, 20)).thenReturn(List.of(
+                new LocationPlacement("AMSTERDAM-002", 3, 800L, 75),
+                new LocationPlacement("EINDHOVEN-001", 2, 500L, 70)));
+
+        Response response = resource.placement(60, 20);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        List<LocationPlacementResponse> placements = (List<LocationPlacementResponse>) response.getEntity();
+        assertEquals(2, placements.size());
+        LocationPlacementResponse first = placements.get(0);
+        assertEquals("AMSTERDAM-002", first.getLocationIdentifier());
+        assertEquals(3, first.getFreeWarehouseSlots());
+        assertEquals(800L, first.getRemainingCapacity());
+        assertEquals(75, first.getMaxWarehouseCapacity());
+        assertEquals("EINDHOVEN-001", placements.get(1).getLocationIdentifier());
+    }
+
+    @Test
+    void placement_ShouldBeReadOnly() throws NoSuchMethodException {
+        Method placement = LocationResource.class.getMethod("placement", Integer.class, Integer.class);
+
+        assertNotNull(placement.getAnnotation(ReadOnly.class));
+        assertNull(placement.getAnnotation(Transactional.class));
+    }
+
+    @Test
+    void placement_ShouldTreatMissingStockAsEmpty() {
+        when(placementIndex.placementsFor(60, 0)).thenReturn(List.of());
+
+        Response response = resource.placement(60, null);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(List.of(), response.getEntity());
+    }
+
+    @Test
+    void placement_ShouldRejectMissingOrNonPositiveCapacity() {
+        Response missing = resource.placement(null, null);
+        Response zero = resource.placement(0, null);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), missing.getStatus());
+        assertEquals("Capacity must be positive", error(missing));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), zero.getStatus());
+        verifyNoInteractions(placementIndex);
+    }
+
+    @Test
+    void placement_ShouldRejectNegativeStock() {
+        Response response = resource.placement(60, -1);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        assertEquals("Stock cannot be negative", error(response));
+        verifyNoInteractions(placementIndex);
+    }
+
+    @Test
+    void placement_ShouldPassStockToIndex() {
+        // A warehouse holding more than its capacity fits nowhere
+        when(placementIndex.placementsFor(60, 61)).thenReturn(List.of());
+
+        Response response = resource.placement(60, 61);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(List.of(), response.getEntity());
+        verify(placementIndex).placementsFor(60, 61);
+    }
+
+    @Test
+    void placement_ShouldReturnServerError_WhenIndexFails() {
+        when(placementIndex.placementsFor(anyInt(), anyInt())).thenThrow(new RuntimeException("boom"));
+
+        Response response = resource.placement(60, 0);
+
+        assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
+        assertEquals("Failed to find locations: boom", error(response));
+    }
+}
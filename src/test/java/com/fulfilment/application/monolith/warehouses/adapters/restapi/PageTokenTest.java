@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTokenTest {
+
+    @Test
+    void encodeAndDecode_RoundTrip() {
+        String token = PageToken.encode(12345L);
+
+        assertEquals(12345L, PageToken.decode(token));
+    }
+
+    @Test
+    void encode_IsOpaqueAndUrlSafe() {
+        String token = PageToken.encode(987654321L);
+
+        assertFalse(token.contains("987654321"));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_ReturnsNullForMissingToken() {
+        assertNull(PageToken.decode(null));
+        assertNull(PageToken.decode(""));
+        assertNull(PageToken.decode("   "));
+    }
+
+    @Test
+    void decode_RejectsMalformedToken() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> PageToken.decode("%%%"));
+        assertEquals("Invalid continuation token", exception.getMessage());
+    }
+
+    @Test
+    void decode_RejectsTokenWithoutVersionPrefix() {
+        String forged = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString("42".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode(forged));
+    }
+}
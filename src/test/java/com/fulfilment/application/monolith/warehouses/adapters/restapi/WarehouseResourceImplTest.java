@@ -1,21 +1,41 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.idempotency.IdempotentRequests;
+import com.fulfilment.application.monolith.warehouses.adapters.database.OptimisticLockRetry;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseVersionMismatchException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.RecordStockMovementUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.TransferStockUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,9 +53,27 @@ class WarehouseResourceImplTest {
   @Mock
   private ArchiveWarehouseUseCase archiveWarehouseUseCase;
 
+  @Mock
+  private TransferStockUseCase transferStockUseCase;
+
+  @Mock
+  private RecordStockMovementUseCase recordStockMovementUseCase;
+
   @Mock
   private WarehouseStore warehouseStore;
 
+  @Mock
+  private StockLedger stockLedger;
+
+  @Mock
+  private OptimisticLockRetry optimisticLockRetry;
+
+  @Mock
+  private IdempotentRequests idempotentRequests;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
   @InjectMocks
   private WarehouseResourceImpl warehouseResource;
 
@@ -47,6 +85,12 @@ class WarehouseResourceImplTest {
   void setUp() {
     warehouseId = "WH-" + java.util.UUID.randomUUID().toString();
 
+    // Run the unit of work once, as a first attempt that wins its optimistic-lock race would
+    lenient().when(optimisticLockRetry.call(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    // Run the request, as the first request with an Idempotency-Key would
+    lenient().when(idempotentRequests.execute(anyString(), any(), any(), any()))
+            .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
+
     validWarehouseRequest = new WarehouseRequest();
     validWarehouseRequest.setBusinessUnitCode("BU-001");
     validWarehouseRequest.setLocationIdentifier("LOC-001");
@@ -68,9 +112,9 @@ class WarehouseResourceImplTest {
   @Test
   void testListAllWarehousesUnits_Success() {
     // Arrange
-    List<Warehouse> warehouses = Arrays.asList(
-            sampleWarehouse,
-            Warehouse.builder()
+    List<WarehouseView> warehouses = Arrays.asList(
+            WarehouseView.from(sampleWarehouse),
+            WarehouseView.from(Warehouse.builder()
                     .id(2L)
                     .businessUnitCode("BU-002")
                     .locationIdentifier("LOC-002")
@@ -79,12 +123,12 @@ class WarehouseResourceImplTest {
                     .name("Warehouse BU-002 - LOC-002")
                     .active(true)
                     .archived(false)
-                    .build()
+                    .build())
     );
-    when(warehouseStore.findAllActive()).thenReturn(warehouses);
+    when(warehouseStore.findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1)).thenReturn(warehouses);
 
     // Act
-    Response response = warehouseResource.listAllWarehousesUnits();
+    Response response = warehouseResource.listAllWarehousesUnits(null, null);
 
     // Assert
     assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -101,17 +145,19 @@ class WarehouseResourceImplTest {
     assertEquals(500, firstResponse.getStock());
     assertEquals("Warehouse BU-001 - LOC-001", firstResponse.getName());
     assertFalse(firstResponse.isArchived());
+    assertNull(response.getHeaderString(WarehouseResourceImpl.CONTINUATION_TOKEN_HEADER));
 
-    verify(warehouseStore).findAllActive();
+    verify(warehouseStore).findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1);
   }
 
   @Test
   void testListAllWarehousesUnits_EmptyList() {
     // Arrange
-    when(warehouseStore.findAllActive()).thenReturn(Collections.emptyList());
+    when(warehouseStore.findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1))
+            .thenReturn(Collections.emptyList());
 
     // Act
-    Response response = warehouseResource.listAllWarehousesUnits();
+    Response response = warehouseResource.listAllWarehousesUnits(null, null);
 
     // Assert
     assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -120,16 +166,17 @@ class WarehouseResourceImplTest {
     List<WarehouseResponse> responseList = (List<WarehouseResponse>) response.getEntity();
     assertTrue(responseList.isEmpty());
 
-    verify(warehouseStore).findAllActive();
+    verify(warehouseStore).findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1);
   }
 
   @Test
   void testListAllWarehousesUnits_Exception() {
     // Arrange
-    when(warehouseStore.findAllActive()).thenThrow(new RuntimeException("Database error"));
+    when(warehouseStore.findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1))
+            .thenThrow(new RuntimeException("Database error"));
 
     // Act
-    Response response = warehouseResource.listAllWarehousesUnits();
+    Response response = warehouseResource.listAllWarehousesUnits(null, null);
 
     // Assert
     assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -138,7 +185,120 @@ class WarehouseResourceImplTest {
     assertNotNull(errorResponse);
     assertTrue(errorResponse.getError().contains("Failed to retrieve warehouses"));
 
-    verify(warehouseStore).findAllActive();
+    verify(warehouseStore).findActivePage(null, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void testListAllWarehousesUnits_ReturnsContinuationTokenWhenMoreRowsExist() {
+    // Arrange
+    WarehouseView first = WarehouseView.from(sampleWarehouse);
+    WarehouseView second = WarehouseView.from(sampleWarehouse.toBuilder().id(2L).build());
+    WarehouseView third = WarehouseView.from(sampleWarehouse.toBuilder().id(3L).build());
+    when(warehouseStore.findActivePage(null, 3)).thenReturn(Arrays.asList(first, second, third));
+
+    // Act
+    Response response = warehouseResource.listAllWarehousesUnits(null, 2);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+    @SuppressWarnings("unchecked")
+    List<WarehouseResponse> responseList = (List<WarehouseResponse>) response.getEntity();
+    assertEquals(2, responseList.size());
+    assertEquals(PageToken.encode(2L), response.getHeaderString(WarehouseResourceImpl.CONTINUATION_TOKEN_HEADER));
+  }
+
+  @Test
+  void testListAllWarehousesUnits_ResumesAfterContinuationToken() {
+    // Arrange
+    when(warehouseStore.findActivePage(2L, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1))
+            .thenReturn(Collections.emptyList());
+
+    // Act
+    Response response = warehouseResource.listAllWarehousesUnits(PageToken.encode(2L), null);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    verify(warehouseStore).findActivePage(2L, WarehouseResourceImpl.DEFAULT_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void testListAllWarehousesUnits_ClampsLimitToMaxPageSize() {
+    // Arrange
+    when(warehouseStore.findActivePage(null, WarehouseResourceImpl.MAX_PAGE_SIZE + 1))
+            .thenReturn(Collections.emptyList());
+
+    // Act
+    Response response = warehouseResource.listAllWarehousesUnits(null, 100_000);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    verify(warehouseStore).findActivePage(null, WarehouseResourceImpl.MAX_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void testListAllWarehousesUnits_InvalidLimit() {
+    // Act
+    Response response = warehouseResource.listAllWarehousesUnits(null, 0);
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Limit must be at least 1", errorResponse.getError());
+    verifyNoInteractions(warehouseStore);
+  }
+
+  @Test
+  void testListAllWarehousesUnits_InvalidContinuationToken() {
+    // Act
+    Response response = warehouseResource.listAllWarehousesUnits("not-a-token", null);
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Invalid continuation token", errorResponse.getError());
+    verifyNoInteractions(warehouseStore);
+  }
+
+  @Test
+  void testExportWarehouses_WritesOneJsonDocumentPerLine() throws Exception {
+    // Arrange
+    WarehouseView first = WarehouseView.from(sampleWarehouse);
+    WarehouseView second = WarehouseView.from(sampleWarehouse.toBuilder().id(2L).businessUnitCode("BU-002").build());
+    doAnswer(invocation -> {
+      Consumer<WarehouseView> consumer = invocation.getArgument(0);
+      consumer.accept(first);
+      consumer.accept(second);
+      return null;
+    }).when(warehouseStore).forEachActive(any());
+
+    // Act
+    Response response = warehouseResource.exportWarehouses();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    assertEquals(WarehouseResourceImpl.NDJSON_MEDIA_TYPE, response.getMediaType().toString());
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("BU-001", objectMapper.readTree(lines[0]).get("businessUnitCode").asText());
+    assertEquals("BU-002", objectMapper.readTree(lines[1]).get("businessUnitCode").asText());
+  }
+
+  @Test
+  void testExportWarehouses_EmptyExport() throws Exception {
+    // Act
+    Response response = warehouseResource.exportWarehouses();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+
+    // Assert
+    assertEquals(0, output.size());
+    verify(warehouseStore).forEachActive(any());
   }
 
   @Test
@@ -151,7 +311,7 @@ class WarehouseResourceImplTest {
     invalidRequest.setStock(150); // Stock > Capacity
 
     // Act
-    Response response = warehouseResource.createANewWarehouseUnit(invalidRequest);
+    Response response = warehouseResource.createANewWarehouseUnit(null, invalidRequest);
 
     // Assert
     assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
@@ -162,13 +322,222 @@ class WarehouseResourceImplTest {
     verify(createWarehouseUseCase, never()).create(any(Warehouse.class));
   }
 
+  @Test
+  void testCreateANewWarehouseUnit_ConflictWhenLocationBusy() {
+    // Arrange
+    doThrow(new IllegalStateException("Location is busy, try again later: LOC-001"))
+            .when(createWarehouseUseCase).create(any(Warehouse.class));
+
+    // Act
+    Response response = warehouseResource.createANewWarehouseUnit(null, validWarehouseRequest);
+
+    // Assert
+    assertEquals(Response.Status.CONFLICT.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Location is busy, try again later: LOC-001", errorResponse.getError());
+  }
+
+  @Test
+  void testCreateANewWarehouseUnit_ReplaysResponseForRepeatedIdempotencyKey() {
+    // Arrange
+    Response firstResponse = Response.status(Response.Status.CREATED).entity("{\"identifier\":\"WH-1\"}").build();
+    when(idempotentRequests.execute(eq(WarehouseResourceImpl.CREATE_SCOPE), eq("key-1"), same(validWarehouseRequest), any()))
+            .thenReturn(firstResponse);
+
+    // Act
+    Response response = warehouseResource.createANewWarehouseUnit("key-1", validWarehouseRequest);
+
+    // Assert
+    assertSame(firstResponse, response);
+    verify(createWarehouseUseCase, never()).create(any(Warehouse.class));
+  }
+
+  @Test
+  void testCreateANewWarehouseUnit_BadRequestWhenKeyReusedForDifferentRequest() {
+    // Arrange
+    doThrow(new IllegalArgumentException("Idempotency-Key was already used for a different request: key-1"))
+            .when(idempotentRequests).execute(anyString(), eq("key-1"), any(), any());
+
+    // Act
+    Response response = warehouseResource.createANewWarehouseUnit("key-1", validWarehouseRequest);
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Idempotency-Key was already used for a different request: key-1", errorResponse.getError());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testCreateWarehouseUnitsInBatch_ReportsPerItemResults() {
+    // Arrange
+    WarehouseRequest second = new WarehouseRequest();
+    second.setBusinessUnitCode("BU-002");
+    second.setLocationIdentifier("LOC-001");
+    second.setCapacity(100);
+    second.setStock(10);
+
+    WarehouseRequest invalid = new WarehouseRequest();
+    invalid.setBusinessUnitCode("BU-003");
+    invalid.setLocationIdentifier("LOC-001");
+    invalid.setCapacity(10);
+    invalid.setStock(50);
+
+    when(createWarehouseUseCase.createAll(anyList())).thenAnswer(invocation -> {
+      List<Warehouse> candidates = invocation.getArgument(0);
+      return Arrays.asList(
+              WarehouseCreationResult.created(candidates.get(0)),
+              WarehouseCreationResult.rejected("Maximum number of warehouses reached at location: LOC-001"));
+    });
+
+    // Act
+    Response response = warehouseResource.createWarehouseUnitsInBatch(
+            Arrays.asList(validWarehouseRequest, invalid, second));
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    List<BatchItemResponse> items = (List<BatchItemResponse>) response.getEntity();
+    assertEquals(3, items.size());
+
+    assertEquals(0, items.get(0).getIndex());
+    assertEquals(BatchItemResponse.CREATED, items.get(0).getStatus());
+    assertEquals("BU-001", items.get(0).getWarehouse().getBusinessUnitCode());
+
+    assertEquals(1, items.get(1).getIndex());
+    assertEquals(BatchItemResponse.REJECTED, items.get(1).getStatus());
+    assertEquals("Stock cannot exceed capacity", items.get(1).getError());
+
+    assertEquals(2, items.get(2).getIndex());
+    assertEquals(BatchItemResponse.REJECTED, items.get(2).getStatus());
+    assertTrue(items.get(2).getError().contains("Maximum number of warehouses reached"));
+
+    // Only the two requests that passed request validation reach the use case
+    verify(createWarehouseUseCase).createAll(argThat(candidates -> candidates.size() == 2));
+  }
+
+  @Test
+  void testCreateWarehouseUnitsInBatch_RejectsMissingFieldsPerItem() {
+    // Arrange
+    WarehouseRequest missingLocation = new WarehouseRequest();
+    missingLocation.setBusinessUnitCode("BU-002");
+    missingLocation.setCapacity(100);
+    missingLocation.setStock(0);
+
+    // Act
+    Response response = warehouseResource.createWarehouseUnitsInBatch(Collections.singletonList(missingLocation));
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    @SuppressWarnings("unchecked")
+    List<BatchItemResponse> items = (List<BatchItemResponse>) response.getEntity();
+    assertEquals("Location is required", items.get(0).getError());
+    verify(createWarehouseUseCase, never()).createAll(anyList());
+  }
+
+  @Test
+  void testCreateWarehouseUnitsInBatch_EmptyBatch() {
+    // Act
+    Response response = warehouseResource.createWarehouseUnitsInBatch(Collections.emptyList());
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Batch must contain at least one warehouse", errorResponse.getError());
+  }
+
+  @Test
+  void testCreateWarehouseUnitsInBatch_TooLarge() {
+    // Arrange
+    List<WarehouseRequest> requests = Collections.nCopies(WarehouseResourceImpl.MAX_BATCH_SIZE + 1, validWarehouseRequest);
+
+    // Act
+    Response response = warehouseResource.createWarehouseUnitsInBatch(requests);
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    verifyNoInteractions(createWarehouseUseCase);
+  }
+
+  @Test
+  void testLookupWarehouseUnits_KeyedByIdentifierWithMissing() {
+    // Arrange
+    String missingId = "WH-" + java.util.UUID.randomUUID();
+    sampleWarehouse.setIdentifier(warehouseId);
+    WarehouseLookupRequest request = new WarehouseLookupRequest();
+    request.setIdentifiers(Arrays.asList(warehouseId, missingId, warehouseId, " "));
+    when(warehouseStore.findByIdentifiers(Arrays.asList(warehouseId, missingId)))
+            .thenReturn(Collections.singletonList(WarehouseView.from(sampleWarehouse)));
+
+    // Act
+    Response response = warehouseResource.lookupWarehouseUnits(request);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    WarehouseLookupResponse body = (WarehouseLookupResponse) response.getEntity();
+    assertEquals(1, body.getWarehouses().size());
+    assertEquals("BU-001", body.getWarehouses().get(warehouseId).getBusinessUnitCode());
+    assertEquals(Collections.singletonList(missingId), body.getMissing());
+    verify(warehouseStore, never()).findViewByIdentifier(anyString());
+  }
+
+  @Test
+  void testLookupWarehouseUnits_FindsUpperCaseIdentifiers() {
+    // Arrange
+    String upperCaseId = warehouseId.toUpperCase();
+    sampleWarehouse.setIdentifier(warehouseId);
+    WarehouseLookupRequest request = new WarehouseLookupRequest();
+    request.setIdentifiers(Collections.singletonList(upperCaseId));
+    when(warehouseStore.findByIdentifiers(Collections.singletonList(warehouseId)))
+            .thenReturn(Collections.singletonList(WarehouseView.from(sampleWarehouse)));
+
+    // Act
+    Response response = warehouseResource.lookupWarehouseUnits(request);
+
+    // Assert
+    WarehouseLookupResponse body = (WarehouseLookupResponse) response.getEntity();
+    assertEquals("BU-001", body.getWarehouses().get(upperCaseId).getBusinessUnitCode());
+    assertTrue(body.getMissing().isEmpty());
+  }
+
+  @Test
+  void testLookupWarehouseUnits_RequiresIdentifiers() {
+    // Act
+    Response response = warehouseResource.lookupWarehouseUnits(new WarehouseLookupRequest());
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("At least one identifier is required", errorResponse.getError());
+    verifyNoInteractions(warehouseStore);
+  }
+
+  @Test
+  void testLookupWarehouseUnits_TooManyIdentifiers() {
+    // Arrange
+    List<String> identifiers = new java.util.ArrayList<>();
+    for (int i = 0; i <= WarehouseResourceImpl.MAX_LOOKUP_SIZE; i++) {
+      identifiers.add("WH-" + i);
+    }
+    WarehouseLookupRequest request = new WarehouseLookupRequest();
+    request.setIdentifiers(identifiers);
+
+    // Act
+    Response response = warehouseResource.lookupWarehouseUnits(request);
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    verifyNoInteractions(warehouseStore);
+  }
+
   @Test
   void testGetAWarehouseUnitByID_Success() {
     // Arrange
-    when(warehouseStore.findByIdentifier(warehouseId)).thenReturn(sampleWarehouse);
+    when(warehouseStore.findViewByIdentifier(warehouseId)).thenReturn(WarehouseView.from(sampleWarehouse));
 
     // Act
-    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId);
+    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId, null);
 
     // Assert
     assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -182,17 +551,31 @@ class WarehouseResourceImplTest {
     assertEquals("Warehouse BU-001 - LOC-001", warehouseResponse.getName());
     assertFalse(warehouseResponse.isArchived());
 
-    verify(warehouseStore).findByIdentifier(warehouseId);
+    verify(warehouseStore).findViewByIdentifier(warehouseId);
+    verify(warehouseStore, never()).findByIdentifier(anyString());
+  }
+
+  @Test
+  void testGetAWarehouseUnitByID_LooksUpCanonicalIdentifier() {
+    // Arrange
+    when(warehouseStore.findViewByIdentifier(warehouseId)).thenReturn(WarehouseView.from(sampleWarehouse));
+
+    // Act
+    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId.toUpperCase(), null);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    verify(warehouseStore).findViewByIdentifier(warehouseId);
   }
 
   @Test
   void testGetAWarehouseUnitByID_NotFound() {
     // Arrange
     String nonExistentId = "WH-" + java.util.UUID.randomUUID().toString();
-    when(warehouseStore.findByIdentifier(nonExistentId)).thenReturn(null);
+    when(warehouseStore.findViewByIdentifier(nonExistentId)).thenReturn(null);
 
     // Act
-    Response response = warehouseResource.getAWarehouseUnitByID(nonExistentId);
+    Response response = warehouseResource.getAWarehouseUnitByID(nonExistentId, null);
 
     // Assert
     assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
@@ -200,7 +583,7 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertTrue(errorResponse.getError().contains("Warehouse not found with id: " + nonExistentId));
 
-    verify(warehouseStore).findByIdentifier(nonExistentId);
+    verify(warehouseStore).findViewByIdentifier(nonExistentId);
   }
 
   @Test
@@ -209,7 +592,7 @@ class WarehouseResourceImplTest {
     String invalidId = "INVALID-ID";
 
     // Act
-    Response response = warehouseResource.getAWarehouseUnitByID(invalidId);
+    Response response = warehouseResource.getAWarehouseUnitByID(invalidId, null);
 
     // Assert
     assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
@@ -217,13 +600,13 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Invalid warehouse ID format", errorResponse.getError());
 
-    verify(warehouseStore, never()).findByIdentifier(anyString());
+    verify(warehouseStore, never()).findViewByIdentifier(anyString());
   }
 
   @Test
   void testGetAWarehouseUnitByID_NullId() {
     // Act
-    Response response = warehouseResource.getAWarehouseUnitByID(null);
+    Response response = warehouseResource.getAWarehouseUnitByID(null, null);
 
     // Assert
     assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
@@ -231,13 +614,13 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Warehouse ID cannot be null or empty", errorResponse.getError());
 
-    verify(warehouseStore, never()).findByIdentifier(anyString());
+    verify(warehouseStore, never()).findViewByIdentifier(anyString());
   }
 
   @Test
   void testGetAWarehouseUnitByID_EmptyId() {
     // Act
-    Response response = warehouseResource.getAWarehouseUnitByID("");
+    Response response = warehouseResource.getAWarehouseUnitByID("", null);
 
     // Assert
     assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
@@ -245,26 +628,124 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Warehouse ID cannot be null or empty", errorResponse.getError());
 
+    verify(warehouseStore, never()).findViewByIdentifier(anyString());
+  }
+
+  @Test
+  void testGetAWarehouseUnitByID_SetsETagFromVersion() {
+    // Arrange
+    sampleWarehouse.setVersion(3L);
+    when(warehouseStore.findViewByIdentifier(warehouseId)).thenReturn(WarehouseView.from(sampleWarehouse));
+
+    // Act
+    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId, null);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    assertEquals("\"3\"", response.getHeaderString("ETag"));
+  }
+
+  @Test
+  void testGetAWarehouseUnitByID_NotModifiedWhenETagMatches() {
+    // Arrange
+    sampleWarehouse.setVersion(3L);
+    when(warehouseStore.findViewByIdentifier(warehouseId)).thenReturn(WarehouseView.from(sampleWarehouse));
+
+    // Act
+    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId, "W/\"3\"");
+
+    // Assert
+    assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+    assertNull(response.getEntity());
+    assertEquals("\"3\"", response.getHeaderString("ETag"));
+  }
+
+  @Test
+  void testGetAWarehouseUnitByID_StaleETagReturnsBody() {
+    // Arrange
+    sampleWarehouse.setVersion(4L);
+    when(warehouseStore.findViewByIdentifier(warehouseId)).thenReturn(WarehouseView.from(sampleWarehouse));
+
+    // Act
+    Response response = warehouseResource.getAWarehouseUnitByID(warehouseId, "\"3\"");
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    assertNotNull(response.getEntity());
+    assertEquals("\"4\"", response.getHeaderString("ETag"));
+  }
+
+  @Test
+  void testUpdateWarehouseUnit_ReturnsStoredStateWithNewETag() {
+    // Arrange
+    doAnswer(invocation -> {
+      Warehouse replacement = invocation.getArgument(0);
+      assertEquals(3L, replacement.getVersion());
+      replacement.setId(1L);
+      replacement.setName("Stored Name");
+      replacement.setVersion(4L);
+      return null;
+    }).when(replaceWarehouseUseCase).replace(any(Warehouse.class));
+
+    // Act
+    Response response = warehouseResource.updateWarehouseUnit(warehouseId, "\"3\"", validWarehouseRequest);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    assertEquals("\"4\"", response.getHeaderString("ETag"));
+    assertEquals("Stored Name", ((WarehouseResponse) response.getEntity()).getName());
+
+    // The use case validates and writes without the resource loading the warehouse first
     verify(warehouseStore, never()).findByIdentifier(anyString());
   }
 
+  @Test
+  void testUpdateWarehouseUnit_PreconditionFailedWhenIfMatchIsStale() {
+    // Arrange
+    doThrow(new WarehouseVersionMismatchException(warehouseId))
+            .when(replaceWarehouseUseCase).replace(argThat(w -> Long.valueOf(3L).equals(w.getVersion())));
+
+    // Act
+    Response response = warehouseResource.updateWarehouseUnit(warehouseId, "\"3\"", validWarehouseRequest);
+
+    // Assert
+    assertEquals(Response.Status.PRECONDITION_FAILED.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertTrue(errorResponse.getError().contains(warehouseId));
+  }
+
+  @Test
+  void testUpdateWarehouseUnit_ConflictWhenRetriesExhausted() {
+    // Arrange
+    doThrow(new IllegalStateException("Warehouse was modified concurrently, please retry"))
+            .when(optimisticLockRetry).call(any());
+
+    // Act
+    Response response = warehouseResource.updateWarehouseUnit(warehouseId, null, validWarehouseRequest);
+
+    // Assert
+    assertEquals(Response.Status.CONFLICT.getStatusCode(), response.getStatus());
+
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Warehouse was modified concurrently, please retry", errorResponse.getError());
+  }
+
   @Test
   void testUpdateWarehouseUnit_NotFound() {
     // Arrange
     String nonExistentId = "WH-" + java.util.UUID.randomUUID().toString();
-    when(warehouseStore.findByIdentifier(nonExistentId)).thenReturn(null);
+    doThrow(new WarehouseNotFoundException(nonExistentId))
+            .when(replaceWarehouseUseCase).replace(any(Warehouse.class));
 
     // Act
-    Response response = warehouseResource.updateWarehouseUnit(nonExistentId, validWarehouseRequest);
+    Response response = warehouseResource.updateWarehouseUnit(nonExistentId, null, validWarehouseRequest);
 
     // Assert
     assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
 
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertTrue(errorResponse.getError().contains("Warehouse not found with id: " + nonExistentId));
-
-    verify(warehouseStore).findByIdentifier(nonExistentId);
-    verify(replaceWarehouseUseCase, never()).replace(any(Warehouse.class));
   }
 
   @Test
@@ -273,7 +754,7 @@ class WarehouseResourceImplTest {
     String invalidId = "INVALID-ID";
 
     // Act
-    Response response = warehouseResource.updateWarehouseUnit(invalidId, validWarehouseRequest);
+    Response response = warehouseResource.updateWarehouseUnit(invalidId, null, validWarehouseRequest);
 
     // Assert
     assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
@@ -288,8 +769,7 @@ class WarehouseResourceImplTest {
   @Test
   void testArchiveAWarehouseUnitByID_Success() {
     // Arrange
-    when(warehouseStore.findByIdentifier(warehouseId)).thenReturn(sampleWarehouse);
-    doNothing().when(archiveWarehouseUseCase).archive(sampleWarehouse);
+    doNothing().when(archiveWarehouseUseCase).archive(warehouseId);
 
     // Act
     Response response = warehouseResource.archiveAWarehouseUnitByID(warehouseId);
@@ -298,15 +778,17 @@ class WarehouseResourceImplTest {
     assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
     assertNull(response.getEntity());
 
-    verify(warehouseStore).findByIdentifier(warehouseId);
-    verify(archiveWarehouseUseCase).archive(sampleWarehouse);
+    verify(archiveWarehouseUseCase).archive(warehouseId);
+    // The conditional update decides; the resource no longer loads the warehouse first
+    verify(warehouseStore, never()).findByIdentifier(anyString());
   }
 
   @Test
   void testArchiveAWarehouseUnitByID_NotFound() {
     // Arrange
     String nonExistentId = "WH-" + java.util.UUID.randomUUID().toString();
-    when(warehouseStore.findByIdentifier(nonExistentId)).thenReturn(null);
+    doThrow(new WarehouseNotFoundException(nonExistentId))
+            .when(archiveWarehouseUseCase).archive(nonExistentId);
 
     // Act
     Response response = warehouseResource.archiveAWarehouseUnitByID(nonExistentId);
@@ -317,16 +799,14 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertTrue(errorResponse.getError().contains("Warehouse not found with id: " + nonExistentId));
 
-    verify(warehouseStore).findByIdentifier(nonExistentId);
-    verify(archiveWarehouseUseCase, never()).archive(any(Warehouse.class));
+    verify(archiveWarehouseUseCase).archive(nonExistentId);
   }
 
   @Test
   void testArchiveAWarehouseUnitByID_IllegalStateException() {
     // Arrange
-    when(warehouseStore.findByIdentifier(warehouseId)).thenReturn(sampleWarehouse);
     doThrow(new IllegalStateException("Warehouse cannot be archived"))
-            .when(archiveWarehouseUseCase).archive(sampleWarehouse);
+            .when(archiveWarehouseUseCase).archive(warehouseId);
 
     // Act
     Response response = warehouseResource.archiveAWarehouseUnitByID(warehouseId);
@@ -337,16 +817,14 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Warehouse cannot be archived", errorResponse.getError());
 
-    verify(warehouseStore).findByIdentifier(warehouseId);
-    verify(archiveWarehouseUseCase).archive(sampleWarehouse);
+    verify(archiveWarehouseUseCase).archive(warehouseId);
   }
 
   @Test
   void testArchiveAWarehouseUnitByID_IllegalArgumentException() {
     // Arrange
-    when(warehouseStore.findByIdentifier(warehouseId)).thenReturn(sampleWarehouse);
     doThrow(new IllegalArgumentException("Invalid archive request"))
-            .when(archiveWarehouseUseCase).archive(sampleWarehouse);
+            .when(archiveWarehouseUseCase).archive(warehouseId);
 
     // Act
     Response response = warehouseResource.archiveAWarehouseUnitByID(warehouseId);
@@ -357,8 +835,7 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Invalid archive request", errorResponse.getError());
 
-    verify(warehouseStore).findByIdentifier(warehouseId);
-    verify(archiveWarehouseUseCase).archive(sampleWarehouse);
+    verify(archiveWarehouseUseCase).archive(warehouseId);
   }
 
   @Test
@@ -375,8 +852,199 @@ class WarehouseResourceImplTest {
     ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
     assertEquals("Invalid warehouse ID format", errorResponse.getError());
 
-    verify(warehouseStore, never()).findByIdentifier(anyString());
-    verify(archiveWarehouseUseCase, never()).archive(any(Warehouse.class));
+    verify(archiveWarehouseUseCase, never()).archive(anyString());
+  }
+
+  private StockTransferRequest transferRequest(String sourceIdentifier, String targetIdentifier, Integer quantity) {
+    StockTransferRequest request = new StockTransferRequest();
+    request.setSourceIdentifier(sourceIdentifier);
+    request.setTargetIdentifier(targetIdentifier);
+    request.setQuantity(quantity);
+    return request;
+  }
+
+  @Test
+  void testTransferStock_Success() {
+    // Arrange
+    String targetId = "WH-" + java.util.UUID.randomUUID();
+    WarehouseView source = WarehouseView.from(sampleWarehouse.toBuilder().identifier(warehouseId).currentStock(480).build());
+    WarehouseView target = WarehouseView.from(sampleWarehouse.toBuilder().id(2L).identifier(targetId).currentStock(20).build());
+    when(transferStockUseCase.transfer(warehouseId, targetId, 20)).thenReturn(new StockTransfer(source, target, 20));
+    StockTransferRequest request = transferRequest(warehouseId, targetId, 20);
+
+    // Act
+    Response response = warehouseResource.transferStock(null, request);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    StockTransferResponse body = (StockTransferResponse) response.getEntity();
+    assertEquals(480, body.getSource().getStock());
+    assertEquals(20, body.getTarget().getStock());
+    assertEquals(20, body.getQuantity());
+    // One transaction for both sides, retried as a whole, and replayable by Idempotency-Key
+    verify(optimisticLockRetry).call(any());
+    verify(idempotentRequests).execute(eq(WarehouseResourceImpl.TRANSFER_SCOPE), isNull(), same(request), any());
+  }
+
+  @Test
+  void testTransferStock_NotFound() {
+    // Arrange
+    String targetId = "WH-" + java.util.UUID.randomUUID();
+    when(transferStockUseCase.transfer(warehouseId, targetId, 5)).thenThrow(new WarehouseNotFoundException(targetId));
+
+    // Act
+    Response response = warehouseResource.transferStock(null, transferRequest(warehouseId, targetId, 5));
+
+    // Assert
+    assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Warehouse not found with id: " + targetId, errorResponse.getError());
+  }
+
+  @Test
+  void testTransferStock_InsufficientStock() {
+    // Arrange
+    String targetId = "WH-" + java.util.UUID.randomUUID();
+    when(transferStockUseCase.transfer(warehouseId, targetId, 5))
+            .thenThrow(new IllegalStateException("Insufficient stock in warehouse " + warehouseId));
+
+    // Act
+    Response response = warehouseResource.transferStock(null, transferRequest(warehouseId, targetId, 5));
+
+    // Assert
+    assertEquals(Response.Status.CONFLICT.getStatusCode(), response.getStatus());
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Insufficient stock in warehouse " + warehouseId, errorResponse.getError());
+  }
+
+  @Test
+  void testTransferStock_InvalidRequest() {
+    // Act
+    Response missingQuantity = warehouseResource.transferStock(null, transferRequest(warehouseId, warehouseId, null));
+    Response invalidTarget = warehouseResource.transferStock(null, transferRequest(warehouseId, "INVALID-ID", 5));
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), missingQuantity.getStatus());
+    assertEquals("Transfer quantity must be at least 1", ((ErrorResponse) missingQuantity.getEntity()).getError());
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), invalidTarget.getStatus());
+    assertEquals("Invalid warehouse ID format", ((ErrorResponse) invalidTarget.getEntity()).getError());
+    verifyNoInteractions(transferStockUseCase);
+  }
+
+  private StockMovementRequest movementRequest(Integer delta, String reason) {
+    StockMovementRequest request = new StockMovementRequest();
+    request.setDelta(delta);
+    request.setReason(reason);
+    return request;
+  }
+
+  @Test
+  void testRecordStockMovement_Success() {
+    // Arrange
+    Instant recordedAt = Instant.parse("2024-05-01T10:15:30Z");
+    when(recordStockMovementUseCase.record(warehouseId, -12, "picking"))
+            .thenReturn(new StockMovement(42L, warehouseId, -12, "picking", recordedAt));
+    StockMovementRequest request = movementRequest(-12, "picking");
+
+    // Act
+    Response response = warehouseResource.recordStockMovement(warehouseId, "key-1", request);
+
+    // Assert
+    assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+    StockMovementResponse body = (StockMovementResponse) response.getEntity();
+    assertEquals("42", body.getId());
+    assertEquals(warehouseId, body.getWarehouseIdentifier());
+    assertEquals(-12, body.getDelta());
+    assertEquals("picking", body.getReason());
+    assertEquals(recordedAt, body.getRecordedAt());
+    // The warehouse is part of the fingerprint, so a key reused for another warehouse is refused
+    verify(idempotentRequests).execute(eq(WarehouseResourceImpl.STOCK_MOVEMENT_SCOPE), eq("key-1"),
+            eq(List.of(warehouseId, request)), any());
+    verifyNoInteractions(optimisticLockRetry);
+  }
+
+  @Test
+  void testRecordStockMovement_NotFound() {
+    // Arrange
+    when(recordStockMovementUseCase.record(warehouseId, 5, "receiving"))
+            .thenThrow(new WarehouseNotFoundException(warehouseId));
+
+    // Act
+    Response response = warehouseResource.recordStockMovement(warehouseId, null, movementRequest(5, "receiving"));
+
+    // Assert
+    assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+    ErrorResponse errorResponse = (ErrorResponse) response.getEntity();
+    assertEquals("Warehouse not found with id: " + warehouseId, errorResponse.getError());
+  }
+
+  @Test
+  void testRecordStockMovement_InactiveWarehouse() {
+    // Arrange
+    when(recordStockMovementUseCase.record(warehouseId, 5, "receiving"))
+            .thenThrow(new IllegalStateException("Warehouse is not active: " + warehouseId));
+
+    // Act
+    Response response = warehouseResource.recordStockMovement(warehouseId, null, movementRequest(5, "receiving"));
+
+    // Assert
+    assertEquals(Response.Status.CONFLICT.getStatusCode(), response.getStatus());
+  }
+
+  @Test
+  void testRecordStockMovement_InvalidRequest() {
+    // Act
+    Response missingDelta = warehouseResource.recordStockMovement(warehouseId, null, movementRequest(null, "recount"));
+    Response zeroDelta = warehouseResource.recordStockMovement(warehouseId, null, movementRequest(0, "recount"));
+    Response invalidId = warehouseResource.recordStockMovement("INVALID-ID", null, movementRequest(5, "recount"));
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), missingDelta.getStatus());
+    assertEquals("Stock movement delta must be a non-zero number",
+            ((ErrorResponse) missingDelta.getEntity()).getError());
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), zeroDelta.getStatus());
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), invalidId.getStatus());
+    verifyNoInteractions(recordStockMovementUseCase);
+  }
+
+  @Test
+  void testGetStockLevel_Success() {
+    // Arrange
+    when(stockLedger.stockLevel(warehouseId)).thenReturn(new StockLevel(warehouseId, 40, -15, 3, 100, true));
+
+    // Act
+    Response response = warehouseResource.getStockLevel(warehouseId);
+
+    // Assert
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    StockLevelResponse body = (StockLevelResponse) response.getEntity();
+    assertEquals(warehouseId, body.getIdentifier());
+    assertEquals(40, body.getCompactedStock());
+    assertEquals(-15, body.getPendingDelta());
+    assertEquals(3, body.getPendingMovements());
+    assertEquals(25, body.getStock());
+  }
+
+  @Test
+  void testGetStockLevel_NotFound() {
+    // Arrange
+    when(stockLedger.stockLevel(warehouseId)).thenReturn(null);
+
+    // Act
+    Response response = warehouseResource.getStockLevel(warehouseId);
+
+    // Assert
+    assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+  }
+
+  @Test
+  void testGetStockLevel_InvalidId() {
+    // Act
+    Response response = warehouseResource.getStockLevel("INVALID-ID");
+
+    // Assert
+    assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    verifyNoInteractions(stockLedger);
   }
 
   @Test
@@ -394,6 +1062,23 @@ class WarehouseResourceImplTest {
     assertFalse(response.isArchived());
   }
 
+  @Test
+  void testToApiResponse_ViewConversion() {
+    // Act
+    WarehouseResponse response = warehouseResource.toApiResponse(WarehouseView.from(sampleWarehouse));
+
+    // Assert
+    assertNotNull(response);
+    assertEquals("1", response.getId());
+    assertEquals("BU-001", response.getBusinessUnitCode());
+    assertEquals("LOC-001", response.getLocationIdentifier());
+    assertEquals(1000, response.getCapacity());
+    assertEquals(500, response.getStock());
+    assertEquals("Warehouse BU-001 - LOC-001", response.getName());
+    assertTrue(response.isActive());
+    assertFalse(response.isArchived());
+  }
+
   @Test
   void testValidateWarehouseRequest_Valid() {
     // Should not throw exception
@@ -466,6 +1151,16 @@ class WarehouseResourceImplTest {
     assertEquals("Invalid warehouse ID format", exception.getMessage());
   }
 
+  @Test
+  void testValidateWarehouseId_PrefixWithoutUuid() {
+    // Act & Assert
+    IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> warehouseResource.validateWarehouseId("WH-001")
+    );
+    assertEquals("Invalid warehouse ID format", exception.getMessage());
+  }
+
   @Test
   void testGenerateWarehouseId() {
     // Act
@@ -475,6 +1170,7 @@ class WarehouseResourceImplTest {
     assertNotNull(generatedId);
     assertTrue(generatedId.startsWith("WH-"));
     assertEquals(36 + 3, generatedId.length()); // "WH-" + UUID length
+    assertEquals(7, java.util.UUID.fromString(generatedId.substring(3)).version());
   }
 
   @Test
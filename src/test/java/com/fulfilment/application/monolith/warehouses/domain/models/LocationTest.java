@@ -240,6 +240,24 @@ class LocationTest {
         assertEquals(Integer.MAX_VALUE, location.getMaxCapacity());
     }
 
+    @Test
+    void shouldUseExplicitTotalCapacityLimit() {
+        Location location = new Location("LOC-001", 5, 100, 300);
+
+        assertEquals(300, location.totalCapacityLimit());
+    }
+
+    @Test
+    void shouldDeriveTotalCapacityLimitWhenNotGiven() {
+        assertEquals(500, new Location("LOC-001", 5, 100).totalCapacityLimit());
+        assertEquals(Integer.MAX_VALUE, Location.builder()
+                .identification("LOC-002")
+                .maxNumberOfWarehouses(Integer.MAX_VALUE)
+                .maxCapacity(Integer.MAX_VALUE)
+                .build()
+                .totalCapacityLimit());
+    }
+
     @Test
     void shouldBeUsableInCollections() {
         // Arrange
@@ -0,0 +1,91 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseIdentifiersTest {
+
+    @Test
+    void next_IsPrefixedVersion7Uuid() {
+        String identifier = WarehouseIdentifiers.next();
+
+        assertTrue(identifier.startsWith("WH-"));
+        UUID uuid = WarehouseIdentifiers.toUuid(identifier);
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void nextUuid_CarriesMillisecondTimestampInLeadingBits() {
+        long millis = 1_717_000_000_000L;
+
+        UUID uuid = WarehouseIdentifiers.nextUuid(millis);
+
+        // Identifiers handed out earlier in the test run may already be ahead of this timestamp
+        assertTrue((uuid.getMostSignificantBits() >>> 16) >= millis);
+    }
+
+    @Test
+    void nextUuid_IsStrictlyIncreasing_EvenWithinOneMillisecond() {
+        long millis = System.currentTimeMillis();
+        List<UUID> generated = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            generated.add(WarehouseIdentifiers.nextUuid(millis));
+        }
+
+        for (int i = 1; i < generated.size(); i++) {
+            // Unsigned comparison of the leading 64 bits is the index order of a native uuid column
+            assertTrue(Long.compareUnsigned(generated.get(i - 1).getMostSignificantBits(),
+                    generated.get(i).getMostSignificantBits()) < 0);
+        }
+    }
+
+    @Test
+    void toUuid_RoundTripsThroughFromUuid() {
+        UUID uuid = UUID.fromString("018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10");
+
+        assertEquals(uuid, WarehouseIdentifiers.toUuid(WarehouseIdentifiers.fromUuid(uuid)));
+        assertEquals("WH-018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10", WarehouseIdentifiers.fromUuid(uuid));
+    }
+
+    @Test
+    void canonical_LowerCasesHexDigits() {
+        assertEquals("WH-018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10",
+                WarehouseIdentifiers.canonical("WH-018F3A6E-7C4B-7D2A-9E31-5B6C7D8E9F10"));
+        assertThrows(IllegalArgumentException.class, () -> WarehouseIdentifiers.canonical("WH-001"));
+    }
+
+    @Test
+    void isValid_AcceptsOnlyPrefixedCanonicalUuids() {
+        assertTrue(WarehouseIdentifiers.isValid("WH-018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10"));
+        assertFalse(WarehouseIdentifiers.isValid("018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10"));
+        assertFalse(WarehouseIdentifiers.isValid("WH-001"));
+        assertFalse(WarehouseIdentifiers.isValid("WH-1-2-3-4-5"));
+        assertFalse(WarehouseIdentifiers.isValid("WH-018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9fzz"));
+        assertFalse(WarehouseIdentifiers.isValid(null));
+    }
+
+    @Test
+    void toUuid_RejectsMalformedIdentifier() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> WarehouseIdentifiers.toUuid("WH-001"));
+
+        assertEquals("Invalid warehouse identifier: WH-001", exception.getMessage());
+    }
+
+    @Test
+    void converter_StoresUuidWithoutPrefix() {
+        WarehouseIdentifierConverter converter = new WarehouseIdentifierConverter();
+        UUID uuid = UUID.fromString("018f3a6e-7c4b-7d2a-9e31-5b6c7d8e9f10");
+
+        assertEquals(uuid, converter.convertToDatabaseColumn("WH-" + uuid));
+        assertEquals("WH-" + uuid, converter.convertToEntityAttribute(uuid));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
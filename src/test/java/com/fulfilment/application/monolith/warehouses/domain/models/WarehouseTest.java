@@ -144,4 +144,31 @@ class WarehouseAndLocationIntegrationTest {
         assertNotEquals(warehouse1.getIdentifier(), warehouse2.getIdentifier());
         assertNotEquals(warehouse1.getBusinessUnitCode(), warehouse2.getBusinessUnitCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldBuildReplacementWithoutName() {
+        // Act
+        Warehouse replacement = Warehouse.builder()
+                .identifier("WH-001")
+                .businessUnitCode("BU-001")
+                .locationIdentifier("LOC-001")
+                .capacity(100)
+                .currentStock(50)
+                .buildReplacement();
+
+        // Assert
+        assertNull(replacement.getName());
+        assertEquals("WH-001", replacement.getIdentifier());
+        assertThrows(IllegalArgumentException.class, () -> replacement.toBuilder().build());
+    }
+
+    @Test
+    void shouldRequireIdentifierForReplacement() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Warehouse.builder()
+                .businessUnitCode("BU-001")
+                .locationIdentifier("LOC-001")
+                .capacity(100)
+                .buildReplacement());
+    }
+}
@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseViewTest {
+
+    @Test
+    void constructor_ExposesProjectedColumns() {
+        LocalDateTime created = LocalDateTime.of(2024, 7, 1, 10, 0);
+
+        WarehouseView view = new WarehouseView(7L, "WH-007", "Warehouse BU-007 - ZWOLLE-001", "BU-007",
+                "ZWOLLE-001", 40, 12, true, false, created, 4L);
+
+        assertEquals(7L, view.getId());
+        assertEquals("WH-007", view.getIdentifier());
+        assertEquals("Warehouse BU-007 - ZWOLLE-001", view.getName());
+        assertEquals("BU-007", view.getBusinessUnitCode());
+        assertEquals("ZWOLLE-001", view.getLocationIdentifier());
+        assertEquals(40, view.getCapacity());
+        assertEquals(12, view.getCurrentStock());
+        assertTrue(view.isActive());
+        assertFalse(view.isArchived());
+        assertEquals(created, view.getCreationDate());
+        assertEquals(4L, view.getVersion());
+    }
+
+    @Test
+    void from_CopiesEntityState() {
+        Warehouse warehouse = Warehouse.builder()
+                .id(3L)
+                .identifier("WH-003")
+                .name("Tilburg")
+                .businessUnitCode("MWH.023")
+                .locationIdentifier("TILBURG-001")
+                .capacity(30)
+                .currentStock(27)
+                .active(true)
+                .archived(false)
+                .build();
+
+        WarehouseView view = WarehouseView.from(warehouse);
+
+        assertEquals(warehouse.getId(), view.getId());
+        assertEquals(warehouse.getIdentifier(), view.getIdentifier());
+        assertEquals(warehouse.getName(), view.getName());
+        assertEquals(warehouse.getBusinessUnitCode(), view.getBusinessUnitCode());
+        assertEquals(warehouse.getLocationIdentifier(), view.getLocationIdentifier());
+        assertEquals(warehouse.getCapacity(), view.getCapacity());
+        assertEquals(warehouse.getCurrentStock(), view.getCurrentStock());
+        assertEquals(warehouse.isActive(), view.isActive());
+        assertEquals(warehouse.isArchived(), view.isArchived());
+        assertEquals(warehouse.creationDate, view.getCreationDate());
+        assertEquals(warehouse.getVersion(), view.getVersion());
+    }
+
+    @Test
+    void from_IsDetachedFromLaterEntityChanges() {
+        Warehouse warehouse = Warehouse.builder()
+                .name("Amsterdam")
+                .businessUnitCode("MWH.012")
+                .locationIdentifier("AMSTERDAM-001")
+                .capacity(50)
+                .currentStock(5)
+                .build();
+
+        WarehouseView view = WarehouseView.from(warehouse);
+        warehouse.setCurrentStock(50);
+
+        assertEquals(5, view.getCurrentStock());
+    }
+}
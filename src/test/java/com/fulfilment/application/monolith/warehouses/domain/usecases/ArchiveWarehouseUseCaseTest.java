@@ -1,10 +1,17 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -18,22 +25,22 @@ class ArchiveWarehouseUseCaseTest {
     @Mock
     private WarehouseStore warehouseStore;
 
+    @Mock
+    private LocationStatsStore locationStatsStore;
+
+    @Mock
+    private StockLedger stockLedger;
+
     private ArchiveWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
-        useCase = new ArchiveWarehouseUseCase(warehouseStore);
+        useCase = new ArchiveWarehouseUseCase(warehouseStore, locationStatsStore, stockLedger);
     }
 
     // Helper methods
-    private Warehouse paramWarehouse(String identifier) {
-        Warehouse warehouse = new Warehouse();
-        warehouse.setIdentifier(identifier);
-        return warehouse;
-    }
-
-    private Warehouse storedWarehouse(String identifier, int currentStock, boolean active, boolean archived) {
-        return Warehouse.builder()
+    private WarehouseView storedWarehouse(String identifier, int currentStock, boolean active, boolean archived) {
+        return WarehouseView.from(Warehouse.builder()
                 .identifier(identifier)
                 .name("Warehouse " + identifier)
                 .businessUnitCode("BU-" + identifier)
@@ -42,184 +49,154 @@ class ArchiveWarehouseUseCaseTest {
                 .currentStock(currentStock)
                 .active(active)
                 .archived(archived)
-                .build();
+                .build());
     }
 
     @Test
-    void archive_Success_WhenConditionsMet() {
+    void archive_Success_WhenConditionalUpdateMatches() {
         // Given
         String id = "WH-001";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 0, true, false);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
+        WarehouseView archived = storedWarehouse(id, 0, true, false);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(archived);
 
         // When
-        useCase.archive(param);
+        useCase.archive(id);
 
         // Then
-        verify(warehouseStore).findByIdentifier(id);
-        verify(warehouseStore).update(argThat(w -> w.isArchived() && !w.isActive()));
+        verify(warehouseStore).archiveIfEmpty(id);
+        // The aggregates get the state the archive changed, not a second read
+        verify(locationStatsStore).recordArchived(archived);
+        // The common case never loads the warehouse
+        verify(warehouseStore, never()).findByIdentifier(anyString());
+        verify(warehouseStore, never()).findViewByIdentifier(anyString());
+        verify(warehouseStore, never()).update(any());
+    }
+
+    @Test
+    void archive_ShouldRecordStatsAfterUpdating() {
+        // Given
+        String id = "WH-001";
+        WarehouseView archived = storedWarehouse(id, 0, true, false);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(archived);
+
+        // When
+        useCase.archive(id);
+
+        // Then: warehouse row first, location aggregates second, like every other writer
+        InOrder inOrder = inOrder(locationStatsStore, warehouseStore);
+        inOrder.verify(warehouseStore).archiveIfEmpty(id);
+        inOrder.verify(locationStatsStore).recordArchived(archived);
     }
 
     @Test
     void archive_ThrowsException_WhenWarehouseNotFound() {
         // Given
         String id = "NON_EXISTENT";
-        Warehouse param = paramWarehouse(id);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(null);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(null);
 
         // When & Then
-        assertThrows(IllegalArgumentException.class, () -> useCase.archive(param),
-                "Warehouse not found: " + id);
+        WarehouseNotFoundException exception = assertThrows(WarehouseNotFoundException.class,
+                () -> useCase.archive(id));
 
-        verify(warehouseStore, never()).update(any());
+        assertEquals("Warehouse not found: " + id, exception.getMessage());
+        assertEquals(id, exception.getIdentifier());
+        verify(locationStatsStore, never()).recordArchived(any());
     }
 
     @Test
     void archive_ThrowsException_WhenWarehouseHasStock() {
         // Given
         String id = "WH-002";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 100, true, false);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(storedWarehouse(id, 100, true, false));
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
-                () -> useCase.archive(param));
+                () -> useCase.archive(id));
 
         assertTrue(exception.getMessage().contains("Cannot archive warehouse with existing stock"));
         assertTrue(exception.getMessage().contains("Current stock: 100"));
-        verify(warehouseStore, never()).update(any());
+    }
+
+    @Test
+    void archive_ThrowsException_WhenWarehouseHasPendingStockMovements() {
+        // Given
+        String id = "WH-006";
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(storedWarehouse(id, 0, true, false));
+        when(stockLedger.stockLevel(id)).thenReturn(new StockLevel(id, 0, 5, 2, 100, true));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.archive(id));
+
+        assertEquals("Cannot archive warehouse with pending stock movements. Pending movements: 2",
+                exception.getMessage());
     }
 
     @Test
     void archive_ThrowsException_WhenWarehouseAlreadyArchived() {
         // Given
         String id = "WH-003";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 0, false, true);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(storedWarehouse(id, 0, false, true));
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
-                () -> useCase.archive(param));
+                () -> useCase.archive(id));
 
         assertEquals("Warehouse is already archived: " + id, exception.getMessage());
-        verify(warehouseStore, never()).update(any());
     }
 
     @Test
     void archive_ThrowsException_WhenInactiveWarehouseHasStock() {
         // Given
         String id = "WH-004";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 50, false, false);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(storedWarehouse(id, 50, false, false));
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
-                () -> useCase.archive(param));
+                () -> useCase.archive(id));
 
         assertTrue(exception.getMessage().contains("Cannot archive warehouse with existing stock"));
-        verify(warehouseStore, never()).update(any());
     }
 
     @Test
-    void archive_Success_WhenInactiveWithNoStock() {
+    void archive_ThrowsRetryableException_WhenRowChangedAfterConditionalUpdate() {
         // Given
         String id = "WH-005";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 0, false, false);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(storedWarehouse(id, 0, true, false));
 
-        // When
-        useCase.archive(param);
+        // When & Then: the exception the optimistic lock retry runs the archive again for
+        ConcurrentWarehouseUpdateException exception = assertThrows(ConcurrentWarehouseUpdateException.class,
+                () -> useCase.archive(id));
 
-        // Then
-        verify(warehouseStore).update(argThat(w -> w.isArchived() && !w.isActive()));
+        assertEquals("Warehouse was modified concurrently, please retry: " + id, exception.getMessage());
     }
 
     @Test
     void archive_HandlesNullIdentifier() {
         // Given
-        Warehouse param = paramWarehouse(null);
-
-        when(warehouseStore.findByIdentifier(isNull())).thenReturn(null);
+        when(warehouseStore.archiveIfEmpty(isNull())).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(isNull())).thenReturn(null);
 
         // When & Then
-        assertThrows(IllegalArgumentException.class, () -> useCase.archive(param),
+        assertThrows(IllegalArgumentException.class, () -> useCase.archive(null),
                 "Warehouse not found: null");
-
-        verify(warehouseStore, never()).update(any());
     }
 
     @Test
     void archive_HandlesEmptyIdentifier() {
         // Given
         String id = "";
-        Warehouse param = paramWarehouse(id);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(null);
+        when(warehouseStore.archiveIfEmpty(id)).thenReturn(null);
+        when(warehouseStore.findViewByIdentifier(id)).thenReturn(null);
 
         // When & Then
-        assertThrows(IllegalArgumentException.class, () -> useCase.archive(param),
+        assertThrows(IllegalArgumentException.class, () -> useCase.archive(id),
                 "Warehouse not found: ");
-
-        verify(warehouseStore, never()).update(any());
-    }
-
-    @Test
-    void archive_OnlyUpdatesFlags_NotOtherProperties() {
-        // Given
-        String id = "WH-009";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = storedWarehouse(id, 0, true, false);
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
-
-        // When
-        useCase.archive(param);
-
-        // Then
-        assertTrue(stored.isArchived());
-        assertFalse(stored.isActive());
-        assertEquals("Warehouse " + id, stored.getName());
-        assertEquals("BU-" + id, stored.getBusinessUnitCode());
-        assertEquals("LOC-" + id, stored.getLocationIdentifier());
-        assertEquals(1000, stored.getCapacity());
-        assertEquals(0, stored.getCurrentStock());
-
-        verify(warehouseStore).update(stored);
-    }
-
-    @Test
-    void archive_Success_WithZeroCapacity() {
-        // Given
-        String id = "WH-010";
-        Warehouse param = paramWarehouse(id);
-        Warehouse stored = Warehouse.builder()
-                .identifier(id)
-                .name("Zero Capacity")
-                .businessUnitCode("BU10")
-                .locationIdentifier("LOC10")
-                .capacity(0)
-                .currentStock(0)
-                .active(true)
-                .archived(false)
-                .build();
-
-        when(warehouseStore.findByIdentifier(id)).thenReturn(stored);
-
-        // When
-        useCase.archive(param);
-
-        // Then
-        verify(warehouseStore).update(argThat(w -> w.isArchived() && !w.isActive()));
     }
-}
\ No newline at end of file
+}
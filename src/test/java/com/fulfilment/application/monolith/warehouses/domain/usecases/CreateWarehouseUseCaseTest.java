@@ -2,13 +2,23 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUsage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
 import com.fulfilment.application.monolith.warehouses.domain.ports.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -19,14 +29,15 @@ class CreateWarehouseUseCaseTest {
     @Mock private WarehouseStore warehouseStore;
     @Mock private LocationResolver locationResolver;
     @Mock private BusinessUnitValidator businessUnitValidator;
-    @Mock private WarehouseCapacityValidator capacityValidator;
+    @Mock private LocationStatsStore locationStatsStore;
+    @Mock private LocationAdmission locationAdmission;
 
     private CreateWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver,
-                businessUnitValidator, capacityValidator);
+                businessUnitValidator, locationStatsStore, locationAdmission);
     }
 
     private Warehouse validWarehouse() {
@@ -40,18 +51,18 @@ class CreateWarehouseUseCaseTest {
     }
 
     private Location validLocation() {
-        Location location = new Location();
-        location.setMaxCapacity(2000);
-        return location;
+        return new Location("LOC001", 5, 2000, 5000);
+    }
+
+    private WarehouseMutationFacts factsWithCount(int activeWarehouses) {
+        return new WarehouseMutationFacts(null, false, activeWarehouses, 0L, 0L);
     }
 
     // Helper to mock all successful validations except one
     private void mockAllValidationsExcept(Runnable exceptionSetup) {
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(2);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 2)).thenReturn(true);
-        when(capacityValidator.hasSufficientCapacity("LOC001", 1000)).thenReturn(true);
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(2));
 
         if (exceptionSetup != null) {
             exceptionSetup.run();
@@ -71,6 +82,56 @@ class CreateWarehouseUseCaseTest {
         assertTrue(warehouse.isActive());
         assertFalse(warehouse.isArchived());
         verify(warehouseStore).create(warehouse);
+        verify(locationStatsStore).recordCreated(warehouse);
+        verify(businessUnitValidator).recordBusinessUnitCode(warehouse.getBusinessUnitCode());
+    }
+
+    @Test
+    void create_AdmitsLocationBeforeReadingCounts() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+        mockAllValidationsExcept(null);
+
+        // When
+        useCase.create(warehouse);
+
+        // Then
+        InOrder inOrder = inOrder(locationAdmission, warehouseStore);
+        inOrder.verify(locationAdmission).admit(Set.of("LOC001"));
+        inOrder.verify(warehouseStore).loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean());
+        inOrder.verify(warehouseStore).create(warehouse);
+    }
+
+    @Test
+    void create_ChecksEveryLimitAgainstOneResolvedLocation() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+        mockAllValidationsExcept(null);
+
+        // When
+        useCase.create(warehouse);
+
+        // Then
+        verify(locationResolver, times(1)).resolveByIdentifier("LOC001");
+        verify(warehouseStore).create(warehouse);
+    }
+
+    @Test
+    void create_ThrowsException_WhenLocationIsBusy() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        doThrow(new IllegalStateException("Location is busy, try again later: LOC001"))
+                .when(locationAdmission).admit(Set.of("LOC001"));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.create(warehouse));
+
+        assertTrue(exception.getMessage().contains("Location is busy"));
+        verify(warehouseStore, never()).loadMutationFacts(any(), any(), any(), anyBoolean());
+        verify(warehouseStore, never()).create(any());
     }
 
     @Test
@@ -88,6 +149,46 @@ class CreateWarehouseUseCaseTest {
         verify(warehouseStore, never()).create(any());
     }
 
+    @Test
+    void create_ThrowsException_WhenBusinessUnitTakenByStoredWarehouse() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
+        when(businessUnitValidator.mightBeInUse("BU001")).thenReturn(true);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), eq(true)))
+                .thenReturn(new WarehouseMutationFacts(null, true, 2, 0L, 0L));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.create(warehouse));
+
+        assertTrue(exception.getMessage().contains("Business unit code already exists"));
+        verify(businessUnitValidator).recordLookup(true);
+        verify(warehouseStore, never()).create(any());
+    }
+
+    @Test
+    void create_SkipsBusinessUnitLookup_WhenFilterHasNeverSeenTheCode() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
+        when(businessUnitValidator.mightBeInUse("BU001")).thenReturn(false);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), eq(false)))
+                .thenReturn(factsWithCount(2));
+
+        // When
+        useCase.create(warehouse);
+
+        // Then
+        verify(warehouseStore, never()).loadMutationFacts(any(), any(), any(), eq(true));
+        verify(businessUnitValidator, never()).recordLookup(anyBoolean());
+        verify(warehouseStore).create(warehouse);
+    }
+
     @Test
     void create_ThrowsException_WhenLocationInvalid() {
         // Given
@@ -101,6 +202,7 @@ class CreateWarehouseUseCaseTest {
                 () -> useCase.create(warehouse));
 
         assertTrue(exception.getMessage().contains("Invalid location identifier"));
+        verify(locationAdmission, never()).admit(any());
         verify(warehouseStore, never()).create(any());
     }
 
@@ -111,8 +213,7 @@ class CreateWarehouseUseCaseTest {
 
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(5);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 5)).thenReturn(false);
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(5));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -131,8 +232,7 @@ class CreateWarehouseUseCaseTest {
 
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(location);
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(2);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 2)).thenReturn(true);
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(2));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -150,8 +250,7 @@ class CreateWarehouseUseCaseTest {
 
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(2);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 2)).thenReturn(true);
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(2));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -166,11 +265,27 @@ class CreateWarehouseUseCaseTest {
         // Given
         Warehouse warehouse = validWarehouse();
 
+        when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(new Location("LOC001", 5, 2000, 999));
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(2));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.create(warehouse));
+
+        assertTrue(exception.getMessage().contains("Insufficient capacity at location"));
+        verify(warehouseStore, never()).create(any());
+    }
+
+    @Test
+    void create_ThrowsException_WhenStoredCapacityLeavesNoRoom() {
+        // Given
+        Warehouse warehouse = validWarehouse();
+
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(2);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 2)).thenReturn(true);
-        when(capacityValidator.hasSufficientCapacity("LOC001", 1000)).thenReturn(false);
+        when(warehouseStore.loadMutationFacts(any(), eq("BU001"), eq("LOC001"), anyBoolean()))
+                .thenReturn(new WarehouseMutationFacts(null, false, 2, 4500L, 0L));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -180,6 +295,25 @@ class CreateWarehouseUseCaseTest {
         verify(warehouseStore, never()).create(any());
     }
 
+    @Test
+    void createAll_CountsStoredAndEarlierBatchCapacity() {
+        // Given
+        Warehouse first = batchWarehouse("BU101", 1000);
+        Warehouse second = batchWarehouse("BU102", 1000);
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique(anyString())).thenReturn(true);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        stubUsage(1, 3500L);
+
+        // When
+        List<WarehouseCreationResult> results = useCase.createAll(Arrays.asList(first, second));
+
+        // Then
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Insufficient capacity at location for new warehouse", results.get(1).getError());
+        verify(warehouseStore).createAll(Collections.singletonList(first));
+    }
+
     @Test
     void create_Success_WhenWarehouseHasStockWithinCapacity() {
         // Given
@@ -219,9 +353,7 @@ class CreateWarehouseUseCaseTest {
 
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU001")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(location);
-        when(warehouseStore.countWarehousesAtLocation("LOC001")).thenReturn(1);
-        when(capacityValidator.canCreateWarehouseAtLocation("LOC001", 1)).thenReturn(true);
-        when(capacityValidator.hasSufficientCapacity("LOC001", 2000)).thenReturn(true);
+        when(warehouseStore.loadMutationFacts(any(), anyString(), eq("LOC001"), anyBoolean())).thenReturn(factsWithCount(1));
 
         // When
         useCase.create(warehouse);
@@ -229,4 +361,114 @@ class CreateWarehouseUseCaseTest {
         // Then
         verify(warehouseStore).create(warehouse);
     }
-}
\ No newline at end of file
+
+    private void stubUsage(int activeWarehouses, long totalCapacity) {
+        when(locationStatsStore.findUsage(Set.of("LOC001")))
+                .thenReturn(Map.of("LOC001", new LocationUsage("LOC001", activeWarehouses, totalCapacity)));
+    }
+
+    private Warehouse batchWarehouse(String businessUnitCode, int capacity) {
+        return Warehouse.builder()
+                .name("Warehouse " + businessUnitCode)
+                .businessUnitCode(businessUnitCode)
+                .locationIdentifier("LOC001")
+                .capacity(capacity)
+                .currentStock(0)
+                .build();
+    }
+
+    @Test
+    void createAll_CountsEarlierBatchItemsAgainstLocationLimits() {
+        // Given
+        Warehouse first = batchWarehouse("BU101", 300);
+        Warehouse second = batchWarehouse("BU102", 300);
+        Warehouse third = batchWarehouse("BU103", 300);
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique(anyString())).thenReturn(true);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(new Location("LOC001", 3, 2000, 5000));
+        stubUsage(1, 0L);
+
+        // When
+        List<WarehouseCreationResult> results = useCase.createAll(Arrays.asList(first, second, third));
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertTrue(results.get(1).isCreated());
+        assertFalse(results.get(2).isCreated());
+        assertTrue(results.get(2).getError().contains("Maximum number of warehouses reached"));
+        verify(warehouseStore).createAll(Arrays.asList(first, second));
+        verify(locationStatsStore).recordCreatedAll(Arrays.asList(first, second));
+        verify(businessUnitValidator).recordBusinessUnitCode(first.getBusinessUnitCode());
+        verify(businessUnitValidator).recordBusinessUnitCode(second.getBusinessUnitCode());
+        verify(businessUnitValidator, never()).recordBusinessUnitCode(third.getBusinessUnitCode());
+        verify(warehouseStore, never()).create(any());
+        // The shared location is resolved and admitted once, for the whole batch
+        verify(locationResolver, times(1)).resolveByIdentifier("LOC001");
+        verify(locationAdmission, times(1)).admit(Set.of("LOC001"));
+        // Its aggregates are read once too, never item by item
+        verify(locationStatsStore, times(1)).findUsage(Set.of("LOC001"));
+        verify(warehouseStore, never()).loadMutationFacts(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void createAll_RejectsBusinessUnitRepeatedWithinBatch() {
+        // Given
+        Warehouse first = batchWarehouse("BU101", 100);
+        Warehouse duplicate = batchWarehouse("BU101", 100);
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique("BU101")).thenReturn(true);
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        stubUsage(0, 0L);
+
+        // When
+        List<WarehouseCreationResult> results = useCase.createAll(Arrays.asList(first, duplicate));
+
+        // Then
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Business unit code is repeated in batch: BU101", results.get(1).getError());
+        verify(warehouseStore).createAll(Collections.singletonList(first));
+    }
+
+    @Test
+    void createAll_LooksUpEveryCandidateBusinessUnitCodeInOneCall() {
+        // Given
+        Warehouse first = batchWarehouse("BU101", 100);
+        Warehouse taken = batchWarehouse("BU102", 100);
+        Warehouse unseen = batchWarehouse("BU103", 100);
+
+        when(businessUnitValidator.isBusinessUnitCodeUnique(anyString())).thenReturn(true);
+        when(businessUnitValidator.mightBeInUse("BU101")).thenReturn(true);
+        when(businessUnitValidator.mightBeInUse("BU102")).thenReturn(true);
+        when(businessUnitValidator.mightBeInUse("BU103")).thenReturn(false);
+        when(warehouseStore.findActiveBusinessUnitCodes(Set.of("BU101", "BU102"))).thenReturn(Set.of("BU102"));
+        when(locationResolver.resolveByIdentifier("LOC001")).thenReturn(validLocation());
+        stubUsage(0, 0L);
+
+        // When
+        List<WarehouseCreationResult> results = useCase.createAll(Arrays.asList(first, taken, unseen));
+
+        // Then
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Business unit code already exists: BU102", results.get(1).getError());
+        assertTrue(results.get(2).isCreated());
+        verify(warehouseStore, times(1)).findActiveBusinessUnitCodes(any());
+        verify(businessUnitValidator).recordLookup(true);
+        verify(businessUnitValidator).recordLookup(false);
+        verify(warehouseStore).createAll(Arrays.asList(first, unseen));
+    }
+
+    @Test
+    void createAll_WritesNothingWhenEveryItemIsRejected() {
+        // Given
+        when(businessUnitValidator.isBusinessUnitCodeUnique("BU101")).thenReturn(false);
+
+        // When
+        List<WarehouseCreationResult> results = useCase.createAll(Collections.singletonList(batchWarehouse("BU101", 100)));
+
+        // Then
+        assertFalse(results.get(0).isCreated());
+        verify(warehouseStore, never()).createAll(any());
+        verify(locationStatsStore, never()).recordCreatedAll(any());
+    }
+}
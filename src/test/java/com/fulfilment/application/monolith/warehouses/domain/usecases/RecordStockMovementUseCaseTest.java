@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockMovement;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecordStockMovementUseCaseTest {
+
+    private static final String ID = "WH-001";
+
+    @Mock
+    private WarehouseStore warehouseStore;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    private RecordStockMovementUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new RecordStockMovementUseCase(warehouseStore, stockLedger);
+    }
+
+    // Helper methods
+    private WarehouseView storedWarehouse(int capacity, int stock, boolean active) {
+        return WarehouseView.from(Warehouse.builder()
+                .id(1L)
+                .identifier(ID)
+                .name("Warehouse " + ID)
+                .businessUnitCode("BU-" + ID)
+                .locationIdentifier("ZWOLLE-001")
+                .capacity(capacity)
+                .currentStock(stock)
+                .active(active)
+                .archived(!active)
+                .build());
+    }
+
+    @Test
+    void record_Success_AppendsWithoutTouchingWarehouse() {
+        // Given
+        WarehouseView warehouse = storedWarehouse(100, 10, true);
+        StockMovement appended = new StockMovement(7L, ID, -25, "damaged", Instant.now());
+        when(warehouseStore.findViewByIdentifier(ID)).thenReturn(warehouse);
+        when(stockLedger.append(warehouse, -25, "damaged")).thenReturn(appended);
+
+        // When
+        StockMovement movement = useCase.record(ID, -25, "damaged");
+
+        // Then
+        assertSame(appended, movement);
+        // The warehouse row is never written; the compactor folds the movement in later
+        verify(warehouseStore, never()).adjustStock(anyString(), anyInt());
+        verify(warehouseStore, never()).addToStock(anyString(), anyInt());
+    }
+
+    @Test
+    void record_AppendsWithoutCheckingStock_WhenMovementWouldLeaveBounds() {
+        // Given: the compactor, not the append, enforces the stock bounds
+        WarehouseView warehouse = storedWarehouse(100, 10, true);
+        StockMovement appended = new StockMovement(8L, ID, -60, "picking", Instant.now());
+        when(warehouseStore.findViewByIdentifier(ID)).thenReturn(warehouse);
+        when(stockLedger.append(warehouse, -60, "picking")).thenReturn(appended);
+
+        // When
+        StockMovement movement = useCase.record(ID, -60, "picking");
+
+        // Then
+        assertSame(appended, movement);
+        verify(stockLedger, never()).stockLevel(anyString());
+    }
+
+    @Test
+    void record_ThrowsException_WhenDeltaIsZero() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.record(ID, 0, "recount"));
+
+        assertEquals("Stock movement delta cannot be zero", exception.getMessage());
+        verifyNoInteractions(warehouseStore, stockLedger);
+    }
+
+    @Test
+    void record_ThrowsException_WhenReasonIsBlank() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.record(ID, 5, "  "));
+
+        assertEquals("Stock movement reason is required", exception.getMessage());
+        verifyNoInteractions(warehouseStore, stockLedger);
+    }
+
+    @Test
+    void record_ThrowsException_WhenReasonIsTooLong() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.record(ID, 5, "x".repeat(RecordStockMovementUseCase.MAX_REASON_LENGTH + 1)));
+
+        assertEquals("Stock movement reason cannot exceed 100 characters", exception.getMessage());
+        verifyNoInteractions(warehouseStore, stockLedger);
+    }
+
+    @Test
+    void record_ThrowsException_WhenDeltaExceedsCapacity() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(ID)).thenReturn(storedWarehouse(100, 10, true));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.record(ID, -101, "recount"));
+
+        assertEquals("Stock movement delta exceeds warehouse capacity. Capacity: 100, Delta: -101",
+                exception.getMessage());
+        verify(stockLedger, never()).append(any(), anyInt(), anyString());
+    }
+
+    @Test
+    void record_ThrowsException_WhenWarehouseNotFound() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(ID)).thenReturn(null);
+
+        // When & Then
+        WarehouseNotFoundException exception = assertThrows(WarehouseNotFoundException.class,
+                () -> useCase.record(ID, 5, "receiving"));
+
+        assertEquals(ID, exception.getIdentifier());
+        verifyNoInteractions(stockLedger);
+    }
+
+    @Test
+    void record_ThrowsException_WhenWarehouseIsArchived() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(ID)).thenReturn(storedWarehouse(100, 0, false));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.record(ID, 5, "receiving"));
+
+        assertEquals("Warehouse is not active: " + ID, exception.getMessage());
+        verify(stockLedger, never()).append(any(), anyInt(), anyString());
+    }
+}
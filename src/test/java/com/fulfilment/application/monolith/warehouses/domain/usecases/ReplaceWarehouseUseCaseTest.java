@@ -1,7 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutationFacts;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseVersionMismatchException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
 import com.fulfilment.application.monolith.warehouses.domain.ports.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,14 +31,14 @@ class ReplaceWarehouseUseCaseTest {
     private BusinessUnitValidator businessUnitValidator;
 
     @Mock
-    private WarehouseCapacityValidator capacityValidator;
+    private LocationStatsStore locationStatsStore;
 
     private ReplaceWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         useCase = new ReplaceWarehouseUseCase(
-                warehouseStore, locationResolver, businessUnitValidator, capacityValidator);
+                warehouseStore, locationResolver, businessUnitValidator, locationStatsStore);
     }
 
     // Helper method to create a valid warehouse
@@ -53,6 +58,11 @@ class ReplaceWarehouseUseCaseTest {
                 .build();
     }
 
+    // Helper method to wrap the stored warehouse (or its absence) in the facts the store returns
+    private WarehouseMutationFacts factsFor(Warehouse existing) {
+        return new WarehouseMutationFacts(existing != null ? WarehouseView.from(existing) : null, false, 0, 0L, 0L);
+    }
+
     // Helper method to create a location
     private Location createLocation(int maxCapacity) {
         Location location = new Location();
@@ -72,8 +82,9 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
@@ -82,7 +93,148 @@ class ReplaceWarehouseUseCaseTest {
         assertEquals(1L, newWarehouse.getId());
         assertTrue(newWarehouse.isActive());
         assertFalse(newWarehouse.isArchived());
-        verify(warehouseStore).update(newWarehouse);
+        verify(locationStatsStore).recordReplaced(argThat(previous -> previous.getId().equals(1L)),
+                argThat(replacement -> replacement.getCapacity() == newWarehouse.getCapacity()
+                        && replacement.getCurrentStock() == newWarehouse.getCurrentStock()));
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
+    }
+
+    @Test
+    void replace_ShouldWriteAgainstValidatedVersionAndReportTheNextOne() {
+        // Given
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+        existing.setVersion(7L);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-001", 1500, 500, false);
+
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
+        when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(createLocation(2000));
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
+
+        // When
+        useCase.replace(newWarehouse);
+
+        // Then
+        verify(warehouseStore).replaceIfStockMatches(newWarehouse, 7L);
+        assertEquals(8L, newWarehouse.getVersion());
+        assertEquals("Old Warehouse", newWarehouse.getName());
+        verify(warehouseStore, never()).update(any(Warehouse.class));
+    }
+
+    @Test
+    void replace_ShouldRejectStaleRequiredVersion_BeforeWriting() {
+        // Given
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+        existing.setVersion(7L);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-001", 1500, 500, false);
+        newWarehouse.setVersion(6L);
+
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
+
+        // When & Then
+        assertThrows(WarehouseVersionMismatchException.class, () -> useCase.replace(newWarehouse));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
+        verifyNoInteractions(locationStatsStore);
+    }
+
+    @Test
+    void replace_ShouldReportStockMismatch_WhenStockChangedBeforeUpdate() {
+        // Given
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+        Warehouse changed = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 450, true);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-001", 1500, 500, false);
+
+        // Validated against the first read; the refused UPDATE is explained by the second
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean()))
+                .thenReturn(factsFor(existing), factsFor(changed));
+        when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(createLocation(2000));
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(false);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.replace(newWarehouse));
+
+        assertEquals("Stock must match existing warehouse stock. Existing: 450, New: 500", exception.getMessage());
+        verify(warehouseStore).loadMutationFacts(identifier, null, null, false);
+        verifyNoInteractions(locationStatsStore);
+    }
+
+    @Test
+    void replace_ShouldCountPendingStockMovements_WhenMatchingStock() {
+        // Given: 500 compacted, but a recorded -50 is still waiting for the compactor
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-001", 1500, 500, false);
+
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean()))
+                .thenReturn(new WarehouseMutationFacts(WarehouseView.from(existing), false, 0, 0L, -50L));
+        when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(createLocation(2000));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.replace(newWarehouse));
+
+        assertEquals("Stock must match existing warehouse stock. Existing: 450, New: 500", exception.getMessage());
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
+    }
+
+    @Test
+    void replace_ShouldMoveOnlyCompactedStockBetweenLocationTotals_WhenMovementsArePending() {
+        // Given: 500 compacted plus a pending -50, replaced with the 450 the warehouse holds
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-002", 1500, 450, false);
+
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean()))
+                .thenReturn(new WarehouseMutationFacts(WarehouseView.from(existing), false, 0, 0L, -50L));
+        when(locationResolver.resolveByIdentifier("LOC-002")).thenReturn(createLocation(2000));
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
+
+        // When
+        useCase.replace(newWarehouse);
+
+        // Then: the -50 reaches the new location's totals when the compactor folds it
+        assertEquals(450, newWarehouse.getCurrentStock());
+        verify(locationStatsStore).recordReplaced(argThat(previous -> previous.getCurrentStock() == 500),
+                argThat(replacement -> replacement.getCurrentStock() == 500
+                        && "LOC-002".equals(replacement.getLocationIdentifier())));
+    }
+
+    @Test
+    void replace_ShouldReportConcurrentUpdate_WhenVersionMovedBeforeUpdate() {
+        // Given
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-001", "LOC-001", 1500, 500, false);
+
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
+        when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(createLocation(2000));
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(false);
+
+        // When & Then
+        assertThrows(ConcurrentWarehouseUpdateException.class, () -> useCase.replace(newWarehouse));
+        verifyNoInteractions(locationStatsStore);
     }
 
     @Test
@@ -92,14 +244,14 @@ class ReplaceWarehouseUseCaseTest {
         Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
                 "BU-001", "LOC-001", 1000, 0, false);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(null);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(null));
 
         // When & Then
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        WarehouseNotFoundException exception = assertThrows(WarehouseNotFoundException.class,
                 () -> useCase.replace(newWarehouse));
 
         assertEquals("Warehouse not found: " + identifier, exception.getMessage());
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -113,14 +265,14 @@ class ReplaceWarehouseUseCaseTest {
         newWarehouse.setCapacity(1000);
         newWarehouse.setCurrentStock(0);
 
-        when(warehouseStore.findByIdentifier(isNull())).thenReturn(null);
+        when(warehouseStore.loadMutationFacts(isNull(), any(), any(), anyBoolean())).thenReturn(factsFor(null));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> useCase.replace(newWarehouse));
 
         assertEquals("Warehouse not found: null", exception.getMessage());
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -135,14 +287,14 @@ class ReplaceWarehouseUseCaseTest {
         newWarehouse.setCapacity(1000);
         newWarehouse.setCurrentStock(0);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(null);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(null));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> useCase.replace(newWarehouse));
 
         assertEquals("Warehouse not found: ", exception.getMessage());
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -155,7 +307,7 @@ class ReplaceWarehouseUseCaseTest {
         Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
                 "BU-002", "LOC-001", 1500, 500, false);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU-002")).thenReturn(false);
 
         // When & Then
@@ -163,7 +315,31 @@ class ReplaceWarehouseUseCaseTest {
                 () -> useCase.replace(newWarehouse));
 
         assertTrue(exception.getMessage().contains("Business unit code already exists: BU-002"));
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
+    }
+
+    @Test
+    void replace_ShouldThrowException_WhenBusinessUnitChangedAndTakenByStoredWarehouse() {
+        // Given
+        String identifier = "WH-001";
+        Warehouse existing = createWarehouse(1L, identifier, "Old Warehouse",
+                "BU-001", "LOC-001", 1000, 500, true);
+
+        Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
+                "BU-002", "LOC-001", 1500, 500, false);
+
+        when(businessUnitValidator.mightBeInUse("BU-002")).thenReturn(true);
+        when(warehouseStore.loadMutationFacts(identifier, "BU-002", "LOC-001", true))
+                .thenReturn(new WarehouseMutationFacts(WarehouseView.from(existing), true, 1, 1000L, 0L));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.replace(newWarehouse));
+
+        assertEquals("Business unit code already exists: BU-002", exception.getMessage());
+        verify(businessUnitValidator).recordLookup(true);
+        verify(businessUnitValidator, never()).isBusinessUnitCodeUnique(anyString());
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -178,15 +354,17 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(businessUnitValidator.isBusinessUnitCodeUnique("BU-002")).thenReturn(true);
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
+        verify(businessUnitValidator).recordBusinessUnitCode("BU-002");
     }
 
     @Test
@@ -202,15 +380,16 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
         verify(businessUnitValidator, never()).isBusinessUnitCodeUnique(anyString());
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -223,7 +402,7 @@ class ReplaceWarehouseUseCaseTest {
         Warehouse newWarehouse = createWarehouse(null, identifier, "New Warehouse",
                 "BU-001", "LOC-001", 1500, 500, false);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(null);
 
         // When & Then
@@ -231,7 +410,7 @@ class ReplaceWarehouseUseCaseTest {
                 () -> useCase.replace(newWarehouse));
 
         assertTrue(exception.getMessage().contains("Invalid location identifier: LOC-001"));
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -246,7 +425,7 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000); // Max capacity is 2000
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
 
         // When & Then
@@ -254,7 +433,7 @@ class ReplaceWarehouseUseCaseTest {
                 () -> useCase.replace(newWarehouse));
 
         assertTrue(exception.getMessage().contains("Warehouse capacity exceeds maximum capacity"));
-        verify(warehouseStore, never()).update(any(Warehouse.class));
+        verify(warehouseStore, never()).replaceIfStockMatches(any(), any());
     }
 
     @Test
@@ -269,14 +448,15 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-002")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -295,8 +475,9 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
@@ -304,7 +485,7 @@ class ReplaceWarehouseUseCaseTest {
         // Then
         assertTrue(newWarehouse.isActive());
         assertFalse(newWarehouse.isArchived());
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -320,15 +501,16 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
         assertEquals(existingId, newWarehouse.getId());
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -343,14 +525,15 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -365,15 +548,16 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
         assertTrue(newWarehouse.isActive()); // Should become active
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -389,15 +573,16 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
         assertFalse(newWarehouse.isArchived()); // Should become not archived
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -412,14 +597,15 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -434,14 +620,15 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 
     @Test
@@ -455,7 +642,6 @@ class ReplaceWarehouseUseCaseTest {
                 "BU-001", "LOC-001", 1500, 500, false);
 
         // Save original values
-        String originalName = newWarehouse.getName();
         String originalBusinessUnit = newWarehouse.getBusinessUnitCode();
         String originalLocation = newWarehouse.getLocationIdentifier();
         int originalCapacity = newWarehouse.getCapacity();
@@ -463,18 +649,20 @@ class ReplaceWarehouseUseCaseTest {
 
         Location location = createLocation(2000);
 
-        when(warehouseStore.findByIdentifier(identifier)).thenReturn(existing);
+        when(warehouseStore.loadMutationFacts(eq(identifier), any(), any(), anyBoolean())).thenReturn(factsFor(existing));
         when(locationResolver.resolveByIdentifier("LOC-001")).thenReturn(location);
+        when(warehouseStore.replaceIfStockMatches(any(Warehouse.class), any())).thenReturn(true);
 
         // When
         useCase.replace(newWarehouse);
 
         // Then
-        assertEquals(originalName, newWarehouse.getName());
+        // The name is not replaceable, so the stored one is reported back
+        assertEquals("Old Warehouse", newWarehouse.getName());
         assertEquals(originalBusinessUnit, newWarehouse.getBusinessUnitCode());
         assertEquals(originalLocation, newWarehouse.getLocationIdentifier());
         assertEquals(originalCapacity, newWarehouse.getCapacity());
         assertEquals(originalStock, newWarehouse.getCurrentStock());
-        verify(warehouseStore).update(newWarehouse);
+        verify(warehouseStore).replaceIfStockMatches(eq(newWarehouse), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.ConcurrentWarehouseUpdateException;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseView;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationStatsStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferStockUseCaseTest {
+
+    private static final String SOURCE = "WH-SOURCE";
+    private static final String TARGET = "WH-TARGET";
+
+    @Mock
+    private WarehouseStore warehouseStore;
+
+    @Mock
+    private LocationStatsStore locationStatsStore;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    private TransferStockUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new TransferStockUseCase(warehouseStore, locationStatsStore, stockLedger);
+    }
+
+    // Helper methods
+    private WarehouseView storedWarehouse(long id, String identifier, String location, int capacity, int stock,
+                                          boolean active) {
+        return WarehouseView.from(Warehouse.builder()
+                .id(id)
+                .identifier(identifier)
+                .name("Warehouse " + identifier)
+                .businessUnitCode("BU-" + identifier)
+                .locationIdentifier(location)
+                .capacity(capacity)
+                .currentStock(stock)
+                .active(active)
+                .archived(!active)
+                .build());
+    }
+
+    @Test
+    void transfer_Success_LocksLowerIdFirst_WhenSourceHasLowerId() {
+        // Given
+        WarehouseView source = storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 50, true);
+        WarehouseView target = storedWarehouse(2L, TARGET, "AMSTERDAM-001", 100, 10, true);
+        WarehouseView movedSource = storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 30, true);
+        WarehouseView movedTarget = storedWarehouse(2L, TARGET, "AMSTERDAM-001", 100, 30, true);
+        when(warehouseStore.findViewByIdentifier(SOURCE)).thenReturn(source, movedSource);
+        when(warehouseStore.findViewByIdentifier(TARGET)).thenReturn(target, movedTarget);
+        when(warehouseStore.adjustStock(anyString(), anyInt())).thenReturn(true);
+
+        // When
+        StockTransfer transfer = useCase.transfer(SOURCE, TARGET, 20);
+
+        // Then
+        InOrder inOrder = inOrder(warehouseStore, locationStatsStore);
+        inOrder.verify(warehouseStore).adjustStock(SOURCE, -20);
+        inOrder.verify(warehouseStore).adjustStock(TARGET, 20);
+        inOrder.verify(locationStatsStore).recordStockMoved("ZWOLLE-001", "AMSTERDAM-001", 20);
+        assertEquals(30, transfer.getSource().getCurrentStock());
+        assertEquals(30, transfer.getTarget().getCurrentStock());
+        assertEquals(20, transfer.getQuantity());
+    }
+
+    @Test
+    void transfer_Success_LocksLowerIdFirst_WhenTargetHasLowerId() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(SOURCE))
+                .thenReturn(storedWarehouse(9L, SOURCE, "ZWOLLE-001", 100, 50, true));
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(3L, TARGET, "ZWOLLE-001", 100, 10, true));
+        when(warehouseStore.adjustStock(anyString(), anyInt())).thenReturn(true);
+
+        // When
+        useCase.transfer(SOURCE, TARGET, 20);
+
+        // Then
+        InOrder inOrder = inOrder(warehouseStore);
+        inOrder.verify(warehouseStore).adjustStock(TARGET, 20);
+        inOrder.verify(warehouseStore).adjustStock(SOURCE, -20);
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenQuantityIsNotPositive() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 0));
+
+        assertEquals("Transfer quantity must be positive", exception.getMessage());
+        verifyNoInteractions(warehouseStore, locationStatsStore);
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenSourceIsTarget() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.transfer(SOURCE, SOURCE, 5));
+
+        assertEquals("Source and target warehouse must be different", exception.getMessage());
+        verifyNoInteractions(warehouseStore, locationStatsStore);
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenWarehouseNotFound() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(SOURCE))
+                .thenReturn(storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 50, true));
+        when(warehouseStore.findViewByIdentifier(TARGET)).thenReturn(null);
+
+        // When & Then
+        WarehouseNotFoundException exception = assertThrows(WarehouseNotFoundException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 5));
+
+        assertEquals(TARGET, exception.getIdentifier());
+        verify(warehouseStore, never()).adjustStock(anyString(), anyInt());
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenSourceHasInsufficientStock() {
+        // Given
+        WarehouseView source = storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 5, true);
+        when(warehouseStore.findViewByIdentifier(SOURCE)).thenReturn(source);
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(2L, TARGET, "ZWOLLE-001", 100, 10, true));
+        when(warehouseStore.adjustStock(SOURCE, -20)).thenReturn(false);
+        when(stockLedger.stockLevel(SOURCE)).thenReturn(new StockLevel(SOURCE, 5, 0, 0, 100, true));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 20));
+
+        assertEquals("Insufficient stock in warehouse WH-SOURCE. Available: 5, Requested: 20", exception.getMessage());
+        verify(warehouseStore, never()).adjustStock(eq(TARGET), anyInt());
+        verifyNoInteractions(locationStatsStore);
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenPendingMovementsLeaveTooLittleStock() {
+        // Given: 30 compacted, but a recorded -25 is still waiting for the compactor
+        when(warehouseStore.findViewByIdentifier(SOURCE))
+                .thenReturn(storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 30, true));
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(2L, TARGET, "ZWOLLE-001", 100, 10, true));
+        when(warehouseStore.adjustStock(SOURCE, -20)).thenReturn(false);
+        when(stockLedger.stockLevel(SOURCE)).thenReturn(new StockLevel(SOURCE, 30, -25, 1, 100, true));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 20));
+
+        assertEquals("Insufficient stock in warehouse WH-SOURCE. Available: 5, Requested: 20", exception.getMessage());
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenTargetWouldExceedCapacity() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(SOURCE))
+                .thenReturn(storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 50, true));
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(2L, TARGET, "ZWOLLE-001", 25, 10, true));
+        when(warehouseStore.adjustStock(SOURCE, -20)).thenReturn(true);
+        when(warehouseStore.adjustStock(TARGET, 20)).thenReturn(false);
+        when(stockLedger.stockLevel(TARGET)).thenReturn(new StockLevel(TARGET, 10, 0, 0, 25, true));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 20));
+
+        // The source was already adjusted; the exception rolls it back with the transaction
+        assertEquals("Transfer would exceed capacity of warehouse WH-TARGET. Capacity: 25, Stock: 10, Incoming: 20",
+                exception.getMessage());
+        verifyNoInteractions(locationStatsStore);
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenWarehouseIsArchived() {
+        // Given
+        when(warehouseStore.findViewByIdentifier(SOURCE))
+                .thenReturn(storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 50, true));
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(2L, TARGET, "ZWOLLE-001", 100, 0, false));
+        when(warehouseStore.adjustStock(SOURCE, -20)).thenReturn(true);
+        when(warehouseStore.adjustStock(TARGET, 20)).thenReturn(false);
+        when(stockLedger.stockLevel(TARGET)).thenReturn(new StockLevel(TARGET, 0, 0, 0, 100, false));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 20));
+
+        assertEquals("Warehouse is not active: WH-TARGET", exception.getMessage());
+    }
+
+    @Test
+    void transfer_ThrowsException_WhenRowChangedAfterConditionalUpdate() {
+        // Given
+        WarehouseView source = storedWarehouse(1L, SOURCE, "ZWOLLE-001", 100, 50, true);
+        when(warehouseStore.findViewByIdentifier(SOURCE)).thenReturn(source);
+        when(warehouseStore.findViewByIdentifier(TARGET))
+                .thenReturn(storedWarehouse(2L, TARGET, "ZWOLLE-001", 100, 10, true));
+        when(warehouseStore.adjustStock(SOURCE, -20)).thenReturn(false);
+        when(stockLedger.stockLevel(SOURCE)).thenReturn(new StockLevel(SOURCE, 50, 0, 0, 100, true));
+
+        // When & Then
+        ConcurrentWarehouseUpdateException exception = assertThrows(ConcurrentWarehouseUpdateException.class,
+                () -> useCase.transfer(SOURCE, TARGET, 20));
+
+        assertEquals("Warehouse was modified concurrently, please retry: " + SOURCE, exception.getMessage());
+    }
+}
@@ -0,0 +1,56 @@
+-- Insert throughput and unique-index size for 10M warehouse identifiers, before and after storing
+-- them as time-ordered native uuids. PostgreSQL 13+ (gen_random_uuid is built in).
+--
+--   psql -d quarkus_test -f src/test/resources/benchmarks/warehouse-identifier-index.sql
+--
+-- Each variant inserts in 100 transactions of 100k rows, the way a long-running service would,
+-- rather than one bulk statement that PostgreSQL could sort before building the index.
+
+\timing on
+
+DROP TABLE IF EXISTS id_bench_random_text;
+DROP TABLE IF EXISTS id_bench_ordered_uuid;
+
+-- Before: 'WH-' || random v4 uuid as text (39 characters, 40 bytes on disk)
+CREATE TABLE id_bench_random_text (id bigserial PRIMARY KEY, identifier varchar(255) NOT NULL UNIQUE);
+
+-- After: v7-layout uuid (48-bit millisecond timestamp first) as a native 16-byte uuid
+CREATE TABLE id_bench_ordered_uuid (id bigserial PRIMARY KEY, identifier uuid NOT NULL UNIQUE);
+
+-- Same bit layout as WarehouseIdentifiers.nextUuid: timestamp, version 7, 12-bit counter, variant
+CREATE OR REPLACE FUNCTION id_bench_uuid_v7(seq bigint) RETURNS uuid AS $$
+  SELECT encode(
+           set_byte(set_byte(
+             overlay(uuid_send(gen_random_uuid())
+                     PLACING substring(int8send((extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                     FROM 1 FOR 6),
+             6, (x'70'::int | ((seq >> 8) & 15)::int)), 7, (seq & 255)::int),
+           'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+DO $$
+BEGIN
+  FOR batch IN 1..100 LOOP
+    INSERT INTO id_bench_random_text (identifier)
+    SELECT 'WH-' || gen_random_uuid() FROM generate_series(1, 100000);
+    COMMIT;
+  END LOOP;
+END $$;
+
+DO $$
+BEGIN
+  FOR batch IN 1..100 LOOP
+    INSERT INTO id_bench_ordered_uuid (identifier)
+    SELECT id_bench_uuid_v7(n) FROM generate_series(1, 100000) AS n;
+    COMMIT;
+  END LOOP;
+END $$;
+
+-- Compare the identifier indexes (the *_identifier_key constraints) and their leaf density
+CREATE EXTENSION IF NOT EXISTS pgstattuple;
+SELECT c.relname                               AS index,
+       pg_size_pretty(pg_relation_size(c.oid)) AS size,
+       s.avg_leaf_density,
+       s.leaf_fragmentation
+FROM pg_class c, LATERAL pgstatindex(c.oid::regclass) s
+WHERE c.relname IN ('id_bench_random_text_identifier_key', 'id_bench_ordered_uuid_identifier_key');